@@ -80,6 +80,24 @@ public abstract class ForwardingChannelBuilder<T extends ForwardingChannelBuilde
     return thisT();
   }
 
+  @Override
+  public T callbackBatchSize(int batchSize) {
+    delegate().callbackBatchSize(batchSize);
+    return thisT();
+  }
+
+  @Override
+  public T maxConnectionsPerSubchannel(int maxConnections, int maxStreamsPerConnection) {
+    delegate().maxConnectionsPerSubchannel(maxConnections, maxStreamsPerConnection);
+    return thisT();
+  }
+
+  @Override
+  public T keepWarm() {
+    delegate().keepWarm();
+    return thisT();
+  }
+
   @Override
   public T intercept(List<ClientInterceptor> interceptors) {
     delegate().intercept(interceptors);
@@ -67,6 +67,18 @@ public abstract class ForwardingServerBuilder<T extends ServerBuilder<T>> extend
     return thisT();
   }
 
+  @Override
+  public T virtualThreadCallExecutor() {
+    delegate().virtualThreadCallExecutor();
+    return thisT();
+  }
+
+  @Override
+  public T callbackBatchSize(int batchSize) {
+    delegate().callbackBatchSize(batchSize);
+    return thisT();
+  }
+
   @Override
   public T addService(ServerServiceDefinition service) {
     delegate().addService(service);
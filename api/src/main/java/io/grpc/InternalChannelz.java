@@ -295,6 +295,7 @@ public final class InternalChannelz {
     public final long callsFailed;
     public final long lastCallStartedNanos;
     public final List<InternalInstrumented<SocketStats>> listenSockets;
+    public final CallbackStats callbackStats;
 
     /**
      * Creates an instance.
@@ -305,11 +306,26 @@ public final class InternalChannelz {
         long callsFailed,
         long lastCallStartedNanos,
         List<InternalInstrumented<SocketStats>> listenSockets) {
+      this(callsStarted, callsSucceeded, callsFailed, lastCallStartedNanos, listenSockets,
+          CallbackStats.EMPTY);
+    }
+
+    /**
+     * Creates an instance.
+     */
+    public ServerStats(
+        long callsStarted,
+        long callsSucceeded,
+        long callsFailed,
+        long lastCallStartedNanos,
+        List<InternalInstrumented<SocketStats>> listenSockets,
+        CallbackStats callbackStats) {
       this.callsStarted = callsStarted;
       this.callsSucceeded = callsSucceeded;
       this.callsFailed = callsFailed;
       this.lastCallStartedNanos = lastCallStartedNanos;
       this.listenSockets = checkNotNull(listenSockets);
+      this.callbackStats = checkNotNull(callbackStats);
     }
 
     public static final class Builder {
@@ -317,6 +333,7 @@ public final class InternalChannelz {
       private long callsSucceeded;
       private long callsFailed;
       private long lastCallStartedNanos;
+      private CallbackStats callbackStats = CallbackStats.EMPTY;
       public List<InternalInstrumented<SocketStats>> listenSockets = new ArrayList<>();
 
       public Builder setCallsStarted(long callsStarted) {
@@ -339,6 +356,11 @@ public final class InternalChannelz {
         return this;
       }
 
+      public Builder setCallbackStats(CallbackStats callbackStats) {
+        this.callbackStats = checkNotNull(callbackStats);
+        return this;
+      }
+
       /** Sets the listen sockets. */
       public Builder addListenSockets(List<InternalInstrumented<SocketStats>> listenSockets) {
         checkNotNull(listenSockets, "listenSockets");
@@ -357,7 +379,8 @@ public final class InternalChannelz {
             callsSucceeded,
             callsFailed,
             lastCallStartedNanos,
-            listenSockets);
+            listenSockets,
+            callbackStats);
       }
     }
   }
@@ -376,6 +399,7 @@ public final class InternalChannelz {
     public final long lastCallStartedNanos;
     public final List<InternalWithLogId> subchannels;
     public final List<InternalWithLogId> sockets;
+    public final CallbackStats callbackStats;
 
     /**
      * Creates an instance.
@@ -389,7 +413,8 @@ public final class InternalChannelz {
         long callsFailed,
         long lastCallStartedNanos,
         List<InternalWithLogId> subchannels,
-        List<InternalWithLogId> sockets) {
+        List<InternalWithLogId> sockets,
+        CallbackStats callbackStats) {
       checkState(
           subchannels.isEmpty() || sockets.isEmpty(),
           "channels can have subchannels only, subchannels can have either sockets OR subchannels, "
@@ -403,6 +428,7 @@ public final class InternalChannelz {
       this.lastCallStartedNanos = lastCallStartedNanos;
       this.subchannels = checkNotNull(subchannels);
       this.sockets = checkNotNull(sockets);
+      this.callbackStats = checkNotNull(callbackStats);
     }
 
     public static final class Builder {
@@ -415,6 +441,7 @@ public final class InternalChannelz {
       private long lastCallStartedNanos;
       private List<InternalWithLogId> subchannels = Collections.emptyList();
       private List<InternalWithLogId> sockets = Collections.emptyList();
+      private CallbackStats callbackStats = CallbackStats.EMPTY;
 
       public Builder setTarget(String target) {
         this.target = target;
@@ -451,6 +478,11 @@ public final class InternalChannelz {
         return this;
       }
 
+      public Builder setCallbackStats(CallbackStats callbackStats) {
+        this.callbackStats = checkNotNull(callbackStats);
+        return this;
+      }
+
       /** Sets the subchannels. */
       public Builder setSubchannels(List<InternalWithLogId> subchannels) {
         checkState(sockets.isEmpty());
@@ -478,11 +510,46 @@ public final class InternalChannelz {
             callsFailed,
             lastCallStartedNanos,
             subchannels,
-            sockets);
+            sockets,
+            callbackStats);
       }
     }
   }
 
+  /**
+   * Stats of the executors that serialize call callbacks in batches, see {@code
+   * callbackBatchSize()} on the channel and server builders. All zero when batching is off.
+   */
+  @Immutable
+  public static final class CallbackStats {
+    static final CallbackStats EMPTY = new CallbackStats(0, 0, 0);
+
+    /** Callbacks submitted but not yet started, over all calls. */
+    public final long queueDepth;
+    /** Number of times a call's executor ran a batch of callbacks on the underlying executor. */
+    public final long drainCount;
+    /** Total time spent running batches of callbacks, in nanoseconds. */
+    public final long drainNanos;
+
+    /**
+     * Creates an instance.
+     */
+    public CallbackStats(long queueDepth, long drainCount, long drainNanos) {
+      this.queueDepth = queueDepth;
+      this.drainCount = drainCount;
+      this.drainNanos = drainNanos;
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("queueDepth", queueDepth)
+          .add("drainCount", drainCount)
+          .add("drainNanos", drainNanos)
+          .toString();
+    }
+  }
+
   @Immutable
   public static final class ChannelTrace {
     public final long numEventsLogged;
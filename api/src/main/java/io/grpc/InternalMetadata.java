@@ -73,6 +73,37 @@ public final class InternalMetadata {
     return new Metadata(usedNames, binaryValues);
   }
 
+  /**
+   * Creates a new {@link Metadata} instance from serialized data, along with where the headers
+   * with interned names are, as computed by {@link #internedKeySlot}. Metadata will mutate the
+   * passed in arrays.
+   *
+   * @param usedNames The number of names used.
+   * @param binaryValues An array of interleaved names and values.
+   * @param internedSlots An array of {@link #internedKeySlotCount} elements, where each element is
+   *     one plus the index of the last name with that slot, or 0 if there are none.
+   */
+  @Internal
+  public static Metadata newMetadataWithInternedSlots(
+      int usedNames, byte[][] binaryValues, int[] internedSlots) {
+    return new Metadata(usedNames, binaryValues, internedSlots);
+  }
+
+  /**
+   * Returns the slot of a well-known header name that {@link Metadata} looks up without scanning,
+   * or -1 if the name is not interned. The name must already be lowercase.
+   */
+  @Internal
+  public static int internedKeySlot(byte[] name) {
+    return InternedMetadataKeys.slotOf(name);
+  }
+
+  /** Returns the number of slots of interned header names. */
+  @Internal
+  public static int internedKeySlotCount() {
+    return InternedMetadataKeys.SLOT_COUNT;
+  }
+
   @Internal
   public static byte[][] serialize(Metadata md) {
     return md.serialize();
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+
+/**
+ * Access to virtual threads, for use by other gRPC modules while gRPC still supports runtimes
+ * without them.
+ */
+@Internal
+public final class InternalVirtualThreads {
+  private static final Logger log = Logger.getLogger(InternalVirtualThreads.class.getName());
+
+  private InternalVirtualThreads() {}
+
+  /**
+   * Returns a factory of virtual threads named with the given prefix, or {@code null} if virtual
+   * threads are not supported. Equivalent to {@code Thread.ofVirtual().name(prefix, 0).factory()},
+   * which can't be called directly since gRPC still supports Java 8.
+   */
+  @Nullable
+  public static ThreadFactory newVirtualThreadFactory(String prefix) {
+    try {
+      Method ofVirtual = Thread.class.getMethod("ofVirtual");
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      Object builder = ofVirtual.invoke(null);
+      builder = builderClass.getMethod("name", String.class, long.class)
+          .invoke(builder, prefix, 0L);
+      return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+    } catch (NoSuchMethodException e) {
+      // Expected before Java 21.
+      return null;
+    } catch (Exception e) {
+      log.log(Level.FINE, "Unable to create virtual thread factory", e);
+      return null;
+    }
+  }
+}
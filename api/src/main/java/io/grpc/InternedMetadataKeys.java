@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc;
+
+import static com.google.common.base.Charsets.US_ASCII;
+
+import java.util.Arrays;
+
+/**
+ * Registry of well-known header names that are looked up on most calls. Each name is assigned a
+ * small integer slot, which {@link Metadata} uses to find the last header with that name without
+ * scanning all headers.
+ *
+ * <p>Slots are determined by the header name, so every {@link Metadata.Key} with one of these names
+ * shares the same slot, regardless of its marshaller.
+ */
+final class InternedMetadataKeys {
+  /** Slot of names that are not interned. */
+  static final int NO_SLOT = -1;
+
+  private static final String[] NAMES = {
+      "grpc-timeout",
+      "grpc-encoding",
+      "grpc-accept-encoding",
+      "content-encoding",
+      "accept-encoding",
+      "content-type",
+      "user-agent",
+      "te",
+      "authorization",
+      "grpc-trace-bin",
+      "grpc-tags-bin",
+      "traceparent",
+      "grpc-status",
+      "grpc-message",
+      "grpc-status-details-bin",
+      "grpc-previous-rpc-attempts",
+      "grpc-retry-pushback-ms",
+      "grpc-server-stats-bin",
+      "x-cloud-trace-context",
+  };
+
+  static final int SLOT_COUNT = NAMES.length;
+
+  /** Interned names as bytes, bucketed by length, so that a lookup compares few candidates. */
+  private static final byte[][][] NAMES_BY_LENGTH;
+  /** Slots of the names in {@link #NAMES_BY_LENGTH}. */
+  private static final int[][] SLOTS_BY_LENGTH;
+
+  static {
+    int maxLength = 0;
+    for (String name : NAMES) {
+      maxLength = Math.max(maxLength, name.length());
+    }
+    NAMES_BY_LENGTH = new byte[maxLength + 1][][];
+    SLOTS_BY_LENGTH = new int[maxLength + 1][];
+    for (int slot = 0; slot < NAMES.length; slot++) {
+      int length = NAMES[slot].length();
+      byte[][] names = NAMES_BY_LENGTH[length];
+      int[] slots = SLOTS_BY_LENGTH[length];
+      int count = names == null ? 0 : names.length;
+      names = names == null ? new byte[1][] : Arrays.copyOf(names, count + 1);
+      slots = slots == null ? new int[1] : Arrays.copyOf(slots, count + 1);
+      names[count] = NAMES[slot].getBytes(US_ASCII);
+      slots[count] = slot;
+      NAMES_BY_LENGTH[length] = names;
+      SLOTS_BY_LENGTH[length] = slots;
+    }
+  }
+
+  /**
+   * Returns the slot of the given normalized header name, or {@link #NO_SLOT} if it is not
+   * interned.
+   */
+  static int slotOf(byte[] name) {
+    if (name.length >= NAMES_BY_LENGTH.length) {
+      return NO_SLOT;
+    }
+    byte[][] candidates = NAMES_BY_LENGTH[name.length];
+    if (candidates == null) {
+      return NO_SLOT;
+    }
+    for (int i = 0; i < candidates.length; i++) {
+      if (Arrays.equals(candidates[i], name)) {
+        return SLOTS_BY_LENGTH[name.length][i];
+      }
+    }
+    return NO_SLOT;
+  }
+
+  private InternedMetadataKeys() {}
+}
@@ -16,6 +16,7 @@
 
 package io.grpc;
 
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.concurrent.ThreadSafe;
 
@@ -143,4 +144,27 @@ public abstract class ManagedChannel extends Channel {
    */
   @ExperimentalApi("https://github.com/grpc/grpc-java/issues/4056")
   public void enterIdle() {}
+
+  /**
+   * Makes the channel connect eagerly and keeps it connected, so that the first RPC does not pay
+   * for name resolution and connection establishment. The channel exits idle mode, asks its load
+   * balancer and all of its subchannels to connect, and from then on no longer enters idle mode
+   * due to the idle timeout. Subchannels whose connections are closed reconnect without waiting for
+   * the next RPC, subject to the usual reconnect backoff.
+   *
+   * <p>The one-off {@code callback} is run on {@code executor} once the channel becomes {@link
+   * ConnectivityState#READY}, or is shut down before that. Callers can tell the two apart with
+   * {@link #getState}. The channel keeps trying to connect until then; callers that want to bound
+   * the wait should apply their own timeout. An explicit call to {@link #enterIdle} still moves the
+   * channel into the IDLE state.
+   *
+   * @param callback the one-off callback run when the channel is ready or shut down
+   * @param executor the executor to run {@code callback} on
+   * @throws UnsupportedOperationException if not supported by implementation
+   * @since 1.41.0
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues")
+  public void warmUp(Runnable callback, Executor executor) {
+    throw new UnsupportedOperationException("Not implemented");
+  }
 }
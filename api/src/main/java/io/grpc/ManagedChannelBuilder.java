@@ -124,6 +124,66 @@ public abstract class ManagedChannelBuilder<T extends ManagedChannelBuilder<T>>
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Sets the maximum number of callbacks of a single call that are run before the call's tasks
+   * yield the thread back to the executor. When set, each call's callbacks are serialized through a
+   * queue that runs at most {@code batchSize} callbacks and then resubmits itself, so that a call
+   * receiving many messages cannot starve other calls sharing the executor. By default, a call's
+   * callbacks run until its queue is empty.
+   *
+   * <p>This has no effect on calls using a direct executor.
+   *
+   * @param batchSize the maximum number of callbacks to run per executor task, must be positive
+   * @return this
+   * @throws IllegalArgumentException if {@code batchSize} is not positive
+   * @throws UnsupportedOperationException if unsupported
+   * @since 1.41.0
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues")
+  public T callbackBatchSize(int batchSize) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Allows each subchannel to open up to {@code maxConnections} connections to its address,
+   * instead of one. Another connection is opened when every connection of the subchannel has at
+   * least {@code maxStreamsPerConnection} active streams, and new streams go to the connection
+   * with the fewest streams. Additional connections are closed once they have no streams and the
+   * remaining connections are at most half full.
+   *
+   * <p>This is useful when a single connection limits throughput, for example because the server
+   * advertises a low {@code MAX_CONCURRENT_STREAMS} or because one connection is served by a single
+   * thread. {@code maxStreamsPerConnection} would typically be set to the server's
+   * {@code MAX_CONCURRENT_STREAMS}. By default a subchannel uses a single connection.
+   *
+   * @param maxConnections the maximum number of connections per subchannel, must be positive
+   * @param maxStreamsPerConnection the number of active streams at which a connection is considered
+   *     fully used, must be positive
+   * @return this
+   * @throws IllegalArgumentException if either argument is not positive
+   * @throws UnsupportedOperationException if unsupported
+   * @since 1.41.0
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues")
+  public T maxConnectionsPerSubchannel(int maxConnections, int maxStreamsPerConnection) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Makes the built channel start connecting right away and keep its connections warm, as if
+   * {@link ManagedChannel#warmUp} were called on it. This trades idle resource usage for not paying
+   * connection establishment on the first RPC, or after the channel would otherwise have become
+   * idle.
+   *
+   * @return this
+   * @throws UnsupportedOperationException if unsupported
+   * @since 1.41.0
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues")
+  public T keepWarm() {
+    throw new UnsupportedOperationException();
+  }
+
   /**
    * Adds interceptors that will be called before the channel performs its real work. This is
    * functionally equivalent to using {@link ClientInterceptors#intercept(Channel, List)}, but while
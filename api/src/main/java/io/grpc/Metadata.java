@@ -138,15 +138,39 @@ public final class Metadata {
    *     described by {@link InternalMetadata#newMetadataWithParsedValues}.
    */
   Metadata(int usedNames, Object[] namesAndValues) {
+    this(usedNames, namesAndValues, null);
+  }
+
+  /**
+   * Constructor called by the transport layer when it already knows where the headers with
+   * interned names are. Metadata will mutate the passed in arrays.
+   *
+   * @param usedNames the number of names
+   * @param namesAndValues an array of interleaved names and values, as described by {@link
+   *     #Metadata(int, Object[])}
+   * @param internedSlots for each slot of {@link InternedMetadataKeys}, one plus the index of the
+   *     last header with that name, or 0 if there are none. If null, it is computed here.
+   */
+  Metadata(int usedNames, Object[] namesAndValues, @Nullable int[] internedSlots) {
     assert (namesAndValues.length & 1) == 0
         : "Odd number of key-value pairs " + namesAndValues.length;
+    assert internedSlots == null || internedSlots.length == InternedMetadataKeys.SLOT_COUNT
+        : "Wrong number of interned slots " + internedSlots.length;
     size = usedNames;
     this.namesAndValues = namesAndValues;
+    this.internedSlots = internedSlots != null ? internedSlots : computeInternedSlots();
   }
 
   private Object[] namesAndValues;
   // The unscaled number of headers present.
   private int size;
+  /**
+   * For each slot of {@link InternedMetadataKeys}, one plus the index of the last header with that
+   * name, or 0 if there are none. Null if there are no headers with interned names. Only updated
+   * by mutations, so that concurrent reads stay safe.
+   */
+  @Nullable
+  private int[] internedSlots;
 
   private byte[] name(int i) {
     return (byte[]) namesAndValues[i * 2];
@@ -228,6 +252,9 @@ public final class Metadata {
    * prefer calling them directly and checking the return value against {@code null}.
    */
   public boolean containsKey(Key<?> key) {
+    if (key.internedSlot != InternedMetadataKeys.NO_SLOT) {
+      return internedSlots != null && internedSlots[key.internedSlot] != 0;
+    }
     for (int i = 0; i < size; i++) {
       if (bytesEqual(key.asciiName(), name(i))) {
         return true;
@@ -243,6 +270,10 @@ public final class Metadata {
    */
   @Nullable
   public <T> T get(Key<T> key) {
+    if (key.internedSlot != InternedMetadataKeys.NO_SLOT) {
+      int i = internedSlots != null ? internedSlots[key.internedSlot] - 1 : -1;
+      return i < 0 ? null : valueAsT(i, key);
+    }
     for (int i = size - 1; i >= 0; i--) {
       if (bytesEqual(key.asciiName(), name(i))) {
         return valueAsT(i, key);
@@ -251,6 +282,36 @@ public final class Metadata {
     return null;
   }
 
+  @Nullable
+  private int[] computeInternedSlots() {
+    int[] slots = null;
+    for (int i = 0; i < size; i++) {
+      int slot = InternedMetadataKeys.slotOf(name(i));
+      if (slot != InternedMetadataKeys.NO_SLOT) {
+        if (slots == null) {
+          slots = new int[InternedMetadataKeys.SLOT_COUNT];
+        }
+        slots[slot] = i + 1;
+      }
+    }
+    return slots;
+  }
+
+  private void setInternedSlot(int slot, int index) {
+    if (internedSlots == null) {
+      internedSlots = new int[InternedMetadataKeys.SLOT_COUNT];
+    }
+    internedSlots[slot] = index + 1;
+  }
+
+  /** Updates {@link #internedSlots} when the header at {@code from} is moved to {@code to}. */
+  private void moveInternedSlot(int from, int to) {
+    int slot = InternedMetadataKeys.slotOf(name(from));
+    if (slot != InternedMetadataKeys.NO_SLOT && internedSlots[slot] == from + 1) {
+      internedSlots[slot] = to + 1;
+    }
+  }
+
   private final class IterableAt<T> implements Iterable<T> {
     private final Key<T> key;
     private int startIdx;
@@ -341,6 +402,9 @@ public final class Metadata {
     Preconditions.checkNotNull(value, "value");
     maybeExpand();
     name(size, key.asciiName());
+    if (key.internedSlot != InternedMetadataKeys.NO_SLOT) {
+      setInternedSlot(key.internedSlot, size);
+    }
     if (key.serializesToStreams()) {
       value(size, LazyValue.create(key, value));
     } else {
@@ -390,6 +454,7 @@ public final class Metadata {
       size -= 1;
       name(size, null);
       value(size, (byte[]) null);
+      internedSlots = computeInternedSlots();
       return true;
     }
     return false;
@@ -409,6 +474,9 @@ public final class Metadata {
         ret.add(valueAsT(readIdx, key));
         continue;
       }
+      if (internedSlots != null && writeIdx != readIdx) {
+        moveInternedSlot(readIdx, writeIdx);
+      }
       name(writeIdx, name(readIdx));
       value(writeIdx, value(readIdx));
       writeIdx++;
@@ -416,6 +484,9 @@ public final class Metadata {
     int newSize = writeIdx;
     // Multiply by two since namesAndValues is interleaved.
     Arrays.fill(namesAndValues, writeIdx * 2, len(), null);
+    if (internedSlots != null && key.internedSlot != InternedMetadataKeys.NO_SLOT) {
+      internedSlots[key.internedSlot] = 0;
+    }
     size = newSize;
     return ret;
   }
@@ -435,6 +506,9 @@ public final class Metadata {
       if (bytesEqual(key.asciiName(), name(readIdx))) {
         continue;
       }
+      if (internedSlots != null && writeIdx != readIdx) {
+        moveInternedSlot(readIdx, writeIdx);
+      }
       name(writeIdx, name(readIdx));
       value(writeIdx, value(readIdx));
       writeIdx++;
@@ -442,6 +516,9 @@ public final class Metadata {
     int newSize = writeIdx;
     // Multiply by two since namesAndValues is interleaved.
     Arrays.fill(namesAndValues, writeIdx * 2, len(), null);
+    if (internedSlots != null && key.internedSlot != InternedMetadataKeys.NO_SLOT) {
+      internedSlots[key.internedSlot] = 0;
+    }
     size = newSize;
   }
 
@@ -510,6 +587,13 @@ public final class Metadata {
       expand(len() + other.len());
     }
     System.arraycopy(other.namesAndValues, 0, namesAndValues, len(), other.len());
+    if (other.internedSlots != null) {
+      for (int slot = 0; slot < other.internedSlots.length; slot++) {
+        if (other.internedSlots[slot] != 0) {
+          setInternedSlot(slot, other.internedSlots[slot] - 1 + size);
+        }
+      }
+    }
     size += other.size;
   }
 
@@ -533,6 +617,10 @@ public final class Metadata {
         maybeExpand();
         name(size, other.name(i));
         value(size, other.value(i));
+        int slot = InternedMetadataKeys.slotOf(other.name(i));
+        if (slot != InternedMetadataKeys.NO_SLOT) {
+          setInternedSlot(slot, size);
+        }
         size++;
       }
     }
@@ -714,6 +802,8 @@ public final class Metadata {
     private final String name;
     private final byte[] nameBytes;
     private final Object marshaller;
+    /** The slot of this key's name in {@link InternedMetadataKeys}. */
+    final int internedSlot;
 
     private static BitSet generateValidTChars() {
       BitSet valid = new BitSet(0x7f);
@@ -750,6 +840,7 @@ public final class Metadata {
       this.name = validateName(this.originalName.toLowerCase(Locale.ROOT), pseudo);
       this.nameBytes = this.name.getBytes(US_ASCII);
       this.marshaller = marshaller;
+      this.internedSlot = InternedMetadataKeys.slotOf(nameBytes);
     }
 
     /**
@@ -95,6 +95,42 @@ public abstract class ServerBuilder<T extends ServerBuilder<T>> {
     return thisT();
   }
 
+  /**
+   * Runs the callbacks of each call on virtual threads instead of the {@link #executor(Executor)}.
+   * The callbacks of a call are still run in order and never concurrently. This is equivalent to
+   * calling {@link #callExecutor} with a supplier returning an executor that starts a new virtual
+   * thread per task.
+   *
+   * <p>Virtual threads are only available starting with Java 21.
+   *
+   * @return this
+   * @throws UnsupportedOperationException if the runtime does not support virtual threads
+   * @since 1.41.0
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues/8274")
+  public T virtualThreadCallExecutor() {
+    return thisT();
+  }
+
+  /**
+   * Sets the maximum number of callbacks of a single call that are run before the call's tasks
+   * yield the thread back to the executor. When set, each call's callbacks are serialized through a
+   * queue that runs at most {@code batchSize} callbacks and then resubmits itself, so that a call
+   * receiving many messages cannot starve other calls sharing the executor. By default, a call's
+   * callbacks run until its queue is empty.
+   *
+   * <p>This is an advisory option. Do not rely on any specific behavior related to it.
+   *
+   * @param batchSize the maximum number of callbacks to run per executor task, must be positive
+   * @return this
+   * @throws IllegalArgumentException if {@code batchSize} is not positive
+   * @since 1.41.0
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues")
+  public T callbackBatchSize(int batchSize) {
+    return thisT();
+  }
+
   /**
    * Adds a service implementation to the handler registry.
    *
@@ -28,6 +28,7 @@ import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.io.ByteStreams;
 import io.grpc.internal.GrpcUtil;
@@ -479,6 +480,111 @@ public class MetadataTest {
     assertSame(anotherSalmon, h2.get(KEY_IMMUTABLE));
   }
 
+  @Test
+  public void internedKeys_getLastValue() {
+    Metadata.Key<String> authorization =
+        Metadata.Key.of("Authorization", Metadata.ASCII_STRING_MARSHALLER);
+    Metadata.Key<String> other = Metadata.Key.of("other", Metadata.ASCII_STRING_MARSHALLER);
+    assertNotEquals(InternedMetadataKeys.NO_SLOT, authorization.internedSlot);
+    assertEquals(InternedMetadataKeys.NO_SLOT, other.internedSlot);
+
+    Metadata metadata = new Metadata();
+    assertFalse(metadata.containsKey(authorization));
+    assertNull(metadata.get(authorization));
+    metadata.put(authorization, "first");
+    metadata.put(other, "value");
+    metadata.put(authorization, "second");
+    assertTrue(metadata.containsKey(authorization));
+    assertEquals("second", metadata.get(authorization));
+    assertEquals(Arrays.asList("first", "second"),
+        Lists.newArrayList(metadata.getAll(authorization)));
+    assertEquals("value", metadata.get(other));
+  }
+
+  @Test
+  public void internedKeys_survivesRemoval() {
+    Metadata.Key<String> timeout =
+        Metadata.Key.of("grpc-timeout", Metadata.ASCII_STRING_MARSHALLER);
+    Metadata.Key<String> encoding =
+        Metadata.Key.of("grpc-encoding", Metadata.ASCII_STRING_MARSHALLER);
+    Metadata.Key<String> other = Metadata.Key.of("other", Metadata.ASCII_STRING_MARSHALLER);
+    Metadata metadata = new Metadata();
+    metadata.put(other, "a");
+    metadata.put(encoding, "gzip");
+    metadata.put(other, "b");
+    metadata.put(timeout, "1S");
+    assertEquals("1S", metadata.get(timeout));
+
+    metadata.discardAll(other);
+    assertEquals("gzip", metadata.get(encoding));
+    assertEquals("1S", metadata.get(timeout));
+
+    assertEquals(Arrays.asList("gzip"), Lists.newArrayList(metadata.removeAll(encoding)));
+    assertNull(metadata.get(encoding));
+    assertFalse(metadata.containsKey(encoding));
+    assertEquals("1S", metadata.get(timeout));
+
+    assertTrue(metadata.remove(timeout, "1S"));
+    assertNull(metadata.get(timeout));
+  }
+
+  @Test
+  public void internedKeys_merge() {
+    Metadata.Key<String> encoding =
+        Metadata.Key.of("grpc-encoding", Metadata.ASCII_STRING_MARSHALLER);
+    Metadata.Key<String> other = Metadata.Key.of("other", Metadata.ASCII_STRING_MARSHALLER);
+    Metadata h1 = new Metadata();
+    h1.put(encoding, "identity");
+    h1.put(other, "a");
+    assertEquals("identity", h1.get(encoding));
+    Metadata h2 = new Metadata();
+    h2.put(other, "b");
+    h2.put(encoding, "gzip");
+    assertEquals("gzip", h2.get(encoding));
+
+    h1.merge(h2);
+    assertEquals("gzip", h1.get(encoding));
+    h1.discardAll(other);
+    assertEquals("gzip", h1.get(encoding));
+  }
+
+  @Test
+  public void internedKeys_mergeKeys() {
+    Metadata.Key<String> encoding =
+        Metadata.Key.of("grpc-encoding", Metadata.ASCII_STRING_MARSHALLER);
+    Metadata.Key<String> timeout =
+        Metadata.Key.of("grpc-timeout", Metadata.ASCII_STRING_MARSHALLER);
+    Metadata h1 = new Metadata();
+    h1.put(encoding, "identity");
+    Metadata h2 = new Metadata();
+    h2.put(timeout, "1S");
+    h2.put(encoding, "gzip");
+
+    h1.merge(h2, ImmutableSet.<Metadata.Key<?>>of(timeout));
+    assertEquals("identity", h1.get(encoding));
+    assertEquals("1S", h1.get(timeout));
+    h1.merge(h2, ImmutableSet.<Metadata.Key<?>>of(encoding));
+    assertEquals("gzip", h1.get(encoding));
+  }
+
+  @Test
+  public void internedKeys_transportSlots() {
+    Metadata.Key<String> encoding =
+        Metadata.Key.of("grpc-encoding", Metadata.ASCII_STRING_MARSHALLER);
+    byte[][] namesAndValues = new byte[][] {
+        "other".getBytes(US_ASCII), "a".getBytes(US_ASCII),
+        encoding.asciiName(), "gzip".getBytes(US_ASCII),
+    };
+    int[] slots = new int[InternedMetadataKeys.SLOT_COUNT];
+    slots[encoding.internedSlot] = 2;
+    Metadata raw = new Metadata(2, namesAndValues, slots);
+    assertEquals("gzip", raw.get(encoding));
+
+    // Computed on creation when the transport does not provide them.
+    Metadata computed = new Metadata(2, namesAndValues.clone());
+    assertEquals("gzip", computed.get(encoding));
+  }
+
   private static final class Fish {
     private String name;
 
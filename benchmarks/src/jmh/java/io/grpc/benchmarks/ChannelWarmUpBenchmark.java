@@ -0,0 +1,122 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.benchmarks;
+
+import static io.grpc.benchmarks.Utils.pickUnusedPort;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import io.grpc.ConnectivityState;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Server;
+import io.grpc.benchmarks.proto.BenchmarkServiceGrpc;
+import io.grpc.benchmarks.proto.Messages.SimpleRequest;
+import io.grpc.benchmarks.proto.Messages.SimpleResponse;
+import io.grpc.benchmarks.qps.AsyncServer;
+import io.grpc.netty.NegotiationType;
+import io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.NettyServerBuilder;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the latency of the first call on a new channel, with and without warming up the
+ * channel before the call.
+ */
+@State(Scope.Benchmark)
+public class ChannelWarmUpBenchmark {
+
+  @Param({"false", "true"})
+  public boolean warm;
+
+  private Server server;
+  private InetSocketAddress address;
+  private ManagedChannel channel;
+  private BenchmarkServiceGrpc.BenchmarkServiceBlockingStub stub;
+
+  @Setup
+  public void setUp() throws Exception {
+    address = new InetSocketAddress("localhost", pickUnusedPort());
+    server = NettyServerBuilder.forAddress(address, InsecureServerCredentials.create())
+        .addService(new AsyncServer.BenchmarkServiceImpl())
+        .build()
+        .start();
+  }
+
+  /**
+   * Creates the channel used by the next call. A warm channel is connected before the call.
+   */
+  @Setup(Level.Invocation)
+  public void setUpChannel() throws Exception {
+    ManagedChannelBuilder<?> builder = NettyChannelBuilder.forAddress(address)
+        .negotiationType(NegotiationType.PLAINTEXT);
+    if (warm) {
+      builder.keepWarm();
+    }
+    channel = builder.build();
+    if (warm) {
+      final CountDownLatch ready = new CountDownLatch(1);
+      channel.warmUp(
+          new Runnable() {
+            @Override
+            public void run() {
+              ready.countDown();
+            }
+          },
+          MoreExecutors.directExecutor());
+      if (!ready.await(10, TimeUnit.SECONDS)
+          || channel.getState(false) != ConnectivityState.READY) {
+        throw new IllegalStateException("Channel did not become ready");
+      }
+    }
+    stub = BenchmarkServiceGrpc.newBlockingStub(channel);
+  }
+
+  @TearDown(Level.Invocation)
+  public void tearDownChannel() throws Exception {
+    channel.shutdownNow();
+    channel.awaitTermination(10, TimeUnit.SECONDS);
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    server.shutdownNow();
+    server.awaitTermination(10, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Latency of the first unary call on a channel.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public SimpleResponse firstUnaryCall() {
+    return stub.unaryCall(SimpleRequest.getDefaultInstance());
+  }
+}
@@ -47,6 +47,9 @@ import io.netty.channel.ServerChannel;
 import io.netty.channel.local.LocalAddress;
 import io.netty.channel.local.LocalChannel;
 import io.netty.channel.local.LocalServerChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
 import java.net.InetSocketAddress;
 import java.util.Iterator;
 import java.util.concurrent.Future;
@@ -67,7 +70,7 @@ import org.openjdk.jmh.annotations.Threads;
 @State(Scope.Benchmark)
 public class TransportBenchmark {
   public enum Transport {
-    INPROCESS, NETTY, NETTY_LOCAL, NETTY_EPOLL, OKHTTP
+    INPROCESS, NETTY, NETTY_LOCAL, NETTY_NIO, NETTY_EPOLL, NETTY_IO_URING, OKHTTP
   }
 
   @Param({"INPROCESS", "NETTY", "OKHTTP"})
@@ -118,23 +121,49 @@ public class TransportBenchmark {
         groupToShutdown = group;
         break;
       }
+      case NETTY_NIO:
+      {
+        InetSocketAddress address = new InetSocketAddress("localhost", pickUnusedPort());
+        EventLoopGroup group = new NioEventLoopGroup();
+        serverBuilder = NettyServerBuilder.forAddress(address, serverCreds)
+            .bossEventLoopGroup(group)
+            .workerEventLoopGroup(group)
+            .channelType(NioServerSocketChannel.class);
+        channelBuilder = NettyChannelBuilder.forAddress(address)
+            .eventLoopGroup(group)
+            .channelType(NioSocketChannel.class)
+            .negotiationType(NegotiationType.PLAINTEXT);
+        groupToShutdown = group;
+        break;
+      }
       case NETTY_EPOLL:
+      case NETTY_IO_URING:
       {
         InetSocketAddress address = new InetSocketAddress("localhost", pickUnusedPort());
 
-        // Reflection used since they are only available on linux.
-        Class<?> groupClass = Class.forName("io.netty.channel.epoll.EpollEventLoopGroup");
+        // Reflection used since they are only available on linux. The io_uring transport is not a
+        // dependency of the benchmarks, as it requires a newer Netty than grpc-netty is built
+        // with, so netty-incubator-transport-native-io_uring must be put on the classpath.
+        String prefix = transport == Transport.NETTY_EPOLL
+            ? "io.netty.channel.epoll.Epoll" : "io.netty.incubator.channel.uring.IOUring";
+        Class<?> groupClass;
+        try {
+          groupClass = Class.forName(prefix + "EventLoopGroup");
+        } catch (ClassNotFoundException e) {
+          throw new IllegalStateException(
+              transport + " requires its Netty transport on the classpath", e);
+        }
         EventLoopGroup group = (EventLoopGroup) groupClass.getConstructor().newInstance();
 
         Class<? extends ServerChannel> serverChannelClass =
-            Class.forName("io.netty.channel.epoll.EpollServerSocketChannel")
+            Class.forName(prefix + "ServerSocketChannel")
               .asSubclass(ServerChannel.class);
         serverBuilder = NettyServerBuilder.forAddress(address, serverCreds)
             .bossEventLoopGroup(group)
             .workerEventLoopGroup(group)
             .channelType(serverChannelClass);
         Class<? extends Channel> channelClass =
-            Class.forName("io.netty.channel.epoll.EpollSocketChannel")
+            Class.forName(prefix + "SocketChannel")
               .asSubclass(Channel.class);
         channelBuilder = NettyChannelBuilder.forAddress(address)
             .eventLoopGroup(group)
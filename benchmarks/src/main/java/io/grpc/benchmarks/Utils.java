@@ -197,6 +197,19 @@ public final class Utils {
   public static ManagedChannel newClientChannel(Transport transport, SocketAddress address,
         boolean tls, boolean testca, @Nullable String authorityOverride,
         int flowControlWindow, boolean directExecutor) {
+    return newClientChannel(transport, address, tls, testca, authorityOverride, flowControlWindow,
+        directExecutor, 1, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Create a {@link ManagedChannel} for the given parameters, which may open up to {@code
+   * maxConnections} connections to the server once each has {@code maxStreamsPerConnection}
+   * streams in flight.
+   */
+  public static ManagedChannel newClientChannel(Transport transport, SocketAddress address,
+        boolean tls, boolean testca, @Nullable String authorityOverride,
+        int flowControlWindow, boolean directExecutor, int maxConnections,
+        int maxStreamsPerConnection) {
     ManagedChannelBuilder<?> builder;
     if (transport == Transport.OK_HTTP) {
       builder = newOkHttpClientChannel(address, tls, testca);
@@ -219,6 +232,9 @@ public final class Utils {
       // See: https://github.com/grpc/grpc-java/issues/2119
       builder.executor(getExecutor());
     }
+    if (maxConnections > 1) {
+      builder.maxConnectionsPerSubchannel(maxConnections, maxStreamsPerConnection);
+    }
 
     return builder.build();
   }
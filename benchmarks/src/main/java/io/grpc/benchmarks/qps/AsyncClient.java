@@ -25,6 +25,8 @@ import static io.grpc.benchmarks.qps.ClientConfiguration.ClientParam.CLIENT_PAYL
 import static io.grpc.benchmarks.qps.ClientConfiguration.ClientParam.DIRECTEXECUTOR;
 import static io.grpc.benchmarks.qps.ClientConfiguration.ClientParam.DURATION;
 import static io.grpc.benchmarks.qps.ClientConfiguration.ClientParam.FLOW_CONTROL_WINDOW;
+import static io.grpc.benchmarks.qps.ClientConfiguration.ClientParam.MAX_CONNECTIONS_PER_CHANNEL;
+import static io.grpc.benchmarks.qps.ClientConfiguration.ClientParam.MAX_STREAMS_PER_CONNECTION;
 import static io.grpc.benchmarks.qps.ClientConfiguration.ClientParam.OUTSTANDING_RPCS;
 import static io.grpc.benchmarks.qps.ClientConfiguration.ClientParam.SAVE_HISTOGRAM;
 import static io.grpc.benchmarks.qps.ClientConfiguration.ClientParam.SERVER_PAYLOAD;
@@ -296,7 +298,8 @@ public class AsyncClient {
     ClientConfiguration.Builder configBuilder = ClientConfiguration.newBuilder(
         ADDRESS, CHANNELS, OUTSTANDING_RPCS, CLIENT_PAYLOAD, SERVER_PAYLOAD,
         TLS, TESTCA, TRANSPORT, DURATION, WARMUP_DURATION, DIRECTEXECUTOR,
-        SAVE_HISTOGRAM, STREAMING_RPCS, FLOW_CONTROL_WINDOW);
+        SAVE_HISTOGRAM, STREAMING_RPCS, FLOW_CONTROL_WINDOW, MAX_CONNECTIONS_PER_CHANNEL,
+        MAX_STREAMS_PER_CONNECTION);
     ClientConfiguration config;
     try {
       config = configBuilder.build(args);
@@ -159,7 +159,8 @@ public class AsyncServer {
         .workerEventLoopGroup(worker)
         .channelType(channelType)
         .addService(new BenchmarkServiceImpl())
-        .flowControlWindow(config.flowControlWindow);
+        .flowControlWindow(config.flowControlWindow)
+        .maxConcurrentCallsPerConnection(config.maxConcurrentStreams);
     if (config.tls) {
       System.out.println("Using fake CA for TLS certificate.\n"
           + "Run the Java client with --tls --testca");
@@ -187,6 +188,9 @@ public class AsyncServer {
             }
           }, UncaughtExceptionHandlers.systemExit(), true /* async */));
     }
+    if (config.virtualThreads) {
+      builder.virtualThreadCallExecutor();
+    }
 
     return builder.build();
   }
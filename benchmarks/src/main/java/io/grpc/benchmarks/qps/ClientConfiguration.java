@@ -53,6 +53,8 @@ public class ClientConfiguration implements Configuration {
   int serverPayload;
   int clientPayload;
   int flowControlWindow = Utils.DEFAULT_FLOW_CONTROL_WINDOW;
+  int maxConnectionsPerChannel = 1;
+  int maxStreamsPerConnection = Integer.MAX_VALUE;
   // seconds
   int duration = 60;
   // seconds
@@ -67,7 +69,7 @@ public class ClientConfiguration implements Configuration {
 
   public ManagedChannel newChannel() throws IOException {
     return Utils.newClientChannel(transport, address, tls, testca, authorityOverride,
-        flowControlWindow, directExecutor);
+        flowControlWindow, directExecutor, maxConnectionsPerChannel, maxStreamsPerConnection);
   }
 
   public Messages.SimpleRequest newRequest() {
@@ -119,6 +121,13 @@ public class ClientConfiguration implements Configuration {
       // Verify that the address type is correct for the transport type.
       config.transport.validateSocketAddress(config.address);
 
+      if (config.maxConnectionsPerChannel > 1
+          && config.maxStreamsPerConnection == Integer.MAX_VALUE) {
+        throw new IllegalArgumentException(
+            "max_connections_per_channel requires max_streams_per_connection, typically set to "
+            + "the server's max_concurrent_streams.");
+      }
+
       return config;
     }
 
@@ -221,6 +230,21 @@ public class ClientConfiguration implements Configuration {
         config.flowControlWindow = parseInt(value);
       }
     },
+    MAX_CONNECTIONS_PER_CHANNEL("INT", "The maximum number of connections each channel may open "
+        + "to the server.", "" + DEFAULT.maxConnectionsPerChannel) {
+      @Override
+      protected void setClientValue(ClientConfiguration config, String value) {
+        config.maxConnectionsPerChannel = parseInt(value);
+      }
+    },
+    MAX_STREAMS_PER_CONNECTION("INT", "The number of in-flight streams on every connection "
+        + "before the channel opens another one. Match it to the server's "
+        + "max_concurrent_streams.", "" + DEFAULT.maxStreamsPerConnection) {
+      @Override
+      protected void setClientValue(ClientConfiguration config, String value) {
+        config.maxStreamsPerConnection = parseInt(value);
+      }
+    },
     TARGET_QPS("INT", "Average number of QPS to shoot for.", "" + DEFAULT.targetQps, true) {
       @Override
       protected void setClientValue(ClientConfiguration config, String value) {
@@ -39,8 +39,10 @@ class ServerConfiguration implements Configuration {
   Transport transport = Transport.NETTY_NIO;
   boolean tls;
   boolean directExecutor;
+  boolean virtualThreads;
   SocketAddress address;
   int flowControlWindow = NettyChannelBuilder.DEFAULT_FLOW_CONTROL_WINDOW;
+  int maxConcurrentStreams = Integer.MAX_VALUE;
 
   private ServerConfiguration() {
   }
@@ -171,12 +173,26 @@ class ServerConfiguration implements Configuration {
         config.directExecutor = parseBoolean(value);
       }
     },
+    VIRTUAL_THREADS("", "Run the callbacks of each call on virtual threads. Requires Java 21.",
+        "" + DEFAULT.virtualThreads) {
+      @Override
+      protected void setServerValue(ServerConfiguration config, String value) {
+        config.virtualThreads = parseBoolean(value);
+      }
+    },
     FLOW_CONTROL_WINDOW("BYTES", "The HTTP/2 flow control window.",
         "" + DEFAULT.flowControlWindow) {
       @Override
       protected void setServerValue(ServerConfiguration config, String value) {
         config.flowControlWindow = parseInt(value);
       }
+    },
+    MAX_CONCURRENT_STREAMS("INT", "The HTTP/2 MAX_CONCURRENT_STREAMS advertised to clients.",
+        "" + DEFAULT.maxConcurrentStreams) {
+      @Override
+      protected void setServerValue(ServerConfiguration config, String value) {
+        config.maxConcurrentStreams = parseInt(value);
+      }
     };
 
     private final String type;
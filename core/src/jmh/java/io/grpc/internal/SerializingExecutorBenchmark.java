@@ -25,12 +25,14 @@ import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.TearDown;
 
 /**
- * SerializingExecutor benchmark.
+ * SerializingExecutor and BatchingSerializingExecutor benchmark.
  *
  * <p>Since this is a microbenchmark, don't actually believe the numbers in a strict sense. Instead,
  * it is a gauge that the code is behaving roughly as expected, to increase confidence that our
@@ -41,7 +43,11 @@ import org.openjdk.jmh.annotations.TearDown;
 public class SerializingExecutorBenchmark {
 
   private ExecutorService executorService = Executors.newSingleThreadExecutor();
-  private Executor executor = new SerializingExecutor(executorService);
+  private Executor executor;
+
+  /** Batch size of the BatchingSerializingExecutor, or 0 to use a SerializingExecutor. */
+  @Param({"0", "16", "128"})
+  public int batchSize;
 
   private static class IncrRunnable implements Runnable {
     int val;
@@ -62,6 +68,15 @@ public class SerializingExecutorBenchmark {
     }
   };
 
+  @Setup
+  public void setUp() {
+    if (batchSize > 0) {
+      executor = new BatchingSerializingExecutor(executorService, batchSize);
+    } else {
+      executor = new SerializingExecutor(executorService);
+    }
+  }
+
   @TearDown
   public void tearDown() throws Exception {
     executorService.shutdownNow();
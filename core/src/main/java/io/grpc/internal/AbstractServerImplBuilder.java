@@ -74,6 +74,18 @@ public abstract class AbstractServerImplBuilder
     return thisT();
   }
 
+  @Override
+  public T virtualThreadCallExecutor() {
+    delegate().virtualThreadCallExecutor();
+    return thisT();
+  }
+
+  @Override
+  public T callbackBatchSize(int batchSize) {
+    delegate().callbackBatchSize(batchSize);
+    return thisT();
+  }
+
   @Override
   public T executor(@Nullable Executor executor) {
     delegate().executor(executor);
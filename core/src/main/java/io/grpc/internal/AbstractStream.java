@@ -171,6 +171,14 @@ public abstract class AbstractStream implements Stream {
       deframer = new ApplicationThreadDeframer(this, this, rawDeframer);
     }
 
+    /**
+     * Sets the allocator used for buffers holding inflated bytes when full-stream decompression is
+     * in use. Must be called before any data is deframed.
+     */
+    protected final void setInboundBufferAllocator(InboundBufferAllocator allocator) {
+      rawDeframer.setInboundBufferAllocator(allocator);
+    }
+
     final void setMaxInboundMessageSize(int maxSize) {
       deframer.setMaxInboundMessageSize(maxSize);
     }
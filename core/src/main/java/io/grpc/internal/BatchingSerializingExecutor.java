@@ -0,0 +1,286 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+
+/**
+ * Executor ensuring that all {@link Runnable} tasks submitted are executed in order
+ * using the provided {@link Executor}, and serially such that no two will ever be
+ * running at the same time.
+ *
+ * <p>Unlike {@link SerializingExecutor}, tasks are queued in a multi-producer single-consumer
+ * queue made of fixed-size array chunks, so submitting a task does not allocate a queue node. In
+ * addition, at most {@code batchSize} tasks are run each time this executor gets to run on the
+ * underlying executor. When more tasks remain, it resubmits itself instead of draining until
+ * empty, so a single busy call cannot monopolize a thread of a shared executor.
+ */
+public final class BatchingSerializingExecutor implements Executor, Runnable {
+  private static final Logger log =
+      Logger.getLogger(BatchingSerializingExecutor.class.getName());
+
+  private static final int CHUNK_SIZE = 32;
+
+  private static final int STOPPED = 0;
+  private static final int RUNNING = -1;
+
+  /** Underlying executor that all submitted Runnable objects are run on. */
+  private Executor executor;
+
+  private final int batchSize;
+
+  private final AtomicInteger runState = new AtomicInteger(STOPPED);
+
+  /** Index of the next slot to be claimed by a producer. */
+  private final AtomicLong producerIndex = new AtomicLong();
+  /** A chunk whose base is no greater than any index that has not yet been claimed. */
+  private volatile Chunk producerChunk;
+
+  // The following fields are only modified by the consumer, i.e. while runState is RUNNING.
+  private Chunk consumerChunk;
+  private volatile long consumerIndex;
+  /** Tasks taken out of the queue when a task had to be removed after a failed schedule. */
+  @Nullable
+  private ArrayDeque<Runnable> stash;
+
+  /** Receives the queue depth and drain stats, which show up in channelz. */
+  @Nullable
+  private final CallTracer callTracer;
+
+  /**
+   * Creates a BatchingSerializingExecutor, running tasks using {@code executor}.
+   *
+   * @param executor Executor in which tasks should be run. Must not be null.
+   * @param batchSize the maximum number of tasks to run before yielding back to {@code executor}.
+   */
+  public BatchingSerializingExecutor(Executor executor, int batchSize) {
+    this(executor, batchSize, null);
+  }
+
+  /**
+   * Creates a BatchingSerializingExecutor, running tasks using {@code executor} and reporting its
+   * queue depth and drains to {@code callTracer}.
+   */
+  BatchingSerializingExecutor(Executor executor, int batchSize, @Nullable CallTracer callTracer) {
+    checkArgument(batchSize > 0, "batchSize must be positive: %s", batchSize);
+    this.executor = checkNotNull(executor, "'executor' must not be null.");
+    this.batchSize = batchSize;
+    this.callTracer = callTracer;
+    Chunk first = new Chunk(0);
+    producerChunk = first;
+    consumerChunk = first;
+  }
+
+  /**
+   * Only call this from this BatchingSerializingExecutor Runnable, so that the executor is
+   * immediately visible to this BatchingSerializingExecutor executor.
+   * */
+  public void setExecutor(Executor executor) {
+    this.executor = checkNotNull(executor, "'executor' must not be null.");
+  }
+
+  /**
+   * Runs the given runnable strictly after all Runnables that were submitted
+   * before it, and using the {@code executor} passed to the constructor.
+   */
+  @Override
+  public void execute(Runnable r) {
+    offer(checkNotNull(r, "'r' must not be null."));
+    if (callTracer != null) {
+      callTracer.reportCallbacksQueued(1);
+    }
+    schedule(r);
+  }
+
+  /** Returns the number of tasks that have been submitted but not yet started. */
+  long getQueueDepth() {
+    return Math.max(0, producerIndex.get() - consumerIndex);
+  }
+
+  private void schedule(@Nullable Runnable removable) {
+    if (runState.compareAndSet(STOPPED, RUNNING)) {
+      boolean success = false;
+      try {
+        executor.execute(this);
+        success = true;
+      } finally {
+        // It is possible that at this point that there are still tasks in
+        // the queue, it would be nice to keep trying but the error may not
+        // be recoverable.  So we update our state and propagate so that if
+        // our caller deems it recoverable we won't be stuck.
+        if (!success) {
+          if (removable != null) {
+            // Winning the CAS made this thread the consumer, so it may take the queued tasks. The
+            // failed task is dropped so that future calls to execute don't succeed and
+            // accidentally run it; everything else is kept, in order, for the next run.
+            removeQueued(removable);
+          }
+          runState.set(STOPPED);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void run() {
+    long startNanos = callTracer != null ? System.nanoTime() : 0;
+    boolean resubmit = false;
+    boolean stashed = false;
+    int ran = 0;
+    try {
+      Executor oldExecutor = executor;
+      Runnable r;
+      while (oldExecutor == executor && ran < batchSize && (r = poll()) != null) {
+        ran++;
+        try {
+          r.run();
+        } catch (RuntimeException e) {
+          // Log it and keep going.
+          log.log(Level.SEVERE, "Exception while executing runnable " + r, e);
+        }
+      }
+      stashed = stash != null && !stash.isEmpty();
+      // Yield the thread back to the underlying executor, but keep ownership of the queue.
+      resubmit = ran == batchSize && oldExecutor == executor && (stashed || hasQueued());
+    } finally {
+      if (callTracer != null) {
+        callTracer.reportCallbacksDrained(ran, System.nanoTime() - startNanos);
+      }
+      if (!resubmit) {
+        runState.set(STOPPED);
+      }
+    }
+    if (resubmit) {
+      boolean success = false;
+      try {
+        executor.execute(this);
+        success = true;
+      } finally {
+        if (!success) {
+          runState.set(STOPPED);
+        }
+      }
+    } else if (stashed || hasQueued()) {
+      // we didn't enqueue anything but someone else did.
+      schedule(null);
+    }
+  }
+
+  private boolean hasQueued() {
+    return producerIndex.get() != consumerIndex;
+  }
+
+  private void offer(Runnable r) {
+    // Read the chunk before claiming an index, so that the chunk's base is not after the index.
+    Chunk chunk = producerChunk;
+    long index = producerIndex.getAndIncrement();
+    while (index >= chunk.base + CHUNK_SIZE) {
+      Chunk next = chunk.next.get();
+      if (next == null) {
+        Chunk newChunk = new Chunk(chunk.base + CHUNK_SIZE);
+        next = chunk.next.compareAndSet(null, newChunk) ? newChunk : chunk.next.get();
+      }
+      chunk = next;
+    }
+    // Later producers claim larger indices, so they may start from this chunk. A stale write only
+    // makes them walk a bit further.
+    producerChunk = chunk;
+    chunk.lazySet((int) (index - chunk.base), r);
+  }
+
+  /** Must only be called by the consumer. */
+  @Nullable
+  private Runnable poll() {
+    if (stash != null && !stash.isEmpty()) {
+      return stash.poll();
+    }
+    return pollQueue();
+  }
+
+  /**
+   * Takes the next task from the queue, ignoring the stash. Must only be called by the consumer.
+   */
+  @Nullable
+  private Runnable pollQueue() {
+    long index = consumerIndex;
+    if (index == producerIndex.get()) {
+      return null;
+    }
+    Chunk chunk = consumerChunk;
+    int offset = (int) (index - chunk.base);
+    if (offset == CHUNK_SIZE) {
+      Chunk next;
+      while ((next = chunk.next.get()) == null) {
+        // A producer has claimed an index in the next chunk but not linked it yet.
+        Thread.yield();
+      }
+      consumerChunk = chunk = next;
+      offset = 0;
+    }
+    Runnable r;
+    while ((r = chunk.get(offset)) == null) {
+      // The slot has been claimed, but the producer has not published the task yet.
+      Thread.yield();
+    }
+    chunk.lazySet(offset, null);
+    consumerIndex = index + 1;
+    return r;
+  }
+
+  /** Must only be called by the consumer. */
+  private void removeQueued(Runnable removable) {
+    if (stash == null) {
+      stash = new ArrayDeque<>();
+    }
+    boolean removed = stash.removeFirstOccurrence(removable);
+    // Only take from the queue: tasks put back into the stash must not be taken again.
+    Runnable r;
+    while ((r = pollQueue()) != null) {
+      if (!removed && r == removable) {
+        removed = true;
+      } else {
+        stash.add(r);
+      }
+    }
+    if (removed && callTracer != null) {
+      callTracer.reportCallbacksQueued(-1);
+    }
+  }
+
+  private static final class Chunk extends AtomicReferenceArray<Runnable> {
+    private static final long serialVersionUID = 0L;
+
+    final long base;
+    final AtomicReference<Chunk> next = new AtomicReference<>();
+
+    Chunk(long base) {
+      super(CHUNK_SIZE);
+      this.base = base;
+    }
+  }
+}
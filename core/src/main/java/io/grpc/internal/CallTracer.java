@@ -18,6 +18,7 @@ package io.grpc.internal;
 
 import static io.grpc.internal.TimeProvider.SYSTEM_TIME_PROVIDER;
 
+import io.grpc.InternalChannelz.CallbackStats;
 import io.grpc.InternalChannelz.ChannelStats;
 import io.grpc.InternalChannelz.ServerStats;
 
@@ -30,6 +31,9 @@ final class CallTracer {
   private final LongCounter callsSucceeded = LongCounterFactory.create();
   private final LongCounter callsFailed = LongCounterFactory.create();
   private volatile long lastCallStartedNanos;
+  private final LongCounter callbacksQueued = LongCounterFactory.create();
+  private final LongCounter callbackDrains = LongCounterFactory.create();
+  private final LongCounter callbackDrainNanos = LongCounterFactory.create();
 
   CallTracer(TimeProvider timeProvider) {
     this.timeProvider = timeProvider;
@@ -48,12 +52,30 @@ final class CallTracer {
     }
   }
 
+  /** Reports that {@code count} callbacks were added to (or removed from, if negative) a queue. */
+  void reportCallbacksQueued(long count) {
+    callbacksQueued.add(count);
+  }
+
+  /** Reports that {@code ran} queued callbacks were run in one batch taking {@code nanos}. */
+  void reportCallbacksDrained(int ran, long nanos) {
+    callbacksQueued.add(-ran);
+    callbackDrains.add(1);
+    callbackDrainNanos.add(nanos);
+  }
+
+  private CallbackStats getCallbackStats() {
+    return new CallbackStats(
+        callbacksQueued.value(), callbackDrains.value(), callbackDrainNanos.value());
+  }
+
   void updateBuilder(ChannelStats.Builder builder) {
     builder
         .setCallsStarted(callsStarted.value())
         .setCallsSucceeded(callsSucceeded.value())
         .setCallsFailed(callsFailed.value())
-        .setLastCallStartedNanos(lastCallStartedNanos);
+        .setLastCallStartedNanos(lastCallStartedNanos)
+        .setCallbackStats(getCallbackStats());
   }
 
   void updateBuilder(ServerStats.Builder builder) {
@@ -61,7 +83,8 @@ final class CallTracer {
         .setCallsStarted(callsStarted.value())
         .setCallsSucceeded(callsSucceeded.value())
         .setCallsFailed(callsFailed.value())
-        .setLastCallStartedNanos(lastCallStartedNanos);
+        .setLastCallStartedNanos(lastCallStartedNanos)
+        .setCallbackStats(getCallbackStats());
   }
 
   public interface Factory {
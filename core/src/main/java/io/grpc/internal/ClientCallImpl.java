@@ -74,7 +74,8 @@ final class ClientCallImpl<ReqT, RespT> extends ClientCall<ReqT, RespT> {
 
   private final MethodDescriptor<ReqT, RespT> method;
   private final Tag tag;
-  private final Executor callExecutor;
+  private final Executor executor;
+  private Executor callExecutor;
   private final boolean callExecutorIsDirect;
   private final CallTracer channelCallsTracer;
   private final Context context;
@@ -106,6 +107,7 @@ final class ClientCallImpl<ReqT, RespT> extends ClientCall<ReqT, RespT> {
     // If we know that the executor is a direct executor, we don't need to wrap it with a
     // SerializingExecutor. This is purely for performance reasons.
     // See https://github.com/grpc/grpc-java/issues/368
+    this.executor = executor;
     if (executor == directExecutor()) {
       this.callExecutor = new SerializeReentrantCallsDirectExecutor();
       callExecutorIsDirect = true;
@@ -147,6 +149,18 @@ final class ClientCallImpl<ReqT, RespT> extends ClientCall<ReqT, RespT> {
     return this;
   }
 
+  /**
+   * Serializes callbacks with a {@link BatchingSerializingExecutor} that runs at most {@code
+   * batchSize} callbacks at a time. Must be called before the call is started. Has no effect if
+   * {@code batchSize} is not positive or the call uses a direct executor.
+   */
+  ClientCallImpl<ReqT, RespT> setCallbackBatchSize(int batchSize) {
+    if (batchSize > 0 && !callExecutorIsDirect) {
+      this.callExecutor = new BatchingSerializingExecutor(executor, batchSize, channelCallsTracer);
+    }
+    return this;
+  }
+
   ClientCallImpl<ReqT, RespT> setDecompressorRegistry(DecompressorRegistry decompressorRegistry) {
     this.decompressorRegistry = decompressorRegistry;
     return this;
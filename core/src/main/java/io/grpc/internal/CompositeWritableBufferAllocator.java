@@ -0,0 +1,35 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.internal;
+
+import java.util.List;
+
+/**
+ * A {@link WritableBufferAllocator} that can gather several written buffers into a single buffer
+ * without copying their contents. When the allocator passed to {@link MessageFramer} implements
+ * this interface, a message spanning multiple buffers (including its separately written header) is
+ * delivered to the transport as one frame.
+ */
+public interface CompositeWritableBufferAllocator extends WritableBufferAllocator {
+
+  /**
+   * Returns a buffer whose readable bytes are the readable bytes of {@code buffers}, in order.
+   * Ownership of {@code buffers} is transferred to the returned buffer, which may report no
+   * {@link WritableBuffer#writableBytes writable bytes}.
+   */
+  WritableBuffer compose(List<WritableBuffer> buffers);
+}
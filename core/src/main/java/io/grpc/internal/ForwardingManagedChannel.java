@@ -22,6 +22,7 @@ import io.grpc.ClientCall;
 import io.grpc.ConnectivityState;
 import io.grpc.ManagedChannel;
 import io.grpc.MethodDescriptor;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 abstract class ForwardingManagedChannel extends ManagedChannel {
@@ -88,6 +89,11 @@ abstract class ForwardingManagedChannel extends ManagedChannel {
     delegate.enterIdle();
   }
 
+  @Override
+  public void warmUp(Runnable callback, Executor executor) {
+    delegate.warmUp(callback, executor);
+  }
+
   @Override
   public String toString() {
     return MoreObjects.toStringHelper(this).add("delegate", delegate).toString();
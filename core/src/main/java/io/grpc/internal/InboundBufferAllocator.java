@@ -0,0 +1,61 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.internal;
+
+/**
+ * An allocator of array-backed, reference-counted buffers that the {@link MessageDeframer} fills
+ * with inflated message bytes. Transports with a pooled allocator can plug one in to avoid
+ * allocating a fresh {@code byte[]} for every inflated chunk.
+ *
+ * <p>Regions of a buffer are handed to the application via
+ * {@link ReadableBuffers#wrap(InboundBufferAllocator.InboundBuffer, int, int)}, which retains the
+ * buffer until the returned {@link ReadableBuffer} is closed. The memory is therefore returned to
+ * the pool as soon as the marshaller has consumed (and closed) the message stream.
+ */
+public interface InboundBufferAllocator {
+
+  /**
+   * Returns a buffer with a capacity of at least {@code capacity} bytes. The returned buffer has a
+   * reference count of one and must eventually be {@link InboundBuffer#release released}.
+   */
+  InboundBuffer allocate(int capacity);
+
+  /**
+   * An array-backed, reference-counted region of memory. The region starts at
+   * {@link #arrayOffset()} within {@link #array()} and spans {@link #capacity()} bytes.
+   */
+  interface InboundBuffer {
+
+    /** The backing array. Only the region described by this buffer may be accessed. */
+    byte[] array();
+
+    /** The offset of the first byte of this buffer within {@link #array()}. */
+    int arrayOffset();
+
+    /** The number of bytes available to be written, starting at {@link #arrayOffset()}. */
+    int capacity();
+
+    /** Increments the reference count. */
+    void retain();
+
+    /**
+     * Decrements the reference count, returning the memory to its pool when it reaches zero. The
+     * buffer must not be accessed after its last reference has been released.
+     */
+    void release();
+  }
+}
@@ -56,6 +56,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 
@@ -77,6 +79,14 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
   private final ChannelTracer channelTracer;
   private final ChannelLogger channelLogger;
 
+  /**
+   * The maximum number of READY transports streams are spread over, including {@link
+   * #activeTransport}. An additional transport is only started when each READY transport has at
+   * least {@link #maxStreamsPerTransport} streams.
+   */
+  private final int maxTransports;
+  private final int maxStreamsPerTransport;
+
   /**
    * All field must be mutated in the syncContext.
    */
@@ -114,6 +124,15 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
   private ScheduledHandle reconnectTask;
   @Nullable
   private ScheduledHandle shutdownDueToUpdateTask;
+
+  /**
+   * The policy to control back off between reconnects from IDLE requested by {@link
+   * #reconnectWithBackoff}. Reset once a connection outlives its backoff.
+   */
+  @Nullable
+  private BackoffPolicy idleReconnectPolicy;
+  @Nullable
+  private ScheduledHandle idleReconnectTask;
   @Nullable
   private ManagedClientTransport shutdownDueToUpdateTransport;
 
@@ -150,6 +169,38 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
   @Nullable
   private volatile ManagedClientTransport activeTransport;
 
+  /**
+   * All READY transports for new outgoing requests, starting with {@link #activeTransport}. Empty
+   * when {@code activeTransport} is null. Only replaced, never modified.
+   */
+  private volatile CallTracingTransport[] readyTransports = new CallTracingTransport[0];
+
+  /**
+   * An additional transport to the address of {@link #activeTransport}, which is not ready yet.
+   */
+  @Nullable
+  private CallTracingTransport pendingExtraTransport;
+
+  /**
+   * Pending while starting additional transports is backed off, after one failed to connect.
+   */
+  @Nullable
+  private ScheduledHandle extraTransportBackoffTask;
+
+  /**
+   * The policy to control back off between attempts to start an additional transport. Kept while
+   * attempts keep failing, reset once an additional transport becomes ready.
+   */
+  @Nullable
+  private BackoffPolicy extraTransportBackoffPolicy;
+
+  private final AtomicBoolean extraTransportRequested = new AtomicBoolean();
+
+  /**
+   * Additional transports no longer used for new streams, which will be shut down after a delay.
+   */
+  private final Collection<ConnectionClientTransport> retiredTransports = new ArrayList<>();
+
   private volatile ConnectivityStateInfo state = ConnectivityStateInfo.forNonError(IDLE);
 
   private Status shutdownReason;
@@ -160,6 +211,18 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
       Supplier<Stopwatch> stopwatchSupplier, SynchronizationContext syncContext, Callback callback,
       InternalChannelz channelz, CallTracer callsTracer, ChannelTracer channelTracer,
       InternalLogId logId, ChannelLogger channelLogger) {
+    this(addressGroups, authority, userAgent, backoffPolicyProvider, transportFactory,
+        scheduledExecutor, stopwatchSupplier, syncContext, callback, channelz, callsTracer,
+        channelTracer, logId, channelLogger, 1, Integer.MAX_VALUE);
+  }
+
+  InternalSubchannel(List<EquivalentAddressGroup> addressGroups, String authority, String userAgent,
+      BackoffPolicy.Provider backoffPolicyProvider,
+      ClientTransportFactory transportFactory, ScheduledExecutorService scheduledExecutor,
+      Supplier<Stopwatch> stopwatchSupplier, SynchronizationContext syncContext, Callback callback,
+      InternalChannelz channelz, CallTracer callsTracer, ChannelTracer channelTracer,
+      InternalLogId logId, ChannelLogger channelLogger, int maxTransports,
+      int maxStreamsPerTransport) {
     Preconditions.checkNotNull(addressGroups, "addressGroups");
     Preconditions.checkArgument(!addressGroups.isEmpty(), "addressGroups is empty");
     checkListHasNoNulls(addressGroups, "addressGroups contains null entry");
@@ -180,6 +243,11 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
     this.channelTracer = Preconditions.checkNotNull(channelTracer, "channelTracer");
     this.logId = Preconditions.checkNotNull(logId, "logId");
     this.channelLogger = Preconditions.checkNotNull(channelLogger, "channelLogger");
+    Preconditions.checkArgument(maxTransports > 0, "maxTransports must be positive");
+    Preconditions.checkArgument(
+        maxStreamsPerTransport > 0, "maxStreamsPerTransport must be positive");
+    this.maxTransports = maxTransports;
+    this.maxStreamsPerTransport = maxStreamsPerTransport;
   }
 
   ChannelLogger getChannelLogger() {
@@ -190,6 +258,9 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
   public ClientTransport obtainActiveTransport() {
     ClientTransport savedTransport = activeTransport;
     if (savedTransport != null) {
+      if (maxTransports > 1) {
+        return pickReadyTransport(savedTransport);
+      }
       return savedTransport;
     }
     syncContext.execute(new Runnable() {
@@ -205,6 +276,148 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
     return null;
   }
 
+  /**
+   * Returns the READY transport with the fewest streams. If all of them have reached {@link
+   * #maxStreamsPerTransport}, requests an additional transport.
+   */
+  private ClientTransport pickReadyTransport(ClientTransport savedActiveTransport) {
+    CallTracingTransport[] savedReadyTransports = readyTransports;
+    CallTracingTransport picked = null;
+    int pickedStreams = Integer.MAX_VALUE;
+    for (CallTracingTransport transport : savedReadyTransports) {
+      int streams = transport.getActiveStreams();
+      if (streams < pickedStreams) {
+        picked = transport;
+        pickedStreams = streams;
+      }
+    }
+    if (picked == null) {
+      // Raced with a transport shutdown
+      return savedActiveTransport;
+    }
+    if (pickedStreams >= maxStreamsPerTransport
+        && savedReadyTransports.length < maxTransports
+        && extraTransportRequested.compareAndSet(false, true)) {
+      syncContext.execute(new Runnable() {
+        @Override
+        public void run() {
+          extraTransportRequested.set(false);
+          maybeStartExtraTransport();
+        }
+      });
+    }
+    return picked;
+  }
+
+  private void maybeStartExtraTransport() {
+    syncContext.throwIfNotInThisSynchronizationContext();
+
+    if (state.getState() != READY || pendingExtraTransport != null
+        || readyTransports.length >= maxTransports
+        || (extraTransportBackoffTask != null && extraTransportBackoffTask.isPending())) {
+      return;
+    }
+    for (CallTracingTransport transport : readyTransports) {
+      if (transport.getActiveStreams() < maxStreamsPerTransport) {
+        return;
+      }
+    }
+    channelLogger.log(
+        ChannelLogLevel.INFO, "Starting an additional transport, {0} are fully used",
+        readyTransports.length);
+    pendingExtraTransport = startTransport();
+  }
+
+  /**
+   * Shuts down an additional READY transport that no longer has streams, unless the other READY
+   * transports would be more than half full without it.
+   */
+  private void maybeRetireExtraTransport(ConnectionClientTransport transport) {
+    syncContext.throwIfNotInThisSynchronizationContext();
+
+    if (transport == activeTransport) {
+      return;
+    }
+    CallTracingTransport[] savedReadyTransports = readyTransports;
+    int otherStreams = 0;
+    boolean found = false;
+    for (CallTracingTransport readyTransport : savedReadyTransports) {
+      if (readyTransport == transport) {
+        found = true;
+      } else {
+        otherStreams += readyTransport.getActiveStreams();
+      }
+    }
+    if (!found
+        || (long) otherStreams * 2
+            > (long) (savedReadyTransports.length - 1) * maxStreamsPerTransport) {
+      return;
+    }
+    removeReadyTransport(transport);
+    retiredTransports.add(transport);
+    channelLogger.log(
+        ChannelLogLevel.INFO, "Retiring additional transport {0}", transport.getLogId());
+    // Delay the shutdown for streams being started on it, the same way as for address changes.
+    final ConnectionClientTransport retiredTransport = transport;
+    syncContext.schedule(
+        new Runnable() {
+          @Override
+          public void run() {
+            if (retiredTransports.remove(retiredTransport)) {
+              retiredTransport.shutdown(
+                  Status.UNAVAILABLE.withDescription("InternalSubchannel retired extra transport"));
+            }
+          }
+        },
+        ManagedChannelImpl.SUBCHANNEL_SHUTDOWN_DELAY_SECONDS,
+        TimeUnit.SECONDS,
+        scheduledExecutor);
+  }
+
+  private void addReadyTransport(CallTracingTransport transport) {
+    CallTracingTransport[] savedReadyTransports = readyTransports;
+    CallTracingTransport[] newReadyTransports =
+        new CallTracingTransport[savedReadyTransports.length + 1];
+    System.arraycopy(savedReadyTransports, 0, newReadyTransports, 0, savedReadyTransports.length);
+    newReadyTransports[savedReadyTransports.length] = transport;
+    readyTransports = newReadyTransports;
+  }
+
+  private void removeReadyTransport(ConnectionClientTransport transport) {
+    CallTracingTransport[] savedReadyTransports = readyTransports;
+    List<CallTracingTransport> newReadyTransports = new ArrayList<>(savedReadyTransports.length);
+    for (CallTracingTransport readyTransport : savedReadyTransports) {
+      if (readyTransport != transport) {
+        newReadyTransports.add(readyTransport);
+      }
+    }
+    if (newReadyTransports.size() != savedReadyTransports.length) {
+      readyTransports = newReadyTransports.toArray(new CallTracingTransport[0]);
+    }
+  }
+
+  /**
+   * Shuts down all transports but {@link #activeTransport} and {@link #pendingTransport}.
+   */
+  private void shutdownExtraTransports(Status reason) {
+    syncContext.throwIfNotInThisSynchronizationContext();
+
+    for (CallTracingTransport transport : readyTransports) {
+      if (transport != activeTransport) {
+        transport.shutdown(reason);
+      }
+    }
+    if (pendingExtraTransport != null) {
+      pendingExtraTransport.shutdown(reason);
+      pendingExtraTransport = null;
+    }
+    if (activeTransport != null) {
+      readyTransports = new CallTracingTransport[] {(CallTracingTransport) activeTransport};
+    } else {
+      readyTransports = new CallTracingTransport[0];
+    }
+  }
+
   /**
    * Returns a READY transport if there is any, without trying to connect.
    */
@@ -228,6 +441,11 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
     if (addressIndex.isAtBeginning()) {
       connectingTimer.reset().start();
     }
+    pendingTransport = startTransport();
+  }
+
+  /** Creates and starts a transport to the current address. */
+  private CallTracingTransport startTransport() {
     SocketAddress address = addressIndex.getCurrentAddress();
 
     HttpConnectProxiedSocketAddress proxiedAddr = null;
@@ -248,19 +466,19 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
     TransportLogger transportLogger = new TransportLogger();
     // In case the transport logs in the constructor, use the subchannel logId
     transportLogger.logId = getLogId();
-    ConnectionClientTransport transport =
+    CallTracingTransport transport =
         new CallTracingTransport(
             transportFactory
                 .newClientTransport(address, options, transportLogger), callsTracer);
     transportLogger.logId = transport.getLogId();
     channelz.addClientSocket(transport);
-    pendingTransport = transport;
     transports.add(transport);
     Runnable runnable = transport.start(new TransportListener(transport, address));
     if (runnable != null) {
       syncContext.executeLater(runnable);
     }
     channelLogger.log(ChannelLogLevel.INFO, "Started transport {0}", transportLogger.logId);
+    return transport;
   }
 
   /**
@@ -299,6 +517,43 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
         scheduledExecutor);
   }
 
+  /**
+   * Reconnects if the current state is IDLE, without waiting for a new RPC. The attempt is delayed
+   * by a backoff that grows while connections keep being closed soon after they were established,
+   * and is made right away once a connection outlived the backoff. Otherwise this method has no
+   * effect. Must be called from the syncContext.
+   */
+  void reconnectWithBackoff() {
+    syncContext.throwIfNotInThisSynchronizationContext();
+
+    if (state.getState() != IDLE
+        || (idleReconnectTask != null && idleReconnectTask.isPending())) {
+      return;
+    }
+    if (idleReconnectPolicy == null) {
+      idleReconnectPolicy = backoffPolicyProvider.get();
+    }
+    // connectingTimer has been running since the closed connection started connecting
+    long delayNanos =
+        idleReconnectPolicy.nextBackoffNanos() - connectingTimer.elapsed(TimeUnit.NANOSECONDS);
+    if (delayNanos <= 0) {
+      idleReconnectPolicy = null;
+      obtainActiveTransport();
+      return;
+    }
+    channelLogger.log(ChannelLogLevel.INFO, "IDLE. Will reconnect after {0} ns", delayNanos);
+    idleReconnectTask = syncContext.schedule(
+        new Runnable() {
+          @Override
+          public void run() {
+            obtainActiveTransport();
+          }
+        },
+        delayNanos,
+        TimeUnit.NANOSECONDS,
+        scheduledExecutor);
+  }
+
   /**
    * Immediately attempt to reconnect if the current state is TRANSIENT_FAILURE. Otherwise this
    * method has no effect.
@@ -354,8 +609,12 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
           if (!addressIndex.seekTo(previousAddress)) {
             // Forced to drop the connection
             if (state.getState() == READY) {
+              shutdownExtraTransports(
+                  Status.UNAVAILABLE.withDescription(
+                      "InternalSubchannel closed extra transport due to address change"));
               savedTransport = activeTransport;
               activeTransport = null;
+              readyTransports = new CallTracingTransport[0];
               addressIndex.reset();
               gotoNonErrorState(IDLE);
             } else {
@@ -413,14 +672,24 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
         shutdownReason = reason;
         savedActiveTransport = activeTransport;
         savedPendingTransport = pendingTransport;
+        shutdownExtraTransports(reason);
+        for (ConnectionClientTransport transport : retiredTransports) {
+          transport.shutdown(reason);
+        }
+        retiredTransports.clear();
         activeTransport = null;
         pendingTransport = null;
+        readyTransports = new CallTracingTransport[0];
         gotoNonErrorState(SHUTDOWN);
         addressIndex.reset();
         if (transports.isEmpty()) {
           handleTermination();
         }  // else: the callback will be run once all transports have been terminated
         cancelReconnectTask();
+        if (idleReconnectTask != null) {
+          idleReconnectTask.cancel();
+          idleReconnectTask = null;
+        }
         if (shutdownDueToUpdateTask != null) {
           shutdownDueToUpdateTask.cancel();
           shutdownDueToUpdateTransport.shutdown(reason);
@@ -463,6 +732,9 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
       @Override
       public void run() {
         inUseStateAggregator.updateObjectInUse(transport, inUse);
+        if (!inUse && maxTransports > 1) {
+          maybeRetireExtraTransport(transport);
+        }
       }
     });
   }
@@ -532,11 +804,11 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
 
   /** Listener for real transports. */
   private class TransportListener implements ManagedClientTransport.Listener {
-    final ConnectionClientTransport transport;
+    final CallTracingTransport transport;
     final SocketAddress address;
     boolean shutdownInitiated = false;
 
-    TransportListener(ConnectionClientTransport transport, SocketAddress address) {
+    TransportListener(CallTracingTransport transport, SocketAddress address) {
       this.transport = transport;
       this.address = address;
     }
@@ -555,8 +827,13 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
             transport.shutdown(shutdownReason);
           } else if (pendingTransport == transport) {
             activeTransport = transport;
+            readyTransports = new CallTracingTransport[] {transport};
             pendingTransport = null;
             gotoNonErrorState(READY);
+          } else if (pendingExtraTransport == transport) {
+            pendingExtraTransport = null;
+            extraTransportBackoffPolicy = null;
+            addReadyTransport(transport);
           }
         }
       });
@@ -579,9 +856,32 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
             return;
           }
           if (activeTransport == transport) {
+            removeReadyTransport(transport);
+            CallTracingTransport[] savedReadyTransports = readyTransports;
+            if (savedReadyTransports.length > 0) {
+              // An additional transport to the same address takes over
+              activeTransport = savedReadyTransports[0];
+              return;
+            }
             activeTransport = null;
+            shutdownExtraTransports(s);
             addressIndex.reset();
             gotoNonErrorState(IDLE);
+          } else if (pendingExtraTransport == transport) {
+            pendingExtraTransport = null;
+            if (extraTransportBackoffTask == null || !extraTransportBackoffTask.isPending()) {
+              if (extraTransportBackoffPolicy == null) {
+                extraTransportBackoffPolicy = backoffPolicyProvider.get();
+              }
+              extraTransportBackoffTask = syncContext.schedule(
+                  new Runnable() {
+                    @Override
+                    public void run() {}
+                  },
+                  extraTransportBackoffPolicy.nextBackoffNanos(),
+                  TimeUnit.NANOSECONDS,
+                  scheduledExecutor);
+            }
           } else if (pendingTransport == transport) {
             Preconditions.checkState(state.getState() == CONNECTING,
                 "Expected state is CONNECTING, actual state is %s", state.getState());
@@ -596,6 +896,8 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
             } else {
               startNewTransport();
             }
+          } else {
+            removeReadyTransport(transport);
           }
         }
       });
@@ -655,6 +957,7 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
   static final class CallTracingTransport extends ForwardingConnectionClientTransport {
     private final ConnectionClientTransport delegate;
     private final CallTracer callTracer;
+    private final AtomicInteger activeStreams = new AtomicInteger();
 
     private CallTracingTransport(ConnectionClientTransport delegate, CallTracer callTracer) {
       this.delegate = delegate;
@@ -666,6 +969,11 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
       return delegate;
     }
 
+    /** Returns the number of streams that have been started but not closed. */
+    int getActiveStreams() {
+      return activeStreams.get();
+    }
+
     @Override
     public ClientStream newStream(
         MethodDescriptor<?, ?> method, Metadata headers, CallOptions callOptions,
@@ -680,6 +988,7 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
         @Override
         public void start(final ClientStreamListener listener) {
           callTracer.reportCallStarted();
+          activeStreams.incrementAndGet();
           super.start(new ForwardingClientStreamListener() {
             @Override
             protected ClientStreamListener delegate() {
@@ -690,6 +999,7 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
             public void closed(
                 Status status, RpcProgress rpcProgress, Metadata trailers) {
               callTracer.reportCallEnded(status.isOk());
+              activeStreams.decrementAndGet();
               super.closed(status, rpcProgress, trailers);
             }
           });
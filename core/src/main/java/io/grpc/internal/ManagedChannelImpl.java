@@ -20,6 +20,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static io.grpc.ConnectivityState.IDLE;
+import static io.grpc.ConnectivityState.READY;
 import static io.grpc.ConnectivityState.SHUTDOWN;
 import static io.grpc.ConnectivityState.TRANSIENT_FAILURE;
 import static io.grpc.EquivalentAddressGroup.ATTR_AUTHORITY_OVERRIDE;
@@ -189,6 +190,10 @@ final class ManagedChannelImpl extends ManagedChannel implements
 
   private boolean fullStreamDecompression;
 
+  private final int callbackBatchSize;
+  private final int maxConnectionsPerSubchannel;
+  private final int maxStreamsPerConnection;
+
   private final DecompressorRegistry decompressorRegistry;
   private final CompressorRegistry compressorRegistry;
 
@@ -234,6 +239,9 @@ final class ManagedChannelImpl extends ManagedChannel implements
   @Nullable
   private Collection<RealChannel.PendingCall<?, ?>> pendingCalls;
   private final Object pendingCallsInUseObject = new Object();
+  // Keeps the channel out of idle mode once warmUp() is called. Must be accessed from syncContext.
+  private final Object warmUpInUseObject = new Object();
+  private boolean warmUpRequested;
 
   // Must be mutated from syncContext
   private final Set<OobChannel> oobChannels = new HashSet<>(1, .75f);
@@ -704,6 +712,9 @@ final class ManagedChannelImpl extends ManagedChannel implements
         transportFactory.getScheduledExecutorService(),
         stopwatchSupplier.get());
     this.fullStreamDecompression = builder.fullStreamDecompression;
+    this.callbackBatchSize = builder.callbackBatchSize;
+    this.maxConnectionsPerSubchannel = builder.maxConnectionsPerSubchannel;
+    this.maxStreamsPerConnection = builder.maxStreamsPerConnection;
     this.decompressorRegistry = checkNotNull(builder.decompressorRegistry, "decompressorRegistry");
     this.compressorRegistry = checkNotNull(builder.compressorRegistry, "compressorRegistry");
     this.userAgent = builder.userAgent;
@@ -955,6 +966,7 @@ final class ManagedChannelImpl extends ManagedChannel implements
             channelCallTracer,
             null)
             .setFullStreamDecompression(fullStreamDecompression)
+            .setCallbackBatchSize(callbackBatchSize)
             .setDecompressorRegistry(decompressorRegistry)
             .setCompressorRegistry(compressorRegistry);
       }
@@ -1349,6 +1361,52 @@ final class ManagedChannelImpl extends ManagedChannel implements
     syncContext.execute(new ResetConnectBackoff());
   }
 
+  @Override
+  public void warmUp(final Runnable callback, final Executor executor) {
+    checkNotNull(callback, "callback");
+    checkNotNull(executor, "executor");
+    final class WarmUp implements Runnable {
+      @Override
+      public void run() {
+        if (!shutdown.get()) {
+          if (!warmUpRequested) {
+            channelLogger.log(ChannelLogLevel.INFO, "Warming up the channel");
+            warmUpRequested = true;
+            inUseStateAggregator.updateObjectInUse(warmUpInUseObject, true);
+          }
+          // The channel may have been put into idle mode by enterIdle() since the first warm-up
+          exitIdleMode();
+          if (lbHelper != null) {
+            lbHelper.lb.requestConnection();
+          }
+          for (InternalSubchannel subchannel : subchannels) {
+            subchannel.obtainActiveTransport();
+          }
+        }
+        notifyWhenReady(callback, executor);
+      }
+    }
+
+    syncContext.execute(new WarmUp());
+  }
+
+  // Must be called from syncContext
+  private void notifyWhenReady(final Runnable callback, final Executor executor) {
+    ConnectivityState state = channelStateManager.getState();
+    if (state == READY || state == SHUTDOWN) {
+      executor.execute(callback);
+    } else {
+      final class NotifyWhenReady implements Runnable {
+        @Override
+        public void run() {
+          notifyWhenReady(callback, executor);
+        }
+      }
+
+      channelStateManager.notifyWhenStateChanged(new NotifyWhenReady(), syncContext, state);
+    }
+  }
+
   @Override
   public void enterIdle() {
     final class PrepareToLoseNetworkRunnable implements Runnable {
@@ -1526,7 +1584,8 @@ final class ManagedChannelImpl extends ManagedChannel implements
               "OobChannel for " + addressGroup);
       final OobChannel oobChannel = new OobChannel(
           authority, balancerRpcExecutorPool, oobTransportFactory.getScheduledExecutorService(),
-          syncContext, callTracerFactory.create(), oobChannelTracer, channelz, timeProvider);
+          syncContext, callTracerFactory.create(), oobChannelTracer, channelz, timeProvider,
+          callbackBatchSize);
       channelTracer.reportEvent(new ChannelTrace.Event.Builder()
           .setDescription("Child OobChannel created")
           .setSeverity(ChannelTrace.Event.Severity.CT_INFO)
@@ -1973,6 +2032,10 @@ final class ManagedChannelImpl extends ManagedChannel implements
         void onStateChange(InternalSubchannel is, ConnectivityStateInfo newState) {
           checkState(listener != null, "listener is null");
           listener.onSubchannelState(newState);
+          if (warmUpRequested && newState.getState() == IDLE) {
+            // Keep the channel warm by reconnecting without waiting for the next RPC.
+            is.reconnectWithBackoff();
+          }
           if (newState.getState() == TRANSIENT_FAILURE || newState.getState() == IDLE) {
             if (!helper.ignoreRefreshNsCheck && !helper.nsRefreshedByLb) {
               logger.log(Level.WARNING,
@@ -2010,7 +2073,9 @@ final class ManagedChannelImpl extends ManagedChannel implements
           callTracerFactory.create(),
           subchannelTracer,
           subchannelLogId,
-          subchannelLogger);
+          subchannelLogger,
+          maxConnectionsPerSubchannel,
+          maxStreamsPerConnection);
 
       channelTracer.reportEvent(new ChannelTrace.Event.Builder()
           .setDescription("Child Subchannel started")
@@ -2022,6 +2087,9 @@ final class ManagedChannelImpl extends ManagedChannel implements
       this.subchannel = internalSubchannel;
       channelz.addSubchannel(internalSubchannel);
       subchannels.add(internalSubchannel);
+      if (warmUpRequested) {
+        internalSubchannel.obtainActiveTransport();
+      }
     }
 
     @Override
@@ -2109,7 +2177,8 @@ final class ManagedChannelImpl extends ManagedChannel implements
           subchannel, balancerRpcExecutorHolder.getExecutor(),
           transportFactory.getScheduledExecutorService(),
           callTracerFactory.create(),
-          new AtomicReference<InternalConfigSelector>(null));
+          new AtomicReference<InternalConfigSelector>(null),
+          callbackBatchSize);
     }
 
     @Override
@@ -132,6 +132,14 @@ public final class ManagedChannelImplBuilder
 
   boolean fullStreamDecompression;
 
+  int callbackBatchSize;
+
+  boolean keepWarm;
+
+  int maxConnectionsPerSubchannel = 1;
+
+  int maxStreamsPerConnection = Integer.MAX_VALUE;
+
   DecompressorRegistry decompressorRegistry = DEFAULT_DECOMPRESSOR_REGISTRY;
 
   CompressorRegistry compressorRegistry = DEFAULT_COMPRESSOR_REGISTRY;
@@ -376,6 +384,31 @@ public final class ManagedChannelImplBuilder
     return this;
   }
 
+  @Override
+  public ManagedChannelImplBuilder callbackBatchSize(int batchSize) {
+    checkArgument(batchSize > 0, "batchSize must be positive: %s", batchSize);
+    this.callbackBatchSize = batchSize;
+    return this;
+  }
+
+  @Override
+  public ManagedChannelImplBuilder maxConnectionsPerSubchannel(
+      int maxConnections, int maxStreamsPerConnection) {
+    checkArgument(maxConnections > 0, "maxConnections must be positive: %s", maxConnections);
+    checkArgument(
+        maxStreamsPerConnection > 0,
+        "maxStreamsPerConnection must be positive: %s", maxStreamsPerConnection);
+    this.maxConnectionsPerSubchannel = maxConnections;
+    this.maxStreamsPerConnection = maxStreamsPerConnection;
+    return this;
+  }
+
+  @Override
+  public ManagedChannelImplBuilder keepWarm() {
+    this.keepWarm = true;
+    return this;
+  }
+
   @Override
   public ManagedChannelImplBuilder decompressorRegistry(DecompressorRegistry registry) {
     if (registry != null) {
@@ -616,7 +649,7 @@ public final class ManagedChannelImplBuilder
 
   @Override
   public ManagedChannel build() {
-    return new ManagedChannelOrphanWrapper(new ManagedChannelImpl(
+    ManagedChannel channel = new ManagedChannelOrphanWrapper(new ManagedChannelImpl(
         this,
         clientTransportFactoryBuilder.buildClientTransportFactory(),
         new ExponentialBackoffPolicy.Provider(),
@@ -624,6 +657,15 @@ public final class ManagedChannelImplBuilder
         GrpcUtil.STOPWATCH_SUPPLIER,
         getEffectiveInterceptors(),
         TimeProvider.SYSTEM_TIME_PROVIDER));
+    if (keepWarm) {
+      channel.warmUp(
+          new Runnable() {
+            @Override
+            public void run() {}
+          },
+          MoreExecutors.directExecutor());
+    }
+    return channel;
   }
 
   // Temporarily disable retry when stats or tracing is enabled to avoid breakage, until we know
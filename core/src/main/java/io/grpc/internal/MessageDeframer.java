@@ -91,7 +91,13 @@ public class MessageDeframer implements Closeable, Deframer {
   private final TransportTracer transportTracer;
   private Decompressor decompressor;
   private GzipInflatingBuffer fullStreamDecompressor;
+  @Nullable
+  private InboundBufferAllocator inboundBufferAllocator;
   private byte[] inflatedBuffer;
+  @Nullable
+  private InboundBufferAllocator.InboundBuffer pooledInflatedBuffer;
+  private int inflatedOffset;
+  private int inflatedCapacity;
   private int inflatedIndex;
   private State state = State.HEADER;
   private int requiredLength = HEADER_LENGTH;
@@ -131,6 +137,15 @@ public class MessageDeframer implements Closeable, Deframer {
     this.listener = listener;
   }
 
+  /**
+   * Sets the allocator used to obtain buffers for inflated bytes when full-stream decompression is
+   * enabled. When not set, a new heap array is allocated as needed.
+   */
+  void setInboundBufferAllocator(InboundBufferAllocator inboundBufferAllocator) {
+    this.inboundBufferAllocator =
+        checkNotNull(inboundBufferAllocator, "inboundBufferAllocator");
+  }
+
   @Override
   public void setMaxInboundMessageSize(int messageSize) {
     maxInboundMessageSize = messageSize;
@@ -225,6 +240,7 @@ public class MessageDeframer implements Closeable, Deframer {
       if (nextFrame != null) {
         nextFrame.close();
       }
+      releasePooledInflatedBuffer();
     } finally {
       fullStreamDecompressor = null;
       unprocessed = null;
@@ -322,19 +338,25 @@ public class MessageDeframer implements Closeable, Deframer {
       while ((missingBytes = requiredLength - nextFrame.readableBytes()) > 0) {
         if (fullStreamDecompressor != null) {
           try {
-            if (inflatedBuffer == null || inflatedIndex == inflatedBuffer.length) {
-              inflatedBuffer = new byte[Math.min(missingBytes, MAX_BUFFER_SIZE)];
-              inflatedIndex = 0;
+            if (inflatedBuffer == null || inflatedIndex == inflatedCapacity) {
+              newInflatedBuffer(Math.min(missingBytes, MAX_BUFFER_SIZE));
             }
-            int bytesToRead = Math.min(missingBytes, inflatedBuffer.length - inflatedIndex);
-            int n = fullStreamDecompressor.inflateBytes(inflatedBuffer, inflatedIndex, bytesToRead);
+            int bytesToRead = Math.min(missingBytes, inflatedCapacity - inflatedIndex);
+            int n = fullStreamDecompressor.inflateBytes(
+                inflatedBuffer, inflatedOffset + inflatedIndex, bytesToRead);
             totalBytesRead += fullStreamDecompressor.getAndResetBytesConsumed();
             deflatedBytesRead += fullStreamDecompressor.getAndResetDeflatedBytesConsumed();
             if (n == 0) {
               // No more inflated data is available.
               return false;
             }
-            nextFrame.addBuffer(ReadableBuffers.wrap(inflatedBuffer, inflatedIndex, n));
+            if (pooledInflatedBuffer != null) {
+              // The wrapper holds its own reference, so the region remains valid until the
+              // message stream is closed, even after the deframer moves on to a new buffer.
+              nextFrame.addBuffer(ReadableBuffers.wrap(pooledInflatedBuffer, inflatedIndex, n));
+            } else {
+              nextFrame.addBuffer(ReadableBuffers.wrap(inflatedBuffer, inflatedIndex, n));
+            }
             inflatedIndex += n;
           } catch (IOException e) {
             throw new RuntimeException(e);
@@ -369,6 +391,34 @@ public class MessageDeframer implements Closeable, Deframer {
     }
   }
 
+  /**
+   * Replaces the buffer that inflated bytes are written to, using the pooled allocator if one is
+   * set.
+   */
+  private void newInflatedBuffer(int capacity) {
+    releasePooledInflatedBuffer();
+    if (inboundBufferAllocator != null) {
+      pooledInflatedBuffer = inboundBufferAllocator.allocate(capacity);
+      inflatedBuffer = pooledInflatedBuffer.array();
+      inflatedOffset = pooledInflatedBuffer.arrayOffset();
+      inflatedCapacity = pooledInflatedBuffer.capacity();
+    } else {
+      inflatedBuffer = new byte[capacity];
+      inflatedOffset = 0;
+      inflatedCapacity = capacity;
+    }
+    inflatedIndex = 0;
+  }
+
+  /** Drops the deframer's own reference to the pooled buffer being filled, if any. */
+  private void releasePooledInflatedBuffer() {
+    if (pooledInflatedBuffer != null) {
+      pooledInflatedBuffer.release();
+      pooledInflatedBuffer = null;
+      inflatedBuffer = null;
+    }
+  }
+
   /**
    * Processes the GRPC compression header which is composed of the compression flag and the outer
    * frame length.
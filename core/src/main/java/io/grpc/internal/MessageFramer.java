@@ -78,6 +78,11 @@ public class MessageFramer implements Framer {
   private final OutputStreamAdapter outputStreamAdapter = new OutputStreamAdapter();
   private final ByteBuffer headerScratch = ByteBuffer.allocate(HEADER_LENGTH);
   private final WritableBufferAllocator bufferAllocator;
+  // Set when the allocator can gather buffers, in which case filled buffers are held in
+  // pendingBuffers and delivered to the sink as a single frame.
+  @Nullable
+  private final CompositeWritableBufferAllocator compositeAllocator;
+  private final List<WritableBuffer> pendingBuffers = new ArrayList<>();
   private final StatsTraceContext statsTraceCtx;
   // transportTracer is nullable until it is integrated with client transports
   private boolean closed;
@@ -97,6 +102,8 @@ public class MessageFramer implements Framer {
       Sink sink, WritableBufferAllocator bufferAllocator, StatsTraceContext statsTraceCtx) {
     this.sink = checkNotNull(sink, "sink");
     this.bufferAllocator = checkNotNull(bufferAllocator, "bufferAllocator");
+    this.compositeAllocator = bufferAllocator instanceof CompositeWritableBufferAllocator
+        ? (CompositeWritableBufferAllocator) bufferAllocator : null;
     this.statsTraceCtx = checkNotNull(statsTraceCtx, "statsTraceCtx");
   }
 
@@ -243,6 +250,21 @@ public class MessageFramer implements Framer {
       buffer = writeableHeader;
       return;
     }
+    if (compositeAllocator != null) {
+      // Gather the header and payload so they reach the transport as a single frame on the next
+      // commit, instead of delivering the small header on its own.
+      if (buffer != null && buffer.readableBytes() > 0) {
+        pendingBuffers.add(buffer);
+      } else {
+        releaseCurrentBuffer();
+      }
+      pendingBuffers.add(writeableHeader);
+      List<WritableBuffer> bufferList = bufferChain.bufferList;
+      pendingBuffers.addAll(bufferList.subList(0, bufferList.size() - 1));
+      buffer = bufferList.get(bufferList.size() - 1);
+      currentMessageWireSize = messageLength;
+      return;
+    }
     // Note that we are always delivering a small message to the transport here which
     // may incur transport framing overhead as it may be sent separately to the contents
     // of the GRPC frame.
@@ -278,7 +300,12 @@ public class MessageFramer implements Framer {
   private void writeRaw(byte[] b, int off, int len) {
     while (len > 0) {
       if (buffer != null && buffer.writableBytes() == 0) {
-        commitToSink(false, false);
+        if (compositeAllocator != null) {
+          pendingBuffers.add(buffer);
+          buffer = null;
+        } else {
+          commitToSink(false, false);
+        }
       }
       if (buffer == null) {
         // Request a buffer allocation using the message length as a hint.
@@ -296,7 +323,7 @@ public class MessageFramer implements Framer {
    */
   @Override
   public void flush() {
-    if (buffer != null && buffer.readableBytes() > 0) {
+    if (!pendingBuffers.isEmpty() || (buffer != null && buffer.readableBytes() > 0)) {
       commitToSink(false, true);
     }
   }
@@ -321,7 +348,7 @@ public class MessageFramer implements Framer {
       // With the current code we don't expect readableBytes > 0 to be possible here, added
       // defensively to prevent buffer leak issues if the framer code changes later.
       if (buffer != null && buffer.readableBytes() == 0) {
-        releaseBuffer();
+        releaseCurrentBuffer();
       }
       commitToSink(true, true);
     }
@@ -338,6 +365,14 @@ public class MessageFramer implements Framer {
   }
 
   private void releaseBuffer() {
+    releaseCurrentBuffer();
+    for (WritableBuffer pending : pendingBuffers) {
+      pending.release();
+    }
+    pendingBuffers.clear();
+  }
+
+  private void releaseCurrentBuffer() {
     if (buffer != null) {
       buffer.release();
       buffer = null;
@@ -347,6 +382,17 @@ public class MessageFramer implements Framer {
   private void commitToSink(boolean endOfStream, boolean flush) {
     WritableBuffer buf = buffer;
     buffer = null;
+    if (!pendingBuffers.isEmpty()) {
+      if (buf != null) {
+        if (buf.readableBytes() > 0) {
+          pendingBuffers.add(buf);
+        } else {
+          buf.release();
+        }
+      }
+      buf = compositeAllocator.compose(new ArrayList<>(pendingBuffers));
+      pendingBuffers.clear();
+    }
     sink.deliverFrame(buf, endOfStream, flush, messagesBuffered);
     messagesBuffered = 0;
   }
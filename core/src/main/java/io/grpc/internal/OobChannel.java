@@ -82,6 +82,7 @@ final class OobChannel extends ManagedChannel implements InternalInstrumented<Ch
   private final CallTracer channelCallsTracer;
   private final ChannelTracer channelTracer;
   private final TimeProvider timeProvider;
+  private final int callbackBatchSize;
 
   private final ClientStreamProvider transportProvider = new ClientStreamProvider() {
     @Override
@@ -105,7 +106,7 @@ final class OobChannel extends ManagedChannel implements InternalInstrumented<Ch
       String authority, ObjectPool<? extends Executor> executorPool,
       ScheduledExecutorService deadlineCancellationExecutor, SynchronizationContext syncContext,
       CallTracer callsTracer, ChannelTracer channelTracer, InternalChannelz channelz,
-      TimeProvider timeProvider) {
+      TimeProvider timeProvider, int callbackBatchSize) {
     this.authority = checkNotNull(authority, "authority");
     this.logId = InternalLogId.allocate(getClass(), authority);
     this.executorPool = checkNotNull(executorPool, "executorPool");
@@ -138,6 +139,7 @@ final class OobChannel extends ManagedChannel implements InternalInstrumented<Ch
     this.channelCallsTracer = callsTracer;
     this.channelTracer = checkNotNull(channelTracer, "channelTracer");
     this.timeProvider = checkNotNull(timeProvider, "timeProvider");
+    this.callbackBatchSize = callbackBatchSize;
   }
 
   // Must be called only once, right after the OobChannel is created.
@@ -205,7 +207,8 @@ final class OobChannel extends ManagedChannel implements InternalInstrumented<Ch
       MethodDescriptor<RequestT, ResponseT> methodDescriptor, CallOptions callOptions) {
     return new ClientCallImpl<>(methodDescriptor,
         callOptions.getExecutor() == null ? executor : callOptions.getExecutor(),
-        callOptions, transportProvider, deadlineCancellationExecutor, channelCallsTracer, null);
+        callOptions, transportProvider, deadlineCancellationExecutor, channelCallsTracer, null)
+        .setCallbackBatchSize(callbackBatchSize);
   }
 
   @Override
@@ -62,6 +62,22 @@ public final class ReadableBuffers {
     return new ByteArrayWrapper(bytes, offset, length);
   }
 
+  /**
+   * Creates a new {@link ReadableBuffer} that is backed by a region of the given pooled buffer. The
+   * pooled buffer is retained by the returned {@link ReadableBuffer} (and by any buffers sliced
+   * from it via {@link ReadableBuffer#readBytes(int)}) and released when it is closed.
+   *
+   * @param buffer the pooled buffer being wrapped.
+   * @param index the starting index of the region, relative to the buffer's array offset.
+   * @param length the length of the region from the {@code index}.
+   */
+  public static ReadableBuffer wrap(
+      InboundBufferAllocator.InboundBuffer buffer, int index, int length) {
+    Preconditions.checkArgument(index + length <= buffer.capacity(),
+        "index + length exceeds buffer capacity");
+    return new PooledByteArrayWrapper(buffer, buffer.arrayOffset() + index, length);
+  }
+
   /**
    * Creates a new {@link ReadableBuffer} that is backed by the given {@link ByteBuffer}. Calls to
    * read from the buffer will increment the position of the {@link ByteBuffer}.
@@ -229,6 +245,37 @@ public final class ReadableBuffers {
     }
   }
 
+  /**
+   * A {@link ByteArrayWrapper} over a region of a pooled buffer, holding one reference to the
+   * buffer until closed.
+   */
+  private static final class PooledByteArrayWrapper extends ByteArrayWrapper {
+    final InboundBufferAllocator.InboundBuffer buffer;
+    boolean released;
+
+    PooledByteArrayWrapper(InboundBufferAllocator.InboundBuffer buffer, int offset, int length) {
+      super(buffer.array(), offset, length);
+      this.buffer = buffer;
+      buffer.retain();
+    }
+
+    @Override
+    public PooledByteArrayWrapper readBytes(int length) {
+      checkReadable(length);
+      int originalOffset = offset;
+      offset += length;
+      return new PooledByteArrayWrapper(buffer, originalOffset, length);
+    }
+
+    @Override
+    public void close() {
+      if (!released) {
+        released = true;
+        buffer.release();
+      }
+    }
+  }
+
   /**
    * A {@link ReadableBuffer} that is backed by a {@link ByteBuffer}.
    */
@@ -128,6 +128,7 @@ public final class ServerImpl extends io.grpc.Server implements InternalInstrume
   private final CallTracer serverCallTracer;
   private final Deadline.Ticker ticker;
   private final ServerCallExecutorSupplier executorSupplier;
+  private final int callbackBatchSize;
 
   /**
    * Construct a server.
@@ -163,6 +164,7 @@ public final class ServerImpl extends io.grpc.Server implements InternalInstrume
     this.ticker = checkNotNull(builder.ticker, "ticker");
     channelz.addServer(this);
     this.executorSupplier = builder.executorSupplier;
+    this.callbackBatchSize = builder.callbackBatchSize;
   }
 
   /**
@@ -474,7 +476,12 @@ public final class ServerImpl extends io.grpc.Server implements InternalInstrume
       // This is a performance optimization that avoids the synchronization and queuing overhead
       // that comes with SerializingExecutor.
       if (executorSupplier != null || executor != directExecutor()) {
-        wrappedExecutor = new SerializingExecutor(executor);
+        if (callbackBatchSize > 0) {
+          wrappedExecutor = new BatchingSerializingExecutor(
+              executor, callbackBatchSize, serverCallTracer);
+        } else {
+          wrappedExecutor = new SerializingExecutor(executor);
+        }
       } else {
         wrappedExecutor = new SerializeReentrantCallsDirectExecutor();
         stream.optimizeForDirectExecutor();
@@ -583,7 +590,11 @@ public final class ServerImpl extends io.grpc.Server implements InternalInstrume
           if (executorSupplier != null) {
             Executor switchingExecutor = executorSupplier.getExecutor(call, headers);
             if (switchingExecutor != null) {
-              ((SerializingExecutor)wrappedExecutor).setExecutor(switchingExecutor);
+              if (wrappedExecutor instanceof BatchingSerializingExecutor) {
+                ((BatchingSerializingExecutor) wrappedExecutor).setExecutor(switchingExecutor);
+              } else {
+                ((SerializingExecutor) wrappedExecutor).setExecutor(switchingExecutor);
+              }
             }
           }
           return new ServerCallParameters<>(call, methodDef.getServerCallHandler());
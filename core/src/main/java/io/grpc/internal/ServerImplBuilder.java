@@ -38,6 +38,7 @@ import io.grpc.ServerMethodDefinition;
 import io.grpc.ServerServiceDefinition;
 import io.grpc.ServerStreamTracer;
 import io.grpc.ServerTransportFilter;
+import io.grpc.util.VirtualThreadCallExecutorSupplier;
 import java.io.File;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -96,6 +97,7 @@ public final class ServerImplBuilder extends ServerBuilder<ServerImplBuilder> {
   CallTracer.Factory callTracerFactory = CallTracer.getDefaultFactory();
   @Nullable
   ServerCallExecutorSupplier executorSupplier;
+  int callbackBatchSize;
 
   /**
    * An interface to provide to provide transport specific information for the server. This method
@@ -131,6 +133,18 @@ public final class ServerImplBuilder extends ServerBuilder<ServerImplBuilder> {
     return this;
   }
 
+  @Override
+  public ServerImplBuilder virtualThreadCallExecutor() {
+    return callExecutor(VirtualThreadCallExecutorSupplier.create());
+  }
+
+  @Override
+  public ServerImplBuilder callbackBatchSize(int batchSize) {
+    checkArgument(batchSize > 0, "batchSize must be positive: %s", batchSize);
+    this.callbackBatchSize = batchSize;
+    return this;
+  }
+
   @Override
   public ServerImplBuilder addService(ServerServiceDefinition service) {
     registryBuilder.addService(checkNotNull(service, "service"));
@@ -49,6 +49,7 @@ final class SubchannelChannel extends Channel {
   private final ScheduledExecutorService deadlineCancellationExecutor;
   private final CallTracer callsTracer;
   private final AtomicReference<InternalConfigSelector> configSelector;
+  private final int callbackBatchSize;
 
   private final ClientStreamProvider transportProvider = new ClientStreamProvider() {
       @Override
@@ -72,13 +73,14 @@ final class SubchannelChannel extends Channel {
   SubchannelChannel(
       InternalSubchannel subchannel, Executor executor,
       ScheduledExecutorService deadlineCancellationExecutor, CallTracer callsTracer,
-      AtomicReference<InternalConfigSelector> configSelector) {
+      AtomicReference<InternalConfigSelector> configSelector, int callbackBatchSize) {
     this.subchannel = checkNotNull(subchannel, "subchannel");
     this.executor = checkNotNull(executor, "executor");
     this.deadlineCancellationExecutor =
         checkNotNull(deadlineCancellationExecutor, "deadlineCancellationExecutor");
     this.callsTracer = checkNotNull(callsTracer, "callsTracer");
     this.configSelector = checkNotNull(configSelector, "configSelector");
+    this.callbackBatchSize = callbackBatchSize;
   }
 
   @Override
@@ -114,7 +116,8 @@ final class SubchannelChannel extends Channel {
     return new ClientCallImpl<>(methodDescriptor,
         effectiveExecutor,
         callOptions.withOption(GrpcUtil.CALL_OPTIONS_RPC_OWNED_BY_BALANCER, Boolean.TRUE),
-        transportProvider, deadlineCancellationExecutor, callsTracer, configSelector.get());
+        transportProvider, deadlineCancellationExecutor, callsTracer, configSelector.get())
+        .setCallbackBatchSize(callbackBatchSize);
   }
 
   @Override
@@ -36,6 +36,8 @@ public final class TransportTracer {
   private long streamsSucceeded;
   private long streamsFailed;
   private long keepAlivesSent;
+  private long flushes;
+  private long flushedBytes;
   private FlowControlReader flowControlWindowReader;
 
   private long messagesSent;
@@ -128,6 +130,30 @@ public final class TransportTracer {
     keepAlivesSent++;
   }
 
+  /**
+   * Reports that the transport flushed its pending writes to the network. {@code bytes} is the
+   * number of message bytes written since the previous flush, and must be at least 0.
+   */
+  public void reportFlush(long bytes) {
+    flushes++;
+    flushedBytes += bytes;
+  }
+
+  /**
+   * Returns the number of times the transport flushed its pending writes. Together with
+   * {@link #getFlushedBytes}, this gives the average number of bytes written per flush.
+   */
+  public long getFlushCount() {
+    return flushes;
+  }
+
+  /**
+   * Returns the total number of message bytes reported by {@link #reportFlush}.
+   */
+  public long getFlushedBytes() {
+    return flushedBytes;
+  }
+
   /**
    * Registers a {@link FlowControlReader} that can be used to read the local and remote flow
    * control window sizes.
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.util;
+
+import io.grpc.ExperimentalApi;
+import io.grpc.InternalVirtualThreads;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallExecutorSupplier;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link ServerCallExecutorSupplier} that runs the callbacks of each server call on virtual
+ * threads, so that blocking service implementations do not hold on to platform threads.
+ *
+ * <p>The server serializes the callbacks of a call, so they are still delivered in order and never
+ * concurrently. A new virtual thread is started whenever a call has callbacks to run and none of
+ * its callbacks is already running.
+ *
+ * <p>Virtual threads are available starting with Java 21. Use {@link #isAvailable} to check
+ * whether the current runtime supports them.
+ */
+@ThreadSafe
+@ExperimentalApi("https://github.com/grpc/grpc-java/issues/8274")
+public final class VirtualThreadCallExecutorSupplier implements ServerCallExecutorSupplier {
+  @Nullable
+  private static final ThreadFactory VIRTUAL_THREAD_FACTORY =
+      InternalVirtualThreads.newVirtualThreadFactory("grpc-server-vthread-");
+
+  private final Executor executor;
+
+  private VirtualThreadCallExecutorSupplier(final ThreadFactory threadFactory) {
+    this.executor = new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        threadFactory.newThread(command).start();
+      }
+    };
+  }
+
+  /**
+   * Returns {@code true} if the current runtime supports virtual threads.
+   */
+  public static boolean isAvailable() {
+    return VIRTUAL_THREAD_FACTORY != null;
+  }
+
+  /**
+   * Creates a new supplier.
+   *
+   * @throws UnsupportedOperationException if the current runtime does not support virtual threads
+   */
+  public static VirtualThreadCallExecutorSupplier create() {
+    if (VIRTUAL_THREAD_FACTORY == null) {
+      throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+    }
+    return new VirtualThreadCallExecutorSupplier(VIRTUAL_THREAD_FACTORY);
+  }
+
+  @Override
+  public <ReqT, RespT> Executor getExecutor(ServerCall<ReqT, RespT> call, Metadata metadata) {
+    return executor;
+  }
+}
@@ -0,0 +1,464 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import io.grpc.InternalChannelz.CallbackStats;
+import io.grpc.InternalChannelz.ChannelStats;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class BatchingSerializingExecutorTest {
+  private SingleExecutor singleExecutor = new SingleExecutor();
+  private BatchingSerializingExecutor executor =
+      new BatchingSerializingExecutor(singleExecutor, 2);
+  private List<Integer> runs = new ArrayList<>();
+
+  private class AddToRuns implements Runnable {
+    private final int val;
+
+    public AddToRuns(int val) {
+      this.val = val;
+    }
+
+    @Override
+    public void run() {
+      runs.add(val);
+    }
+  }
+
+  @Test
+  public void resumable() {
+    class CoyExecutor implements Executor {
+      int runCount;
+
+      @Override
+      public void execute(Runnable command) {
+        runCount++;
+        if (runCount == 1) {
+          throw new RuntimeException();
+        }
+        command.run();
+      }
+    }
+
+    executor = new BatchingSerializingExecutor(new CoyExecutor(), 2);
+    try {
+      executor.execute(new AddToRuns(1));
+      fail();
+    } catch (RuntimeException expected) {
+    }
+
+    // Ensure that the runnable enqueued was actually removed on the failed execute above.
+    executor.execute(new AddToRuns(2));
+
+    assertThat(runs).containsExactly(2);
+  }
+
+  @Test
+  public void serial() {
+    executor.execute(new AddToRuns(1));
+    assertEquals(Collections.<Integer>emptyList(), runs);
+    singleExecutor.drain();
+    assertEquals(Arrays.asList(1), runs);
+
+    executor.execute(new AddToRuns(2));
+    assertEquals(Arrays.asList(1), runs);
+    singleExecutor.drain();
+    assertEquals(Arrays.asList(1, 2), runs);
+  }
+
+  @Test
+  public void runsAtMostBatchSizeBeforeYielding() {
+    for (int i = 1; i <= 5; i++) {
+      executor.execute(new AddToRuns(i));
+    }
+    assertEquals(5, executor.getQueueDepth());
+
+    singleExecutor.drain();
+    assertEquals(Arrays.asList(1, 2), runs);
+    assertEquals(3, executor.getQueueDepth());
+    singleExecutor.drain();
+    assertEquals(Arrays.asList(1, 2, 3, 4), runs);
+    singleExecutor.drain();
+    assertEquals(Arrays.asList(1, 2, 3, 4, 5), runs);
+    assertEquals(0, executor.getQueueDepth());
+
+    // Nothing is left scheduled.
+    singleExecutor.drain();
+    assertEquals(Arrays.asList(1, 2, 3, 4, 5), runs);
+  }
+
+  @Test
+  public void reportsCallbackStatsToCallTracer() {
+    CallTracer callTracer = CallTracer.getDefaultFactory().create();
+    executor = new BatchingSerializingExecutor(singleExecutor, 2, callTracer);
+    for (int i = 1; i <= 5; i++) {
+      executor.execute(new AddToRuns(i));
+    }
+    assertEquals(5, getCallbackStats(callTracer).queueDepth);
+
+    singleExecutor.drain();
+    CallbackStats stats = getCallbackStats(callTracer);
+    assertEquals(3, stats.queueDepth);
+    assertEquals(1, stats.drainCount);
+
+    singleExecutor.drain();
+    singleExecutor.drain();
+    stats = getCallbackStats(callTracer);
+    assertEquals(0, stats.queueDepth);
+    assertEquals(3, stats.drainCount);
+    assertThat(stats.drainNanos).isAtLeast(0L);
+  }
+
+  @Test
+  public void submitDuringBatchIsRunInLaterBatch() {
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        executor.execute(new AddToRuns(3));
+        executor.execute(new AddToRuns(4));
+        runs.add(1);
+      }
+    });
+    executor.execute(new AddToRuns(2));
+    singleExecutor.drain();
+    assertEquals(Arrays.asList(1, 2), runs);
+    singleExecutor.drain();
+    assertEquals(Arrays.asList(1, 2, 3, 4), runs);
+  }
+
+  @Test
+  public void manyRunnablesSpanningChunks() {
+    executor = new BatchingSerializingExecutor(singleExecutor, 1000);
+    List<Integer> expected = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      executor.execute(new AddToRuns(i));
+      expected.add(i);
+    }
+    singleExecutor.drain();
+    assertEquals(expected, runs);
+
+    for (int i = 100; i < 200; i++) {
+      executor.execute(new AddToRuns(i));
+      expected.add(i);
+    }
+    singleExecutor.drain();
+    assertEquals(expected, runs);
+  }
+
+  @Test
+  public void testFirstRunnableThrows() {
+    final RuntimeException ex = new RuntimeException();
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        runs.add(1);
+        throw ex;
+      }
+    });
+    executor.execute(new AddToRuns(2));
+    executor.execute(new AddToRuns(3));
+
+    singleExecutor.drain();
+    singleExecutor.drain();
+
+    assertEquals(Arrays.asList(1, 2, 3), runs);
+  }
+
+  @Test
+  public void firstExecuteThrows() {
+    final RuntimeException ex = new RuntimeException();
+    ForwardingExecutor forwardingExecutor = new ForwardingExecutor(new Executor() {
+      @Override
+      public void execute(Runnable r) {
+        throw ex;
+      }
+    });
+    executor = new BatchingSerializingExecutor(forwardingExecutor, 2);
+    try {
+      executor.execute(new AddToRuns(1));
+      fail("expected exception");
+    } catch (RuntimeException e) {
+      assertSame(ex, e);
+    }
+    assertEquals(Collections.<Integer>emptyList(), runs);
+
+    forwardingExecutor.executor = singleExecutor;
+    executor.execute(new AddToRuns(2));
+    executor.execute(new AddToRuns(3));
+    assertEquals(Collections.<Integer>emptyList(), runs);
+    singleExecutor.drain();
+    assertEquals(Arrays.asList(2, 3), runs);
+  }
+
+  @Test
+  public void resubmitThrows() {
+    final RuntimeException ex = new RuntimeException();
+    ForwardingExecutor forwardingExecutor = new ForwardingExecutor(singleExecutor);
+    executor = new BatchingSerializingExecutor(forwardingExecutor, 1);
+    executor.execute(new AddToRuns(1));
+    executor.execute(new AddToRuns(2));
+    forwardingExecutor.executor = new Executor() {
+      @Override
+      public void execute(Runnable r) {
+        throw ex;
+      }
+    };
+    try {
+      singleExecutor.drain();
+      fail("expected exception");
+    } catch (RuntimeException e) {
+      assertSame(ex, e);
+    }
+    assertEquals(Arrays.asList(1), runs);
+
+    // The remaining task is kept and runs once the executor recovers.
+    forwardingExecutor.executor = singleExecutor;
+    executor.execute(new AddToRuns(3));
+    singleExecutor.drain();
+    singleExecutor.drain();
+    assertEquals(Arrays.asList(1, 2, 3), runs);
+  }
+
+  @Test
+  public void failedScheduleRemovesTaskQueuedAfterOthers() {
+    final RuntimeException ex = new RuntimeException();
+    Executor throwingExecutor = new Executor() {
+      @Override
+      public void execute(Runnable r) {
+        throw ex;
+      }
+    };
+    ForwardingExecutor forwardingExecutor = new ForwardingExecutor(singleExecutor);
+    executor = new BatchingSerializingExecutor(forwardingExecutor, 1);
+    executor.execute(new AddToRuns(1));
+    executor.execute(new AddToRuns(2));
+    executor.execute(new AddToRuns(3));
+    forwardingExecutor.executor = throwingExecutor;
+    try {
+      singleExecutor.drain();
+      fail("expected exception");
+    } catch (RuntimeException e) {
+      assertSame(ex, e);
+    }
+    assertEquals(Arrays.asList(1), runs);
+
+    // 2 and 3 are still queued, ahead of the task that fails to schedule.
+    try {
+      executor.execute(new AddToRuns(4));
+      fail("expected exception");
+    } catch (RuntimeException e) {
+      assertSame(ex, e);
+    }
+
+    forwardingExecutor.executor = singleExecutor;
+    executor.execute(new AddToRuns(5));
+    drainAll();
+    assertEquals(Arrays.asList(1, 2, 3, 5), runs);
+  }
+
+  @Test
+  public void failedScheduleWithStashedAndQueuedTasks() {
+    final RuntimeException ex = new RuntimeException();
+    Executor throwingExecutor = new Executor() {
+      @Override
+      public void execute(Runnable r) {
+        throw ex;
+      }
+    };
+    ForwardingExecutor forwardingExecutor = new ForwardingExecutor(singleExecutor);
+    executor = new BatchingSerializingExecutor(forwardingExecutor, 1);
+    executor.execute(new AddToRuns(1));
+    executor.execute(new AddToRuns(2));
+    executor.execute(new AddToRuns(3));
+    forwardingExecutor.executor = throwingExecutor;
+    try {
+      singleExecutor.drain();
+      fail("expected exception");
+    } catch (RuntimeException e) {
+      assertSame(ex, e);
+    }
+    try {
+      executor.execute(new AddToRuns(4));
+      fail("expected exception");
+    } catch (RuntimeException e) {
+      assertSame(ex, e);
+    }
+    // 2 and 3 are now stashed. Queue more tasks behind them, and fail the resubmit after running
+    // one of the stashed tasks, so that tasks are left both in the stash and in the queue.
+    forwardingExecutor.executor = singleExecutor;
+    executor.execute(new AddToRuns(5));
+    executor.execute(new AddToRuns(6));
+    executor.execute(new AddToRuns(7));
+    forwardingExecutor.executor = throwingExecutor;
+    try {
+      singleExecutor.drain();
+      fail("expected exception");
+    } catch (RuntimeException e) {
+      assertSame(ex, e);
+    }
+    assertEquals(Arrays.asList(1, 2), runs);
+    try {
+      executor.execute(new AddToRuns(8));
+      fail("expected exception");
+    } catch (RuntimeException e) {
+      assertSame(ex, e);
+    }
+
+    forwardingExecutor.executor = singleExecutor;
+    executor.execute(new AddToRuns(9));
+    drainAll();
+    assertEquals(Arrays.asList(1, 2, 3, 5, 6, 7, 9), runs);
+    assertEquals(0, executor.getQueueDepth());
+  }
+
+  @Test
+  public void direct() {
+    executor = new BatchingSerializingExecutor(MoreExecutors.directExecutor(), 2);
+    executor.execute(new AddToRuns(1));
+    assertEquals(Arrays.asList(1), runs);
+    executor.execute(new AddToRuns(2));
+    assertEquals(Arrays.asList(1, 2), runs);
+    executor.execute(new AddToRuns(3));
+    assertEquals(Arrays.asList(1, 2, 3), runs);
+  }
+
+  @Test
+  public void switchable() {
+    final BatchingSerializingExecutor testExecutor =
+        new BatchingSerializingExecutor(MoreExecutors.directExecutor(), 2);
+    testExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        runs.add(1);
+        testExecutor.setExecutor(singleExecutor);
+      }
+    });
+    testExecutor.execute(new AddToRuns(-2));
+    assertThat(runs).isEqualTo(Arrays.asList(1));
+    singleExecutor.drain();
+    assertThat(runs).isEqualTo(Arrays.asList(1, -2));
+  }
+
+  @Test
+  public void concurrentProducers() throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      final BatchingSerializingExecutor testExecutor = new BatchingSerializingExecutor(pool, 8);
+      final int producers = 3;
+      final int perProducer = 1000;
+      final int[] lastSeen = new int[producers];
+      Arrays.fill(lastSeen, -1);
+      final CountDownLatch done = new CountDownLatch(producers * perProducer);
+      final List<Thread> threads = new ArrayList<>();
+      for (int p = 0; p < producers; p++) {
+        final int producer = p;
+        threads.add(new Thread(new Runnable() {
+          @Override
+          public void run() {
+            for (int i = 0; i < perProducer; i++) {
+              final int val = i;
+              testExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                  // Tasks of a single producer must run in submission order.
+                  assertEquals(lastSeen[producer] + 1, val);
+                  lastSeen[producer] = val;
+                  done.countDown();
+                }
+              });
+            }
+          }
+        }));
+      }
+      for (Thread thread : threads) {
+        thread.start();
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+      for (int p = 0; p < producers; p++) {
+        assertEquals(perProducer - 1, lastSeen[p]);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private void drainAll() {
+    while (singleExecutor.runnable != null) {
+      singleExecutor.drain();
+    }
+  }
+
+  private static CallbackStats getCallbackStats(CallTracer callTracer) {
+    ChannelStats.Builder builder = new ChannelStats.Builder();
+    callTracer.updateBuilder(builder);
+    return builder.build().callbackStats;
+  }
+
+  private static class SingleExecutor implements Executor {
+    private Runnable runnable;
+
+    @Override
+    public void execute(Runnable r) {
+      if (runnable != null) {
+        fail("Already have runnable scheduled");
+      }
+      runnable = r;
+    }
+
+    public void drain() {
+      if (runnable != null) {
+        Runnable r = runnable;
+        runnable = null;
+        r.run();
+      }
+    }
+  }
+
+  private static class ForwardingExecutor implements Executor {
+    Executor executor;
+
+    public ForwardingExecutor(Executor executor) {
+      this.executor = executor;
+    }
+
+    @Override
+    public void execute(Runnable r) {
+      executor.execute(r);
+    }
+  }
+}
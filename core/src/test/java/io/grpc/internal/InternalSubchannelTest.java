@@ -41,17 +41,22 @@ import static org.mockito.Mockito.when;
 
 import com.google.common.collect.Iterables;
 import io.grpc.Attributes;
+import io.grpc.CallOptions;
+import io.grpc.ClientStreamTracer;
 import io.grpc.ConnectivityStateInfo;
 import io.grpc.EquivalentAddressGroup;
 import io.grpc.InternalChannelz;
 import io.grpc.InternalLogId;
 import io.grpc.InternalWithLogId;
+import io.grpc.Metadata;
 import io.grpc.Status;
 import io.grpc.SynchronizationContext;
 import io.grpc.internal.InternalSubchannel.CallTracingTransport;
 import io.grpc.internal.InternalSubchannel.Index;
+import io.grpc.internal.ClientStreamListener.RpcProgress;
 import io.grpc.internal.InternalSubchannel.TransportLogger;
 import io.grpc.internal.TestUtils.MockClientTransportInfo;
+import io.grpc.testing.TestMethodDescriptors;
 import java.net.SocketAddress;
 import java.util.Arrays;
 import java.util.LinkedList;
@@ -66,6 +71,7 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
@@ -1084,6 +1090,135 @@ public class InternalSubchannelTest {
     assertExactCallbackInvokes("onNotInUse");
   }
 
+  @Test
+  public void extraTransports_startedWhenFullyUsedAndRetiredWhenUnused() {
+    SocketAddress addr = mock(SocketAddress.class);
+    createInternalSubchannel(2, 1, new EquivalentAddressGroup(addr));
+
+    internalSubchannel.obtainActiveTransport();
+    MockClientTransportInfo t0 = transports.poll();
+    t0.listener.transportReady();
+    assertExactCallbackInvokes("onStateChange:CONNECTING", "onStateChange:READY");
+
+    ClientTransport transport0 = internalSubchannel.obtainActiveTransport();
+    ClientStreamListener stream0 = startStream(transport0);
+    t0.listener.transportInUse(true);
+    assertExactCallbackInvokes("onInUse");
+    assertNull(transports.poll());
+
+    // The only transport is fully used, so another one is started
+    assertSame(transport0, internalSubchannel.obtainActiveTransport());
+    MockClientTransportInfo t1 = transports.poll();
+    assertNotNull(t1);
+    t1.listener.transportReady();
+    assertNoCallbackInvoke();
+
+    // New streams go to the least used transport
+    ClientTransport transport1 = internalSubchannel.obtainActiveTransport();
+    assertSame(t1.transport, ((CallTracingTransport) transport1).delegate());
+    ClientStreamListener stream1 = startStream(transport1);
+    t1.listener.transportInUse(true);
+    // Both transports are used and there is no room for more
+    internalSubchannel.obtainActiveTransport();
+    assertNull(transports.poll());
+
+    // The additional transport is kept while the other one would be more than half full
+    stream1.closed(Status.OK, RpcProgress.PROCESSED, new Metadata());
+    t1.listener.transportInUse(false);
+    fakeClock.forwardTime(ManagedChannelImpl.SUBCHANNEL_SHUTDOWN_DELAY_SECONDS, TimeUnit.SECONDS);
+    verify(t1.transport, never()).shutdown(any(Status.class));
+
+    stream0.closed(Status.OK, RpcProgress.PROCESSED, new Metadata());
+    t0.listener.transportInUse(false);
+    assertExactCallbackInvokes("onNotInUse");
+    t1.listener.transportInUse(true);
+    t1.listener.transportInUse(false);
+    assertExactCallbackInvokes("onInUse", "onNotInUse");
+    assertSame(transport0, internalSubchannel.obtainActiveTransport());
+    fakeClock.forwardTime(ManagedChannelImpl.SUBCHANNEL_SHUTDOWN_DELAY_SECONDS, TimeUnit.SECONDS);
+    verify(t1.transport).shutdown(any(Status.class));
+    t1.listener.transportShutdown(Status.UNAVAILABLE);
+    t1.listener.transportTerminated();
+    assertNoCallbackInvoke();
+  }
+
+  @Test
+  public void extraTransports_takeOverWhenActiveTransportShutdown() {
+    SocketAddress addr = mock(SocketAddress.class);
+    createInternalSubchannel(2, 1, new EquivalentAddressGroup(addr));
+
+    internalSubchannel.obtainActiveTransport();
+    MockClientTransportInfo t0 = transports.poll();
+    t0.listener.transportReady();
+    assertExactCallbackInvokes("onStateChange:CONNECTING", "onStateChange:READY");
+    startStream(internalSubchannel.obtainActiveTransport());
+    internalSubchannel.obtainActiveTransport();
+    MockClientTransportInfo t1 = transports.poll();
+    t1.listener.transportReady();
+
+    t0.listener.transportShutdown(Status.UNAVAILABLE);
+    assertNoCallbackInvoke();
+    assertEquals(READY, internalSubchannel.getState());
+    assertSame(
+        t1.transport,
+        ((CallTracingTransport) internalSubchannel.obtainActiveTransport()).delegate());
+
+    internalSubchannel.shutdown(SHUTDOWN_REASON);
+    verify(t1.transport).shutdown(same(SHUTDOWN_REASON));
+    assertExactCallbackInvokes("onStateChange:SHUTDOWN");
+    t0.listener.transportTerminated();
+    t1.listener.transportShutdown(SHUTDOWN_REASON);
+    t1.listener.transportTerminated();
+    assertExactCallbackInvokes("onTerminated");
+  }
+
+  @Test
+  public void extraTransports_backoffGrowsUntilOneIsReady() {
+    SocketAddress addr = mock(SocketAddress.class);
+    createInternalSubchannel(3, 1, new EquivalentAddressGroup(addr));
+
+    internalSubchannel.obtainActiveTransport();
+    MockClientTransportInfo t0 = transports.poll();
+    t0.listener.transportReady();
+    assertExactCallbackInvokes("onStateChange:CONNECTING", "onStateChange:READY");
+    startStream(internalSubchannel.obtainActiveTransport());
+    internalSubchannel.obtainActiveTransport();
+    MockClientTransportInfo t1 = transports.poll();
+    assertNotNull(t1);
+
+    // The first failure starts a backoff
+    t1.listener.transportShutdown(Status.UNAVAILABLE);
+    internalSubchannel.obtainActiveTransport();
+    assertNull(transports.poll());
+    fakeClock.forwardNanos(10);
+    internalSubchannel.obtainActiveTransport();
+    MockClientTransportInfo t2 = transports.poll();
+    assertNotNull(t2);
+
+    // The next failure backs off longer, using the same policy
+    t2.listener.transportShutdown(Status.UNAVAILABLE);
+    fakeClock.forwardNanos(99);
+    internalSubchannel.obtainActiveTransport();
+    assertNull(transports.poll());
+    fakeClock.forwardNanos(1);
+    internalSubchannel.obtainActiveTransport();
+    MockClientTransportInfo t3 = transports.poll();
+    assertNotNull(t3);
+    verify(mockBackoffPolicyProvider, times(1)).get();
+    verify(mockBackoffPolicy1, times(2)).nextBackoffNanos();
+
+    // Once an additional transport is ready, the next failure starts over with a new policy
+    t3.listener.transportReady();
+    startStream(internalSubchannel.obtainActiveTransport());
+    internalSubchannel.obtainActiveTransport();
+    MockClientTransportInfo t4 = transports.poll();
+    assertNotNull(t4);
+    t4.listener.transportShutdown(Status.UNAVAILABLE);
+    verify(mockBackoffPolicyProvider, times(2)).get();
+    verify(mockBackoffPolicy2).nextBackoffNanos();
+    assertNoCallbackInvoke();
+  }
+
   @Test
   public void transportTerminateWithoutExitingInUse() {
     // An imperfect transport that terminates without going out of in-use. InternalSubchannel will
@@ -1350,6 +1485,11 @@ public class InternalSubchannelTest {
   }
 
   private void createInternalSubchannel(EquivalentAddressGroup ... addrs) {
+    createInternalSubchannel(1, Integer.MAX_VALUE, addrs);
+  }
+
+  private void createInternalSubchannel(
+      int maxTransports, int maxStreamsPerTransport, EquivalentAddressGroup ... addrs) {
     List<EquivalentAddressGroup> addressGroups = Arrays.asList(addrs);
     InternalLogId logId = InternalLogId.allocate("Subchannel", /*details=*/ AUTHORITY);
     ChannelTracer subchannelTracer = new ChannelTracer(logId, 10,
@@ -1360,7 +1500,21 @@ public class InternalSubchannelTest {
         channelz, CallTracer.getDefaultFactory().create(),
         subchannelTracer,
         logId,
-        new ChannelLoggerImpl(subchannelTracer, fakeClock.getTimeProvider()));
+        new ChannelLoggerImpl(subchannelTracer, fakeClock.getTimeProvider()),
+        maxTransports, maxStreamsPerTransport);
+  }
+
+  /** Starts a stream on the transport, and returns the listener to close it with. */
+  private static ClientStreamListener startStream(ClientTransport transport) {
+    ClientStream stream = transport.newStream(
+        TestMethodDescriptors.voidMethod(), new Metadata(), CallOptions.DEFAULT,
+        new ClientStreamTracer[0]);
+    stream.start(mock(ClientStreamListener.class));
+    ArgumentCaptor<ClientStreamListener> listenerCaptor =
+        ArgumentCaptor.forClass(ClientStreamListener.class);
+    verify(((ForwardingClientStream) stream).delegate(), times(1))
+        .start(listenerCaptor.capture());
+    return listenerCaptor.getValue();
   }
 
   private void assertNoCallbackInvoke() {
@@ -21,6 +21,7 @@ import static io.grpc.ConnectivityState.READY;
 import static io.grpc.ConnectivityState.TRANSIENT_FAILURE;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.AdditionalAnswers.delegatesTo;
@@ -101,6 +102,7 @@ public class ManagedChannelImplIdlenessTest {
   private static final String AUTHORITY = "fakeauthority";
   private static final String USER_AGENT = "fakeagent";
   private static final long IDLE_TIMEOUT_SECONDS = 30;
+  private static final long RECONNECT_BACKOFF_INTERVAL_NANOS = 10;
   private static final String MOCK_POLICY_NAME = "mock_lb";
   private ManagedChannelImpl channel;
 
@@ -148,6 +150,7 @@ public class ManagedChannelImplIdlenessTest {
   @Mock private NameResolver.Factory mockNameResolverFactory;
   @Mock private ClientCall.Listener<Integer> mockCallListener;
   @Mock private ClientCall.Listener<Integer> mockCallListener2;
+  @Mock private Runnable mockReadyCallback;
   @Captor private ArgumentCaptor<NameResolver.Listener2> nameResolverListenerCaptor;
   private BlockingQueue<MockClientTransportInfo> newTransports;
 
@@ -407,6 +410,89 @@ public class ManagedChannelImplIdlenessTest {
     verify(mockNameResolver, atMostOnce()).start(isA(NameResolver.Listener2.class));
   }
 
+  @Test
+  public void warmUpConnectsAndHoldsOffIdleness() {
+    channel.warmUp(mockReadyCallback, executor.getScheduledExecutorService());
+
+    // Verify that we have exited the idle mode and asked the LoadBalancer to connect
+    ArgumentCaptor<Helper> helperCaptor = ArgumentCaptor.forClass(null);
+    verify(mockLoadBalancerProvider).newLoadBalancer(helperCaptor.capture());
+    verify(mockLoadBalancer).requestConnection();
+    deliverResolutionResult();
+    Helper helper = helperCaptor.getValue();
+    assertTrue(channel.inUseStateAggregator.isInUse());
+
+    // Subchannels connect as soon as they are created
+    createSubchannelSafely(helper, servers.get(0), Attributes.EMPTY);
+    MockClientTransportInfo t0 = newTransports.poll();
+    assertNotNull(t0);
+    t0.listener.transportReady();
+    executor.runDueTasks();
+    verify(mockReadyCallback, never()).run();
+
+    updateBalancingStateSafely(helper, READY, mock(SubchannelPicker.class));
+    executor.runDueTasks();
+    verify(mockReadyCallback).run();
+
+    // The channel doesn't go idle without any calls
+    timer.forwardTime(IDLE_TIMEOUT_SECONDS * 2, TimeUnit.SECONDS);
+    verify(mockLoadBalancer, never()).shutdown();
+
+    // A closed connection is re-established without waiting for a call
+    t0.listener.transportShutdown(Status.UNAVAILABLE);
+    t0.listener.transportTerminated();
+    assertNotNull(newTransports.poll());
+  }
+
+  @Test
+  public void warmUpReconnectsWithBackoff() {
+    channel.warmUp(mockReadyCallback, executor.getScheduledExecutorService());
+    ArgumentCaptor<Helper> helperCaptor = ArgumentCaptor.forClass(null);
+    verify(mockLoadBalancerProvider).newLoadBalancer(helperCaptor.capture());
+    deliverResolutionResult();
+    Helper helper = helperCaptor.getValue();
+    createSubchannelSafely(helper, servers.get(0), Attributes.EMPTY);
+    MockClientTransportInfo t0 = newTransports.poll();
+    t0.listener.transportReady();
+
+    // A connection closed right after it was established is re-established after a backoff
+    t0.listener.transportShutdown(Status.UNAVAILABLE);
+    assertNull(newTransports.poll());
+    timer.forwardNanos(RECONNECT_BACKOFF_INTERVAL_NANOS - 1);
+    assertNull(newTransports.poll());
+    timer.forwardNanos(1);
+    MockClientTransportInfo t1 = newTransports.poll();
+    assertNotNull(t1);
+    t1.listener.transportReady();
+
+    // The backoff grows while connections keep being closed right away
+    t1.listener.transportShutdown(Status.UNAVAILABLE);
+    timer.forwardNanos(RECONNECT_BACKOFF_INTERVAL_NANOS);
+    assertNull(newTransports.poll());
+    timer.forwardNanos(RECONNECT_BACKOFF_INTERVAL_NANOS);
+    MockClientTransportInfo t2 = newTransports.poll();
+    assertNotNull(t2);
+    t2.listener.transportReady();
+
+    // A connection that outlived the backoff is re-established right away
+    timer.forwardTime(1, TimeUnit.SECONDS);
+    t2.listener.transportShutdown(Status.UNAVAILABLE);
+    assertNotNull(newTransports.poll());
+  }
+
+  @Test
+  public void warmUpCallbackRunsOnShutdown() {
+    channel.warmUp(mockReadyCallback, executor.getScheduledExecutorService());
+    verify(mockLoadBalancerProvider).newLoadBalancer(any(Helper.class));
+    executor.runDueTasks();
+    verify(mockReadyCallback, never()).run();
+
+    channel.shutdown();
+    executor.runDueTasks();
+    verify(mockReadyCallback).run();
+    assertEquals(ConnectivityState.SHUTDOWN, channel.getState(false));
+  }
+
   @Test
   public void updateSubchannelAddresses_newAddressConnects() {
     ClientCall<String, Integer> call = channel.newCall(method, CallOptions.DEFAULT);
@@ -556,9 +642,11 @@ public class ManagedChannelImplIdlenessTest {
     @Override
     public BackoffPolicy get() {
       return new BackoffPolicy() {
+        int multiplier = 1;
+
         @Override
         public long nextBackoffNanos() {
-          return 1;
+          return RECONNECT_BACKOFF_INTERVAL_NANOS * multiplier++;
         }
       };
     }
@@ -46,6 +46,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -335,6 +336,107 @@ public class MessageDeframerTest {
     }
   }
 
+  @RunWith(JUnit4.class)
+  public static class InboundBufferAllocatorTests {
+    private final Listener listener = mock(Listener.class);
+    private final CountingInboundBufferAllocator allocator = new CountingInboundBufferAllocator();
+    private final MessageDeframer deframer = new MessageDeframer(listener, Codec.Identity.NONE,
+        DEFAULT_MAX_MESSAGE_SIZE, StatsTraceContext.NOOP, new TransportTracer());
+
+    private final ArgumentCaptor<StreamListener.MessageProducer> producer =
+        ArgumentCaptor.forClass(StreamListener.MessageProducer.class);
+
+    @Before
+    public void setUp() {
+      deframer.setInboundBufferAllocator(allocator);
+      deframer.setFullStreamDecompressor(new GzipInflatingBuffer());
+    }
+
+    @Test
+    public void inflatedBytesUsePooledBuffers_releasedWhenConsumed() throws IOException {
+      deframer.request(2);
+      deframer.deframe(buffer(compress(new byte[]{0, 0, 0, 0, 2, 3, 14, 0, 0, 0, 0, 1, 15})));
+      verify(listener, times(2)).messagesAvailable(producer.capture());
+      assertThat(allocator.buffers).isNotEmpty();
+
+      List<StreamListener.MessageProducer> producers = producer.getAllValues();
+      InputStream first = producers.get(0).next();
+      InputStream second = producers.get(1).next();
+      assertEquals(Bytes.asList(new byte[]{3, 14}), bytes(first));
+      assertEquals(Bytes.asList(new byte[]{15}), bytes(second));
+      first.close();
+      second.close();
+      deframer.close();
+
+      for (CountingInboundBuffer buffer : allocator.buffers) {
+        assertEquals(0, buffer.refCnt);
+      }
+    }
+
+    @Test
+    public void closeWithPartialMessage_releasesPooledBuffers() {
+      deframer.request(1);
+      deframer.deframe(buffer(compress(new byte[]{0, 0, 0, 0, 3, 3, 14})));
+      deframer.close();
+
+      verify(listener).deframerClosed(true);
+      assertThat(allocator.buffers).isNotEmpty();
+      for (CountingInboundBuffer buffer : allocator.buffers) {
+        assertEquals(0, buffer.refCnt);
+      }
+    }
+  }
+
+  private static final class CountingInboundBufferAllocator implements InboundBufferAllocator {
+    final List<CountingInboundBuffer> buffers = new ArrayList<>();
+
+    @Override
+    public InboundBuffer allocate(int capacity) {
+      CountingInboundBuffer buffer = new CountingInboundBuffer(capacity);
+      buffers.add(buffer);
+      return buffer;
+    }
+  }
+
+  private static final class CountingInboundBuffer
+      implements InboundBufferAllocator.InboundBuffer {
+    // Offset the region within the array to verify that arrayOffset() is honored.
+    final byte[] array;
+    int refCnt = 1;
+
+    CountingInboundBuffer(int capacity) {
+      array = new byte[capacity + 3];
+    }
+
+    @Override
+    public byte[] array() {
+      assertTrue(refCnt > 0);
+      return array;
+    }
+
+    @Override
+    public int arrayOffset() {
+      return 3;
+    }
+
+    @Override
+    public int capacity() {
+      return array.length - 3;
+    }
+
+    @Override
+    public void retain() {
+      assertTrue(refCnt > 0);
+      refCnt++;
+    }
+
+    @Override
+    public void release() {
+      assertTrue(refCnt > 0);
+      refCnt--;
+    }
+  }
+
   @RunWith(JUnit4.class)
   public static class SizeEnforcingInputStreamTests {
     @SuppressWarnings("deprecation") // https://github.com/grpc/grpc-java/issues/7467
@@ -34,6 +34,7 @@ import java.io.ByteArrayInputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.Arrays;
+import java.util.List;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -148,6 +149,38 @@ public class MessageFramerTest {
     checkStats(8, 8);
   }
 
+  @Test
+  public void payloadSplitBetweenBuffers_compositeAllocatorDeliversSingleFrame() {
+    CompositeBytesWritableBufferAllocator allocator =
+        new CompositeBytesWritableBufferAllocator(12, 12);
+    framer = new MessageFramer(sink, allocator, statsTraceCtx);
+    writeKnownLength(framer, new byte[]{3, 14, 1, 5, 9, 2, 6, 5});
+    verifyNoMoreInteractions(sink);
+
+    framer.flush();
+    verify(sink).deliverFrame(
+        toWriteBuffer(new byte[] {0, 0, 0, 0, 8, 3, 14, 1, 5, 9, 2, 6, 5}), false, true, 1);
+    verifyNoMoreInteractions(sink);
+    assertEquals(2, allocator.allocCount);
+    assertEquals(1, allocator.composeCount);
+    checkStats(8, 8);
+  }
+
+  @Test
+  public void unknownLengthPayload_compositeAllocatorDeliversHeaderWithPayload() {
+    CompositeBytesWritableBufferAllocator allocator =
+        new CompositeBytesWritableBufferAllocator(1000, 1000);
+    framer = new MessageFramer(sink, allocator, statsTraceCtx);
+    writeUnknownLength(framer, new byte[]{3, 14});
+    verifyNoMoreInteractions(sink);
+
+    framer.flush();
+    verify(sink).deliverFrame(toWriteBuffer(new byte[] {0, 0, 0, 0, 2, 3, 14}), false, true, 1);
+    verifyNoMoreInteractions(sink);
+    assertEquals(1, allocator.composeCount);
+    checkStats(2, 2);
+  }
+
   @Test
   public void frameHeaderSplitBetweenSinks() {
     allocator = new BytesWritableBufferAllocator(12, 12);
@@ -466,4 +499,29 @@ public class MessageFramerTest {
       return new ByteWritableBuffer(Math.min(maxSize, Math.max(capacityHint, minSize)));
     }
   }
+
+  static class CompositeBytesWritableBufferAllocator extends BytesWritableBufferAllocator
+      implements CompositeWritableBufferAllocator {
+    public int composeCount = 0;
+
+    CompositeBytesWritableBufferAllocator(int minSize, int maxSize) {
+      super(minSize, maxSize);
+    }
+
+    @Override
+    public WritableBuffer compose(List<WritableBuffer> buffers) {
+      composeCount++;
+      int size = 0;
+      for (WritableBuffer buffer : buffers) {
+        size += buffer.readableBytes();
+      }
+      ByteWritableBuffer composite = new ByteWritableBuffer(size);
+      for (WritableBuffer buffer : buffers) {
+        ByteWritableBuffer bytes = (ByteWritableBuffer) buffer;
+        composite.write(bytes.data, 0, bytes.readableBytes());
+        bytes.release();
+      }
+      return composite;
+    }
+  }
 }
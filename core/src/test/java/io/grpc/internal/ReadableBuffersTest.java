@@ -244,4 +244,26 @@ public class ReadableBuffersTest {
     detachedStream.close();
     verify(buffer).close();
   }
+
+  @Test
+  public void wrapPooled_retainsUntilClosed() {
+    InboundBufferAllocator.InboundBuffer pooled = mock(InboundBufferAllocator.InboundBuffer.class);
+    byte[] array = new byte[] {'x', 'h', 'e', 'l', 'l', 'o'};
+    when(pooled.array()).thenReturn(array);
+    when(pooled.arrayOffset()).thenReturn(1);
+    when(pooled.capacity()).thenReturn(5);
+
+    ReadableBuffer buffer = ReadableBuffers.wrap(pooled, 1, 3);
+    verify(pooled).retain();
+    ReadableBuffer slice = buffer.readBytes(2);
+    verify(pooled, times(2)).retain();
+    assertArrayEquals(new byte[] {'e', 'l'}, ReadableBuffers.readArray(slice));
+    assertArrayEquals(new byte[] {'l'}, ReadableBuffers.readArray(buffer));
+
+    buffer.close();
+    buffer.close();
+    verify(pooled).release();
+    slice.close();
+    verify(pooled, times(2)).release();
+  }
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+import io.grpc.Metadata;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link VirtualThreadCallExecutorSupplier}. */
+@RunWith(JUnit4.class)
+public class VirtualThreadCallExecutorSupplierTest {
+
+  @Test
+  public void create_unsupported() {
+    assumeFalse(VirtualThreadCallExecutorSupplier.isAvailable());
+    try {
+      VirtualThreadCallExecutorSupplier.create();
+      fail("Expected exception");
+    } catch (UnsupportedOperationException expected) {
+      assertThat(expected).hasMessageThat().contains("Java 21");
+    }
+  }
+
+  @Test
+  public void getExecutor_runsOnVirtualThread() throws Exception {
+    assumeTrue(VirtualThreadCallExecutorSupplier.isAvailable());
+    Executor executor =
+        VirtualThreadCallExecutorSupplier.create().getExecutor(null, new Metadata());
+    final BlockingQueue<Thread> threads = new LinkedBlockingQueue<>();
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        threads.offer(Thread.currentThread());
+      }
+    });
+    Thread thread = threads.poll(5, TimeUnit.SECONDS);
+    assertThat(thread).isNotNull();
+    assertThat(thread).isNotSameInstanceAs(Thread.currentThread());
+    assertThat(thread.getName()).startsWith("grpc-server-vthread-");
+    assertThat((Boolean) Thread.class.getMethod("isVirtual").invoke(thread)).isTrue();
+  }
+}
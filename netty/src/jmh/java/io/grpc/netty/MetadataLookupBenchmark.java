@@ -0,0 +1,142 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.netty;
+
+import io.grpc.InternalMetadata;
+import io.grpc.Metadata;
+import io.grpc.netty.GrpcHttp2HeadersUtils.GrpcHttp2RequestHeaders;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.util.AsciiString;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks {@link Metadata} lookups on headers decoded by {@link GrpcHttp2RequestHeaders}, as a
+ * proxy would do them on each call.
+ */
+@State(Scope.Thread)
+public class MetadataLookupBenchmark {
+
+  private static final AsciiString[] requestHeaders = {
+      AsciiString.of(":method"), AsciiString.of("POST"),
+      AsciiString.of(":scheme"), AsciiString.of("http"),
+      AsciiString.of(":path"), AsciiString.of("/google.pubsub.v2.PublisherService/CreateTopic"),
+      AsciiString.of(":authority"), AsciiString.of("pubsub.googleapis.com"),
+      AsciiString.of("te"), AsciiString.of("trailers"),
+      AsciiString.of("grpc-timeout"), AsciiString.of("1S"),
+      AsciiString.of("content-type"), AsciiString.of("application/grpc+proto"),
+      AsciiString.of("user-agent"), AsciiString.of("grpc-java-netty/1.41.0"),
+      AsciiString.of("grpc-encoding"), AsciiString.of("gzip"),
+      AsciiString.of("grpc-accept-encoding"), AsciiString.of("gzip"),
+      AsciiString.of("authorization"), AsciiString.of("Bearer y235.wef315yfh138vh31hv93hv8h3v"),
+      AsciiString.of("traceparent"),
+      AsciiString.of("00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01"),
+      AsciiString.of("x-request-id"), AsciiString.of("7f7a3b0e-1c55-4b3e-9d4b-6a8a0e0c9b11"),
+      AsciiString.of("x-forwarded-for"), AsciiString.of("10.0.0.1"),
+      AsciiString.of("x-envoy-attempt-count"), AsciiString.of("1"),
+      AsciiString.of("x-custom-tenant"), AsciiString.of("tenant-42"),
+  };
+
+  private static final Metadata.Key<?>[] internedKeys = {
+      asciiKey("grpc-timeout"),
+      asciiKey("content-type"),
+      asciiKey("user-agent"),
+      asciiKey("grpc-encoding"),
+      asciiKey("grpc-accept-encoding"),
+      asciiKey("authorization"),
+      asciiKey("traceparent"),
+      asciiKey("grpc-trace-bin"),
+      asciiKey("grpc-tags-bin"),
+      asciiKey("grpc-previous-rpc-attempts"),
+  };
+
+  private static final Metadata.Key<?>[] otherKeys = {
+      asciiKey("x-request-id"),
+      asciiKey("x-forwarded-for"),
+      asciiKey("x-envoy-attempt-count"),
+      asciiKey("x-custom-tenant"),
+      asciiKey("x-missing"),
+  };
+
+  private static Metadata.Key<?> asciiKey(String name) {
+    if (name.endsWith(Metadata.BINARY_HEADER_SUFFIX)) {
+      return Metadata.Key.of(name, Metadata.BINARY_BYTE_MARSHALLER);
+    }
+    return Metadata.Key.of(name, Metadata.ASCII_STRING_MARSHALLER);
+  }
+
+  private static Http2Headers decode() {
+    Http2Headers headers = new GrpcHttp2RequestHeaders(4);
+    for (int i = 0; i < requestHeaders.length; i += 2) {
+      headers.add(requestHeaders[i], requestHeaders[i + 1]);
+    }
+    return headers;
+  }
+
+  /**
+   * Decodes the headers and looks up 15 keys, 10 of which are interned. The decoder already knows
+   * where the interned headers are.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public void decodedSlots_lookup(Blackhole bh) {
+    lookup(bh, Utils.convertHeaders(decode()));
+  }
+
+  /**
+   * Same as {@link #decodedSlots_lookup}, but the interned headers are found by {@link Metadata}
+   * when it is created.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public void computedSlots_lookup(Blackhole bh) {
+    GrpcHttp2RequestHeaders headers = (GrpcHttp2RequestHeaders) decode();
+    lookup(bh, InternalMetadata.newMetadata(headers.numHeaders(), headers.namesAndValues()));
+  }
+
+  /**
+   * Decodes the headers and looks up keys that are not interned, which scans all headers.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public void notInterned_lookup(Blackhole bh) {
+    Metadata metadata = Utils.convertHeaders(decode());
+    for (int i = 0; i < 3; i++) {
+      for (Metadata.Key<?> key : otherKeys) {
+        bh.consume(metadata.get(key));
+      }
+    }
+  }
+
+  private static void lookup(Blackhole bh, Metadata metadata) {
+    for (Metadata.Key<?> key : internedKeys) {
+      bh.consume(metadata.get(key));
+    }
+    for (Metadata.Key<?> key : otherKeys) {
+      bh.consume(metadata.get(key));
+    }
+  }
+}
@@ -40,6 +40,7 @@ import static io.netty.util.AsciiString.isUpperCase;
 
 import com.google.common.io.BaseEncoding;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import io.grpc.InternalMetadata;
 import io.grpc.Metadata;
 import io.netty.handler.codec.CharSequenceValueConverter;
 import io.netty.handler.codec.http2.DefaultHttp2HeadersDecoder;
@@ -49,6 +50,7 @@ import io.netty.util.internal.PlatformDependent;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import javax.annotation.Nullable;
 
 /**
  * A headers utils providing custom gRPC implementations of {@link DefaultHttp2HeadersDecoder}.
@@ -96,6 +98,12 @@ class GrpcHttp2HeadersUtils {
     private byte[][] namesAndValues;
     private AsciiString[] values;
     private int namesAndValuesIdx;
+    /**
+     * One plus the index of the last header of each interned name, see {@link
+     * InternalMetadata#internedKeySlot}. Null once a header has been removed.
+     */
+    @Nullable
+    private int[] internedSlots = new int[InternalMetadata.internedKeySlotCount()];
 
     GrpcHttp2InboundHeaders(int numHeadersGuess) {
       checkArgument(numHeadersGuess > 0, "numHeadersGuess needs to be positive: %s",
@@ -107,9 +115,10 @@ class GrpcHttp2HeadersUtils {
     protected Http2Headers add(AsciiString name, AsciiString value) {
       byte[] nameBytes = bytes(name);
       byte[] valueBytes;
+      int slot = InternalMetadata.internedKeySlot(nameBytes);
       if (!name.endsWith(binaryHeaderSuffix)) {
         valueBytes = bytes(value);
-        addHeader(value, nameBytes, valueBytes);
+        addHeader(value, nameBytes, valueBytes, slot);
         return this;
       }
       int startPos = 0;
@@ -120,15 +129,18 @@ class GrpcHttp2HeadersUtils {
         AsciiString curVal = value.subSequence(startPos, endPos, false);
         valueBytes = BaseEncoding.base64().decode(curVal);
         startPos = indexOfComma + 1;
-        addHeader(curVal, nameBytes, valueBytes);
+        addHeader(curVal, nameBytes, valueBytes, slot);
       }
       return this;
     }
 
-    private void addHeader(AsciiString value, byte[] nameBytes, byte[] valueBytes) {
+    private void addHeader(AsciiString value, byte[] nameBytes, byte[] valueBytes, int slot) {
       if (namesAndValuesIdx == namesAndValues.length) {
         expandHeadersAndValues();
       }
+      if (slot >= 0 && internedSlots != null) {
+        internedSlots[slot] = namesAndValuesIdx / 2 + 1;
+      }
       values[namesAndValuesIdx / 2] = value;
       namesAndValues[namesAndValuesIdx] = nameBytes;
       namesAndValuesIdx++;
@@ -186,6 +198,8 @@ class GrpcHttp2HeadersUtils {
         dest += 2;
       }
       namesAndValuesIdx = dest;
+      // Let Metadata find the interned headers again if it needs them.
+      internedSlots = null;
       return true;
     }
 
@@ -214,6 +228,15 @@ class GrpcHttp2HeadersUtils {
       return namesAndValues;
     }
 
+    /**
+     * Returns where the headers with interned names are in {@link #namesAndValues()}, as expected
+     * by {@link InternalMetadata#newMetadataWithInternedSlots}, or {@code null} if unknown.
+     */
+    @Nullable
+    int[] internedSlots() {
+      return internedSlots;
+    }
+
     /**
      * Returns the number of none-null headers in {@link #namesAndValues()}.
      */
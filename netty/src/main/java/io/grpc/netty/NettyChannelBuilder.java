@@ -108,6 +108,7 @@ public final class NettyChannelBuilder extends
       = new DefaultProtocolNegotiator();
   private final boolean freezeProtocolNegotiatorFactory;
   private LocalSocketPicker localSocketPicker;
+  private WriteQueue.FlushPolicy flushPolicy = WriteQueue.FlushPolicy.IMMEDIATE;
 
   /**
    * If true, indicates that the transport may use the GET method for RPCs, and may include the
@@ -253,8 +254,10 @@ public final class NettyChannelBuilder extends
   }
 
   /**
-   * Specifies the channel type to use, by default we use {@code EpollSocketChannel} if available,
-   * otherwise using {@link NioSocketChannel}.
+   * Specifies the channel type to use, by default we use {@code IOUringSocketChannel} or {@code
+   * EpollSocketChannel} if available, otherwise using {@link NioSocketChannel}. The io_uring
+   * transport is only used if it is on the classpath, and can be disabled by setting the {@code
+   * io.grpc.netty.useIoUring} system property to {@code false}.
    *
    * <p>You either use this or {@link #channelFactory(io.netty.channel.ChannelFactory)} if your
    * {@link Channel} implementation has no no-args constructor.
@@ -484,6 +487,26 @@ public final class NettyChannelBuilder extends
     return this;
   }
 
+  /**
+   * Enables coalescing of flushes. Instead of flushing the connection each time pending writes are
+   * written to it, the flush is deferred until the event loop has no other tasks to run, so
+   * messages sent on many calls at about the same time share a single system call. A flush is
+   * never deferred by more than {@code maxDelay}, nor once at least {@code maxUnflushedBytes}
+   * message bytes are waiting to be flushed. A {@code maxDelay} of zero, the default, flushes
+   * immediately.
+   *
+   * @since 1.41.0
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues/1784")
+  public NettyChannelBuilder flushCoalescing(
+      long maxDelay, TimeUnit timeUnit, int maxUnflushedBytes) {
+    checkArgument(maxDelay >= 0, "max delay must be non-negative: %s", maxDelay);
+    checkArgument(maxUnflushedBytes > 0, "max unflushed bytes must be positive: %s",
+        maxUnflushedBytes);
+    flushPolicy = new WriteQueue.FlushPolicy(timeUnit.toNanos(maxDelay), maxUnflushedBytes);
+    return this;
+  }
+
   /**
    * This class is meant to be overriden with a custom implementation of
    * {@link #createSocketAddress}.  The default implementation is a no-op.
@@ -531,7 +554,7 @@ public final class NettyChannelBuilder extends
         negotiator, channelFactory, channelOptions,
         eventLoopGroupPool, autoFlowControl, flowControlWindow, maxInboundMessageSize,
         maxHeaderListSize, keepAliveTimeNanos, keepAliveTimeoutNanos, keepAliveWithoutCalls,
-        transportTracerFactory, localSocketPicker, useGetForSafeMethods);
+        transportTracerFactory, localSocketPicker, useGetForSafeMethods, flushPolicy);
   }
 
   @VisibleForTesting
@@ -664,6 +687,7 @@ public final class NettyChannelBuilder extends
     private final TransportTracer.Factory transportTracerFactory;
     private final LocalSocketPicker localSocketPicker;
     private final boolean useGetForSafeMethods;
+    private final WriteQueue.FlushPolicy flushPolicy;
 
     private boolean closed;
 
@@ -674,7 +698,7 @@ public final class NettyChannelBuilder extends
         boolean autoFlowControl, int flowControlWindow, int maxMessageSize, int maxHeaderListSize,
         long keepAliveTimeNanos, long keepAliveTimeoutNanos, boolean keepAliveWithoutCalls,
         TransportTracer.Factory transportTracerFactory, LocalSocketPicker localSocketPicker,
-        boolean useGetForSafeMethods) {
+        boolean useGetForSafeMethods, WriteQueue.FlushPolicy flushPolicy) {
       this.protocolNegotiator = checkNotNull(protocolNegotiator, "protocolNegotiator");
       this.channelFactory = channelFactory;
       this.channelOptions = new HashMap<ChannelOption<?>, Object>(channelOptions);
@@ -692,6 +716,7 @@ public final class NettyChannelBuilder extends
       this.localSocketPicker =
           localSocketPicker != null ? localSocketPicker : new LocalSocketPicker();
       this.useGetForSafeMethods = useGetForSafeMethods;
+      this.flushPolicy = checkNotNull(flushPolicy, "flushPolicy");
     }
 
     @Override
@@ -725,7 +750,7 @@ public final class NettyChannelBuilder extends
           maxMessageSize, maxHeaderListSize, keepAliveTimeNanosState.get(), keepAliveTimeoutNanos,
           keepAliveWithoutCalls, options.getAuthority(), options.getUserAgent(),
           tooManyPingsRunnable, transportTracerFactory.create(), options.getEagAttributes(),
-          localSocketPicker, channelLogger, useGetForSafeMethods);
+          localSocketPicker, channelLogger, useGetForSafeMethods, flushPolicy);
       return transport;
     }
 
@@ -745,7 +770,7 @@ public final class NettyChannelBuilder extends
           result.negotiator.newNegotiator(), channelFactory, channelOptions, groupPool,
           autoFlowControl, flowControlWindow, maxMessageSize, maxHeaderListSize, keepAliveTimeNanos,
           keepAliveTimeoutNanos, keepAliveWithoutCalls, transportTracerFactory,  localSocketPicker,
-          useGetForSafeMethods);
+          useGetForSafeMethods, flushPolicy);
       return new SwapChannelCredentialsResult(factory, result.callCredentials);
     }
 
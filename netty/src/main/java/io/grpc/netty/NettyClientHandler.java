@@ -106,6 +106,9 @@ class NettyClientHandler extends AbstractNettyHandler {
   private static final long USER_PING_PAYLOAD = 1111;
 
   private final Http2Connection.PropertyKey streamKey;
+  /** Client streams by id, for the per-frame lookups. */
+  private final StreamStateTable<NettyClientStream.TransportState> streams =
+      new StreamStateTable<>();
   private final ClientTransportLifecycleManager lifecycleManager;
   private final KeepAliveManager keepAliveManager;
   // Returns new unstarted stopwatches
@@ -305,6 +308,11 @@ class NettyClientHandler extends AbstractNettyHandler {
         }
       }
 
+      @Override
+      public void onStreamRemoved(Http2Stream stream) {
+        streams.remove(stream.id());
+      }
+
       @Override
       public void onStreamClosed(Http2Stream stream) {
         // Although streams with CALL_OPTIONS_RPC_OWNED_BY_BALANCER are not marked as "in-use" in
@@ -352,8 +360,8 @@ class NettyClientHandler extends AbstractNettyHandler {
     }
   }
 
-  void startWriteQueue(Channel channel) {
-    clientWriteQueue = new WriteQueue(channel);
+  void startWriteQueue(Channel channel, WriteQueue.FlushPolicy flushPolicy) {
+    clientWriteQueue = new WriteQueue(channel, flushPolicy, transportTracer);
   }
 
   WriteQueue getWriteQueue() {
@@ -378,7 +386,10 @@ class NettyClientHandler extends AbstractNettyHandler {
   private void onHeadersRead(int streamId, Http2Headers headers, boolean endStream) {
     // Stream 1 is reserved for the Upgrade response, so we should ignore its headers here:
     if (streamId != Http2CodecUtil.HTTP_UPGRADE_STREAM_ID) {
-      NettyClientStream.TransportState stream = clientStream(requireHttp2Stream(streamId));
+      NettyClientStream.TransportState stream = streams.get(streamId);
+      if (stream == null) {
+        stream = clientStream(requireHttp2Stream(streamId));
+      }
       PerfMark.event("NettyClientHandler.onHeadersRead", stream.tag());
       stream.transportHeadersReceived(headers, endStream);
     }
@@ -393,7 +404,10 @@ class NettyClientHandler extends AbstractNettyHandler {
    */
   private void onDataRead(int streamId, ByteBuf data, int padding, boolean endOfStream) {
     flowControlPing().onDataRead(data.readableBytes(), padding);
-    NettyClientStream.TransportState stream = clientStream(requireHttp2Stream(streamId));
+    NettyClientStream.TransportState stream = streams.get(streamId);
+    if (stream == null) {
+      stream = clientStream(requireHttp2Stream(streamId));
+    }
     PerfMark.event("NettyClientHandler.onDataRead", stream.tag());
     stream.transportDataReceived(data, endOfStream);
     if (keepAliveManager != null) {
@@ -405,7 +419,7 @@ class NettyClientHandler extends AbstractNettyHandler {
    * Handler for an inbound HTTP/2 RST_STREAM frame, terminating a stream.
    */
   private void onRstStreamRead(int streamId, long errorCode) {
-    NettyClientStream.TransportState stream = clientStream(connection().stream(streamId));
+    NettyClientStream.TransportState stream = clientStream(streamId);
     if (stream != null) {
       PerfMark.event("NettyClientHandler.onRstStreamRead", stream.tag());
       Status status = statusFromH2Error(null, "RST_STREAM closed stream", errorCode, null);
@@ -628,6 +642,7 @@ class NettyClientHandler extends AbstractNettyHandler {
               if (http2Stream != null) {
                 stream.getStatsTraceContext().clientOutboundHeaders();
                 http2Stream.setProperty(streamKey, stream);
+                streams.put(streamId, stream);
 
                 // This delays the in-use state until the I/O completes, which technically may
                 // be later than we would like.
@@ -889,6 +904,15 @@ class NettyClientHandler extends AbstractNettyHandler {
         .withDescription(context + ". " + status.getDescription() + debugString);
   }
 
+  /**
+   * Gets the client stream with the given id, or {@code null} if there is none.
+   */
+  @Nullable
+  private NettyClientStream.TransportState clientStream(int streamId) {
+    NettyClientStream.TransportState stream = streams.get(streamId);
+    return stream != null ? stream : clientStream(connection().stream(streamId));
+  }
+
   /**
    * Gets the client stream associated to the given HTTP/2 stream object.
    */
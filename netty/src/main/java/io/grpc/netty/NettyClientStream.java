@@ -36,6 +36,7 @@ import io.grpc.internal.StatsTraceContext;
 import io.grpc.internal.TransportTracer;
 import io.grpc.internal.WritableBuffer;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
@@ -85,6 +86,7 @@ class NettyClientStream extends AbstractClientStream {
         callOptions,
         useGetForSafeMethods && method.isSafe());
     this.state = checkNotNull(state, "transportState");
+    state.setAllocator(channel.alloc());
     this.writeQueue = state.handler.getWriteQueue();
     this.method = checkNotNull(method, "method");
     this.authority = checkNotNull(authority, "authority");
@@ -251,6 +253,10 @@ class NettyClientStream extends AbstractClientStream {
       return id;
     }
 
+    void setAllocator(ByteBufAllocator allocator) {
+      setInboundBufferAllocator(new NettyInboundBufferAllocator(allocator));
+    }
+
     public void setId(int id) {
       checkArgument(id > 0, "id must be positive %s", id);
       checkState(this.id == 0, "id has been previously set: %s", this.id);
@@ -102,6 +102,7 @@ class NettyClientTransport implements ConnectionClientTransport {
   private final LocalSocketPicker localSocketPicker;
   private final ChannelLogger channelLogger;
   private final boolean useGetForSafeMethods;
+  private final WriteQueue.FlushPolicy flushPolicy;
 
   NettyClientTransport(
       SocketAddress address, ChannelFactory<? extends Channel> channelFactory,
@@ -112,7 +113,7 @@ class NettyClientTransport implements ConnectionClientTransport {
       boolean keepAliveWithoutCalls, String authority, @Nullable String userAgent,
       Runnable tooManyPingsRunnable, TransportTracer transportTracer, Attributes eagAttributes,
       LocalSocketPicker localSocketPicker, ChannelLogger channelLogger,
-      boolean useGetForSafeMethods) {
+      boolean useGetForSafeMethods, WriteQueue.FlushPolicy flushPolicy) {
     this.negotiator = Preconditions.checkNotNull(negotiator, "negotiator");
     this.negotiationScheme = this.negotiator.scheme();
     this.remoteAddress = Preconditions.checkNotNull(address, "address");
@@ -137,6 +138,7 @@ class NettyClientTransport implements ConnectionClientTransport {
     this.logId = InternalLogId.allocate(getClass(), remoteAddress.toString());
     this.channelLogger = Preconditions.checkNotNull(channelLogger, "channelLogger");
     this.useGetForSafeMethods = useGetForSafeMethods;
+    this.flushPolicy = Preconditions.checkNotNull(flushPolicy, "flushPolicy");
   }
 
   @Override
@@ -232,15 +234,15 @@ class NettyClientTransport implements ConnectionClientTransport {
     Bootstrap b = new Bootstrap();
     b.option(ALLOCATOR, Utils.getByteBufAllocator(false));
     b.group(eventLoop);
-    b.channelFactory(channelFactory);
     // For non-socket based channel, the option will be ignored.
     b.option(SO_KEEPALIVE, true);
-    // For non-epoll based channel, the option will be ignored.
     if (keepAliveTimeNanos != KEEPALIVE_TIME_NANOS_DISABLED) {
-      ChannelOption<Integer> tcpUserTimeout = Utils.maybeGetTcpUserTimeoutOption();
-      if (tcpUserTimeout != null) {
-        b.option(tcpUserTimeout, (int) TimeUnit.NANOSECONDS.toMillis(keepAliveTimeoutNanos));
-      }
+      // Only native channels support the option, and the channel type is only known once a
+      // channel is created.
+      b.channelFactory(new TcpUserTimeoutChannelFactory(
+          channelFactory, (int) TimeUnit.NANOSECONDS.toMillis(keepAliveTimeoutNanos)));
+    } else {
+      b.channelFactory(channelFactory);
     }
     for (Map.Entry<ChannelOption<?>, ?> entry : channelOptions.entrySet()) {
       // Every entry in the map is obtained from
@@ -281,7 +283,7 @@ class NettyClientTransport implements ConnectionClientTransport {
     }
     channel = regFuture.channel();
     // Start the write queue as soon as the channel is constructed
-    handler.startWriteQueue(channel);
+    handler.startWriteQueue(channel, flushPolicy);
     // This write will have no effect, yet it will only complete once the negotiationHandler
     // flushes any pending writes. We need it to be staged *before* the `connect` so that
     // the channel can't have been closed yet, removing all handlers. This write will sit in the
@@ -429,4 +431,35 @@ class NettyClientTransport implements ConnectionClientTransport {
     }
     return Utils.statusFromThrowable(t);
   }
+
+  /**
+   * Sets TCP_USER_TIMEOUT on the channels it creates if their transport supports it. The channel
+   * options of the builder are applied afterwards, so they can still override it.
+   */
+  private static final class TcpUserTimeoutChannelFactory implements ChannelFactory<Channel> {
+    private final ChannelFactory<? extends Channel> delegate;
+    private final int tcpUserTimeoutMillis;
+
+    TcpUserTimeoutChannelFactory(
+        ChannelFactory<? extends Channel> delegate, int tcpUserTimeoutMillis) {
+      this.delegate = delegate;
+      this.tcpUserTimeoutMillis = tcpUserTimeoutMillis;
+    }
+
+    @Override
+    public Channel newChannel() {
+      Channel channel = delegate.newChannel();
+      ChannelOption<Integer> tcpUserTimeout =
+          Utils.maybeGetTcpUserTimeoutOption(channel.getClass());
+      if (tcpUserTimeout != null) {
+        channel.config().setOption(tcpUserTimeout, tcpUserTimeoutMillis);
+      }
+      return channel;
+    }
+
+    @Override
+    public String toString() {
+      return delegate.toString();
+    }
+  }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.netty;
+
+import com.google.common.base.Preconditions;
+import io.grpc.internal.InboundBufferAllocator;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+/**
+ * An {@link InboundBufferAllocator} backed by the channel's {@link ByteBufAllocator}. With the
+ * default {@link io.netty.buffer.PooledByteBufAllocator} inflated bytes are written into pooled
+ * arena memory instead of freshly allocated arrays. Heap buffers are used because
+ * {@link java.util.zip.Inflater} can only inflate into arrays.
+ */
+class NettyInboundBufferAllocator implements InboundBufferAllocator {
+
+  private final ByteBufAllocator allocator;
+
+  NettyInboundBufferAllocator(ByteBufAllocator allocator) {
+    this.allocator = Preconditions.checkNotNull(allocator, "allocator");
+  }
+
+  @Override
+  public InboundBuffer allocate(int capacity) {
+    return new NettyInboundBuffer(allocator.heapBuffer(capacity, capacity));
+  }
+
+  private static final class NettyInboundBuffer implements InboundBuffer {
+    private final ByteBuf buf;
+
+    NettyInboundBuffer(ByteBuf buf) {
+      this.buf = buf;
+    }
+
+    @Override
+    public byte[] array() {
+      return buf.array();
+    }
+
+    @Override
+    public int arrayOffset() {
+      return buf.arrayOffset();
+    }
+
+    @Override
+    public int capacity() {
+      return buf.capacity();
+    }
+
+    @Override
+    public void retain() {
+      buf.retain();
+    }
+
+    @Override
+    public void release() {
+      buf.release();
+    }
+  }
+}
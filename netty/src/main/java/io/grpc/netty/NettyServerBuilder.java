@@ -112,6 +112,7 @@ public final class NettyServerBuilder extends AbstractServerImplBuilder<NettySer
   private long maxConnectionAgeGraceInNanos = MAX_CONNECTION_AGE_GRACE_NANOS_INFINITE;
   private boolean permitKeepAliveWithoutCalls;
   private long permitKeepAliveTimeInNanos = TimeUnit.MINUTES.toNanos(5);
+  private WriteQueue.FlushPolicy flushPolicy = WriteQueue.FlushPolicy.IMMEDIATE;
   private Attributes eagAttributes = Attributes.EMPTY;
 
   /**
@@ -204,8 +205,10 @@ public final class NettyServerBuilder extends AbstractServerImplBuilder<NettySer
   }
 
   /**
-   * Specifies the channel type to use, by default we use {@code EpollServerSocketChannel} if
-   * available, otherwise using {@link NioServerSocketChannel}.
+   * Specifies the channel type to use, by default we use {@code IOUringServerSocketChannel} or
+   * {@code EpollServerSocketChannel} if available, otherwise using {@link NioServerSocketChannel}.
+   * The io_uring transport is only used if it is on the classpath, and can be disabled by setting
+   * the {@code io.grpc.netty.useIoUring} system property to {@code false}.
    *
    * <p>You either use this or {@link #channelFactory(io.netty.channel.ChannelFactory)} if your
    * {@link ServerChannel} implementation has no no-args constructor.
@@ -616,6 +619,28 @@ public final class NettyServerBuilder extends AbstractServerImplBuilder<NettySer
     return this;
   }
 
+  /**
+   * Enables coalescing of flushes. Instead of flushing the connection each time pending writes are
+   * written to it, the flush is deferred until the event loop has no other tasks to run, so writes
+   * made for many calls at about the same time share a single system call. A flush is never
+   * deferred by more than {@code maxDelay}, nor once at least {@code maxUnflushedBytes} message
+   * bytes are waiting to be flushed.
+   *
+   * <p>This trades a small amount of latency for fewer system calls under load. A {@code maxDelay}
+   * of zero, the default, flushes immediately.
+   *
+   * @since 1.41.0
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues/1784")
+  public NettyServerBuilder flushCoalescing(
+      long maxDelay, TimeUnit timeUnit, int maxUnflushedBytes) {
+    checkArgument(maxDelay >= 0, "max delay must be non-negative: %s", maxDelay);
+    checkArgument(maxUnflushedBytes > 0, "max unflushed bytes must be positive: %s",
+        maxUnflushedBytes);
+    flushPolicy = new WriteQueue.FlushPolicy(timeUnit.toNanos(maxDelay), maxUnflushedBytes);
+    return this;
+  }
+
   /** Sets the EAG attributes available to protocol negotiators. Not for general use. */
   void eagAttributes(Attributes eagAttributes) {
     this.eagAttributes = checkNotNull(eagAttributes, "eagAttributes");
@@ -637,7 +662,7 @@ public final class NettyServerBuilder extends AbstractServerImplBuilder<NettySer
         keepAliveTimeInNanos, keepAliveTimeoutInNanos,
         maxConnectionIdleInNanos, maxConnectionAgeInNanos,
         maxConnectionAgeGraceInNanos, permitKeepAliveWithoutCalls, permitKeepAliveTimeInNanos,
-        eagAttributes, this.serverImplBuilder.getChannelz());
+        flushPolicy, eagAttributes, this.serverImplBuilder.getChannelz());
   }
 
   @VisibleForTesting
@@ -109,6 +109,9 @@ class NettyServerHandler extends AbstractNettyHandler {
   private static final long GRACEFUL_SHUTDOWN_PING_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
 
   private final Http2Connection.PropertyKey streamKey;
+  /** Server streams by id, for the per-frame lookups. */
+  private final StreamStateTable<NettyServerStream.TransportState> streams =
+      new StreamStateTable<>();
   private final ServerTransportListener transportListener;
   private final int maxMessageSize;
   private final long keepAliveTimeInNanos;
@@ -118,6 +121,7 @@ class NettyServerHandler extends AbstractNettyHandler {
   private final List<? extends ServerStreamTracer.Factory> streamTracerFactories;
   private final TransportTracer transportTracer;
   private final KeepAliveEnforcer keepAliveEnforcer;
+  private final WriteQueue.FlushPolicy flushPolicy;
   private final Attributes eagAttributes;
   /** Incomplete attributes produced by negotiator. */
   private Attributes negotiationAttributes;
@@ -154,6 +158,7 @@ class NettyServerHandler extends AbstractNettyHandler {
       long maxConnectionAgeGraceInNanos,
       boolean permitKeepAliveWithoutCalls,
       long permitKeepAliveTimeInNanos,
+      WriteQueue.FlushPolicy flushPolicy,
       Attributes eagAttributes) {
     Preconditions.checkArgument(maxHeaderListSize > 0, "maxHeaderListSize must be positive: %s",
         maxHeaderListSize);
@@ -182,6 +187,7 @@ class NettyServerHandler extends AbstractNettyHandler {
         maxConnectionAgeGraceInNanos,
         permitKeepAliveWithoutCalls,
         permitKeepAliveTimeInNanos,
+        flushPolicy,
         eagAttributes);
   }
 
@@ -204,6 +210,7 @@ class NettyServerHandler extends AbstractNettyHandler {
       long maxConnectionAgeGraceInNanos,
       boolean permitKeepAliveWithoutCalls,
       long permitKeepAliveTimeInNanos,
+      WriteQueue.FlushPolicy flushPolicy,
       Attributes eagAttributes) {
     Preconditions.checkArgument(maxStreams > 0, "maxStreams must be positive: %s", maxStreams);
     Preconditions.checkArgument(flowControlWindow > 0, "flowControlWindow must be positive: %s",
@@ -250,6 +257,7 @@ class NettyServerHandler extends AbstractNettyHandler {
         maxConnectionAgeInNanos, maxConnectionAgeGraceInNanos,
         keepAliveEnforcer,
         autoFlowControl,
+        flushPolicy,
         eagAttributes);
   }
 
@@ -270,6 +278,7 @@ class NettyServerHandler extends AbstractNettyHandler {
       long maxConnectionAgeGraceInNanos,
       final KeepAliveEnforcer keepAliveEnforcer,
       boolean autoFlowControl,
+      WriteQueue.FlushPolicy flushPolicy,
       Attributes eagAttributes) {
     super(channelUnused, decoder, encoder, settings, new ServerChannelLogger(),
         autoFlowControl, null);
@@ -301,6 +310,11 @@ class NettyServerHandler extends AbstractNettyHandler {
         }
       }
 
+      @Override
+      public void onStreamRemoved(Http2Stream stream) {
+        streams.remove(stream.id());
+      }
+
       @Override
       public void onStreamClosed(Http2Stream stream) {
         if (connection.numActiveStreams() == 0) {
@@ -320,6 +334,7 @@ class NettyServerHandler extends AbstractNettyHandler {
     this.maxConnectionAgeInNanos = maxConnectionAgeInNanos;
     this.maxConnectionAgeGraceInNanos = maxConnectionAgeGraceInNanos;
     this.keepAliveEnforcer = checkNotNull(keepAliveEnforcer, "keepAliveEnforcer");
+    this.flushPolicy = checkNotNull(flushPolicy, "flushPolicy");
     this.eagAttributes = checkNotNull(eagAttributes, "eagAttributes");
 
     streamKey = encoder.connection().newKey();
@@ -338,7 +353,7 @@ class NettyServerHandler extends AbstractNettyHandler {
 
   @Override
   public void handlerAdded(final ChannelHandlerContext ctx) throws Exception {
-    serverWriteQueue = new WriteQueue(ctx.channel());
+    serverWriteQueue = new WriteQueue(ctx.channel(), flushPolicy, transportTracer);
 
     // init max connection age monitor
     if (maxConnectionAgeInNanos != MAX_CONNECTION_AGE_NANOS_DISABLED) {
@@ -466,6 +481,7 @@ class NettyServerHandler extends AbstractNettyHandler {
         transportListener.streamCreated(stream, method, metadata);
         state.onStreamAllocated();
         http2Stream.setProperty(streamKey, state);
+        streams.put(streamId, state);
       } finally {
         PerfMark.stopTask("NettyServerHandler.onHeadersRead", state.tag());
       }
@@ -492,7 +508,10 @@ class NettyServerHandler extends AbstractNettyHandler {
       throws Http2Exception {
     flowControlPing().onDataRead(data.readableBytes(), padding);
     try {
-      NettyServerStream.TransportState stream = serverStream(requireHttp2Stream(streamId));
+      NettyServerStream.TransportState stream = streams.get(streamId);
+      if (stream == null) {
+        stream = serverStream(requireHttp2Stream(streamId));
+      }
       PerfMark.startTask("NettyServerHandler.onDataRead", stream.tag());
       try {
         stream.inboundDataReceived(data, endOfStream);
@@ -508,7 +527,7 @@ class NettyServerHandler extends AbstractNettyHandler {
 
   private void onRstStreamRead(int streamId, long errorCode) throws Http2Exception {
     try {
-      NettyServerStream.TransportState stream = serverStream(connection().stream(streamId));
+      NettyServerStream.TransportState stream = serverStream(streamId);
       if (stream != null) {
         PerfMark.startTask("NettyServerHandler.onRstStreamRead", stream.tag());
         try {
@@ -782,6 +801,15 @@ class NettyServerHandler extends AbstractNettyHandler {
     return stream;
   }
 
+  /**
+   * Returns the server stream with the given id, or {@code null} if there is none.
+   */
+  @Nullable
+  private NettyServerStream.TransportState serverStream(int streamId) {
+    NettyServerStream.TransportState stream = streams.get(streamId);
+    return stream != null ? stream : serverStream(connection().stream(streamId));
+  }
+
   /**
    * Returns the server stream associated to the given HTTP/2 stream object.
    */
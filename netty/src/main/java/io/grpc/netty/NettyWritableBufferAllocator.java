@@ -16,9 +16,11 @@
 
 package io.grpc.netty;
 
+import io.grpc.internal.CompositeWritableBufferAllocator;
 import io.grpc.internal.WritableBuffer;
-import io.grpc.internal.WritableBufferAllocator;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
+import java.util.List;
 
 /**
  * The default allocator for {@link NettyWritableBuffer}s used by the Netty transport. We set a
@@ -28,10 +30,13 @@ import io.netty.buffer.ByteBufAllocator;
  * buffers of arbitrary size and will chunk them based on flow-control so there is no transport
  * requirement for an upper bound.
  *
+ * <p>Buffers making up a single gRPC message are gathered into a {@link CompositeByteBuf} so the
+ * message is handed to the {@link WriteQueue} as one command, without copying.
+ *
  * <p>Note: It is assumed that most applications will be using Netty's direct buffer pools for
  * maximum performance.
  */
-class NettyWritableBufferAllocator implements WritableBufferAllocator {
+class NettyWritableBufferAllocator implements CompositeWritableBufferAllocator {
 
   // Use 4k as our minimum buffer size.
   private static final int MIN_BUFFER = 4 * 1024;
@@ -50,4 +55,13 @@ class NettyWritableBufferAllocator implements WritableBufferAllocator {
     capacityHint = Math.min(MAX_BUFFER, Math.max(MIN_BUFFER, capacityHint));
     return new NettyWritableBuffer(allocator.buffer(capacityHint, capacityHint));
   }
+
+  @Override
+  public WritableBuffer compose(List<WritableBuffer> buffers) {
+    CompositeByteBuf composite = allocator.compositeBuffer(buffers.size());
+    for (WritableBuffer buffer : buffers) {
+      composite.addComponent(true, ((NettyWritableBuffer) buffer).bytebuf());
+    }
+    return new NettyWritableBuffer(composite);
+  }
 }
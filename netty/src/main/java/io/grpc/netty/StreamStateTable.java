@@ -0,0 +1,181 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.netty;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import javax.annotation.Nullable;
+
+/**
+ * Maps HTTP/2 stream ids to the transport state of their streams. Keys are kept in a primitive
+ * {@code int} array with open addressing and linear probing, so a lookup neither boxes the id nor
+ * goes through the {@link io.netty.handler.codec.http2.Http2Connection} stream map and property
+ * keys.
+ *
+ * <p>Stream id 0 is the connection itself and is used to mark empty slots, so it cannot be a key.
+ * Not thread-safe; it is only accessed from the channel's event loop.
+ */
+final class StreamStateTable<T> {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private int[] keys;
+  private Object[] values;
+  private int mask;
+  private int size;
+
+  StreamStateTable() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  StreamStateTable(int expectedSize) {
+    checkArgument(expectedSize >= 0, "expectedSize must not be negative: %s", expectedSize);
+    allocate(capacityFor(expectedSize));
+  }
+
+  /** Returns the number of streams in the table. */
+  int size() {
+    return size;
+  }
+
+  /** Returns the state of the given stream, or {@code null} if it is not in the table. */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  T get(int streamId) {
+    int[] keys = this.keys;
+    int mask = this.mask;
+    for (int i = hash(streamId) & mask; ; i = (i + 1) & mask) {
+      int key = keys[i];
+      if (key == streamId) {
+        return (T) values[i];
+      }
+      if (key == 0) {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Associates the state with the given stream, replacing any previous state. Returns the previous
+   * state, or {@code null} if there was none.
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  T put(int streamId, T state) {
+    checkArgument(streamId != 0, "streamId must not be 0");
+    checkNotNull(state, "state");
+    for (int i = hash(streamId) & mask; ; i = (i + 1) & mask) {
+      int key = keys[i];
+      if (key == streamId) {
+        T previous = (T) values[i];
+        values[i] = state;
+        return previous;
+      }
+      if (key == 0) {
+        keys[i] = streamId;
+        values[i] = state;
+        if (++size > keys.length >>> 1) {
+          rehash(keys.length << 1);
+        }
+        return null;
+      }
+    }
+  }
+
+  /** Removes the given stream. Returns its state, or {@code null} if it was not in the table. */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  T remove(int streamId) {
+    if (streamId == 0) {
+      return null;
+    }
+    for (int i = hash(streamId) & mask; ; i = (i + 1) & mask) {
+      int key = keys[i];
+      if (key == streamId) {
+        T previous = (T) values[i];
+        size--;
+        shiftBack(i);
+        return previous;
+      }
+      if (key == 0) {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Empties the slot at {@code gap} by moving back the following entries of its probe sequence
+   * that would no longer be reachable, so that lookups never need tombstones.
+   */
+  private void shiftBack(int gap) {
+    int[] keys = this.keys;
+    Object[] values = this.values;
+    int mask = this.mask;
+    for (int i = (gap + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+      int home = hash(keys[i]) & mask;
+      // Move the entry if its home slot is not within (gap, i], taking wrap-around into account.
+      if (((i - home) & mask) >= ((i - gap) & mask)) {
+        keys[gap] = keys[i];
+        values[gap] = values[i];
+        gap = i;
+      }
+    }
+    keys[gap] = 0;
+    values[gap] = null;
+  }
+
+  private void rehash(int newCapacity) {
+    int[] oldKeys = keys;
+    Object[] oldValues = values;
+    allocate(newCapacity);
+    for (int j = 0; j < oldKeys.length; j++) {
+      int key = oldKeys[j];
+      if (key != 0) {
+        int i = hash(key) & mask;
+        while (keys[i] != 0) {
+          i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = oldValues[j];
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    values = new Object[capacity];
+    mask = capacity - 1;
+  }
+
+  private static int capacityFor(int expectedSize) {
+    int capacity = DEFAULT_CAPACITY;
+    // Keep the load factor at or below 1/2.
+    while (capacity >>> 1 < expectedSize) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  /**
+   * Spreads the ids, which are consecutive odd (client) or even (server) numbers, so that they
+   * don't form long runs of occupied slots.
+   */
+  private static int hash(int streamId) {
+    int h = streamId * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
@@ -103,13 +103,28 @@ class Utils {
 
   @Nullable
   private static final Constructor<? extends EventLoopGroup> EPOLL_EVENT_LOOP_GROUP_CONSTRUCTOR;
+  @Nullable
+  private static final Constructor<? extends EventLoopGroup> IO_URING_EVENT_LOOP_GROUP_CONSTRUCTOR;
+
+  private static final String IO_URING_PACKAGE = "io.netty.incubator.channel.uring.";
+  private static final String EPOLL_PACKAGE = "io.netty.channel.epoll.";
 
   static {
-    // Decide default channel types and EventLoopGroup based on Epoll availability
-    if (isEpollAvailable()) {
+    // Decide default channel types and EventLoopGroup based on io_uring and Epoll availability
+    if (isIoUringAvailable()) {
+      DEFAULT_CLIENT_CHANNEL_TYPE = ioUringChannelType();
+      DEFAULT_SERVER_CHANNEL_FACTORY = new ReflectiveChannelFactory<>(ioUringServerChannelType());
+      IO_URING_EVENT_LOOP_GROUP_CONSTRUCTOR = ioUringEventLoopGroupConstructor();
+      EPOLL_EVENT_LOOP_GROUP_CONSTRUCTOR = null;
+      DEFAULT_BOSS_EVENT_LOOP_GROUP = new DefaultEventLoopGroupResource(
+          1, "grpc-default-boss-ELG", EventLoopGroupType.IO_URING);
+      DEFAULT_WORKER_EVENT_LOOP_GROUP = new DefaultEventLoopGroupResource(
+          0, "grpc-default-worker-ELG", EventLoopGroupType.IO_URING);
+    } else if (isEpollAvailable()) {
       DEFAULT_CLIENT_CHANNEL_TYPE = epollChannelType();
       DEFAULT_SERVER_CHANNEL_FACTORY = new ReflectiveChannelFactory<>(epollServerChannelType());
       EPOLL_EVENT_LOOP_GROUP_CONSTRUCTOR = epollEventLoopGroupConstructor();
+      IO_URING_EVENT_LOOP_GROUP_CONSTRUCTOR = null;
       DEFAULT_BOSS_EVENT_LOOP_GROUP
         = new DefaultEventLoopGroupResource(1, "grpc-default-boss-ELG", EventLoopGroupType.EPOLL);
       DEFAULT_WORKER_EVENT_LOOP_GROUP
@@ -121,6 +136,7 @@ class Utils {
       DEFAULT_BOSS_EVENT_LOOP_GROUP = NIO_BOSS_EVENT_LOOP_GROUP;
       DEFAULT_WORKER_EVENT_LOOP_GROUP = NIO_WORKER_EVENT_LOOP_GROUP;
       EPOLL_EVENT_LOOP_GROUP_CONSTRUCTOR = null;
+      IO_URING_EVENT_LOOP_GROUP_CONSTRUCTOR = null;
     }
   }
 
@@ -175,11 +191,20 @@ class Utils {
   public static Metadata convertHeaders(Http2Headers http2Headers) {
     if (http2Headers instanceof GrpcHttp2InboundHeaders) {
       GrpcHttp2InboundHeaders h = (GrpcHttp2InboundHeaders) http2Headers;
-      return InternalMetadata.newMetadata(h.numHeaders(), h.namesAndValues());
+      return newMetadata(h);
     }
     return InternalMetadata.newMetadata(convertHeadersToArray(http2Headers));
   }
 
+  private static Metadata newMetadata(GrpcHttp2InboundHeaders h) {
+    int[] internedSlots = h.internedSlots();
+    if (internedSlots == null) {
+      return InternalMetadata.newMetadata(h.numHeaders(), h.namesAndValues());
+    }
+    return InternalMetadata.newMetadataWithInternedSlots(
+        h.numHeaders(), h.namesAndValues(), internedSlots);
+  }
+
   @CheckReturnValue
   private static byte[][] convertHeadersToArray(Http2Headers http2Headers) {
     // The Netty AsciiString class is really just a wrapper around a byte[] and supports
@@ -239,7 +264,7 @@ class Utils {
   public static Metadata convertTrailers(Http2Headers http2Headers) {
     if (http2Headers instanceof GrpcHttp2InboundHeaders) {
       GrpcHttp2InboundHeaders h = (GrpcHttp2InboundHeaders) http2Headers;
-      return InternalMetadata.newMetadata(h.numHeaders(), h.namesAndValues());
+      return newMetadata(h);
     }
     return InternalMetadata.newMetadata(convertHeadersToArray(http2Headers));
   }
@@ -361,6 +386,77 @@ class Utils {
     }
   }
 
+  /**
+   * Returns {@code true} if Netty's io_uring incubator transport is on the classpath and supported
+   * by the running kernel. It can be disabled with the {@code io.grpc.netty.useIoUring} system
+   * property, in which case Epoll or Nio is used instead.
+   */
+  @VisibleForTesting
+  static boolean isIoUringAvailable() {
+    if (!Boolean.parseBoolean(System.getProperty("io.grpc.netty.useIoUring", "true"))) {
+      return false;
+    }
+    try {
+      return (boolean) (Boolean)
+          Class
+              .forName(IO_URING_PACKAGE + "IOUring")
+              .getDeclaredMethod("isAvailable")
+              .invoke(null);
+    } catch (ClassNotFoundException e) {
+      // this is normal if netty-incubator-transport-native-io_uring runtime dependency doesn't
+      // exist.
+      return false;
+    } catch (Exception e) {
+      throw new RuntimeException("Exception while checking io_uring availability", e);
+    }
+  }
+
+  // Must call when io_uring is available
+  private static Class<? extends Channel> ioUringChannelType() {
+    try {
+      return Class.forName(IO_URING_PACKAGE + "IOUringSocketChannel").asSubclass(Channel.class);
+    } catch (ClassNotFoundException e) {
+      throw new RuntimeException("Cannot load IOUringSocketChannel", e);
+    }
+  }
+
+  // Must call when io_uring is available
+  private static Constructor<? extends EventLoopGroup> ioUringEventLoopGroupConstructor() {
+    try {
+      return Class
+          .forName(IO_URING_PACKAGE + "IOUringEventLoopGroup").asSubclass(EventLoopGroup.class)
+          .getConstructor(Integer.TYPE, ThreadFactory.class);
+    } catch (ClassNotFoundException e) {
+      throw new RuntimeException("Cannot load IOUringEventLoopGroup", e);
+    } catch (NoSuchMethodException e) {
+      throw new RuntimeException("IOUringEventLoopGroup constructor not found", e);
+    }
+  }
+
+  // Must call when io_uring is available
+  private static Class<? extends ServerChannel> ioUringServerChannelType() {
+    try {
+      return Class
+          .forName(IO_URING_PACKAGE + "IOUringServerSocketChannel")
+          .asSubclass(ServerChannel.class);
+    } catch (ClassNotFoundException e) {
+      throw new RuntimeException("Cannot load IOUringServerSocketChannel", e);
+    }
+  }
+
+  private static EventLoopGroup createIoUringEventLoopGroup(
+      int parallelism,
+      ThreadFactory threadFactory) {
+    checkState(IO_URING_EVENT_LOOP_GROUP_CONSTRUCTOR != null, "io_uring is not available");
+
+    try {
+      return IO_URING_EVENT_LOOP_GROUP_CONSTRUCTOR
+          .newInstance(parallelism, threadFactory);
+    } catch (Exception e) {
+      throw new RuntimeException("Cannot create io_uring EventLoopGroup", e);
+    }
+  }
+
   private static ChannelFactory<ServerChannel> nioServerChannelFactory() {
     return new ChannelFactory<ServerChannel>() {
       @Override
@@ -371,12 +467,37 @@ class Utils {
   }
 
   /**
-   * Returns TCP_USER_TIMEOUT channel option for Epoll channel if Epoll is available, otherwise
-   * null.
+   * Returns TCP_USER_TIMEOUT channel option for the native transport of the given channel type if
+   * it supports it, otherwise null.
    */
   @Nullable
-  static ChannelOption<Integer> maybeGetTcpUserTimeoutOption() {
-    return getEpollChannelOption("TCP_USER_TIMEOUT");
+  static ChannelOption<Integer> maybeGetTcpUserTimeoutOption(
+      Class<? extends Channel> channelType) {
+    for (Class<?> type = channelType; type != null; type = type.getSuperclass()) {
+      if (type.getName().startsWith(IO_URING_PACKAGE)) {
+        return getIoUringChannelOption("TCP_USER_TIMEOUT");
+      }
+      if (type.getName().startsWith(EPOLL_PACKAGE)) {
+        return getEpollChannelOption("TCP_USER_TIMEOUT");
+      }
+    }
+    return null;
+  }
+
+  @Nullable
+  @SuppressWarnings("unchecked")
+  private static <T> ChannelOption<T> getIoUringChannelOption(String optionName) {
+    try {
+      return
+          (ChannelOption<T>) Class.forName(IO_URING_PACKAGE + "IOUringChannelOption")
+              .getField(optionName)
+              .get(null);
+    } catch (NoSuchFieldException e) {
+      // Not supported by this version of the transport.
+      return null;
+    } catch (Exception e) {
+      throw new RuntimeException("ChannelOption(" + optionName + ") is not available", e);
+    }
   }
 
   @Nullable
@@ -425,6 +546,8 @@ class Utils {
           return new NioEventLoopGroup(numEventLoops, threadFactory);
         case EPOLL:
           return createEpollEventLoopGroup(numEventLoops, threadFactory);
+        case IO_URING:
+          return createIoUringEventLoopGroup(numEventLoops, threadFactory);
         default:
           throw new AssertionError("Unknown/Unsupported EventLoopGroupType: " + eventLoopGroupType);
       }
@@ -482,7 +605,8 @@ class Utils {
 
   private enum EventLoopGroupType {
     NIO,
-    EPOLL
+    EPOLL,
+    IO_URING
   }
 
   private Utils() {
@@ -19,17 +19,26 @@ package io.grpc.netty;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import io.grpc.internal.TransportTracer;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelPromise;
+import io.netty.channel.EventLoop;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
 import io.perfmark.Link;
 import io.perfmark.PerfMark;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Nullable;
 
 /**
  * A queue of pending writes to a {@link Channel} that is flushed as a single unit.
+ *
+ * <p>By default the channel is flushed each time the queue is drained. With a coalescing {@link
+ * FlushPolicy}, the flush is instead deferred until the event loop has no other tasks to run, the
+ * policy's delay has elapsed, or enough message bytes have been written, so that writes from
+ * several drains share a single {@code flush()} system call.
  */
 class WriteQueue {
 
@@ -47,12 +56,40 @@ class WriteQueue {
     }
   };
 
+  /**
+   * {@link Runnable} used to flush deferred writes once the event loop has run the tasks that were
+   * queued before it.
+   */
+  private final Runnable idleFlush = new Runnable() {
+    @Override
+    public void run() {
+      idleFlushScheduled = false;
+      maybeFlushDeferred();
+    }
+  };
+
   private final Channel channel;
   private final Queue<QueuedCommand> queue;
   private final AtomicBoolean scheduled = new AtomicBoolean();
+  private final FlushPolicy flushPolicy;
+  @Nullable
+  private final TransportTracer transportTracer;
+
+  // The following fields are only accessed from the event loop.
+  /** Message bytes written to the channel since the last flush. */
+  private long unflushedBytes;
+  private boolean flushDeferred;
+  private long flushDeferredNanos;
+  private boolean idleFlushScheduled;
 
   public WriteQueue(Channel channel) {
+    this(channel, FlushPolicy.IMMEDIATE, null);
+  }
+
+  WriteQueue(Channel channel, FlushPolicy flushPolicy, @Nullable TransportTracer transportTracer) {
     this.channel = Preconditions.checkNotNull(channel, "channel");
+    this.flushPolicy = Preconditions.checkNotNull(flushPolicy, "flushPolicy");
+    this.transportTracer = transportTracer;
     queue = new ConcurrentLinkedQueue<>();
   }
 
@@ -125,6 +162,10 @@ class WriteQueue {
       int i = 0;
       boolean flushedOnce = false;
       while ((cmd = queue.poll()) != null) {
+        if (cmd instanceof SendGrpcFrameCommand) {
+          // Read the size before running, as the write may release the buffer.
+          unflushedBytes += ((SendGrpcFrameCommand) cmd).content().readableBytes();
+        }
         cmd.run(channel);
         if (++i == DEQUE_CHUNK_SIZE) {
           i = 0;
@@ -133,7 +174,7 @@ class WriteQueue {
           // flushed in that case we would be guaranteed to OOM.
           PerfMark.startTask("WriteQueue.flush0");
           try {
-            channel.flush();
+            flushChannel();
           } finally {
             PerfMark.stopTask("WriteQueue.flush0");
           }
@@ -142,11 +183,15 @@ class WriteQueue {
       }
       // Must flush at least once, even if there were no writes.
       if (i != 0 || !flushedOnce) {
-        PerfMark.startTask("WriteQueue.flush1");
-        try {
-          channel.flush();
-        } finally {
-          PerfMark.stopTask("WriteQueue.flush1");
+        if (flushPolicy.isImmediate() || unflushedBytes >= flushPolicy.maxUnflushedBytes) {
+          PerfMark.startTask("WriteQueue.flush1");
+          try {
+            flushChannel();
+          } finally {
+            PerfMark.stopTask("WriteQueue.flush1");
+          }
+        } else {
+          deferFlush();
         }
       }
     } finally {
@@ -159,6 +204,87 @@ class WriteQueue {
     }
   }
 
+  private void flushChannel() {
+    flushDeferred = false;
+    long bytes = unflushedBytes;
+    unflushedBytes = 0;
+    channel.flush();
+    if (transportTracer != null) {
+      transportTracer.reportFlush(bytes);
+    }
+  }
+
+  private void deferFlush() {
+    if (!flushDeferred) {
+      flushDeferred = true;
+      flushDeferredNanos = System.nanoTime();
+    }
+    scheduleIdleFlush();
+  }
+
+  private void scheduleIdleFlush() {
+    if (!idleFlushScheduled) {
+      idleFlushScheduled = true;
+      // Runs after the tasks that are already queued, which may include more writes.
+      channel.eventLoop().execute(idleFlush);
+    }
+  }
+
+  private void maybeFlushDeferred() {
+    if (!flushDeferred) {
+      return;
+    }
+    if (!hasPendingTasks(channel.eventLoop())
+        || System.nanoTime() - flushDeferredNanos >= flushPolicy.maxDelayNanos) {
+      PerfMark.startTask("WriteQueue.flush2");
+      try {
+        flushChannel();
+      } finally {
+        PerfMark.stopTask("WriteQueue.flush2");
+      }
+    } else {
+      scheduleIdleFlush();
+    }
+  }
+
+  /**
+   * Returns {@code true} if the event loop has tasks waiting to run. Event loops that do not
+   * expose their task queue are considered idle, which flushes without further delay.
+   */
+  private static boolean hasPendingTasks(EventLoop eventLoop) {
+    return eventLoop instanceof SingleThreadEventExecutor
+        && ((SingleThreadEventExecutor) eventLoop).pendingTasks() > 0;
+  }
+
+  /**
+   * Controls when the writes drained from a {@link WriteQueue} are flushed to the channel.
+   */
+  static final class FlushPolicy {
+    /** Flushes each time the queue is drained. */
+    static final FlushPolicy IMMEDIATE = new FlushPolicy(0, 0);
+
+    final long maxDelayNanos;
+    final int maxUnflushedBytes;
+
+    /**
+     * Creates a policy that defers flushes while the event loop is busy, for at most {@code
+     * maxDelayNanos}, unless at least {@code maxUnflushedBytes} message bytes have been written
+     * since the last flush. A delay of zero disables deferral.
+     */
+    FlushPolicy(long maxDelayNanos, int maxUnflushedBytes) {
+      Preconditions.checkArgument(maxDelayNanos >= 0, "maxDelayNanos must be non-negative: %s",
+          maxDelayNanos);
+      Preconditions.checkArgument(maxUnflushedBytes >= 0,
+          "maxUnflushedBytes must be non-negative: %s", maxUnflushedBytes);
+      this.maxDelayNanos = maxDelayNanos;
+      this.maxUnflushedBytes = maxUnflushedBytes;
+    }
+
+    boolean isImmediate() {
+      return maxDelayNanos == 0;
+    }
+  }
+
   private static class RunnableCommand implements QueuedCommand {
     private final Runnable runnable;
     private final Link link;
@@ -16,6 +16,7 @@
 
 package io.grpc.netty;
 
+import static com.google.common.base.Charsets.US_ASCII;
 import static com.google.common.truth.Truth.assertThat;
 import static io.grpc.Metadata.BINARY_BYTE_MARSHALLER;
 import static io.grpc.internal.GrpcUtil.DEFAULT_MAX_HEADER_LIST_SIZE;
@@ -25,6 +26,7 @@ import static org.junit.Assert.assertTrue;
 
 import com.google.common.collect.Iterables;
 import com.google.common.io.BaseEncoding;
+import io.grpc.InternalMetadata;
 import io.grpc.Metadata;
 import io.grpc.Metadata.Key;
 import io.grpc.netty.GrpcHttp2HeadersUtils.GrpcHttp2ClientHeadersDecoder;
@@ -216,6 +218,38 @@ public class GrpcHttp2HeadersUtilsTest {
         .containsExactly(AsciiString.of("3"));
   }
 
+  @Test
+  public void internedSlots_populatedDuringDecode() {
+    Key<String> encoding = Key.of("grpc-encoding", Metadata.ASCII_STRING_MARSHALLER);
+    Key<String> custom = Key.of("custom", Metadata.ASCII_STRING_MARSHALLER);
+    GrpcHttp2RequestHeaders http2Headers = new GrpcHttp2RequestHeaders(2);
+    http2Headers.add(AsciiString.of("grpc-encoding"), AsciiString.of("identity"));
+    http2Headers.add(AsciiString.of("custom"), AsciiString.of("value"));
+    http2Headers.add(AsciiString.of("grpc-encoding"), AsciiString.of("gzip"));
+
+    int[] slots = http2Headers.internedSlots();
+    assertThat(slots).isNotNull();
+    int slot = InternalMetadata.internedKeySlot("grpc-encoding".getBytes(US_ASCII));
+    assertThat(slots[slot]).isEqualTo(3);
+
+    Metadata metadata = Utils.convertHeaders(http2Headers);
+    assertThat(metadata.get(encoding)).isEqualTo("gzip");
+    assertThat(metadata.get(custom)).isEqualTo("value");
+  }
+
+  @Test
+  public void internedSlots_droppedOnRemove() {
+    Key<String> encoding = Key.of("grpc-encoding", Metadata.ASCII_STRING_MARSHALLER);
+    GrpcHttp2RequestHeaders http2Headers = new GrpcHttp2RequestHeaders(2);
+    http2Headers.add(AsciiString.of("custom"), AsciiString.of("value"));
+    http2Headers.add(AsciiString.of("grpc-encoding"), AsciiString.of("gzip"));
+    http2Headers.remove(AsciiString.of("custom"));
+    assertThat(http2Headers.internedSlots()).isNull();
+
+    Metadata metadata = Utils.convertHeaders(http2Headers);
+    assertThat(metadata.get(encoding)).isEqualTo("gzip");
+  }
+
   private static void assertContainsKeyAndValue(String str, CharSequence key, CharSequence value) {
     assertThat(str).contains(key.toString());
     assertThat(str).contains(value.toString());
@@ -918,7 +918,7 @@ public class NettyClientHandlerTest extends NettyHandlerTestBase<NettyClientHand
 
   @Override
   protected WriteQueue initWriteQueue() {
-    handler().startWriteQueue(channel());
+    handler().startWriteQueue(channel(), WriteQueue.FlushPolicy.IMMEDIATE);
     return handler().getWriteQueue();
   }
 
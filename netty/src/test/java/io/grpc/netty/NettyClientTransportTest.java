@@ -196,7 +196,7 @@ public class NettyClientTransportTest {
         newNegotiator(), false, DEFAULT_WINDOW_SIZE, DEFAULT_MAX_MESSAGE_SIZE,
         GrpcUtil.DEFAULT_MAX_HEADER_LIST_SIZE, KEEPALIVE_TIME_NANOS_DISABLED, 1L, false, authority,
         null /* user agent */, tooManyPingsRunnable, new TransportTracer(), Attributes.EMPTY,
-        new SocketPicker(), new FakeChannelLogger(), false);
+        new SocketPicker(), new FakeChannelLogger(), false, WriteQueue.FlushPolicy.IMMEDIATE);
     transports.add(transport);
     callMeMaybe(transport.start(clientTransportListener));
 
@@ -448,7 +448,7 @@ public class NettyClientTransportTest {
         newNegotiator(), false, DEFAULT_WINDOW_SIZE, DEFAULT_MAX_MESSAGE_SIZE,
         GrpcUtil.DEFAULT_MAX_HEADER_LIST_SIZE, KEEPALIVE_TIME_NANOS_DISABLED, 1, false, authority,
         null, tooManyPingsRunnable, new TransportTracer(), Attributes.EMPTY, new SocketPicker(),
-        new FakeChannelLogger(), false);
+        new FakeChannelLogger(), false, WriteQueue.FlushPolicy.IMMEDIATE);
     transports.add(transport);
 
     // Should not throw
@@ -645,7 +645,8 @@ public class NettyClientTransportTest {
 
       callMeMaybe(transport.start(clientTransportListener));
 
-      ChannelOption<Integer> tcpUserTimeoutOption = Utils.maybeGetTcpUserTimeoutOption();
+      ChannelOption<Integer> tcpUserTimeoutOption =
+          Utils.maybeGetTcpUserTimeoutOption(transport.channel().getClass());
       assertThat(tcpUserTimeoutOption).isNotNull();
       // on some linux based system, the integer value may have error (usually +-1)
       assertThat((double) transport.channel().config().getOption(tcpUserTimeoutOption))
@@ -671,7 +672,8 @@ public class NettyClientTransportTest {
 
       callMeMaybe(transport.start(clientTransportListener));
 
-      ChannelOption<Integer> tcpUserTimeoutOption = Utils.maybeGetTcpUserTimeoutOption();
+      ChannelOption<Integer> tcpUserTimeoutOption =
+          Utils.maybeGetTcpUserTimeoutOption(transport.channel().getClass());
       assertThat(tcpUserTimeoutOption).isNotNull();
       // default TCP_USER_TIMEOUT=0 (use the system default)
       assertThat(transport.channel().config().getOption(tcpUserTimeoutOption)).isEqualTo(0);
@@ -763,7 +765,8 @@ public class NettyClientTransportTest {
         negotiator, false, DEFAULT_WINDOW_SIZE, maxMsgSize, maxHeaderListSize,
         keepAliveTimeNano, keepAliveTimeoutNano,
         false, authority, userAgent, tooManyPingsRunnable,
-        new TransportTracer(), eagAttributes, new SocketPicker(), new FakeChannelLogger(), false);
+        new TransportTracer(), eagAttributes, new SocketPicker(), new FakeChannelLogger(), false,
+        WriteQueue.FlushPolicy.IMMEDIATE);
     transports.add(transport);
     return transport;
   }
@@ -787,6 +790,7 @@ public class NettyClientTransportTest {
         DEFAULT_SERVER_KEEPALIVE_TIME_NANOS, DEFAULT_SERVER_KEEPALIVE_TIMEOUT_NANOS,
         MAX_CONNECTION_IDLE_NANOS_DISABLED,
         MAX_CONNECTION_AGE_NANOS_DISABLED, MAX_CONNECTION_AGE_GRACE_NANOS_INFINITE, true, 0,
+        WriteQueue.FlushPolicy.IMMEDIATE,
         Attributes.EMPTY,
         channelz);
     server.start(serverListener);
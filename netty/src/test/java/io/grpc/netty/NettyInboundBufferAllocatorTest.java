@@ -0,0 +1,71 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.netty;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import io.grpc.internal.InboundBufferAllocator.InboundBuffer;
+import io.grpc.internal.ReadableBuffer;
+import io.grpc.internal.ReadableBuffers;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for {@link NettyInboundBufferAllocator}.
+ */
+@RunWith(JUnit4.class)
+public class NettyInboundBufferAllocatorTest {
+
+  private final ByteBuf[] allocated = new ByteBuf[1];
+  private final ByteBufAllocator byteBufAllocator = new UnpooledByteBufAllocator(false) {
+    @Override
+    public ByteBuf heapBuffer(int initialCapacity, int maxCapacity) {
+      allocated[0] = super.heapBuffer(initialCapacity, maxCapacity);
+      return allocated[0];
+    }
+  };
+  private final NettyInboundBufferAllocator allocator =
+      new NettyInboundBufferAllocator(byteBufAllocator);
+
+  @Test
+  public void allocate_exposesHeapRegion() {
+    InboundBuffer buffer = allocator.allocate(100);
+    assertEquals(100, buffer.capacity());
+    assertEquals(allocated[0].array(), buffer.array());
+    assertEquals(allocated[0].arrayOffset(), buffer.arrayOffset());
+    buffer.release();
+    assertEquals(0, allocated[0].refCnt());
+  }
+
+  @Test
+  public void wrappedRegion_releasesByteBufWhenClosed() {
+    InboundBuffer buffer = allocator.allocate(3);
+    System.arraycopy(new byte[] {1, 2, 3}, 0, buffer.array(), buffer.arrayOffset(), 3);
+    ReadableBuffer readable = ReadableBuffers.wrap(buffer, 0, 3);
+    buffer.release();
+    assertEquals(1, allocated[0].refCnt());
+
+    assertArrayEquals(new byte[] {1, 2, 3}, ReadableBuffers.readArray(readable));
+    readable.close();
+    assertEquals(0, allocated[0].refCnt());
+  }
+}
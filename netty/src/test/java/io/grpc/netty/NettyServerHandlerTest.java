@@ -1127,6 +1127,7 @@ public class NettyServerHandlerTest extends NettyHandlerTestBase<NettyServerHand
         maxConnectionAgeGraceInNanos,
         permitKeepAliveWithoutCalls,
         permitKeepAliveTimeInNanos,
+        WriteQueue.FlushPolicy.IMMEDIATE,
         Attributes.EMPTY);
   }
 
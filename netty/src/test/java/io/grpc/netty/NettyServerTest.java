@@ -150,6 +150,7 @@ public class NettyServerTest {
         1, 1, // ignore
         1, 1, // ignore
         true, 0, // ignore
+        WriteQueue.FlushPolicy.IMMEDIATE,
         Attributes.EMPTY,
         channelz);
     final SettableFuture<Void> serverShutdownCalled = SettableFuture.create();
@@ -200,6 +201,7 @@ public class NettyServerTest {
         1, 1, // ignore
         1, 1, // ignore
         true, 0, // ignore
+        WriteQueue.FlushPolicy.IMMEDIATE,
         Attributes.EMPTY,
         channelz);
     final SettableFuture<Void> shutdownCompleted = SettableFuture.create();
@@ -273,6 +275,7 @@ public class NettyServerTest {
         1, 1, // ignore
         1, 1, // ignore
         true, 0, // ignore
+        WriteQueue.FlushPolicy.IMMEDIATE,
         Attributes.EMPTY,
         channelz);
     final SettableFuture<Void> shutdownCompleted = SettableFuture.create();
@@ -334,6 +337,7 @@ public class NettyServerTest {
         1, 1, // ignore
         1, 1, // ignore
         true, 0, // ignore
+        WriteQueue.FlushPolicy.IMMEDIATE,
         Attributes.EMPTY,
         channelz);
 
@@ -408,6 +412,7 @@ public class NettyServerTest {
         1, 1, // ignore
         1, 1, // ignore
         true, 0, // ignore
+        WriteQueue.FlushPolicy.IMMEDIATE,
         eagAttributes,
         channelz);
     ns.start(new ServerListener() {
@@ -455,6 +460,7 @@ public class NettyServerTest {
         1, 1, // ignore
         1, 1, // ignore
         true, 0, // ignore
+        WriteQueue.FlushPolicy.IMMEDIATE,
         Attributes.EMPTY,
         channelz);
     final SettableFuture<Void> shutdownCompleted = SettableFuture.create();
@@ -597,6 +603,7 @@ public class NettyServerTest {
         1, 1, // ignore
         1, 1, // ignore
         true, 0, // ignore
+        WriteQueue.FlushPolicy.IMMEDIATE,
         Attributes.EMPTY,
         channelz);
   }
@@ -17,11 +17,15 @@
 package io.grpc.netty;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import io.grpc.internal.WritableBuffer;
 import io.grpc.internal.WritableBufferAllocator;
 import io.grpc.internal.WritableBufferAllocatorTestBase;
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
+import java.util.Arrays;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -61,4 +65,22 @@ public class NettyWritableBufferAllocatorTest extends WritableBufferAllocatorTes
     assertEquals(0, buffer.readableBytes());
     assertEquals(1024 * 1024, buffer.writableBytes());
   }
+
+  @Test
+  public void testComposeGathersBuffersWithoutCopying() {
+    WritableBuffer header = allocator.allocate(5);
+    header.write(new byte[] {0, 0, 0, 0, 3}, 0, 5);
+    WritableBuffer payload = allocator.allocate(3);
+    payload.write(new byte[] {1, 2, 3}, 0, 3);
+
+    WritableBuffer composite = allocator.compose(Arrays.asList(header, payload));
+    ByteBuf buf = ((NettyWritableBuffer) composite).bytebuf();
+    assertTrue(buf instanceof CompositeByteBuf);
+    assertEquals(2, ((CompositeByteBuf) buf).numComponents());
+    assertEquals(8, composite.readableBytes());
+    assertEquals(0, composite.writableBytes());
+    composite.release();
+    assertEquals(0, ((NettyWritableBuffer) header).bytebuf().refCnt());
+    assertEquals(0, ((NettyWritableBuffer) payload).bytebuf().refCnt());
+  }
 }
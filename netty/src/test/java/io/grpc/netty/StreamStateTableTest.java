@@ -0,0 +1,105 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.netty;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link StreamStateTable}. */
+@RunWith(JUnit4.class)
+public class StreamStateTableTest {
+  private final StreamStateTable<String> table = new StreamStateTable<>();
+
+  @Test
+  public void putGetRemove() {
+    assertNull(table.put(3, "three"));
+    assertNull(table.put(5, "five"));
+
+    assertThat(table.size()).isEqualTo(2);
+    assertThat(table.get(3)).isEqualTo("three");
+    assertThat(table.get(5)).isEqualTo("five");
+    assertNull(table.get(7));
+
+    assertThat(table.remove(3)).isEqualTo("three");
+    assertNull(table.remove(3));
+    assertNull(table.get(3));
+    assertThat(table.get(5)).isEqualTo("five");
+    assertThat(table.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void putReplaces() {
+    table.put(2, "old");
+
+    assertThat(table.put(2, "new")).isEqualTo("old");
+    assertThat(table.get(2)).isEqualTo("new");
+    assertThat(table.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void connectionStreamIdIsRejected() {
+    try {
+      table.put(0, "connection");
+      fail("Expected exception");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+    assertNull(table.get(0));
+    assertNull(table.remove(0));
+  }
+
+  @Test
+  public void growsPastInitialCapacity() {
+    for (int id = 1; id < 20_000; id += 2) {
+      table.put(id, Integer.toString(id));
+    }
+
+    assertThat(table.size()).isEqualTo(10_000);
+    for (int id = 1; id < 20_000; id += 2) {
+      assertThat(table.get(id)).isEqualTo(Integer.toString(id));
+      assertNull(table.get(id + 1));
+    }
+  }
+
+  @Test
+  public void randomOperationsMatchHashMap() {
+    Map<Integer, String> expected = new HashMap<>();
+    Random random = new Random(1);
+    for (int i = 0; i < 100_000; i++) {
+      // A small key range, so that removals often hit present keys and probe sequences collide.
+      int id = random.nextInt(512) + 1;
+      if (random.nextBoolean()) {
+        String value = Integer.toString(i);
+        assertThat(table.put(id, value)).isEqualTo(expected.put(id, value));
+      } else {
+        assertThat(table.remove(id)).isEqualTo(expected.remove(id));
+      }
+      assertThat(table.size()).isEqualTo(expected.size());
+    }
+    for (int id = 1; id <= 512; id++) {
+      assertThat(table.get(id)).isEqualTo(expected.get(id));
+    }
+  }
+}
@@ -44,6 +44,7 @@ import io.netty.handler.codec.http2.Http2Headers;
 import io.netty.util.AsciiString;
 import java.nio.channels.UnresolvedAddressException;
 import java.util.Map;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -185,6 +186,7 @@ public class UtilsTest {
   @Test
   public void defaultEventLoopGroup_whenEpollIsAvailable() {
     assume().that(Utils.isEpollAvailable()).isTrue();
+    assume().that(Utils.isIoUringAvailable()).isFalse();
 
     EventLoopGroup defaultBossGroup = Utils.DEFAULT_BOSS_EVENT_LOOP_GROUP.create();
     EventLoopGroup defaultWorkerGroup = Utils.DEFAULT_WORKER_EVENT_LOOP_GROUP.create();
@@ -201,6 +203,7 @@ public class UtilsTest {
   @Test
   public void defaultClientChannelType_whenEpollIsAvailable() {
     assume().that(Utils.isEpollAvailable()).isTrue();
+    assume().that(Utils.isIoUringAvailable()).isFalse();
 
     Class<? extends Channel> clientChannelType = Utils.DEFAULT_CLIENT_CHANNEL_TYPE;
 
@@ -211,6 +214,7 @@ public class UtilsTest {
   @Test
   public void defaultServerChannelFactory_whenEpollIsAvailable() {
     assume().that(Utils.isEpollAvailable()).isTrue();
+    assume().that(Utils.isIoUringAvailable()).isFalse();
 
     ChannelFactory<? extends ServerChannel> channelFactory = Utils.DEFAULT_SERVER_CHANNEL_FACTORY;
 
@@ -219,9 +223,50 @@ public class UtilsTest {
   }
 
   @Test
-  public void maybeGetTcpUserTimeoutOption() {
+  public void maybeGetTcpUserTimeoutOption() throws Exception {
     assume().that(Utils.isEpollAvailable()).isTrue();
 
-    assertThat(Utils.maybeGetTcpUserTimeoutOption()).isNotNull();
+    // Keyed off the channel type, even if another native transport is the default.
+    Class<? extends Channel> epollChannelType =
+        Class.forName("io.netty.channel.epoll.EpollSocketChannel").asSubclass(Channel.class);
+    Object epollTcpUserTimeout = Class.forName("io.netty.channel.epoll.EpollChannelOption")
+        .getField("TCP_USER_TIMEOUT").get(null);
+    assertThat(Utils.maybeGetTcpUserTimeoutOption(epollChannelType))
+        .isSameInstanceAs(epollTcpUserTimeout);
+  }
+
+  @Test
+  public void maybeGetTcpUserTimeoutOption_nioChannel() {
+    assertThat(Utils.maybeGetTcpUserTimeoutOption(NioSocketChannel.class)).isNull();
+  }
+
+  @Test
+  @Ignore("netty-incubator-transport-native-io_uring is not a dependency of this build, as it "
+      + "requires a newer Netty than grpc-netty is built with")
+  public void defaultEventLoopGroup_whenIoUringIsAvailable() {
+    assume().that(Utils.isIoUringAvailable()).isTrue();
+
+    EventLoopGroup defaultBossGroup = Utils.DEFAULT_BOSS_EVENT_LOOP_GROUP.create();
+    EventLoopGroup defaultWorkerGroup = Utils.DEFAULT_WORKER_EVENT_LOOP_GROUP.create();
+
+    assertThat(defaultBossGroup.getClass().getName())
+        .isEqualTo("io.netty.incubator.channel.uring.IOUringEventLoopGroup");
+    assertThat(defaultWorkerGroup.getClass().getName())
+        .isEqualTo("io.netty.incubator.channel.uring.IOUringEventLoopGroup");
+
+    defaultBossGroup.shutdownGracefully();
+    defaultWorkerGroup.shutdownGracefully();
+  }
+
+  @Test
+  @Ignore("netty-incubator-transport-native-io_uring is not a dependency of this build, as it "
+      + "requires a newer Netty than grpc-netty is built with")
+  public void defaultChannelTypes_whenIoUringIsAvailable() {
+    assume().that(Utils.isIoUringAvailable()).isTrue();
+
+    assertThat(Utils.DEFAULT_CLIENT_CHANNEL_TYPE.getName())
+        .isEqualTo("io.netty.incubator.channel.uring.IOUringSocketChannel");
+    assertThat(Utils.DEFAULT_SERVER_CHANNEL_FACTORY.toString())
+        .isEqualTo("ReflectiveChannelFactory(IOUringServerSocketChannel.class)");
   }
 }
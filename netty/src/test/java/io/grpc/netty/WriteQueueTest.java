@@ -16,21 +16,31 @@
 
 package io.grpc.netty;
 
+import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import io.grpc.internal.TransportTracer;
+import io.grpc.netty.WriteQueue.FlushPolicy;
 import io.grpc.netty.WriteQueue.QueuedCommand;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelPromise;
 import io.netty.channel.EventLoop;
+import io.netty.channel.SingleThreadEventLoop;
+import java.util.ArrayDeque;
+import java.util.Queue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.Before;
 import org.junit.Rule;
@@ -201,6 +211,121 @@ public class WriteQueueTest {
     verify(channel, times(writes)).write(isA(CuteCommand.class), eq(promise));
   }
 
+  @Test
+  public void coalescing_flushesWhenEventLoopIdle() {
+    final Queue<Runnable> tasks = useQueuingEventLoop(0);
+    final WriteQueue queue = new WriteQueue(
+        channel, new FlushPolicy(TimeUnit.HOURS.toNanos(1), Integer.MAX_VALUE), null);
+    queue.enqueue(new CuteCommand(), true);
+    tasks.add(new Runnable() {
+      @Override
+      public void run() {
+        queue.enqueue(new CuteCommand(), true);
+      }
+    });
+
+    tasks.poll().run();
+    verify(channel).write(isA(QueuedCommand.class), eq(promise));
+    verify(channel, never()).flush();
+
+    runTasks(tasks);
+    verify(channel, times(2)).write(isA(QueuedCommand.class), eq(promise));
+    verify(channel).flush();
+  }
+
+  @Test
+  public void coalescing_flushesAtByteThreshold() {
+    useQueuingEventLoop(1);
+    TransportTracer transportTracer = new TransportTracer();
+    WriteQueue queue =
+        new WriteQueue(channel, new FlushPolicy(TimeUnit.HOURS.toNanos(1), 16), transportTracer);
+    queue.enqueue(newFrame(10), false);
+    queue.drainNow();
+    verify(channel, never()).flush();
+
+    queue.enqueue(newFrame(10), false);
+    queue.drainNow();
+    verify(channel).flush();
+    assertThat(transportTracer.getFlushCount()).isEqualTo(1);
+    assertThat(transportTracer.getFlushedBytes()).isEqualTo(20);
+  }
+
+  @Test
+  public void coalescing_busyEventLoop_flushesAfterMaxDelay() {
+    Queue<Runnable> tasks = useQueuingEventLoop(1);
+    WriteQueue queue = new WriteQueue(channel, new FlushPolicy(1, Integer.MAX_VALUE), null);
+    queue.enqueue(new CuteCommand(), true);
+    tasks.poll().run();
+
+    runTasks(tasks);
+    verify(channel).flush();
+  }
+
+  @Test
+  public void coalescing_busyEventLoop_defersFlush() {
+    Queue<Runnable> tasks = useQueuingEventLoop(1);
+    WriteQueue queue = new WriteQueue(
+        channel, new FlushPolicy(TimeUnit.HOURS.toNanos(1), Integer.MAX_VALUE), null);
+    queue.enqueue(new CuteCommand(), true);
+    tasks.poll().run();
+    // The flush keeps yielding to the other tasks.
+    tasks.poll().run();
+    tasks.poll().run();
+
+    verify(channel).write(isA(QueuedCommand.class), eq(promise));
+    verify(channel, never()).flush();
+    assertThat(tasks).hasSize(1);
+  }
+
+  @Test
+  public void immediate_reportsFlushes() {
+    TransportTracer transportTracer = new TransportTracer();
+    WriteQueue queue = new WriteQueue(channel, FlushPolicy.IMMEDIATE, transportTracer);
+    queue.enqueue(newFrame(10), false);
+    queue.enqueue(newFrame(5), true);
+
+    verify(channel).flush();
+    assertThat(transportTracer.getFlushCount()).isEqualTo(1);
+    assertThat(transportTracer.getFlushedBytes()).isEqualTo(15);
+  }
+
+  /**
+   * Replaces the channel's event loop with one that queues tasks instead of running them, and
+   * reports {@code otherTasks} pending tasks in addition to the queued ones.
+   */
+  private Queue<Runnable> useQueuingEventLoop(final int otherTasks) {
+    final Queue<Runnable> tasks = new ArrayDeque<>();
+    SingleThreadEventLoop eventLoop = mock(SingleThreadEventLoop.class);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) {
+        tasks.add((Runnable) invocation.getArguments()[0]);
+        return null;
+      }
+    }).when(eventLoop).execute(any(Runnable.class));
+    when(eventLoop.inEventLoop()).thenReturn(true);
+    when(eventLoop.pendingTasks()).thenAnswer(new Answer<Integer>() {
+      @Override
+      public Integer answer(InvocationOnMock invocation) {
+        return tasks.size() + otherTasks;
+      }
+    });
+    when(channel.eventLoop()).thenReturn(eventLoop);
+    return tasks;
+  }
+
+  private static void runTasks(Queue<Runnable> tasks) {
+    Runnable task;
+    while ((task = tasks.poll()) != null) {
+      task.run();
+    }
+  }
+
+  private static SendGrpcFrameCommand newFrame(int size) {
+    return new SendGrpcFrameCommand(mock(StreamIdHolder.class), Unpooled.wrappedBuffer(
+        new byte[size]), false);
+  }
+
   static class CuteCommand extends WriteQueue.AbstractQueuedCommand {
 
   }
@@ -19,6 +19,7 @@ package io.grpc.okhttp;
 import static io.grpc.internal.GrpcUtil.CONTENT_TYPE_KEY;
 import static io.grpc.internal.GrpcUtil.USER_AGENT_KEY;
 
+import com.google.common.base.Charsets;
 import com.google.common.base.Preconditions;
 import io.grpc.InternalMetadata;
 import io.grpc.Metadata;
@@ -26,6 +27,7 @@ import io.grpc.internal.GrpcUtil;
 import io.grpc.internal.TransportFrameUtil;
 import io.grpc.okhttp.internal.framed.Header;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import okio.ByteString;
 
@@ -42,6 +44,11 @@ class Headers {
       new Header(CONTENT_TYPE_KEY.name(), GrpcUtil.CONTENT_TYPE_GRPC);
   public static final Header TE_HEADER = new Header("te", GrpcUtil.TE_TRAILERS);
 
+  private static final byte[] CONTENT_TYPE_KEY_BYTES =
+      CONTENT_TYPE_KEY.name().getBytes(Charsets.US_ASCII);
+  private static final byte[] USER_AGENT_KEY_BYTES =
+      USER_AGENT_KEY.name().getBytes(Charsets.US_ASCII);
+
   /**
    * Serializes the given headers and creates a list of OkHttp {@link Header}s to be used when
    * creating a stream. Since this serializes the headers, this method should be called in the
@@ -91,11 +98,9 @@ class Headers {
     // Now add any application-provided headers.
     byte[][] serializedHeaders = TransportFrameUtil.toHttp2Headers(headers);
     for (int i = 0; i < serializedHeaders.length; i += 2) {
-      ByteString key = ByteString.of(serializedHeaders[i]);
-      String keyString = key.utf8();
-      if (isApplicationHeader(keyString)) {
-        ByteString value = ByteString.of(serializedHeaders[i + 1]);
-        okhttpHeaders.add(new Header(key, value));
+      byte[] key = serializedHeaders[i];
+      if (isApplicationHeader(key)) {
+        okhttpHeaders.add(new Header(ByteString.of(key), ByteString.of(serializedHeaders[i + 1])));
       }
     }
 
@@ -104,12 +109,14 @@ class Headers {
 
   /**
    * Returns {@code true} if the given header is an application-provided header. Otherwise, returns
-   * {@code false} if the header is reserved by GRPC.
+   * {@code false} if the header is reserved by GRPC. Checks the serialized name directly, so that
+   * no string is decoded for each header.
    */
-  private static boolean isApplicationHeader(String key) {
-    // Don't allow HTTP/2 pseudo headers or content-type to be added by the application.
-    return (!key.startsWith(":")
-            && !CONTENT_TYPE_KEY.name().equalsIgnoreCase(key))
-            && !USER_AGENT_KEY.name().equalsIgnoreCase(key);
+  private static boolean isApplicationHeader(byte[] key) {
+    // Don't allow HTTP/2 pseudo headers or content-type to be added by the application. Metadata
+    // keys are always lowercase.
+    return (key.length == 0 || key[0] != ':')
+        && !Arrays.equals(CONTENT_TYPE_KEY_BYTES, key)
+        && !Arrays.equals(USER_AGENT_KEY_BYTES, key);
   }
 }
@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -412,6 +413,17 @@ final class Hpack {
     private int nextDynamicTableIndex = dynamicTable.length - 1;
     private int dynamicTableByteCount;
 
+    /**
+     * Number of entries ever inserted into the dynamic table. Entries are identified by their
+     * insertion number, which, unlike their HPACK index, does not change as entries are added.
+     */
+    private int dynamicTableInsertCount;
+    /** Insertion number of the most recent dynamic table entry equal to each header. */
+    private final Map<io.grpc.okhttp.internal.framed.Header, Integer> dynamicTableEntries =
+        new HashMap<>();
+    /** Insertion number of the most recent dynamic table entry with each name. */
+    private final Map<ByteString, Integer> dynamicTableNames = new HashMap<>();
+
     // Disable Huffman encoding as for the CPU vs bandwidth trade-off.
     Writer(Buffer out) {
       this(SETTINGS_HEADER_TABLE_SIZE, false, out);
@@ -461,15 +473,17 @@ final class Hpack {
           }
         }
 
-        if (headerIndex == -1) {
-          for (int j = nextDynamicTableIndex + 1; j < dynamicTable.length; j++) {
-            if (dynamicTable[j].name.equals(name)) {
-              if (dynamicTable[j].value.equals(value)) {
-                headerIndex = j - nextDynamicTableIndex + STATIC_HEADER_TABLE.length;
-                break;
-              } else if (headerNameIndex == -1) {
-                headerNameIndex = j - nextDynamicTableIndex + STATIC_HEADER_TABLE.length;
-              }
+        if (headerIndex == -1 && dynamicTableHeaderCount > 0) {
+          if (name != header.name) {
+            header = new io.grpc.okhttp.internal.framed.Header(name, value);
+          }
+          Integer entry = dynamicTableEntries.get(header);
+          if (entry != null) {
+            headerIndex = dynamicTableIndex(entry);
+          } else if (headerNameIndex == -1) {
+            entry = dynamicTableNames.get(name);
+            if (entry != null) {
+              headerNameIndex = dynamicTableIndex(entry);
             }
           }
         }
@@ -482,7 +496,7 @@ final class Hpack {
           out.writeByte(0x40);
           writeByteString(name);
           writeByteString(value);
-          insertIntoDynamicTable(header);
+          insertIntoDynamicTable(name, value, header);
         } else if (name.startsWith(PSEUDO_PREFIX) && !io.grpc.okhttp.internal.framed.Header.TARGET_AUTHORITY.equals(name)) {
           // Follow Chromes lead - only include the :authority pseudo header, but exclude all other
           // pseudo headers. Literal Header Field without Indexing - Indexed Name.
@@ -492,11 +506,16 @@ final class Hpack {
           // Literal Header Field with Incremental Indexing - Indexed Name.
           writeInt(headerNameIndex, PREFIX_6_BITS, 0x40);
           writeByteString(value);
-          insertIntoDynamicTable(header);
+          insertIntoDynamicTable(name, value, header);
         }
       }
     }
 
+    /** Returns the HPACK index of the dynamic table entry with the given insertion number. */
+    private int dynamicTableIndex(int insertion) {
+      return dynamicTableInsertCount - insertion + STATIC_HEADER_TABLE.length;
+    }
+
     // http://tools.ietf.org/html/draft-ietf-httpbis-header-compression-12#section-4.1.1
     void writeInt(int value, int prefixMask, int bits) throws IOException {
       // Write the raw value for a single byte value.
@@ -519,12 +538,11 @@ final class Hpack {
     }
 
     void writeByteString(ByteString data) throws IOException {
-      if (useCompression && io.grpc.okhttp.internal.framed.Huffman.get().encodedLength(data.toByteArray()) < data.size()) {
-        Buffer huffmanBuffer = new Buffer();
-        io.grpc.okhttp.internal.framed.Huffman.get().encode(data.toByteArray(), huffmanBuffer.outputStream());
-        ByteString huffmanBytes = huffmanBuffer.readByteString();
-        writeInt(huffmanBytes.size(), PREFIX_7_BITS, 0x80);
-        out.write(huffmanBytes);
+      int huffmanLength = useCompression
+          ? io.grpc.okhttp.internal.framed.Huffman.get().encodedLength(data) : Integer.MAX_VALUE;
+      if (huffmanLength < data.size()) {
+        writeInt(huffmanLength, PREFIX_7_BITS, 0x80);
+        io.grpc.okhttp.internal.framed.Huffman.get().encode(data, out);
       } else {
         writeInt(data.size(), PREFIX_7_BITS, 0);
         out.write(data);
@@ -540,6 +558,8 @@ final class Hpack {
       nextDynamicTableIndex = dynamicTable.length - 1;
       dynamicTableHeaderCount = 0;
       dynamicTableByteCount = 0;
+      dynamicTableEntries.clear();
+      dynamicTableNames.clear();
     }
 
     /** Returns the count of entries evicted. */
@@ -548,6 +568,16 @@ final class Hpack {
       if (bytesToRecover > 0) {
         // determine how many headers need to be evicted.
         for (int j = dynamicTable.length - 1; j >= nextDynamicTableIndex && bytesToRecover > 0; j--) {
+          // The oldest entry is evicted first.
+          int insertion = dynamicTableInsertCount - dynamicTableHeaderCount;
+          Integer newest = dynamicTableEntries.get(dynamicTable[j]);
+          if (newest != null && newest == insertion) {
+            dynamicTableEntries.remove(dynamicTable[j]);
+          }
+          newest = dynamicTableNames.get(dynamicTable[j].name);
+          if (newest != null && newest == insertion) {
+            dynamicTableNames.remove(dynamicTable[j].name);
+          }
           bytesToRecover -= dynamicTable[j].hpackSize;
           dynamicTableByteCount -= dynamicTable[j].hpackSize;
           dynamicTableHeaderCount--;
@@ -560,7 +590,11 @@ final class Hpack {
       return entriesToEvict;
     }
 
-    private void insertIntoDynamicTable(io.grpc.okhttp.internal.framed.Header entry) {
+    private void insertIntoDynamicTable(
+        ByteString name, ByteString value, io.grpc.okhttp.internal.framed.Header header) {
+      // Entries are looked up by their lowercase name.
+      io.grpc.okhttp.internal.framed.Header entry = name == header.name
+          ? header : new io.grpc.okhttp.internal.framed.Header(name, value);
       int delta = entry.hpackSize;
 
       // if the new or replacement header is too big, drop all entries.
@@ -583,6 +617,9 @@ final class Hpack {
       dynamicTable[index] = entry;
       dynamicTableHeaderCount++;
       dynamicTableByteCount += delta;
+      int insertion = dynamicTableInsertCount++;
+      dynamicTableEntries.put(entry, insertion);
+      dynamicTableNames.put(entry.name, insertion);
     }
 
     void resizeHeaderTable(int headerTableSizeSetting) {
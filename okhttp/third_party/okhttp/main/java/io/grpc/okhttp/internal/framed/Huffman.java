@@ -22,6 +22,8 @@ package io.grpc.okhttp.internal.framed;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import okio.Buffer;
+import okio.ByteString;
 
 /**
  * This class was originally composed from the following classes in
@@ -116,6 +118,43 @@ class Huffman {
     }
   }
 
+  void encode(ByteString data, Buffer out) {
+    long current = 0;
+    int n = 0;
+
+    for (int i = 0, size = data.size(); i < size; i++) {
+      int b = data.getByte(i) & 0xFF;
+      int code = CODES[b];
+      int nbits = CODE_LENGTHS[b];
+
+      current <<= nbits;
+      current |= code;
+      n += nbits;
+
+      while (n >= 8) {
+        n -= 8;
+        out.writeByte((int) (current >> n));
+      }
+    }
+
+    if (n > 0) {
+      current <<= (8 - n);
+      current |= (0xFF >>> n);
+      out.writeByte((int) current);
+    }
+  }
+
+  int encodedLength(ByteString data) {
+    long len = 0;
+
+    for (int i = 0, size = data.size(); i < size; i++) {
+      int b = data.getByte(i) & 0xFF;
+      len += CODE_LENGTHS[b];
+    }
+
+    return (int) ((len + 7) >> 3);
+  }
+
   int encodedLength(byte[] bytes) {
     long len = 0;
 
@@ -1118,6 +1118,50 @@ public class HpackTest {
     assertEquals(2, hpackWriter.dynamicTableHeaderCount);
   }
 
+  @Test
+  public void dynamicTableIndexShiftsWithInsertions() throws IOException {
+    hpackWriter.writeHeaders(headerEntries("foo", "bar"));
+    assertBytes(0x40, 3, 'f', 'o', 'o', 3, 'b', 'a', 'r');
+
+    hpackWriter.writeHeaders(headerEntries("baz", "qux"));
+    assertBytes(0x40, 3, 'b', 'a', 'z', 3, 'q', 'u', 'x');
+
+    hpackWriter.writeHeaders(headerEntries("foo", "bar", "baz", "qux"));
+    assertBytes(0xbf, 0xbe);
+    assertEquals(2, hpackWriter.dynamicTableHeaderCount);
+  }
+
+  @Test
+  public void evictedDynamicTableEntryIsNotIndexed() throws IOException {
+    // Room for two entries of 38 bytes.
+    hpackWriter = new Hpack.Writer(76, false, bytesOut);
+    hpackWriter.writeHeaders(headerEntries("foo", "bar", "bar", "foo", "far", "boo"));
+    bytesOut.clear();
+    assertEquals(2, hpackWriter.dynamicTableHeaderCount);
+
+    hpackWriter.writeHeaders(headerEntries("foo", "bar"));
+    assertBytes(0x40, 3, 'f', 'o', 'o', 3, 'b', 'a', 'r');
+
+    hpackWriter.writeHeaders(headerEntries("far", "boo"));
+    assertBytes(0xbf);
+    hpackWriter.writeHeaders(headerEntries("bar", "foo"));
+    assertBytes(0x40, 3, 'b', 'a', 'r', 3, 'f', 'o', 'o');
+    assertEquals(2, hpackWriter.dynamicTableHeaderCount);
+  }
+
+  @Test
+  public void huffmanEncodedPseudoHeaderIsNotIndexed() throws IOException {
+    hpackWriter = new Hpack.Writer(4096, true, bytesOut);
+    hpackWriter.writeHeaders(headerEntries(":path", "/okhttp"));
+    ByteString first = bytesOut.readByteString();
+    hpackWriter.writeHeaders(headerEntries(":path", "/okhttp"));
+
+    assertEquals(first, bytesOut.readByteString());
+    assertEquals(0x04, first.getByte(0));
+    assertEquals(0x80, first.getByte(1) & 0x80); // Huffman encoded.
+    assertEquals(0, hpackWriter.dynamicTableHeaderCount);
+  }
+
 
   private Hpack.Reader newReader(Buffer source) {
     return new Hpack.Reader(4096, source);
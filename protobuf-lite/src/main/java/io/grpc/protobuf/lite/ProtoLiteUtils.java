@@ -19,12 +19,16 @@ package io.grpc.protobuf.lite;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.protobuf.ByteString;
 import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.ExtensionRegistryLite;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.MessageLite;
 import com.google.protobuf.Parser;
+import com.google.protobuf.UnsafeByteOperations;
+import io.grpc.Detachable;
 import io.grpc.ExperimentalApi;
+import io.grpc.HasByteBuffer;
 import io.grpc.KnownLength;
 import io.grpc.Metadata;
 import io.grpc.MethodDescriptor.Marshaller;
@@ -35,6 +39,10 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.ref.Reference;
 import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 /**
  * Utility methods for using protobuf with grpc.
@@ -84,6 +92,23 @@ public final class ProtoLiteUtils {
     return new MessageMarshaller<>(defaultInstance);
   }
 
+  /**
+   * Creates a {@link ZeroCopyMarshaller} for protos of the same type as {@code defaultInstance}.
+   *
+   * <p>When the transport provides the inbound message as {@link HasByteBuffer}s that can be
+   * {@link Detachable detached}, the message is parsed directly from the transport's buffers with
+   * aliasing enabled, so {@code bytes} fields reference the network buffers instead of copies.
+   * Those buffers stay retained until {@link ZeroCopyMarshaller#release} is called for the message.
+   * Otherwise parsing falls back to the behavior of {@link #marshaller}.
+   *
+   * @since 1.41.0
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues/7387")
+  public static <T extends MessageLite> ZeroCopyMarshaller<T> zeroCopyMarshaller(
+      T defaultInstance) {
+    return new ZeroCopyMessageMarshaller<>(defaultInstance);
+  }
+
   /**
    * Produce a metadata marshaller for a protobuf type.
    *
@@ -115,12 +140,29 @@ public final class ProtoLiteUtils {
   private ProtoLiteUtils() {
   }
 
-  private static final class MessageMarshaller<T extends MessageLite>
+  /**
+   * A {@link PrototypeMarshaller} whose parsed messages may reference the transport's inbound
+   * buffers.
+   *
+   * @since 1.41.0
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues/7387")
+  public interface ZeroCopyMarshaller<T> extends PrototypeMarshaller<T> {
+
+    /**
+     * Releases the inbound buffers retained for a message returned by {@link #parse}. Must be
+     * called once the application no longer uses the message or any {@code bytes} field obtained
+     * from it. Has no effect if the message does not retain any buffers.
+     */
+    void release(T message);
+  }
+
+  private static class MessageMarshaller<T extends MessageLite>
       implements PrototypeMarshaller<T> {
     private static final ThreadLocal<Reference<byte[]>> bufs = new ThreadLocal<>();
 
     private final Parser<T> parser;
-    private final T defaultInstance;
+    final T defaultInstance;
 
     @SuppressWarnings("unchecked")
     MessageMarshaller(T defaultInstance) {
@@ -219,7 +261,7 @@ public final class ProtoLiteUtils {
       }
     }
 
-    private T parseFrom(CodedInputStream stream) throws InvalidProtocolBufferException {
+    final T parseFrom(CodedInputStream stream) throws InvalidProtocolBufferException {
       T message = parser.parseFrom(stream, globalRegistry);
       try {
         stream.checkLastTagWas(0);
@@ -231,6 +273,93 @@ public final class ProtoLiteUtils {
     }
   }
 
+  private static final class ZeroCopyMessageMarshaller<T extends MessageLite>
+      extends MessageMarshaller<T> implements ZeroCopyMarshaller<T> {
+    private final Map<T, InputStream> retainedStreams =
+        Collections.synchronizedMap(new IdentityHashMap<T, InputStream>());
+
+    ZeroCopyMessageMarshaller(T defaultInstance) {
+      super(defaultInstance);
+    }
+
+    @Override
+    public T parse(InputStream stream) {
+      if (!(stream instanceof Detachable)
+          || !(stream instanceof HasByteBuffer)
+          || !(stream instanceof KnownLength)
+          || !((HasByteBuffer) stream).byteBufferSupported()
+          || !stream.markSupported()) {
+        return super.parse(stream);
+      }
+      int size;
+      try {
+        size = stream.available();
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+      if (size == 0) {
+        return defaultInstance;
+      }
+      InputStream detached = ((Detachable) stream).detach();
+      if (!(detached instanceof HasByteBuffer)) {
+        try {
+          return super.parse(detached);
+        } finally {
+          closeQuietly(detached);
+        }
+      }
+      boolean retained = false;
+      try {
+        // Marking keeps the buffers already skipped over alive until the stream is closed, instead
+        // of them being released as soon as they are consumed.
+        detached.mark(size);
+        ByteString bytes = ByteString.EMPTY;
+        while (detached.available() > 0) {
+          ByteBuffer buffer = ((HasByteBuffer) detached).getByteBuffer();
+          int length = buffer.remaining();
+          bytes = bytes.concat(UnsafeByteOperations.unsafeWrap(buffer));
+          if (detached.skip(length) != length) {
+            throw new RuntimeException("size inaccurate: skipped less than " + length);
+          }
+        }
+        // ByteStrings created through UnsafeByteOperations are treated as immutable, which is
+        // required for CodedInputStream aliasing to take effect.
+        CodedInputStream cis = bytes.newCodedInput();
+        cis.enableAliasing(true);
+        cis.setSizeLimit(Integer.MAX_VALUE);
+        T message = parseFrom(cis);
+        retainedStreams.put(message, detached);
+        retained = true;
+        return message;
+      } catch (InvalidProtocolBufferException ipbe) {
+        throw Status.INTERNAL.withDescription("Invalid protobuf byte sequence")
+            .withCause(ipbe).asRuntimeException();
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      } finally {
+        if (!retained) {
+          closeQuietly(detached);
+        }
+      }
+    }
+
+    @Override
+    public void release(T message) {
+      InputStream stream = retainedStreams.remove(message);
+      if (stream != null) {
+        closeQuietly(stream);
+      }
+    }
+
+    private static void closeQuietly(InputStream stream) {
+      try {
+        stream.close();
+      } catch (IOException ignored) {
+        // Nothing to do; the buffers are released on a best-effort basis.
+      }
+    }
+  }
+
   private static final class MetadataMarshaller<T extends MessageLite>
       implements Metadata.BinaryMarshaller<T> {
 
@@ -18,8 +18,10 @@ package io.grpc.protobuf.lite;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import com.google.common.io.ByteStreams;
@@ -35,11 +37,17 @@ import io.grpc.MethodDescriptor.Marshaller;
 import io.grpc.MethodDescriptor.PrototypeMarshaller;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
+import io.grpc.internal.CompositeReadableBuffer;
+import io.grpc.internal.ForwardingReadableBuffer;
 import io.grpc.internal.GrpcUtil;
+import io.grpc.internal.ReadableBuffer;
+import io.grpc.internal.ReadableBuffers;
+import io.grpc.protobuf.lite.ProtoLiteUtils.ZeroCopyMarshaller;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import org.junit.Rule;
 import org.junit.Test;
@@ -227,6 +235,41 @@ public class ProtoLiteUtilsTest {
     assertEquals(expect, result);
   }
 
+  @Test
+  public void zeroCopyMarshaller_retainsBuffersUntilReleased() throws Exception {
+    ZeroCopyMarshaller<Type> zeroCopy =
+        ProtoLiteUtils.zeroCopyMarshaller(Type.getDefaultInstance());
+    byte[] serialized = proto.toByteArray();
+    int split = serialized.length / 2;
+    CloseTrackingBuffer first =
+        new CloseTrackingBuffer(ReadableBuffers.wrap(ByteBuffer.wrap(serialized, 0, split)));
+    CloseTrackingBuffer second = new CloseTrackingBuffer(ReadableBuffers.wrap(
+        ByteBuffer.wrap(serialized, split, serialized.length - split)));
+    CompositeReadableBuffer composite = new CompositeReadableBuffer();
+    composite.addBuffer(first);
+    composite.addBuffer(second);
+    InputStream stream = ReadableBuffers.openStream(composite, true);
+
+    Type result = zeroCopy.parse(stream);
+    assertEquals(proto, result);
+    stream.close();
+    assertFalse(first.closed);
+    assertFalse(second.closed);
+
+    zeroCopy.release(result);
+    assertTrue(first.closed);
+    assertTrue(second.closed);
+  }
+
+  @Test
+  public void zeroCopyMarshaller_fallsBackWithoutByteBuffers() throws Exception {
+    ZeroCopyMarshaller<Type> zeroCopy =
+        ProtoLiteUtils.zeroCopyMarshaller(Type.getDefaultInstance());
+    Type result = zeroCopy.parse(new ByteArrayInputStream(proto.toByteArray()));
+    assertEquals(proto, result);
+    zeroCopy.release(result);
+  }
+
   @Test
   public void defaultMaxMessageSize() {
     assertEquals(GrpcUtil.DEFAULT_MAX_MESSAGE_SIZE, ProtoLiteUtils.DEFAULT_MAX_MESSAGE_SIZE);
@@ -254,4 +297,18 @@ public class ProtoLiteUtilsTest {
       return source[position++];
     }
   }
+
+  private static final class CloseTrackingBuffer extends ForwardingReadableBuffer {
+    boolean closed;
+
+    CloseTrackingBuffer(ReadableBuffer buffer) {
+      super(buffer);
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+      super.close();
+    }
+  }
 }
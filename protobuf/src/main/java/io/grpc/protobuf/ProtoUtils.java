@@ -57,6 +57,18 @@ public final class ProtoUtils {
     return ProtoLiteUtils.marshaller(defaultInstance);
   }
 
+  /**
+   * Create a {@link ProtoLiteUtils.ZeroCopyMarshaller} for protos of the same type as {@code
+   * defaultInstance}. See {@link ProtoLiteUtils#zeroCopyMarshaller} for details.
+   *
+   * @since 1.41.0
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues/7387")
+  public static <T extends Message> ProtoLiteUtils.ZeroCopyMarshaller<T> zeroCopyMarshaller(
+      final T defaultInstance) {
+    return ProtoLiteUtils.zeroCopyMarshaller(defaultInstance);
+  }
+
   /**
    * Produce a metadata key for a generated protobuf type.
    *
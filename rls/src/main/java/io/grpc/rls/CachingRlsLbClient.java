@@ -16,6 +16,7 @@
 
 package io.grpc.rls;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
@@ -65,8 +66,10 @@ import io.grpc.stub.StreamObserver;
 import io.grpc.util.ForwardingLoadBalancerHelper;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayDeque;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.CheckReturnValue;
@@ -94,14 +97,30 @@ final class CachingRlsLbClient {
   static boolean enableOobChannelDirectPath =
       Boolean.parseBoolean(System.getProperty(RLS_ENABLE_OOB_CHANNEL_DIRECTPATH_PROPERTY, "false"));
 
+  /**
+   * Limit of RouteLookup RPCs on the fly. The RLS policy always uses it, only tests override it
+   * with the builder.
+   */
+  static final int DEFAULT_MAX_CONCURRENT_RLS_CALLS = 100;
+  /**
+   * Limit of queued RouteLookup RPCs. The RLS policy always uses it, only tests override it with
+   * the builder.
+   */
+  static final int DEFAULT_MAX_QUEUED_RLS_CALLS = 1000;
+
   // All cache status changes (pending, backoff, success) must be under this lock
   private final Object lock = new Object();
-  // LRU cache based on access order (BACKOFF and actual data will be here)
-  @GuardedBy("lock")
-  private final LinkedHashLruCache<RouteLookupRequest, CacheEntry> linkedHashLruCache;
+  // LRU cache (BACKOFF and actual data will be here). Reads don't need the lock, but entries are
+  // only added or removed under it.
+  private final ConcurrentLruCache<RouteLookupRequest, CacheEntry> lruCache;
   // any RPC on the fly will cached in this map
   @GuardedBy("lock")
   private final Map<RouteLookupRequest, PendingCacheEntry> pendingCallCache = new HashMap<>();
+  // RouteLookup RPCs waiting for a free slot when maxConcurrentRlsCalls RPCs are on the fly
+  @GuardedBy("lock")
+  private final Queue<QueuedRlsCall> queuedRlsCalls = new ArrayDeque<>();
+  @GuardedBy("lock")
+  private int rlsCallsInFlight;
 
   private final SynchronizationContext synchronizationContext;
   private final ScheduledExecutorService scheduledExecutorService;
@@ -113,6 +132,8 @@ final class CachingRlsLbClient {
   private final long maxAgeNanos;
   private final long staleAgeNanos;
   private final long callTimeoutNanos;
+  private final int maxConcurrentRlsCalls;
+  private final int maxQueuedRlsCalls;
 
   private final RlsLbHelper helper;
   private final ManagedChannel rlsChannel;
@@ -133,7 +154,9 @@ final class CachingRlsLbClient {
     callTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(rlsConfig.getLookupServiceTimeoutInMillis());
     timeProvider = checkNotNull(builder.timeProvider, "timeProvider");
     throttler = checkNotNull(builder.throttler, "throttler");
-    linkedHashLruCache =
+    maxConcurrentRlsCalls = builder.maxConcurrentRlsCalls;
+    maxQueuedRlsCalls = builder.maxQueuedRlsCalls;
+    lruCache =
         new RlsAsyncLruCache(
             rlsConfig.getCacheSizeBytes(),
             builder.evictionListener,
@@ -200,14 +223,40 @@ final class CachingRlsLbClient {
     return ImmutableMap.<String, Object>of("loadBalancingConfig", ImmutableList.of(grpcLbPolicy));
   }
 
+  /**
+   * Starts a RouteLookup RPC for the {@code request}. Lookups for the same request are coalesced
+   * by the callers through {@link #pendingCallCache}, so each call here is for a distinct request.
+   * If {@code maxConcurrentRlsCalls} RPCs are already on the fly, the lookup is queued until one of
+   * them finishes. When the queue is also full the lookup fails as throttled, so the caller backs
+   * off the same way it does when the {@link Throttler} rejects it.
+   */
   @CheckReturnValue
+  @GuardedBy("lock")
   private ListenableFuture<RouteLookupResponse> asyncRlsCall(RouteLookupRequest request) {
-    final SettableFuture<RouteLookupResponse> response = SettableFuture.create();
+    SettableFuture<RouteLookupResponse> response = SettableFuture.create();
+    if (rlsCallsInFlight < maxConcurrentRlsCalls) {
+      startRlsCall(request, response);
+    } else if (queuedRlsCalls.size() < maxQueuedRlsCalls) {
+      logger.log(ChannelLogLevel.DEBUG, "Too many RouteLookup calls on the fly, request is queued");
+      queuedRlsCalls.add(new QueuedRlsCall(request, response));
+    } else {
+      logger.log(ChannelLogLevel.DEBUG, "Too many RouteLookup calls queued, request is throttled");
+      response.setException(new ThrottledException());
+    }
+    return response;
+  }
+
+  @GuardedBy("lock")
+  private void startRlsCall(
+      RouteLookupRequest request, final SettableFuture<RouteLookupResponse> response) {
+    // The throttler is consulted when the RPC is actually sent, so queued lookups don't count
+    // towards the requests it has seen until they reach the RLS server.
     if (throttler.shouldThrottle()) {
       logger.log(ChannelLogLevel.DEBUG, "Request is throttled");
       response.setException(new ThrottledException());
-      return response;
+      return;
     }
+    rlsCallsInFlight++;
     io.grpc.lookup.v1.RouteLookupRequest routeLookupRequest = REQUEST_CONVERTER.convert(request);
     logger.log(ChannelLogLevel.DEBUG, "Sending RouteLookupRequest: {0}", routeLookupRequest);
     rlsStub.withDeadlineAfter(callTimeoutNanos, TimeUnit.NANOSECONDS)
@@ -225,15 +274,29 @@ final class CachingRlsLbClient {
                 logger.log(ChannelLogLevel.DEBUG, "Error looking up route:", t);
                 response.setException(t);
                 throttler.registerBackendResponse(false);
+                rlsCallFinished();
                 helper.propagateRlsError();
               }
 
               @Override
               public void onCompleted() {
                 throttler.registerBackendResponse(true);
+                rlsCallFinished();
               }
             });
-    return response;
+  }
+
+  /** Releases the slot of a finished RouteLookup RPC and starts queued ones, if any. */
+  private void rlsCallFinished() {
+    synchronized (lock) {
+      rlsCallsInFlight--;
+      while (rlsCallsInFlight < maxConcurrentRlsCalls && !queuedRlsCalls.isEmpty()) {
+        QueuedRlsCall queuedCall = queuedRlsCalls.poll();
+        if (!queuedCall.response.isDone()) {
+          startRlsCall(queuedCall.request, queuedCall.response);
+        }
+      }
+    }
   }
 
   /**
@@ -243,34 +306,37 @@ final class CachingRlsLbClient {
    */
   @CheckReturnValue
   final CachedRouteLookupResponse get(final RouteLookupRequest request) {
-    synchronized (lock) {
-      final CacheEntry cacheEntry;
-      cacheEntry = linkedHashLruCache.read(request);
-      if (cacheEntry == null) {
-        return handleNewRequest(request);
-      }
+    // Cache hits don't take the lock. Staled entries are refreshed asynchronously by the cache.
+    CacheEntry cacheEntry = lruCache.read(request);
+    if (cacheEntry == null) {
+      return handleNewRequest(request);
+    }
+    return toCachedResponse(cacheEntry);
+  }
 
-      if (cacheEntry instanceof DataCacheEntry) {
-        // cache hit, initiate async-refresh if entry is staled
-        logger.log(ChannelLogLevel.DEBUG, "Cache hit for the request");
-        DataCacheEntry dataEntry = ((DataCacheEntry) cacheEntry);
-        if (dataEntry.isStaled(timeProvider.currentTimeNanos())) {
-          dataEntry.maybeRefresh();
-        }
-        return CachedRouteLookupResponse.dataEntry((DataCacheEntry) cacheEntry);
-      }
-      return CachedRouteLookupResponse.backoffEntry((BackoffCacheEntry) cacheEntry);
+  private CachedRouteLookupResponse toCachedResponse(CacheEntry cacheEntry) {
+    if (cacheEntry instanceof DataCacheEntry) {
+      logger.log(ChannelLogLevel.DEBUG, "Cache hit for the request");
+      return CachedRouteLookupResponse.dataEntry((DataCacheEntry) cacheEntry);
     }
+    return CachedRouteLookupResponse.backoffEntry((BackoffCacheEntry) cacheEntry);
   }
 
   /** Performs any pending maintenance operations needed by the cache. */
   void close() {
-    logger.log(ChannelLogLevel.DEBUG, "CachingRlsLbClient closed");
+    logger.log(
+        ChannelLogLevel.DEBUG,
+        "CachingRlsLbClient closed. Cache hits: {0}, misses: {1}, evictions: {2}",
+        lruCache.hitCount(), lruCache.missCount(), lruCache.evictionCount());
     synchronized (lock) {
       // all childPolicyWrapper will be returned via AutoCleaningEvictionListener
-      linkedHashLruCache.close();
+      lruCache.close();
       // TODO(creamsoup) maybe cancel all pending requests
       pendingCallCache.clear();
+      for (QueuedRlsCall queuedCall : queuedRlsCalls) {
+        queuedCall.response.cancel(false);
+      }
+      queuedRlsCalls.clear();
       rlsChannel.shutdownNow();
       rlsPicker.close();
     }
@@ -287,6 +353,11 @@ final class CachingRlsLbClient {
       if (pendingEntry != null) {
         return CachedRouteLookupResponse.pendingResponse(pendingEntry);
       }
+      // The response may have been cached since the cache was read without the lock.
+      CacheEntry cacheEntry = lruCache.peek(request);
+      if (cacheEntry != null) {
+        return toCachedResponse(cacheEntry);
+      }
 
       ListenableFuture<RouteLookupResponse> asyncCall = asyncRlsCall(request);
       if (!asyncCall.isDone()) {
@@ -298,12 +369,12 @@ final class CachingRlsLbClient {
         try {
           RouteLookupResponse response = asyncCall.get();
           DataCacheEntry dataEntry = new DataCacheEntry(request, response);
-          linkedHashLruCache.cache(request, dataEntry);
+          lruCache.cache(request, dataEntry);
           return CachedRouteLookupResponse.dataEntry(dataEntry);
         } catch (Exception e) {
           BackoffCacheEntry backoffEntry =
               new BackoffCacheEntry(request, Status.fromThrowable(e), backoffProvider.get());
-          linkedHashLruCache.cache(request, backoffEntry);
+          lruCache.cache(request, backoffEntry);
           return CachedRouteLookupResponse.backoffEntry(backoffEntry);
         }
       }
@@ -437,6 +508,17 @@ final class CachingRlsLbClient {
     }
   }
 
+  /** A RouteLookup RPC waiting for the number of RPCs on the fly to drop below the limit. */
+  private static final class QueuedRlsCall {
+    final RouteLookupRequest request;
+    final SettableFuture<RouteLookupResponse> response;
+
+    QueuedRlsCall(RouteLookupRequest request, SettableFuture<RouteLookupResponse> response) {
+      this.request = request;
+      this.response = response;
+    }
+  }
+
   /** A pending cache entry when the async RouteLookup RPC is still on the fly. */
   final class PendingCacheEntry {
     private final ListenableFuture<RouteLookupResponse> pendingCall;
@@ -490,14 +572,14 @@ final class CachingRlsLbClient {
             ChannelLogLevel.DEBUG,
             "Transition to data cache: routeLookupResponse={0}",
             routeLookupResponse);
-        linkedHashLruCache.cache(request, new DataCacheEntry(request, routeLookupResponse));
+        lruCache.cache(request, new DataCacheEntry(request, routeLookupResponse));
       }
     }
 
     private void transitionToBackOff(Status status) {
       synchronized (lock) {
         logger.log(ChannelLogLevel.DEBUG, "Transition to back off: status={0}", status);
-        linkedHashLruCache.cache(request, new BackoffCacheEntry(request, status, backoffPolicy));
+        lruCache.cache(request, new BackoffCacheEntry(request, status, backoffPolicy));
       }
     }
 
@@ -598,13 +680,13 @@ final class CachingRlsLbClient {
           // async call returned finished future is most likely throttled
           try {
             RouteLookupResponse response = asyncCall.get();
-            linkedHashLruCache.cache(request, new DataCacheEntry(request, response));
+            lruCache.cache(request, new DataCacheEntry(request, response));
           } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
           } catch (Exception e) {
             BackoffCacheEntry backoffEntry =
                 new BackoffCacheEntry(request, Status.fromThrowable(e), backoffProvider.get());
-            linkedHashLruCache.cache(request, backoffEntry);
+            lruCache.cache(request, backoffEntry);
           }
         }
       }
@@ -700,15 +782,15 @@ final class CachingRlsLbClient {
         if (!call.isDone()) {
           PendingCacheEntry pendingEntry = new PendingCacheEntry(request, call, backoffPolicy);
           pendingCallCache.put(request, pendingEntry);
-          linkedHashLruCache.invalidate(request);
+          lruCache.invalidate(request);
         } else {
           try {
             RouteLookupResponse response = call.get();
-            linkedHashLruCache.cache(request, new DataCacheEntry(request, response));
+            lruCache.cache(request, new DataCacheEntry(request, response));
           } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
           } catch (Exception e) {
-            linkedHashLruCache.cache(
+            lruCache.cache(
                 request,
                 new BackoffCacheEntry(request, Status.fromThrowable(e), backoffPolicy));
           }
@@ -765,6 +847,8 @@ final class CachingRlsLbClient {
     private TimeProvider timeProvider = TimeProvider.SYSTEM_TIME_PROVIDER;
     private EvictionListener<RouteLookupRequest, CacheEntry> evictionListener;
     private BackoffPolicy.Provider backoffProvider = new ExponentialBackoffPolicy.Provider();
+    private int maxConcurrentRlsCalls = DEFAULT_MAX_CONCURRENT_RLS_CALLS;
+    private int maxQueuedRlsCalls = DEFAULT_MAX_QUEUED_RLS_CALLS;
 
     Builder setHelper(Helper helper) {
       this.helper = checkNotNull(helper, "helper");
@@ -807,6 +891,26 @@ final class CachingRlsLbClient {
       return this;
     }
 
+    /**
+     * Sets the maximum number of RouteLookup RPCs on the fly. Lookups over the limit are queued.
+     * Defaults to {@link #DEFAULT_MAX_CONCURRENT_RLS_CALLS}.
+     */
+    Builder setMaxConcurrentRlsCalls(int maxConcurrentRlsCalls) {
+      checkArgument(maxConcurrentRlsCalls > 0, "maxConcurrentRlsCalls should be positive");
+      this.maxConcurrentRlsCalls = maxConcurrentRlsCalls;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of queued RouteLookup RPCs. Lookups over the limit are throttled.
+     * Defaults to {@link #DEFAULT_MAX_QUEUED_RLS_CALLS}.
+     */
+    Builder setMaxQueuedRlsCalls(int maxQueuedRlsCalls) {
+      checkArgument(maxQueuedRlsCalls >= 0, "maxQueuedRlsCalls should not be negative");
+      this.maxQueuedRlsCalls = maxQueuedRlsCalls;
+      return this;
+    }
+
     CachingRlsLbClient build() {
       return new CachingRlsLbClient(this);
     }
@@ -850,9 +954,9 @@ final class CachingRlsLbClient {
     }
   }
 
-  /** Implementation of {@link LinkedHashLruCache} for RLS. */
+  /** Implementation of {@link ConcurrentLruCache} for RLS. */
   private static final class RlsAsyncLruCache
-      extends LinkedHashLruCache<RouteLookupRequest, CacheEntry> {
+      extends ConcurrentLruCache<RouteLookupRequest, CacheEntry> {
 
     RlsAsyncLruCache(long maxEstimatedSizeBytes,
         @Nullable EvictionListener<RouteLookupRequest, CacheEntry> evictionListener,
@@ -871,6 +975,16 @@ final class CachingRlsLbClient {
       return value.isExpired();
     }
 
+    @Override
+    protected boolean isStale(RouteLookupRequest key, CacheEntry value, long nowNanos) {
+      return value instanceof DataCacheEntry && ((DataCacheEntry) value).isStaled(nowNanos);
+    }
+
+    @Override
+    protected void refresh(RouteLookupRequest key, CacheEntry value) {
+      ((DataCacheEntry) value).maybeRefresh();
+    }
+
     @Override
     protected int estimateSizeOf(RouteLookupRequest key, CacheEntry value) {
       return value.getSizeBytes();
@@ -898,7 +1012,7 @@ final class CachingRlsLbClient {
       if (prevState == ConnectivityState.TRANSIENT_FAILURE
           && newState == ConnectivityState.READY) {
         synchronized (lock) {
-          for (CacheEntry value : linkedHashLruCache.values()) {
+          for (CacheEntry value : lruCache.values()) {
             if (value instanceof BackoffCacheEntry) {
               ((BackoffCacheEntry) value).forceRefresh();
             }
@@ -0,0 +1,434 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.rls;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import io.grpc.internal.LongCounter;
+import io.grpc.internal.LongCounterFactory;
+import io.grpc.internal.TimeProvider;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.CheckReturnValue;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A ConcurrentLruCache is a size bounded cache with entry level expiration time whose reads do not
+ * take any lock, so that it can be consulted on every pick.
+ *
+ * <p>Entries are kept in a {@link ConcurrentHashMap}. A read only sets a "referenced" bit on the
+ * entry; the least recently used order is approximated with the CLOCK (second chance) algorithm
+ * when the cache is over its size limit: already expired entries are removed first, then entries
+ * are scanned in insertion order, referenced entries get their bit cleared and are moved to the
+ * back, and unreferenced entries are evicted. Writes, evictions and {@link EvictionListener}
+ * notifications are serialized by a single lock, which is only taken when the content of the
+ * cache changes.
+ *
+ * <p>When a read hits an entry that {@link #isStale stale}, {@link #refresh} is called once for
+ * that entry on the {@link ScheduledExecutorService} given at construction, not on the reading
+ * thread. Reads treat expired entries as missing but leave them in place: they are removed, and
+ * the {@link EvictionListener} notified, by writes or periodically on that executor, so that the
+ * listener never runs on a reading thread.
+ */
+@ThreadSafe
+abstract class ConcurrentLruCache<K, V> implements LruCache<K, V> {
+
+  private final ConcurrentMap<K, Node<K, V>> map = new ConcurrentHashMap<>();
+  private final Object lock = new Object();
+  // Sentinel of the circular list of entries in insertion order, the eldest being next to it.
+  @GuardedBy("lock")
+  private final Node<K, V> head = new Node<>(null, null, 0);
+  @GuardedBy("lock")
+  private long estimatedMaxSizeBytes;
+  @GuardedBy("lock")
+  private long estimatedSizeBytes;
+  @Nullable
+  private final EvictionListener<K, V> evictionListener;
+  private final ScheduledExecutorService ses;
+  private final TimeProvider timeProvider;
+  private final ScheduledFuture<?> periodicCleaner;
+  private final LongCounter hitCount = LongCounterFactory.create();
+  private final LongCounter missCount = LongCounterFactory.create();
+  private final LongCounter evictionCount = LongCounterFactory.create();
+
+  ConcurrentLruCache(
+      long estimatedMaxSizeBytes,
+      @Nullable EvictionListener<K, V> evictionListener,
+      int cleaningInterval,
+      TimeUnit cleaningIntervalUnit,
+      ScheduledExecutorService ses,
+      TimeProvider timeProvider) {
+    checkState(estimatedMaxSizeBytes > 0, "max estimated cache size should be positive");
+    checkState(cleaningInterval > 0, "interval must be positive");
+    this.estimatedMaxSizeBytes = estimatedMaxSizeBytes;
+    this.evictionListener = evictionListener;
+    this.ses = checkNotNull(ses, "ses");
+    this.timeProvider = checkNotNull(timeProvider, "timeProvider");
+    head.prev = head;
+    head.next = head;
+    periodicCleaner = ses.scheduleAtFixedRate(
+        new Runnable() {
+          @Override
+          public void run() {
+            cleanupExpiredEntries();
+          }
+        },
+        cleaningInterval,
+        cleaningInterval,
+        checkNotNull(cleaningIntervalUnit, "cleaningIntervalUnit"));
+  }
+
+  /**
+   * Determines if the eldest entry should be kept or not when the cache size limit is reached.
+   */
+  @SuppressWarnings("unused")
+  protected boolean shouldInvalidateEldestEntry(K eldestKey, V eldestValue) {
+    return true;
+  }
+
+  /** Determines if the entry is already expired or not. */
+  protected abstract boolean isExpired(K key, V value, long nowNanos);
+
+  /** Determines if the entry should be refreshed. Entries are never stale by default. */
+  @SuppressWarnings("unused")
+  protected boolean isStale(K key, V value, long nowNanos) {
+    return false;
+  }
+
+  /**
+   * Refreshes a stale entry, typically by asynchronously fetching a new value and {@link #cache
+   * caching} it. Called at most once per cached value, off the reading thread.
+   */
+  @SuppressWarnings("unused")
+  protected void refresh(K key, V value) {}
+
+  /**
+   * Returns estimated size of entry to keep track. If it always returns 1, the max size bytes
+   * behaves like max number of entry (default behavior).
+   */
+  @SuppressWarnings("unused")
+  protected int estimateSizeOf(K key, V value) {
+    return 1;
+  }
+
+  /** Updates size for given key if entry exists. It is useful if the cache value is mutated. */
+  public void updateEntrySize(K key) {
+    checkNotNull(key, "key");
+    synchronized (lock) {
+      Node<K, V> node = map.get(key);
+      if (node == null) {
+        return;
+      }
+      int newSize = estimateSizeOf(key, node.value);
+      estimatedSizeBytes += newSize - node.size;
+      node.size = newSize;
+    }
+  }
+
+  /**
+   * Returns estimated cache size bytes. Each entry size is calculated by {@link
+   * #estimateSizeOf(java.lang.Object, java.lang.Object)}.
+   */
+  public long estimatedSizeBytes() {
+    synchronized (lock) {
+      return estimatedSizeBytes;
+    }
+  }
+
+  /** Returns the number of reads that found a live entry. */
+  public long hitCount() {
+    return hitCount.value();
+  }
+
+  /** Returns the number of reads that found no entry or an expired one. */
+  public long missCount() {
+    return missCount.value();
+  }
+
+  /** Returns the number of entries evicted due to size limit or expiration. */
+  public long evictionCount() {
+    return evictionCount.value();
+  }
+
+  @Override
+  @Nullable
+  public final V cache(K key, V value) {
+    checkNotNull(key, "key");
+    checkNotNull(value, "value");
+    Node<K, V> node = new Node<>(key, value, estimateSizeOf(key, value));
+    long now = timeProvider.currentTimeNanos();
+    synchronized (lock) {
+      Node<K, V> existing = map.put(key, node);
+      node.linkBefore(head);
+      estimatedSizeBytes += node.size;
+      if (existing != null) {
+        // Reads leave expired entries in place, so the replaced entry may already be expired.
+        removed(
+            existing,
+            isExpired(key, existing.value, now) ? EvictionType.EXPIRED : EvictionType.REPLACED);
+      }
+      evictIfNeeded(now);
+      return existing == null ? null : existing.value;
+    }
+  }
+
+  @Override
+  @Nullable
+  @CheckReturnValue
+  public final V read(K key) {
+    checkNotNull(key, "key");
+    Node<K, V> node = map.get(key);
+    if (node == null) {
+      missCount.add(1);
+      return null;
+    }
+    long now = timeProvider.currentTimeNanos();
+    if (isExpired(key, node.value, now)) {
+      missCount.add(1);
+      return null;
+    }
+    // Skip the write when already set, to not bounce the cache line between readers.
+    if (!node.referenced) {
+      node.referenced = true;
+    }
+    hitCount.add(1);
+    if (isStale(key, node.value, now) && node.refreshScheduled.compareAndSet(false, true)) {
+      ses.execute(new RefreshTask(node));
+    }
+    return node.value;
+  }
+
+  @Override
+  @Nullable
+  public final V invalidate(K key) {
+    checkNotNull(key, "key");
+    synchronized (lock) {
+      Node<K, V> existing = map.remove(key);
+      if (existing == null) {
+        return null;
+      }
+      removed(existing, EvictionType.EXPLICIT);
+      return existing.value;
+    }
+  }
+
+  @Override
+  public final void invalidateAll(Iterable<K> keys) {
+    checkNotNull(keys, "keys");
+    synchronized (lock) {
+      for (K key : keys) {
+        invalidate(key);
+      }
+    }
+  }
+
+  /**
+   * Returns cached value for given key if exists, like {@link #read}, but without counting a hit
+   * or miss, marking the entry as recently used or refreshing it.
+   */
+  @Nullable
+  @CheckReturnValue
+  public final V peek(K key) {
+    checkNotNull(key, "key");
+    Node<K, V> node = map.get(key);
+    if (node == null) {
+      return null;
+    }
+    if (isExpired(key, node.value, timeProvider.currentTimeNanos())) {
+      return null;
+    }
+    return node.value;
+  }
+
+  @Override
+  @CheckReturnValue
+  public final boolean hasCacheEntry(K key) {
+    return peek(key) != null;
+  }
+
+  /** Returns shallow copied values in the cache. */
+  public final List<V> values() {
+    synchronized (lock) {
+      List<V> list = new ArrayList<>(map.size());
+      for (Node<K, V> node = head.next; node != head; node = node.next) {
+        list.add(node.value);
+      }
+      return Collections.unmodifiableList(list);
+    }
+  }
+
+  /**
+   * Resizes cache. If new size is smaller than current estimated size, it will free up space by
+   * removing expired entries and evicting entries by approximated LRU order.
+   */
+  public final void resize(int newSizeBytes) {
+    synchronized (lock) {
+      estimatedMaxSizeBytes = newSizeBytes;
+      evictIfNeeded(timeProvider.currentTimeNanos());
+    }
+  }
+
+  @Override
+  @CheckReturnValue
+  public final int estimatedSize() {
+    return map.size();
+  }
+
+  @Override
+  public final void close() {
+    synchronized (lock) {
+      periodicCleaner.cancel(false);
+      doClose();
+      map.clear();
+      head.prev = head;
+      head.next = head;
+      estimatedSizeBytes = 0;
+    }
+  }
+
+  protected void doClose() {}
+
+  private void cleanupExpiredEntries() {
+    long now = timeProvider.currentTimeNanos();
+    synchronized (lock) {
+      Node<K, V> node = head.next;
+      while (node != head) {
+        Node<K, V> next = node.next;
+        if (isExpired(node.key, node.value, now)) {
+          map.remove(node.key, node);
+          removed(node, EvictionType.EXPIRED);
+        }
+        node = nextLinked(next);
+      }
+    }
+  }
+
+  @GuardedBy("lock")
+  private void evictIfNeeded(long now) {
+    if (estimatedSizeBytes <= estimatedMaxSizeBytes) {
+      return;
+    }
+    // Already expired entries go first.
+    Node<K, V> node = head.next;
+    while (estimatedSizeBytes > estimatedMaxSizeBytes && node != head) {
+      Node<K, V> next = node.next;
+      if (isExpired(node.key, node.value, now)) {
+        map.remove(node.key, node);
+        removed(node, EvictionType.EXPIRED);
+      }
+      node = nextLinked(next);
+    }
+    // Every entry is visited at most twice, unless it keeps being read during the scan.
+    int toVisit = 2 * map.size();
+    node = head.next;
+    while (estimatedSizeBytes > estimatedMaxSizeBytes && node != head && toVisit-- > 0) {
+      Node<K, V> next = node.next;
+      if (node.referenced) {
+        // Second chance.
+        node.referenced = false;
+        node.unlink();
+        node.linkBefore(head);
+        if (next == head) {
+          next = node;
+        }
+      } else if (shouldInvalidateEldestEntry(node.key, node.value)) {
+        map.remove(node.key, node);
+        removed(node, EvictionType.SIZE);
+      }
+      node = nextLinked(next);
+    }
+  }
+
+  /**
+   * Returns the given entry, or the eldest one if the eviction listener removed it from the cache
+   * while it was notified.
+   */
+  @GuardedBy("lock")
+  private Node<K, V> nextLinked(Node<K, V> next) {
+    return next.next != null ? next : head.next;
+  }
+
+  /** Unlinks an entry already removed from the map and notifies the listener. */
+  @GuardedBy("lock")
+  private void removed(Node<K, V> node, EvictionType cause) {
+    node.unlink();
+    estimatedSizeBytes -= node.size;
+    if (cause == EvictionType.SIZE || cause == EvictionType.EXPIRED) {
+      evictionCount.add(1);
+    }
+    if (evictionListener != null) {
+      evictionListener.onEviction(node.key, node.value, cause);
+    }
+  }
+
+  private final class RefreshTask implements Runnable {
+    private final Node<K, V> node;
+
+    RefreshTask(Node<K, V> node) {
+      this.node = node;
+    }
+
+    @Override
+    public void run() {
+      // Skip entries replaced or removed in the meantime.
+      if (map.get(node.key) == node) {
+        refresh(node.key, node.value);
+      }
+    }
+  }
+
+  private static final class Node<K, V> {
+    final K key;
+    final V value;
+    final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    volatile boolean referenced;
+    // The following fields are guarded by the cache lock.
+    int size;
+    Node<K, V> prev;
+    Node<K, V> next;
+
+    Node(K key, V value, int size) {
+      this.key = key;
+      this.value = value;
+      this.size = size;
+    }
+
+    void linkBefore(Node<K, V> successor) {
+      prev = successor.prev;
+      next = successor;
+      prev.next = this;
+      successor.prev = this;
+    }
+
+    void unlink() {
+      prev.next = next;
+      next.prev = prev;
+      prev = null;
+      next = null;
+    }
+  }
+}
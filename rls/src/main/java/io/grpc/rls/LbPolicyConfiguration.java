@@ -40,6 +40,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
 
 /** Configuration for RLS load balancing policy. */
 final class LbPolicyConfiguration {
@@ -189,8 +190,13 @@ final class LbPolicyConfiguration {
     }
   }
 
-  /** Factory for {@link ChildPolicyWrapper}. */
+  /**
+   * Factory for {@link ChildPolicyWrapper}. Wrappers are released by cache evictions, which may
+   * run on the cache's cleaning thread, so the factory is thread-safe.
+   */
+  @ThreadSafe
   static final class RefCountedChildPolicyWrapperFactory {
+    // Guarded by this factory.
     @VisibleForTesting
     final Map<String /* target */, RefCountedChildPolicyWrapper> childPolicyMap =
         new HashMap<>();
@@ -205,7 +211,7 @@ final class LbPolicyConfiguration {
       this.childLbStatusListener = checkNotNull(childLbStatusListener, "childLbStatusListener");
     }
 
-    ChildPolicyWrapper createOrGet(String target) {
+    synchronized ChildPolicyWrapper createOrGet(String target) {
       // TODO(creamsoup) check if the target is valid or not
       RefCountedChildPolicyWrapper pooledChildPolicyWrapper = childPolicyMap.get(target);
       if (pooledChildPolicyWrapper == null) {
@@ -218,7 +224,7 @@ final class LbPolicyConfiguration {
       return pooledChildPolicyWrapper.getObject();
     }
 
-    void release(ChildPolicyWrapper childPolicyWrapper) {
+    synchronized void release(ChildPolicyWrapper childPolicyWrapper) {
       checkNotNull(childPolicyWrapper, "childPolicyWrapper");
       String target = childPolicyWrapper.getTarget();
       RefCountedChildPolicyWrapper existing = childPolicyMap.get(target);
@@ -134,7 +134,10 @@ final class RlsLoadBalancer extends LoadBalancer {
 
     @Override
     public CachingRlsLbClient.Builder get() {
-      return CachingRlsLbClient.newBuilder().setThrottler(AdaptiveThrottler.builder().build());
+      // The RouteLookup call limits are fixed at the CachingRlsLbClient defaults, as the RLS
+      // config has no field for them.
+      return CachingRlsLbClient.newBuilder()
+          .setThrottler(AdaptiveThrottler.builder().build());
     }
   }
 }
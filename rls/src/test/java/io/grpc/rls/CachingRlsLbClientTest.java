@@ -77,8 +77,10 @@ import io.grpc.testing.TestMethodDescriptors;
 import java.io.IOException;
 import java.lang.Thread.UncaughtExceptionHandler;
 import java.net.SocketAddress;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
@@ -155,16 +157,18 @@ public class CachingRlsLbClientTest {
   }
 
   private void setUpRlsLbClient() {
-    rlsLbClient =
-        CachingRlsLbClient.newBuilder()
-            .setBackoffProvider(fakeBackoffProvider)
-            .setResolvedAddressesFactory(resolvedAddressFactory)
-            .setEvictionListener(evictionListener)
-            .setHelper(helper)
-            .setLbPolicyConfig(lbPolicyConfiguration)
-            .setThrottler(fakeThrottler)
-            .setTimeProvider(fakeTimeProvider)
-            .build();
+    rlsLbClient = newRlsLbClientBuilder().build();
+  }
+
+  private CachingRlsLbClient.Builder newRlsLbClientBuilder() {
+    return CachingRlsLbClient.newBuilder()
+        .setBackoffProvider(fakeBackoffProvider)
+        .setResolvedAddressesFactory(resolvedAddressFactory)
+        .setEvictionListener(evictionListener)
+        .setHelper(helper)
+        .setLbPolicyConfig(lbPolicyConfiguration)
+        .setThrottler(fakeThrottler)
+        .setTimeProvider(fakeTimeProvider);
   }
 
   @After
@@ -231,6 +235,8 @@ public class CachingRlsLbClientTest {
     resp = getInSyncContext(routeLookupRequest);
 
     assertThat(resp.isPending()).isTrue();
+    // The expired entry is evicted once the new response replaces it.
+    fakeTimeProvider.forwardTime(SERVER_LATENCY_MILLIS, TimeUnit.MILLISECONDS);
     inOrder
         .verify(evictionListener)
         .onEviction(eq(routeLookupRequest), any(CacheEntry.class), eq(EvictionType.EXPIRED));
@@ -315,6 +321,71 @@ public class CachingRlsLbClientTest {
     assertThat(resp.hasData()).isTrue();
   }
 
+  @Test
+  public void get_overConcurrencyLimit_queuedAndThrottled() throws Exception {
+    rlsLbClient =
+        newRlsLbClientBuilder().setMaxConcurrentRlsCalls(1).setMaxQueuedRlsCalls(1).build();
+    RouteLookupRequest request1 =
+        new RouteLookupRequest("server", "/foo/bar1", "grpc", ImmutableMap.<String, String>of());
+    RouteLookupRequest request2 =
+        new RouteLookupRequest("server", "/foo/bar2", "grpc", ImmutableMap.<String, String>of());
+    RouteLookupRequest request3 =
+        new RouteLookupRequest("server", "/foo/bar3", "grpc", ImmutableMap.<String, String>of());
+    rlsServerImpl.setLookupTable(
+        ImmutableMap.of(
+            request1, new RouteLookupResponse(ImmutableList.of("target1"), "header"),
+            request2, new RouteLookupResponse(ImmutableList.of("target2"), "header"),
+            request3, new RouteLookupResponse(ImmutableList.of("target3"), "header")));
+
+    // request1 is sent, request2 waits for it and request3 doesn't fit in the queue
+    assertThat(getInSyncContext(request1).isPending()).isTrue();
+    assertThat(getInSyncContext(request2).isPending()).isTrue();
+    assertThat(getInSyncContext(request3).hasError()).isTrue();
+    // lookups for the same request are coalesced into the pending one
+    assertThat(getInSyncContext(request2).isPending()).isTrue();
+
+    // request1 finishes, request2 is sent
+    fakeTimeProvider.forwardTime(SERVER_LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+
+    assertThat(getInSyncContext(request1).hasData()).isTrue();
+    assertThat(getInSyncContext(request2).isPending()).isTrue();
+
+    fakeTimeProvider.forwardTime(SERVER_LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+
+    CachedRouteLookupResponse resp = getInSyncContext(request2);
+    assertThat(resp.hasData()).isTrue();
+    assertThat(resp.getHeaderData()).isEqualTo("header");
+  }
+
+  @Test
+  public void get_defaultConcurrencyLimit() throws Exception {
+    setUpRlsLbClient();
+    int limit = CachingRlsLbClient.DEFAULT_MAX_CONCURRENT_RLS_CALLS;
+    List<RouteLookupRequest> requests = new ArrayList<>();
+    ImmutableMap.Builder<RouteLookupRequest, RouteLookupResponse> lookupTable =
+        ImmutableMap.builder();
+    for (int i = 0; i <= limit; i++) {
+      RouteLookupRequest request = new RouteLookupRequest(
+          "server", "/foo/bar" + i, "grpc", ImmutableMap.<String, String>of());
+      requests.add(request);
+      lookupTable.put(request, new RouteLookupResponse(ImmutableList.of("target" + i), "header"));
+    }
+    rlsServerImpl.setLookupTable(lookupTable.build());
+
+    for (RouteLookupRequest request : requests) {
+      assertThat(getInSyncContext(request).isPending()).isTrue();
+    }
+
+    // only the first limit lookups are sent, the last one waits in the queue
+    fakeTimeProvider.forwardTime(SERVER_LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+
+    assertThat(getInSyncContext(requests.get(limit)).isPending()).isTrue();
+
+    fakeTimeProvider.forwardTime(SERVER_LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+
+    assertThat(getInSyncContext(requests.get(limit)).hasData()).isTrue();
+  }
+
   @Test
   public void get_updatesLbState() throws Exception {
     setUpRlsLbClient();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2020 The gRPC Authors
+ * Copyright 2021 The gRPC Authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,15 +18,19 @@ package io.grpc.rls;
 
 import static com.google.common.truth.Truth.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.CALLS_REAL_METHODS;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 import com.google.common.collect.ImmutableList;
 import io.grpc.rls.DoNotUseDirectScheduledExecutorService.FakeTimeProvider;
 import io.grpc.rls.LruCache.EvictionListener;
 import io.grpc.rls.LruCache.EvictionType;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import org.junit.Before;
@@ -39,7 +43,7 @@ import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 
 @RunWith(JUnit4.class)
-public class LinkedHashLruCacheTest {
+public class ConcurrentLruCacheTest {
 
   private static final int MAX_SIZE = 5;
 
@@ -52,11 +56,12 @@ public class LinkedHashLruCacheTest {
 
   @Mock
   private EvictionListener<Integer, Entry> evictionListener;
-  private LinkedHashLruCache<Integer, Entry> cache;
+  private final List<Integer> refreshedKeys = new ArrayList<>();
+  private ConcurrentLruCache<Integer, Entry> cache;
 
   @Before
   public void setUp() {
-    this.cache = new LinkedHashLruCache<Integer, Entry>(
+    this.cache = new ConcurrentLruCache<Integer, Entry>(
         MAX_SIZE,
         evictionListener,
         10,
@@ -68,6 +73,16 @@ public class LinkedHashLruCacheTest {
         return value.expireTime <= nowNanos;
       }
 
+      @Override
+      protected boolean isStale(Integer key, Entry value, long nowNanos) {
+        return value.staleTime <= nowNanos;
+      }
+
+      @Override
+      protected void refresh(Integer key, Entry value) {
+        refreshedKeys.add(key);
+      }
+
       @Override
       protected int estimateSizeOf(Integer key, Entry value) {
         return value.size;
@@ -145,7 +160,7 @@ public class LinkedHashLruCacheTest {
     }
     cache.cache(MAX_SIZE + 1, new Entry("should kick the first", Long.MAX_VALUE));
 
-    // should remove MAX_SIZE-1 instead of MAX_SIZE because MAX_SIZE is accessed later
+    // already expired entries are removed before any other entry, eldest first
     verify(evictionListener)
         .onEviction(eq(MAX_SIZE - 1), any(Entry.class), eq(EvictionType.EXPIRED));
     assertThat(cache.estimatedSize()).isEqualTo(MAX_SIZE);
@@ -160,7 +175,14 @@ public class LinkedHashLruCacheTest {
 
     assertThat(cache.estimatedSize()).isEqualTo(MAX_SIZE);
     assertThat(cache.read(MAX_SIZE)).isNull();
-    assertThat(cache.estimatedSize()).isEqualTo(MAX_SIZE - 1);
+    assertThat(cache.peek(MAX_SIZE)).isNull();
+    assertThat(cache.hasCacheEntry(MAX_SIZE)).isFalse();
+    // Reads leave the expired entry to the periodic cleaner.
+    assertThat(cache.estimatedSize()).isEqualTo(MAX_SIZE);
+    verify(evictionListener, never())
+        .onEviction(anyInt(), any(Entry.class), any(EvictionType.class));
+
+    timeProvider.forwardTime(10, TimeUnit.NANOSECONDS);
     verify(evictionListener).onEviction(eq(MAX_SIZE), any(Entry.class), eq(EvictionType.EXPIRED));
   }
 
@@ -234,9 +256,78 @@ public class LinkedHashLruCacheTest {
     assertThat(cache.hasCacheEntry(1)).isFalse();
   }
 
+  @Test
+  public void eviction_size_recentlyReadEntryGetsSecondChance() {
+    for (int i = 1; i <= MAX_SIZE; i++) {
+      cache.cache(i, new Entry("Entry" + i, Long.MAX_VALUE));
+    }
+    assertThat(cache.read(1)).isNotNull();
+
+    cache.cache(MAX_SIZE + 1, new Entry("should kick the second", Long.MAX_VALUE));
+
+    verify(evictionListener).onEviction(2, new Entry("Entry2", Long.MAX_VALUE), EvictionType.SIZE);
+    assertThat(cache.hasCacheEntry(1)).isTrue();
+    assertThat(cache.estimatedSize()).isEqualTo(MAX_SIZE);
+
+    // the second chance is used up, the entry is evicted after the ones cached before it moved
+    for (int i = MAX_SIZE + 2; i <= 2 * MAX_SIZE + 1; i++) {
+      cache.cache(i, new Entry("Entry" + i, Long.MAX_VALUE));
+    }
+
+    verify(evictionListener).onEviction(1, new Entry("Entry1", Long.MAX_VALUE), EvictionType.SIZE);
+  }
+
+  @Test
+  public void stats() {
+    cache.cache(1, new Entry("Entry1", timeProvider.currentTimeNanos() + 10));
+    assertThat(cache.read(1)).isNotNull();
+    assertThat(cache.read(1)).isNotNull();
+    assertThat(cache.read(2)).isNull();
+    assertThat(cache.peek(2)).isNull();
+
+    assertThat(cache.hitCount()).isEqualTo(2);
+    assertThat(cache.missCount()).isEqualTo(1);
+    assertThat(cache.evictionCount()).isEqualTo(0);
+
+    for (int i = 2; i <= MAX_SIZE + 1; i++) {
+      cache.cache(i, new Entry("Entry" + i, Long.MAX_VALUE));
+    }
+    timeProvider.forwardTime(10, TimeUnit.NANOSECONDS);
+    assertThat(cache.invalidate(3)).isNotNull();
+
+    // one size eviction and one expiration, explicit invalidation is not an eviction
+    assertThat(cache.evictionCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void refresh_staleEntryRefreshedOnce() {
+    Entry entry = new Entry("Entry", Long.MAX_VALUE);
+    entry.staleTime = timeProvider.currentTimeNanos() + 10;
+    cache.cache(1, entry);
+
+    assertThat(cache.read(1)).isEqualTo(entry);
+    assertThat(refreshedKeys).isEmpty();
+
+    timeProvider.forwardTime(10, TimeUnit.NANOSECONDS);
+    assertThat(cache.peek(1)).isEqualTo(entry);
+    assertThat(refreshedKeys).isEmpty();
+
+    assertThat(cache.read(1)).isEqualTo(entry);
+    assertThat(cache.read(1)).isEqualTo(entry);
+    assertThat(refreshedKeys).containsExactly(1);
+
+    // a new value can be refreshed again
+    Entry refreshed = new Entry("Refreshed", Long.MAX_VALUE);
+    refreshed.staleTime = timeProvider.currentTimeNanos();
+    cache.cache(1, refreshed);
+    assertThat(cache.read(1)).isEqualTo(refreshed);
+    assertThat(refreshedKeys).containsExactly(1, 1);
+  }
+
   private static final class Entry {
     String value;
     long expireTime;
+    long staleTime = Long.MAX_VALUE;
     int size;
 
     Entry(String value, long expireTime) {
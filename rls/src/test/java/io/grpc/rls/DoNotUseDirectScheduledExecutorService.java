@@ -36,7 +36,8 @@ import java.util.concurrent.atomic.AtomicReference;
 /**
  * A fake minimal implementation of {@link ScheduledExecutorService} *only* supports
  * {@link ScheduledExecutorService#scheduleAtFixedRate(Runnable, long, long, TimeUnit)} (at most 1
- * task is allowed) and {@link ScheduledExecutorService#schedule(Runnable, long, TimeUnit)}. It is
+ * task is allowed), {@link ScheduledExecutorService#schedule(Runnable, long, TimeUnit)} and
+ * {@link ScheduledExecutorService#execute(Runnable)} (runs the task immediately). It is
  * directExecutor equivalent for {@link ScheduledExecutorService}.
  *
  * <p>Example:
@@ -107,6 +108,11 @@ abstract class DoNotUseDirectScheduledExecutorService implements ScheduledExecut
     return scheduledRunnable.scheduledFuture;
   }
 
+  @Override
+  public final void execute(Runnable command) {
+    checkNotNull(command, "command").run();
+  }
+
   final FakeTimeProvider getFakeTimeProvider() {
     maybeInit();
     return new FakeTimeProvider();
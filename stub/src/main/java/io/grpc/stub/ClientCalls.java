@@ -26,6 +26,8 @@ import com.google.common.util.concurrent.ListenableFuture;
 import io.grpc.CallOptions;
 import io.grpc.Channel;
 import io.grpc.ClientCall;
+import io.grpc.ExperimentalApi;
+import io.grpc.InternalVirtualThreads;
 import io.grpc.Metadata;
 import io.grpc.MethodDescriptor;
 import io.grpc.Status;
@@ -39,6 +41,7 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -53,6 +56,20 @@ public final class ClientCalls {
 
   private static final Logger logger = Logger.getLogger(ClientCalls.class.getName());
 
+  /**
+   * When set to {@code true}, the blocking call methods of this class that take a {@link Channel}
+   * deliver the callbacks of the call on virtual threads, while the calling thread just waits for
+   * the result. Otherwise, the calling thread runs the callbacks itself. It has no effect if the
+   * runtime does not support virtual threads, which are available starting with Java 21.
+   *
+   * <p>Set it with {@link AbstractStub#withOption}.
+   *
+   * @since 1.41.0
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues/8274")
+  public static final CallOptions.Key<Boolean> VIRTUAL_THREAD_CALLBACKS =
+      CallOptions.Key.createWithDefault("io.grpc.stub.virtualThreadCallbacks", false);
+
   // Prevent instantiation
   private ClientCalls() {}
 
@@ -137,6 +154,14 @@ public final class ClientCalls {
    */
   public static <ReqT, RespT> RespT blockingUnaryCall(
       Channel channel, MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, ReqT req) {
+    Executor virtualThreadExecutor = virtualThreadExecutor(callOptions);
+    if (virtualThreadExecutor != null) {
+      return blockingUnaryCall(
+          channel.newCall(method,
+              callOptions.withOption(ClientCalls.STUB_TYPE_OPTION, StubType.BLOCKING)
+                  .withExecutor(virtualThreadExecutor)),
+          req);
+    }
     ThreadlessExecutor executor = new ThreadlessExecutor();
     boolean interrupt = false;
     ClientCall<ReqT, RespT> call = channel.newCall(method,
@@ -196,6 +221,14 @@ public final class ClientCalls {
   // TODO(louiscryan): Not clear if we want to use this idiom for 'simple' stubs.
   public static <ReqT, RespT> Iterator<RespT> blockingServerStreamingCall(
       Channel channel, MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, ReqT req) {
+    Executor virtualThreadExecutor = virtualThreadExecutor(callOptions);
+    if (virtualThreadExecutor != null) {
+      return blockingServerStreamingCall(
+          channel.newCall(method,
+              callOptions.withOption(ClientCalls.STUB_TYPE_OPTION, StubType.BLOCKING)
+                  .withExecutor(virtualThreadExecutor)),
+          req);
+    }
     ThreadlessExecutor executor = new ThreadlessExecutor();
     ClientCall<ReqT, RespT> call = channel.newCall(method,
         callOptions.withOption(ClientCalls.STUB_TYPE_OPTION, StubType.BLOCKING)
@@ -219,6 +252,18 @@ public final class ClientCalls {
     return responseFuture;
   }
 
+  /**
+   * Returns an executor starting a new virtual thread per task if requested by {@code callOptions}
+   * and supported by the runtime, or {@code null} otherwise.
+   */
+  @Nullable
+  private static Executor virtualThreadExecutor(CallOptions callOptions) {
+    if (!callOptions.getOption(VIRTUAL_THREAD_CALLBACKS)) {
+      return null;
+    }
+    return VirtualThreadExecutorHolder.EXECUTOR;
+  }
+
   /**
    * Returns the result of calling {@link Future#get()} interruptibly on a task known not to throw a
    * checked exception.
@@ -757,6 +802,26 @@ public final class ClientCalls {
     }
   }
 
+  private static final class VirtualThreadExecutorHolder {
+    @Nullable
+    static final Executor EXECUTOR = createExecutor();
+
+    @Nullable
+    private static Executor createExecutor() {
+      final ThreadFactory threadFactory =
+          InternalVirtualThreads.newVirtualThreadFactory("grpc-client-vthread-");
+      if (threadFactory == null) {
+        return null;
+      }
+      return new Executor() {
+        @Override
+        public void execute(Runnable command) {
+          threadFactory.newThread(command).start();
+        }
+      };
+    }
+  }
+
   enum StubType {
     BLOCKING, FUTURE, ASYNC
   }
@@ -182,6 +182,30 @@ public class ClientCallsTest {
     assertEquals(req, service.request);
   }
 
+  @Test
+  public void blockingUnaryCall2_virtualThreadCallbacks() throws Exception {
+    Integer req = 2;
+    final Integer resp = 3;
+
+    class BasicUnaryResponse implements UnaryMethod<Integer, Integer> {
+      @Override public void invoke(Integer request, StreamObserver<Integer> responseObserver) {
+        responseObserver.onNext(resp);
+        responseObserver.onCompleted();
+      }
+    }
+
+    server = InProcessServerBuilder.forName("simple-reply").directExecutor()
+        .addService(ServerServiceDefinition.builder("some")
+            .addMethod(UNARY_METHOD, ServerCalls.asyncUnaryCall(new BasicUnaryResponse()))
+            .build())
+        .build().start();
+    channel = InProcessChannelBuilder.forName("simple-reply").directExecutor().build();
+    // Falls back to running callbacks on the calling thread if virtual threads are unsupported.
+    Integer actualResponse = ClientCalls.blockingUnaryCall(channel, UNARY_METHOD,
+        CallOptions.DEFAULT.withOption(ClientCalls.VIRTUAL_THREAD_CALLBACKS, true), req);
+    assertEquals(resp, actualResponse);
+  }
+
   @Test
   public void blockingUnaryCall2_interruptedWaitsForOnClose() throws Exception {
     Integer req = 2;
@@ -818,6 +842,36 @@ public class ClientCallsTest {
     assertEquals(req, service.request);
   }
 
+  @Test
+  public void blockingServerStreamingCall2_virtualThreadCallbacks() throws Exception {
+    Integer req = 2;
+    final Integer resp1 = 3;
+    final Integer resp2 = 4;
+
+    class BasicServerStreamingResponse implements ServerStreamingMethod<Integer, Integer> {
+      @Override public void invoke(Integer request, StreamObserver<Integer> responseObserver) {
+        responseObserver.onNext(resp1);
+        responseObserver.onNext(resp2);
+        responseObserver.onCompleted();
+      }
+    }
+
+    server = InProcessServerBuilder.forName("simple-reply").directExecutor()
+        .addService(ServerServiceDefinition.builder("some")
+            .addMethod(SERVER_STREAMING_METHOD,
+                ServerCalls.asyncServerStreamingCall(new BasicServerStreamingResponse()))
+            .build())
+        .build().start();
+    channel = InProcessChannelBuilder.forName("simple-reply").directExecutor().build();
+    Iterator<Integer> iter = ClientCalls.blockingServerStreamingCall(channel,
+        SERVER_STREAMING_METHOD,
+        CallOptions.DEFAULT.withOption(ClientCalls.VIRTUAL_THREAD_CALLBACKS, true), req);
+    assertEquals(resp1, iter.next());
+    assertTrue(iter.hasNext());
+    assertEquals(resp2, iter.next());
+    assertFalse(iter.hasNext());
+  }
+
   @Test
   public void blockingServerStreamingCall2_interruptedWaitsForOnClose() throws Exception {
     Integer req = 2;
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.xds;
+
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.xds.RingHashLoadBalancer.Ring;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark for building and picking from the ring of {@link RingHashLoadBalancer}.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class RingHashBenchmark {
+
+  @Param({"10", "100"})
+  public int hostCount;
+
+  @Param({"1024", "65536"})
+  public int ringSize;
+
+  private Map<EquivalentAddressGroup, Long> serverWeights;
+  // Same as serverWeights but with one host replaced.
+  private Map<EquivalentAddressGroup, Long> replacedServerWeights;
+  // Same as serverWeights but with one more host.
+  private Map<EquivalentAddressGroup, Long> addedServerWeights;
+  private Ring ring;
+  private long[] requestHashes;
+  private int requestIndex;
+
+  @Setup
+  public void setUp() {
+    serverWeights = new HashMap<>();
+    for (int i = 0; i < hostCount; i++) {
+      serverWeights.put(newEag(i), 1L);
+    }
+    replacedServerWeights = new HashMap<>(serverWeights);
+    replacedServerWeights.remove(newEag(0));
+    replacedServerWeights.put(newEag(hostCount), 1L);
+    addedServerWeights = new HashMap<>(serverWeights);
+    addedServerWeights.put(newEag(hostCount), 1L);
+    ring = Ring.build(serverWeights, hashesPerWeight(hostCount), null);
+
+    Random random = new Random(1);
+    requestHashes = new long[1024];
+    for (int i = 0; i < requestHashes.length; i++) {
+      requestHashes[i] = random.nextLong();
+    }
+  }
+
+  /**
+   * Builds the ring from scratch.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public Ring buildRing() {
+    return Ring.build(serverWeights, hashesPerWeight(hostCount), null);
+  }
+
+  /**
+   * Rebuilds the ring after one of the hosts has been replaced. The other hosts keep their
+   * entries.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public Ring rebuildRingOneHostReplaced() {
+    return Ring.build(replacedServerWeights, hashesPerWeight(hostCount), ring);
+  }
+
+  /**
+   * Rebuilds the ring after a host has been added. The other hosts only keep their entries if
+   * the number of entries per host stays the same. With a ring size of 1024 it stays at 11 for
+   * 100 hosts, but goes from 103 to 94 for 10 hosts.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public Ring rebuildRingOneHostAdded() {
+    return Ring.build(addedServerWeights, hashesPerWeight(hostCount + 1), ring);
+  }
+
+  /**
+   * Finds the host owning a request hash.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public EquivalentAddressGroup pick() {
+    long requestHash = requestHashes[requestIndex++ & (requestHashes.length - 1)];
+    return ring.host(ring.hostIndex(ring.find(requestHash)));
+  }
+
+  /** Same as {@link RingHashLoadBalancer} with a min_ring_size of {@code ringSize}. */
+  private double hashesPerWeight(int hosts) {
+    return Ring.hashesPerWeight(
+        1L, hosts, ringSize, RingHashLoadBalancerProvider.DEFAULT_MAX_RING_SIZE);
+  }
+
+  private static EquivalentAddressGroup newEag(int i) {
+    return new EquivalentAddressGroup(
+        InetSocketAddress.createUnresolved("host" + i + ".example.com", 8080));
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.xds;
+
+import io.grpc.Metadata;
+import io.grpc.xds.Filter.FilterConfig;
+import io.grpc.xds.ThreadSafeRandom.ThreadSafeRandomImpl;
+import io.grpc.xds.VirtualHost.Route;
+import io.grpc.xds.VirtualHost.Route.RouteAction;
+import io.grpc.xds.VirtualHost.Route.RouteAction.HashPolicy;
+import io.grpc.xds.VirtualHost.Route.RouteMatch;
+import io.grpc.xds.VirtualHost.Route.RouteMatch.PathMatcher;
+import io.grpc.xds.internal.Matchers.HeaderMatcher;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark for finding the route of an RPC in a virtual host with many routes, by scanning the
+ * routes and with a {@link RouteTable}.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class RouteTableBenchmark {
+
+  @Param({"10", "400"})
+  public int routeCount;
+
+  private final Metadata headers = new Metadata();
+  private final ThreadSafeRandom random = ThreadSafeRandomImpl.instance;
+  private List<Route> routes;
+  private RouteTable routeTable;
+  private String[] fullMethodNames;
+  private int methodIndex;
+
+  @Setup
+  public void setUp() {
+    // Half of the routes match services by prefix, half match methods by path.
+    routes = new ArrayList<>(routeCount);
+    for (int i = 0; i < routeCount; i++) {
+      PathMatcher pathMatcher = i % 2 == 0
+          ? PathMatcher.fromPrefix("/Service" + i + "/", true)
+          : PathMatcher.fromPath("/Service" + (i - 1) + "/method", true);
+      routes.add(Route.forAction(
+          RouteMatch.create(pathMatcher, Collections.<HeaderMatcher>emptyList(), null),
+          RouteAction.forCluster(
+              "cluster" + i, Collections.<HashPolicy>emptyList(), null, null),
+          Collections.<String, FilterConfig>emptyMap()));
+    }
+    routeTable = new RouteTable(routes);
+    fullMethodNames = new String[64];
+    for (int i = 0; i < fullMethodNames.length; i++) {
+      int service = i * routeCount / fullMethodNames.length / 2 * 2;
+      fullMethodNames[i] = "Service" + service + "/method";
+    }
+  }
+
+  /**
+   * Evaluates the matchers of the routes in order until one matches.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public Route scanRoutes() {
+    String path = "/" + nextFullMethodName();
+    for (Route route : routes) {
+      if (XdsNameResolver.matchRoute(route.routeMatch(), path, headers, random)) {
+        return route;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Finds the route in the compiled route table.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public RouteTable.CompiledRoute findRoute() {
+    return routeTable.findRoute(nextFullMethodName(), headers, random);
+  }
+
+  private String nextFullMethodName() {
+    return fullMethodNames[methodIndex++ & (fullMethodNames.length - 1)];
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.xds;
+
+import com.google.protobuf.Any;
+import io.envoyproxy.envoy.config.cluster.v3.Cluster;
+import io.envoyproxy.envoy.config.cluster.v3.Cluster.DiscoveryType;
+import io.envoyproxy.envoy.config.cluster.v3.Cluster.EdsClusterConfig;
+import io.envoyproxy.envoy.config.cluster.v3.Cluster.LbPolicy;
+import io.envoyproxy.envoy.config.core.v3.AggregatedConfigSource;
+import io.envoyproxy.envoy.config.core.v3.ConfigSource;
+import io.envoyproxy.envoy.service.discovery.v3.AggregatedDiscoveryServiceGrpc.AggregatedDiscoveryServiceImplBase;
+import io.envoyproxy.envoy.service.discovery.v3.DiscoveryRequest;
+import io.envoyproxy.envoy.service.discovery.v3.DiscoveryResponse;
+import io.grpc.Context;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.internal.ExponentialBackoffPolicy;
+import io.grpc.internal.GrpcUtil;
+import io.grpc.internal.SharedResourceHolder;
+import io.grpc.internal.TimeProvider;
+import io.grpc.stub.StreamObserver;
+import io.grpc.xds.XdsClient.CdsResourceWatcher;
+import io.grpc.xds.XdsClient.CdsUpdate;
+import io.grpc.xds.internal.sds.TlsContextManagerImpl;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmark for handling CDS responses with synthetic clusters in {@link ClientXdsClient}.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class XdsResourceParsingBenchmark {
+
+  @Param({"1000", "10000"})
+  public int clusterCount;
+
+  @Param({"false", "true"})
+  public boolean parallel;
+
+  private Server server;
+  private ManagedChannel channel;
+  private ScheduledExecutorService timeService;
+  private ClientXdsClient xdsClient;
+  // Two versions of the same clusters, differing in their EDS service names.
+  private List<Any> clusters;
+  private List<Any> updatedClusters;
+  private int responseCount;
+
+  @Setup
+  public void setUp() throws Exception {
+    String serverName = InProcessServerBuilder.generateName();
+    server = InProcessServerBuilder.forName(serverName)
+        .addService(new AggregatedDiscoveryServiceImplBase() {
+          @Override
+          public StreamObserver<DiscoveryRequest> streamAggregatedResources(
+              StreamObserver<DiscoveryResponse> responseObserver) {
+            return new StreamObserver<DiscoveryRequest>() {
+              @Override
+              public void onNext(DiscoveryRequest value) {
+              }
+
+              @Override
+              public void onError(Throwable t) {
+              }
+
+              @Override
+              public void onCompleted() {
+              }
+            };
+          }
+        })
+        .directExecutor()
+        .build()
+        .start();
+    channel = InProcessChannelBuilder.forName(serverName).directExecutor().build();
+    timeService = SharedResourceHolder.get(GrpcUtil.TIMER_SERVICE);
+    Bootstrapper.BootstrapInfo bootstrapInfo = new Bootstrapper.BootstrapInfo(
+        Collections.singletonList(new Bootstrapper.ServerInfo(
+            "trafficdirector.googleapis.com", InsecureChannelCredentials.create(), true)),
+        EnvoyProtoData.Node.newBuilder().build(), null, null);
+    xdsClient = new ClientXdsClient(channel, bootstrapInfo, Context.ROOT, timeService,
+        new ExponentialBackoffPolicy.Provider(), GrpcUtil.STOPWATCH_SUPPLIER,
+        TimeProvider.SYSTEM_TIME_PROVIDER, new TlsContextManagerImpl(bootstrapInfo));
+    ClientXdsClient.parallelParsingThreshold = parallel ? 1 : Integer.MAX_VALUE;
+
+    clusters = new ArrayList<>(clusterCount);
+    updatedClusters = new ArrayList<>(clusterCount);
+    CdsResourceWatcher watcher = new NoopCdsResourceWatcher();
+    for (int i = 0; i < clusterCount; i++) {
+      String clusterName = "cluster-" + i + ".googleapis.com";
+      clusters.add(Any.pack(buildCluster(clusterName, clusterName + "-v1")));
+      updatedClusters.add(Any.pack(buildCluster(clusterName, clusterName + "-v2")));
+      xdsClient.watchCdsResource(clusterName, watcher);
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    xdsClient.shutdown();
+    channel.shutdownNow();
+    server.shutdownNow();
+    SharedResourceHolder.release(GrpcUtil.TIMER_SERVICE, timeService);
+  }
+
+  /**
+   * Handles a response in which every cluster changed since the previous response.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void handleChangedClusters() {
+    handleCdsResponse(responseCount % 2 == 0 ? clusters : updatedClusters);
+  }
+
+  /**
+   * Handles a response resending the clusters of the previous response unchanged.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void handleUnchangedClusters() {
+    handleCdsResponse(clusters);
+  }
+
+  private void handleCdsResponse(final List<Any> resources) {
+    final String version = String.valueOf(responseCount++);
+    xdsClient.getSyncContext().execute(new Runnable() {
+      @Override
+      public void run() {
+        xdsClient.handleCdsResponse(version, resources, version);
+      }
+    });
+  }
+
+  private static Cluster buildCluster(String clusterName, String edsServiceName) {
+    return Cluster.newBuilder()
+        .setName(clusterName)
+        .setType(DiscoveryType.EDS)
+        .setEdsClusterConfig(
+            EdsClusterConfig.newBuilder()
+                .setEdsConfig(
+                    ConfigSource.newBuilder().setAds(AggregatedConfigSource.getDefaultInstance()))
+                .setServiceName(edsServiceName))
+        .setLbPolicy(LbPolicy.ROUND_ROBIN)
+        .build();
+  }
+
+  private static final class NoopCdsResourceWatcher implements CdsResourceWatcher {
+    @Override
+    public void onChanged(CdsUpdate update) {
+    }
+
+    @Override
+    public void onResourceDoesNotExist(String resourceName) {
+    }
+
+    @Override
+    public void onError(Status error) {
+    }
+  }
+}
@@ -26,8 +26,11 @@ import com.google.common.base.Supplier;
 import com.google.protobuf.Any;
 import com.google.rpc.Code;
 import io.envoyproxy.envoy.service.discovery.v3.AggregatedDiscoveryServiceGrpc;
+import io.envoyproxy.envoy.service.discovery.v3.DeltaDiscoveryRequest;
+import io.envoyproxy.envoy.service.discovery.v3.DeltaDiscoveryResponse;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryRequest;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryResponse;
+import io.envoyproxy.envoy.service.discovery.v3.Resource;
 import io.grpc.Context;
 import io.grpc.InternalLogId;
 import io.grpc.ManagedChannel;
@@ -36,10 +39,17 @@ import io.grpc.SynchronizationContext;
 import io.grpc.SynchronizationContext.ScheduledHandle;
 import io.grpc.internal.BackoffPolicy;
 import io.grpc.stub.StreamObserver;
+import io.grpc.xds.Bootstrapper.ServerInfo;
 import io.grpc.xds.XdsLogger.XdsLogLevel;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
@@ -96,6 +106,17 @@ abstract class AbstractXdsClient extends XdsClient {
   private String cdsVersion = "";
   private String edsVersion = "";
 
+  // Versions of individual resources received over the delta protocol. They are sent to the
+  // management server when a new stream is started, so that it only sends what has changed.
+  private final Map<ResourceType, Map<String, String>> resourceVersions =
+      new EnumMap<>(ResourceType.class);
+  // Resource versions carried by the delta response being handled, kept once it is ACKed.
+  @Nullable
+  private PendingResourceVersions pendingResourceVersions;
+  // Set once the management server turned out not to support the delta protocol. All later
+  // streams use the state of the world protocol.
+  private boolean deltaUnsupported;
+
   private boolean shutdown;
   @Nullable
   private AbstractAdsStream adsStream;
@@ -146,6 +167,16 @@ abstract class AbstractXdsClient extends XdsClient {
   protected void handleEdsResponse(String versionInfo, List<Any> resources, String nonce) {
   }
 
+  /**
+   * Called when a response of the incremental (delta) protocol is received. Unlike the state of
+   * the world responses, {@code resources} only contains the resources that are new or have
+   * changed, and the deleted ones are named in {@code removedResources}.
+   */
+  // Must be synchronized.
+  protected void handleDeltaResponse(ResourceType type, String versionInfo, List<Any> resources,
+      List<String> removedResources, String nonce) {
+  }
+
   /**
    * Called when the ADS stream is closed passively.
    */
@@ -225,6 +256,10 @@ abstract class AbstractXdsClient extends XdsClient {
     Collection<String> resources = getSubscribedResources(type);
     if (resources != null) {
       adsStream.sendDiscoveryRequest(type, resources);
+    } else if (adsStream.isDelta()) {
+      // Unsubscribes from the last resources of the type, which a state of the world request
+      // can't express.
+      adsStream.sendDiscoveryRequest(type, Collections.<String>emptyList());
     }
   }
 
@@ -251,6 +286,10 @@ abstract class AbstractXdsClient extends XdsClient {
       default:
         throw new AssertionError("Unknown resource type: " + type);
     }
+    if (pendingResourceVersions != null && pendingResourceVersions.type == type) {
+      pendingResourceVersions.applyTo(getResourceVersions(type));
+    }
+    pendingResourceVersions = null;
     logger.log(XdsLogLevel.INFO, "Sending ACK for {0} update, nonce: {1}, current version: {2}",
         type, nonce, versionInfo);
     Collection<String> resources = getSubscribedResources(type);
@@ -267,6 +306,7 @@ abstract class AbstractXdsClient extends XdsClient {
   // Must be synchronized.
   protected final void nackResponse(ResourceType type, String nonce, String errorDetail) {
     String versionInfo = getCurrentVersion(type);
+    pendingResourceVersions = null;
     logger.log(XdsLogLevel.INFO, "Sending NACK for {0} update, nonce: {1}, current version: {2}",
         type, nonce, versionInfo);
     Collection<String> resources = getSubscribedResources(type);
@@ -303,7 +343,10 @@ abstract class AbstractXdsClient extends XdsClient {
   // Must be synchronized.
   private void startRpcStream() {
     checkState(adsStream == null, "Previous adsStream has not been cleared yet");
-    if (bootstrapInfo.getServers().get(0).isUseProtocolV3()) {
+    ServerInfo serverInfo = bootstrapInfo.getServers().get(0);
+    if (serverInfo.isUseDeltaProtocol() && !deltaUnsupported) {
+      adsStream = new AdsStreamDelta();
+    } else if (serverInfo.isUseProtocolV3()) {
       adsStream = new AdsStreamV3();
     } else {
       adsStream = new AdsStreamV2();
@@ -318,6 +361,33 @@ abstract class AbstractXdsClient extends XdsClient {
     stopwatch.reset().start();
   }
 
+  /**
+   * Starts a new RPC stream and subscribes to all the resources currently watched.
+   */
+  // Must be synchronized.
+  private void startRpcStreamAndSubscribe() {
+    startRpcStream();
+    for (ResourceType type : ResourceType.values()) {
+      if (type == ResourceType.UNKNOWN) {
+        continue;
+      }
+      Collection<String> resources = getSubscribedResources(type);
+      if (resources != null) {
+        adsStream.sendDiscoveryRequest(type, resources);
+      }
+    }
+  }
+
+  // Must be synchronized.
+  private Map<String, String> getResourceVersions(ResourceType type) {
+    Map<String, String> versions = resourceVersions.get(type);
+    if (versions == null) {
+      versions = new HashMap<>();
+      resourceVersions.put(type, versions);
+    }
+    return versions;
+  }
+
   // Must be synchronized.
   @Override
   String getCurrentVersion(ResourceType type) {
@@ -349,16 +419,7 @@ abstract class AbstractXdsClient extends XdsClient {
       if (shutdown) {
         return;
       }
-      startRpcStream();
-      for (ResourceType type : ResourceType.values()) {
-        if (type == ResourceType.UNKNOWN) {
-          continue;
-        }
-        Collection<String> resources = getSubscribedResources(type);
-        if (resources != null) {
-          adsStream.sendDiscoveryRequest(type, resources);
-        }
-      }
+      startRpcStreamAndSubscribe();
       handleStreamRestarted();
     }
   }
@@ -422,6 +483,30 @@ abstract class AbstractXdsClient extends XdsClient {
     }
   }
 
+  /**
+   * Resource versions carried by a delta response, which only replace the known versions once
+   * the response is accepted.
+   */
+  private static final class PendingResourceVersions {
+    private final ResourceType type;
+    private final Map<String, String> versions;
+    private final List<String> removedResources;
+
+    PendingResourceVersions(
+        ResourceType type, Map<String, String> versions, List<String> removedResources) {
+      this.type = type;
+      this.versions = versions;
+      this.removedResources = removedResources;
+    }
+
+    void applyTo(Map<String, String> resourceVersions) {
+      resourceVersions.putAll(versions);
+      for (String resource : removedResources) {
+        resourceVersions.remove(resource);
+      }
+    }
+  }
+
   private abstract class AbstractAdsStream {
     private boolean responseReceived;
     private boolean closed;
@@ -441,6 +526,13 @@ abstract class AbstractXdsClient extends XdsClient {
 
     abstract void sendError(Exception error);
 
+    /**
+     * Returns {@code true} if this stream speaks the incremental (delta) protocol.
+     */
+    boolean isDelta() {
+      return false;
+    }
+
     /**
      * Sends a discovery request with the given {@code versionInfo}, {@code nonce} and
      * {@code errorDetail}. Used for reacting to a specific discovery response. For
@@ -509,6 +601,43 @@ abstract class AbstractXdsClient extends XdsClient {
       }
     }
 
+    final void handleDeltaRpcResponse(ResourceType type, String versionInfo,
+        List<Resource> resources, List<String> removedResources, String nonce) {
+      if (closed) {
+        return;
+      }
+      responseReceived = true;
+      switch (type) {
+        case LDS:
+          ldsRespNonce = nonce;
+          break;
+        case RDS:
+          rdsRespNonce = nonce;
+          break;
+        case CDS:
+          cdsRespNonce = nonce;
+          break;
+        case EDS:
+          edsRespNonce = nonce;
+          break;
+        case UNKNOWN:
+        default:
+          logger.log(XdsLogLevel.WARNING, "Ignore an unknown type of DeltaDiscoveryResponse");
+          return;
+      }
+      List<Any> unpackedResources = new ArrayList<>(resources.size());
+      Map<String, String> versions = new HashMap<>(resources.size());
+      for (Resource resource : resources) {
+        versions.put(resource.getName(), resource.getVersion());
+        if (resource.hasResource()) {
+          unpackedResources.add(resource.getResource());
+        }
+      }
+      pendingResourceVersions = new PendingResourceVersions(type, versions, removedResources);
+      handleDeltaResponse(type, versionInfo, unpackedResources, removedResources, nonce);
+      pendingResourceVersions = null;
+    }
+
     final void handleRpcError(Throwable t) {
       handleRpcStreamClosed(Status.fromThrowable(t));
     }
@@ -522,6 +651,16 @@ abstract class AbstractXdsClient extends XdsClient {
       if (closed) {
         return;
       }
+      if (isDelta() && !responseReceived && error.getCode() == Status.Code.UNIMPLEMENTED) {
+        logger.log(XdsLogLevel.WARNING,
+            "Management server does not support delta xDS, use state of the world instead");
+        closed = true;
+        deltaUnsupported = true;
+        cleanUp();
+        // Resources are still being fetched, so keep the watchers and their timers as is.
+        startRpcStreamAndSubscribe();
+        return;
+      }
       logger.log(
           XdsLogLevel.ERROR,
           "ADS stream closed with status {0}: {1}. Cause: {2}",
@@ -718,4 +857,125 @@ abstract class AbstractXdsClient extends XdsClient {
       requestWriter.onError(error);
     }
   }
+
+  private final class AdsStreamDelta extends AbstractAdsStream {
+    // Resources subscribed to on this stream for each type. Requests only carry the changes.
+    private final Map<ResourceType, Set<String>> subscribedResources =
+        new EnumMap<>(ResourceType.class);
+    private boolean nodeSent;
+    private StreamObserver<DeltaDiscoveryRequest> requestWriter;
+
+    @Override
+    boolean isDelta() {
+      return true;
+    }
+
+    @Override
+    void start() {
+      AggregatedDiscoveryServiceGrpc.AggregatedDiscoveryServiceStub stub =
+          AggregatedDiscoveryServiceGrpc.newStub(channel);
+      StreamObserver<DeltaDiscoveryResponse> responseReader =
+          new StreamObserver<DeltaDiscoveryResponse>() {
+            @Override
+            public void onNext(final DeltaDiscoveryResponse response) {
+              syncContext.execute(new Runnable() {
+                @Override
+                public void run() {
+                  ResourceType type = ResourceType.fromTypeUrl(response.getTypeUrl());
+                  if (logger.isLoggable(XdsLogLevel.DEBUG)) {
+                    logger.log(XdsLogLevel.DEBUG, "Received {0} delta response:\n{1}",
+                        type, msgPrinter.print(response));
+                  }
+                  handleDeltaRpcResponse(type, response.getSystemVersionInfo(),
+                      response.getResourcesList(), response.getRemovedResourcesList(),
+                      response.getNonce());
+                }
+              });
+            }
+
+            @Override
+            public void onError(final Throwable t) {
+              syncContext.execute(new Runnable() {
+                @Override
+                public void run() {
+                  handleRpcError(t);
+                }
+              });
+            }
+
+            @Override
+            public void onCompleted() {
+              syncContext.execute(new Runnable() {
+                @Override
+                public void run() {
+                  handleRpcCompleted();
+                }
+              });
+            }
+          };
+      requestWriter = stub.withWaitForReady().deltaAggregatedResources(responseReader);
+    }
+
+    /**
+     * Sends the difference between {@code resources} and what has been subscribed to on this
+     * stream. The {@code versionInfo} is not used, the delta protocol tracks versions per
+     * resource instead.
+     */
+    @Override
+    void sendDiscoveryRequest(ResourceType type, String versionInfo, Collection<String> resources,
+        String nonce, @Nullable String errorDetail) {
+      checkState(requestWriter != null, "ADS stream has not been started");
+      DeltaDiscoveryRequest.Builder builder =
+          DeltaDiscoveryRequest.newBuilder()
+              .setTypeUrl(type.typeUrl())
+              .setResponseNonce(nonce);
+      if (!nodeSent) {
+        builder.setNode(bootstrapInfo.getNode().toEnvoyProtoNode());
+        nodeSent = true;
+      }
+      Map<String, String> versions = getResourceVersions(type);
+      Set<String> subscribed = subscribedResources.get(type);
+      if (subscribed == null) {
+        // First request of this type on the stream, let the management server know which
+        // versions the client already has.
+        subscribed = new HashSet<>();
+        subscribedResources.put(type, subscribed);
+        for (String resource : resources) {
+          String version = versions.get(resource);
+          if (version != null) {
+            builder.putInitialResourceVersions(resource, version);
+          }
+        }
+      }
+      for (String resource : resources) {
+        if (!subscribed.contains(resource)) {
+          builder.addResourceNamesSubscribe(resource);
+        }
+      }
+      for (String resource : subscribed) {
+        if (!resources.contains(resource)) {
+          builder.addResourceNamesUnsubscribe(resource);
+          versions.remove(resource);
+        }
+      }
+      subscribed.clear();
+      subscribed.addAll(resources);
+      if (errorDetail != null) {
+        com.google.rpc.Status error =
+            com.google.rpc.Status.newBuilder()
+                .setCode(Code.INVALID_ARGUMENT_VALUE)
+                .setMessage(errorDetail)
+                .build();
+        builder.setErrorDetail(error);
+      }
+      DeltaDiscoveryRequest request = builder.build();
+      requestWriter.onNext(request);
+      logger.log(XdsLogLevel.DEBUG, "Sent DeltaDiscoveryRequest\n{0}", msgPrinter.print(request));
+    }
+
+    @Override
+    void sendError(Exception error) {
+      requestWriter.onError(error);
+    }
+  }
 }
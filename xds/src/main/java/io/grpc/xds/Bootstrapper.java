@@ -54,12 +54,20 @@ public abstract class Bootstrapper {
     private final String target;
     private final ChannelCredentials channelCredentials;
     private final boolean useProtocolV3;
+    private final boolean useDeltaProtocol;
 
     @VisibleForTesting
     ServerInfo(String target, ChannelCredentials channelCredentials, boolean useProtocolV3) {
+      this(target, channelCredentials, useProtocolV3, false);
+    }
+
+    @VisibleForTesting
+    ServerInfo(String target, ChannelCredentials channelCredentials, boolean useProtocolV3,
+        boolean useDeltaProtocol) {
       this.target = checkNotNull(target, "target");
       this.channelCredentials = checkNotNull(channelCredentials, "channelCredentials");
       this.useProtocolV3 = useProtocolV3;
+      this.useDeltaProtocol = useDeltaProtocol;
     }
 
     String getTarget() {
@@ -73,6 +81,14 @@ public abstract class Bootstrapper {
     boolean isUseProtocolV3() {
       return useProtocolV3;
     }
+
+    /**
+     * Returns {@code true} if the incremental (delta) variant of the xDS protocol should be tried
+     * first. Only supported with xDS v3.
+     */
+    boolean isUseDeltaProtocol() {
+      return useDeltaProtocol;
+    }
   }
 
   /**
@@ -27,6 +27,7 @@ import com.google.common.base.Stopwatch;
 import com.google.common.base.Strings;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
 import com.google.protobuf.Any;
 import com.google.protobuf.Duration;
 import com.google.protobuf.InvalidProtocolBufferException;
@@ -39,6 +40,7 @@ import io.envoyproxy.envoy.config.cluster.v3.Cluster;
 import io.envoyproxy.envoy.config.cluster.v3.Cluster.CustomClusterType;
 import io.envoyproxy.envoy.config.cluster.v3.Cluster.DiscoveryType;
 import io.envoyproxy.envoy.config.cluster.v3.Cluster.LbPolicy;
+import io.envoyproxy.envoy.config.cluster.v3.Cluster.LeastRequestLbConfig;
 import io.envoyproxy.envoy.config.cluster.v3.Cluster.RingHashLbConfig;
 import io.envoyproxy.envoy.config.core.v3.HttpProtocolOptions;
 import io.envoyproxy.envoy.config.core.v3.RoutingPriority;
@@ -63,6 +65,7 @@ import io.grpc.Status;
 import io.grpc.Status.Code;
 import io.grpc.SynchronizationContext.ScheduledHandle;
 import io.grpc.internal.BackoffPolicy;
+import io.grpc.internal.GrpcUtil;
 import io.grpc.internal.TimeProvider;
 import io.grpc.xds.Endpoints.DropOverload;
 import io.grpc.xds.Endpoints.LbEndpoint;
@@ -79,6 +82,9 @@ import io.grpc.xds.Filter.NamedFilterConfig;
 import io.grpc.xds.Filter.ServerInterceptorBuilder;
 import io.grpc.xds.LoadStatsManager2.ClusterDropStats;
 import io.grpc.xds.LoadStatsManager2.ClusterLocalityStats;
+import io.grpc.xds.OutlierDetectionLoadBalancer.FailurePercentageEjection;
+import io.grpc.xds.OutlierDetectionLoadBalancer.OutlierDetection;
+import io.grpc.xds.OutlierDetectionLoadBalancer.SuccessRateEjection;
 import io.grpc.xds.VirtualHost.Route;
 import io.grpc.xds.VirtualHost.Route.RouteAction;
 import io.grpc.xds.VirtualHost.Route.RouteAction.ClusterWeight;
@@ -105,7 +111,11 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 
@@ -125,6 +135,8 @@ final class ClientXdsClient extends AbstractXdsClient {
   @VisibleForTesting
   static final long MAX_RING_HASH_LB_POLICY_RING_SIZE = 8 * 1024 * 1024L;
   @VisibleForTesting
+  static final int DEFAULT_LEAST_REQUEST_CHOICE_COUNT = 2;
+  @VisibleForTesting
   static final String AGGREGATE_CLUSTER_TYPE_NAME = "envoy.clusters.aggregate";
   @VisibleForTesting
   static final String HASH_POLICY_FILTER_STATE_KEY = "io.grpc.channel_id";
@@ -136,6 +148,11 @@ final class ClientXdsClient extends AbstractXdsClient {
   static boolean enableRetry =
       Strings.isNullOrEmpty(System.getenv("GRPC_XDS_EXPERIMENTAL_ENABLE_RETRY"))
           || Boolean.parseBoolean(System.getenv("GRPC_XDS_EXPERIMENTAL_ENABLE_RETRY"));
+  @VisibleForTesting
+  static boolean enableOutlierDetection =
+      Strings.isNullOrEmpty(System.getenv("GRPC_XDS_EXPERIMENTAL_ENABLE_OUTLIER_DETECTION"))
+          || Boolean.parseBoolean(
+              System.getenv("GRPC_XDS_EXPERIMENTAL_ENABLE_OUTLIER_DETECTION"));
 
   private static final String TYPE_URL_HTTP_CONNECTION_MANAGER_V2 =
       "type.googleapis.com/envoy.config.filter.network.http_connection_manager.v2"
@@ -161,11 +178,24 @@ final class ClientXdsClient extends AbstractXdsClient {
           Code.CANCELLED, Code.DEADLINE_EXCEEDED, Code.INTERNAL, Code.RESOURCE_EXHAUSTED,
           Code.UNAVAILABLE));
 
+  // Responses with at least this many resources are parsed in parallel.
+  @VisibleForTesting
+  static int parallelParsingThreshold = 512;
+  private static final int MAX_PARSING_PARALLELISM = 4;
+  // Number of chunks large responses are split into, one of them parsed by the calling thread.
+  @VisibleForTesting
+  static int parsingParallelism =
+      Math.min(MAX_PARSING_PARALLELISM, Runtime.getRuntime().availableProcessors());
+
   private final FilterRegistry filterRegistry = FilterRegistry.getDefaultRegistry();
   private final Map<String, ResourceSubscriber> ldsResourceSubscribers = new HashMap<>();
   private final Map<String, ResourceSubscriber> rdsResourceSubscribers = new HashMap<>();
   private final Map<String, ResourceSubscriber> cdsResourceSubscribers = new HashMap<>();
   private final Map<String, ResourceSubscriber> edsResourceSubscribers = new HashMap<>();
+  // Last accepted raw CDS and EDS resources to their subscribers, for skipping parsing resources
+  // that are resent unchanged.
+  private final Map<Any, ResourceSubscriber> cdsParseCache = new HashMap<>();
+  private final Map<Any, ResourceSubscriber> edsParseCache = new HashMap<>();
   private final LoadStatsManager2 loadStatsManager;
   private final LoadReportClient lrsClient;
   private final TimeProvider timeProvider;
@@ -188,6 +218,15 @@ final class ClientXdsClient extends AbstractXdsClient {
 
   @Override
   protected void handleLdsResponse(String versionInfo, List<Any> resources, String nonce) {
+    handleLdsResponse(versionInfo, resources, null, nonce);
+  }
+
+  /**
+   * Handles a state of the world response if {@code removedResources} is {@code null}, or a delta
+   * response otherwise.
+   */
+  private void handleLdsResponse(String versionInfo, List<Any> resources,
+      @Nullable Set<String> removedResources, String nonce) {
     Map<String, ParsedResource> parsedResources = new HashMap<>(resources.size());
     Set<String> unpackedResources = new HashSet<>(resources.size());
     List<String> errors = new ArrayList<>();
@@ -237,7 +276,11 @@ final class ClientXdsClient extends AbstractXdsClient {
       return;
     }
 
-    handleResourcesAccepted(ResourceType.LDS, parsedResources, versionInfo, nonce);
+    handleResourcesAccepted(
+        ResourceType.LDS, parsedResources, removedResources, versionInfo, nonce);
+    if (removedResources != null) {
+      return;
+    }
     for (String resource : rdsResourceSubscribers.keySet()) {
       if (!retainedRdsResources.contains(resource)) {
         ResourceSubscriber subscriber = rdsResourceSubscribers.get(resource);
@@ -1303,6 +1346,15 @@ final class ClientXdsClient extends AbstractXdsClient {
 
   @Override
   protected void handleRdsResponse(String versionInfo, List<Any> resources, String nonce) {
+    handleRdsResponse(versionInfo, resources, null, nonce);
+  }
+
+  /**
+   * Handles a state of the world response if {@code removedResources} is {@code null}, or a delta
+   * response otherwise.
+   */
+  private void handleRdsResponse(String versionInfo, List<Any> resources,
+      @Nullable Set<String> removedResources, String nonce) {
     Map<String, ParsedResource> parsedResources = new HashMap<>(resources.size());
     Set<String> unpackedResources = new HashSet<>(resources.size());
     List<String> errors = new ArrayList<>();
@@ -1344,7 +1396,8 @@ final class ClientXdsClient extends AbstractXdsClient {
     if (!errors.isEmpty()) {
       handleResourcesRejected(ResourceType.RDS, unpackedResources, versionInfo, nonce, errors);
     } else {
-      handleResourcesAccepted(ResourceType.RDS, parsedResources, versionInfo, nonce);
+      handleResourcesAccepted(
+          ResourceType.RDS, parsedResources, removedResources, versionInfo, nonce);
     }
   }
 
@@ -1367,43 +1420,31 @@ final class ClientXdsClient extends AbstractXdsClient {
 
   @Override
   protected void handleCdsResponse(String versionInfo, List<Any> resources, String nonce) {
+    handleCdsResponse(versionInfo, resources, null, nonce);
+  }
+
+  /**
+   * Handles a state of the world response if {@code removedResources} is {@code null}, or a delta
+   * response otherwise.
+   */
+  private void handleCdsResponse(String versionInfo, List<Any> resources,
+      @Nullable Set<String> removedResources, String nonce) {
     Map<String, ParsedResource> parsedResources = new HashMap<>(resources.size());
     Set<String> unpackedResources = new HashSet<>(resources.size());
     List<String> errors = new ArrayList<>();
     Set<String> retainedEdsResources = new HashSet<>();
 
-    for (int i = 0; i < resources.size(); i++) {
-      Any resource = resources.get(i);
-
-      // Unpack the Cluster.
-      Cluster cluster;
-      try {
-        cluster = unpackCompatibleType(
-            resource, Cluster.class, ResourceType.CDS.typeUrl(), ResourceType.CDS.typeUrlV2());
-      } catch (InvalidProtocolBufferException e) {
-        errors.add("CDS response Resource index " + i + " - can't decode Cluster: " + e);
-        continue;
-      }
-      String clusterName = cluster.getName();
-
-      // Management server is required to always send newly requested resources, even if they
-      // may have been sent previously (proactively). Thus, client does not need to cache
-      // unrequested resources.
-      if (!cdsResourceSubscribers.containsKey(clusterName)) {
-        continue;
+    ParseResult[] results = parseResources(resources, new ResourceParser() {
+      @Override
+      public ParseResult parse(Any resource, int index) {
+        return parseCdsResource(resource, index);
       }
-      unpackedResources.add(clusterName);
-
-      // Process Cluster into CdsUpdate.
-      CdsUpdate cdsUpdate;
-      try {
-        cdsUpdate = parseCluster(cluster, retainedEdsResources);
-      } catch (ResourceInvalidException e) {
-        errors.add(
-            "CDS response Cluster '" + clusterName + "' validation error: " + e.getMessage());
-        continue;
+    });
+    for (ParseResult result : results) {
+      result.mergeInto(parsedResources, unpackedResources, errors);
+      if (result.edsResource != null) {
+        retainedEdsResources.add(result.edsResource);
       }
-      parsedResources.put(clusterName, new ParsedResource(cdsUpdate, resource));
     }
     getLogger().log(XdsLogLevel.INFO,
         "Received CDS Response version {0} nonce {1}. Parsed resources: {2}",
@@ -1414,7 +1455,11 @@ final class ClientXdsClient extends AbstractXdsClient {
       return;
     }
 
-    handleResourcesAccepted(ResourceType.CDS, parsedResources, versionInfo, nonce);
+    handleResourcesAccepted(
+        ResourceType.CDS, parsedResources, removedResources, versionInfo, nonce);
+    if (removedResources != null) {
+      return;
+    }
     // CDS responses represents the state of the world, EDS resources not referenced in CDS
     // resources should be deleted.
     for (String resource : edsResourceSubscribers.keySet()) {
@@ -1425,6 +1470,56 @@ final class ClientXdsClient extends AbstractXdsClient {
     }
   }
 
+  /**
+   * Parses a single resource of a CDS response. May run on a parsing worker thread, see {@link
+   * #parseResources}.
+   */
+  private ParseResult parseCdsResource(Any resource, int index) {
+    // Skip parsing clusters resent unchanged by the management server.
+    ResourceSubscriber cached = cdsParseCache.get(resource);
+    if (cached != null) {
+      CdsUpdate cdsUpdate = (CdsUpdate) cached.data;
+      String edsResource = null;
+      if (cdsUpdate.clusterType() == CdsUpdate.ClusterType.EDS) {
+        edsResource = cdsUpdate.edsServiceName() != null
+            ? cdsUpdate.edsServiceName() : cdsUpdate.clusterName();
+      }
+      return ParseResult.forResource(
+          cached.resource, new ParsedResource(cdsUpdate, resource), edsResource);
+    }
+
+    // Unpack the Cluster.
+    Cluster cluster;
+    try {
+      cluster = unpackCompatibleType(
+          resource, Cluster.class, ResourceType.CDS.typeUrl(), ResourceType.CDS.typeUrlV2());
+    } catch (InvalidProtocolBufferException e) {
+      return ParseResult.forError(
+          null, "CDS response Resource index " + index + " - can't decode Cluster: " + e);
+    }
+    String clusterName = cluster.getName();
+
+    // Management server is required to always send newly requested resources, even if they
+    // may have been sent previously (proactively). Thus, client does not need to cache
+    // unrequested resources.
+    if (!cdsResourceSubscribers.containsKey(clusterName)) {
+      return ParseResult.UNSUBSCRIBED;
+    }
+
+    // Process Cluster into CdsUpdate.
+    Set<String> edsResources = new HashSet<>(1);
+    CdsUpdate cdsUpdate;
+    try {
+      cdsUpdate = parseCluster(cluster, edsResources);
+    } catch (ResourceInvalidException e) {
+      return ParseResult.forError(clusterName,
+          "CDS response Cluster '" + clusterName + "' validation error: " + e.getMessage());
+    }
+    String edsResource = edsResources.isEmpty() ? null : edsResources.iterator().next();
+    return ParseResult.forResource(
+        clusterName, new ParsedResource(cdsUpdate, resource), edsResource);
+  }
+
   @VisibleForTesting
   static CdsUpdate parseCluster(Cluster cluster, Set<String> retainedEdsResources)
       throws ResourceInvalidException {
@@ -1463,6 +1558,17 @@ final class ClientXdsClient extends AbstractXdsClient {
             "Cluster " + cluster.getName() + ": invalid ring_hash_lb_config: " + lbConfig);
       }
       updateBuilder.ringHashLbPolicy(minRingSize, maxRingSize);
+    } else if (cluster.getLbPolicy() == LbPolicy.LEAST_REQUEST) {
+      LeastRequestLbConfig lbConfig = cluster.getLeastRequestLbConfig();
+      int choiceCount =
+          lbConfig.hasChoiceCount()
+              ? lbConfig.getChoiceCount().getValue()
+              : DEFAULT_LEAST_REQUEST_CHOICE_COUNT;
+      if (choiceCount < 2) {
+        throw new ResourceInvalidException(
+            "Cluster " + cluster.getName() + ": invalid least_request_lb_config: " + lbConfig);
+      }
+      updateBuilder.leastRequestLbPolicy(choiceCount);
     } else if (cluster.getLbPolicy() == LbPolicy.ROUND_ROBIN) {
       updateBuilder.roundRobinLbPolicy();
     } else {
@@ -1470,9 +1576,86 @@ final class ClientXdsClient extends AbstractXdsClient {
           "Cluster " + cluster.getName() + ": unsupported lb policy: " + cluster.getLbPolicy());
     }
 
+    if (enableOutlierDetection && cluster.hasOutlierDetection()
+        && cluster.getClusterDiscoveryTypeCase() == Cluster.ClusterDiscoveryTypeCase.TYPE) {
+      updateBuilder.outlierDetection(
+          parseOutlierDetection(cluster.getName(), cluster.getOutlierDetection()));
+    }
+
     return updateBuilder.build();
   }
 
+  @VisibleForTesting
+  static OutlierDetection parseOutlierDetection(String clusterName,
+      io.envoyproxy.envoy.config.cluster.v3.OutlierDetection proto)
+      throws ResourceInvalidException {
+    long intervalNanos = OutlierDetection.DEFAULT_INTERVAL_NANOS;
+    long baseEjectionTimeNanos = OutlierDetection.DEFAULT_BASE_EJECTION_TIME_NANOS;
+    long maxEjectionTimeNanos = OutlierDetection.DEFAULT_MAX_EJECTION_TIME_NANOS;
+    try {
+      if (proto.hasInterval()) {
+        intervalNanos = Durations.toNanos(Durations.checkValid(proto.getInterval()));
+      }
+      if (proto.hasBaseEjectionTime()) {
+        baseEjectionTimeNanos =
+            Durations.toNanos(Durations.checkValid(proto.getBaseEjectionTime()));
+      }
+      if (proto.hasMaxEjectionTime()) {
+        maxEjectionTimeNanos = Durations.toNanos(Durations.checkValid(proto.getMaxEjectionTime()));
+      }
+    } catch (IllegalArgumentException e) {
+      throw new ResourceInvalidException(
+          "Cluster " + clusterName + ": invalid outlier_detection duration: " + e.getMessage());
+    }
+    int maxEjectionPercent = proto.hasMaxEjectionPercent()
+        ? proto.getMaxEjectionPercent().getValue() : OutlierDetection.DEFAULT_MAX_EJECTION_PERCENT;
+
+    // Success rate based ejection is on by default, unless its enforcement is turned off.
+    SuccessRateEjection successRateEjection = null;
+    int successRateEnforcement = proto.hasEnforcingSuccessRate()
+        ? proto.getEnforcingSuccessRate().getValue()
+        : SuccessRateEjection.DEFAULT_ENFORCEMENT_PERCENTAGE;
+    if (successRateEnforcement != 0) {
+      successRateEjection = new SuccessRateEjection(
+          proto.hasSuccessRateStdevFactor()
+              ? proto.getSuccessRateStdevFactor().getValue()
+              : SuccessRateEjection.DEFAULT_STDEV_FACTOR,
+          successRateEnforcement,
+          proto.hasSuccessRateMinimumHosts()
+              ? proto.getSuccessRateMinimumHosts().getValue()
+              : SuccessRateEjection.DEFAULT_MINIMUM_HOSTS,
+          proto.hasSuccessRateRequestVolume()
+              ? proto.getSuccessRateRequestVolume().getValue()
+              : SuccessRateEjection.DEFAULT_REQUEST_VOLUME);
+    }
+    // Failure percentage based ejection is off by default.
+    FailurePercentageEjection failurePercentageEjection = null;
+    int failurePercentageEnforcement = proto.hasEnforcingFailurePercentage()
+        ? proto.getEnforcingFailurePercentage().getValue()
+        : FailurePercentageEjection.DEFAULT_ENFORCEMENT_PERCENTAGE;
+    if (failurePercentageEnforcement != 0) {
+      failurePercentageEjection = new FailurePercentageEjection(
+          proto.hasFailurePercentageThreshold()
+              ? proto.getFailurePercentageThreshold().getValue()
+              : FailurePercentageEjection.DEFAULT_THRESHOLD,
+          failurePercentageEnforcement,
+          proto.hasFailurePercentageMinimumHosts()
+              ? proto.getFailurePercentageMinimumHosts().getValue()
+              : FailurePercentageEjection.DEFAULT_MINIMUM_HOSTS,
+          proto.hasFailurePercentageRequestVolume()
+              ? proto.getFailurePercentageRequestVolume().getValue()
+              : FailurePercentageEjection.DEFAULT_REQUEST_VOLUME);
+    }
+
+    try {
+      return new OutlierDetection(intervalNanos, baseEjectionTimeNanos, maxEjectionTimeNanos,
+          maxEjectionPercent, successRateEjection, failurePercentageEjection);
+    } catch (IllegalArgumentException e) {
+      throw new ResourceInvalidException(
+          "Cluster " + clusterName + ": invalid outlier_detection: " + e.getMessage());
+    }
+  }
+
   private static StructOrError<CdsUpdate.Builder> parseAggregateCluster(Cluster cluster) {
     String clusterName = cluster.getName();
     CustomClusterType customType = cluster.getClusterType();
@@ -1594,52 +1777,78 @@ final class ClientXdsClient extends AbstractXdsClient {
 
   @Override
   protected void handleEdsResponse(String versionInfo, List<Any> resources, String nonce) {
+    handleEdsResponse(versionInfo, resources, null, nonce);
+  }
+
+  /**
+   * Handles a state of the world response if {@code removedResources} is {@code null}, or a delta
+   * response otherwise.
+   */
+  private void handleEdsResponse(String versionInfo, List<Any> resources,
+      @Nullable Set<String> removedResources, String nonce) {
     Map<String, ParsedResource> parsedResources = new HashMap<>(resources.size());
     Set<String> unpackedResources = new HashSet<>(resources.size());
     List<String> errors = new ArrayList<>();
 
-    for (int i = 0; i < resources.size(); i++) {
-      Any resource = resources.get(i);
-
-      // Unpack the ClusterLoadAssignment.
-      ClusterLoadAssignment assignment;
-      try {
-        assignment =
-            unpackCompatibleType(resource, ClusterLoadAssignment.class, ResourceType.EDS.typeUrl(),
-                ResourceType.EDS.typeUrlV2());
-      } catch (InvalidProtocolBufferException e) {
-        errors.add(
-            "EDS response Resource index " + i + " - can't decode ClusterLoadAssignment: " + e);
-        continue;
-      }
-      String clusterName = assignment.getClusterName();
-
-      // Skip information for clusters not requested.
-      // Management server is required to always send newly requested resources, even if they
-      // may have been sent previously (proactively). Thus, client does not need to cache
-      // unrequested resources.
-      if (!edsResourceSubscribers.containsKey(clusterName)) {
-        continue;
-      }
-      unpackedResources.add(clusterName);
-
-      // Process ClusterLoadAssignment into EdsUpdate.
-      EdsUpdate edsUpdate;
-      try {
-        edsUpdate = processClusterLoadAssignment(assignment);
-      } catch (ResourceInvalidException e) {
-        errors.add("EDS response ClusterLoadAssignment '" + clusterName
-            + "' validation error: " + e.getMessage());
-        continue;
+    ParseResult[] results = parseResources(resources, new ResourceParser() {
+      @Override
+      public ParseResult parse(Any resource, int index) {
+        return parseEdsResource(resource, index);
       }
-      parsedResources.put(clusterName, new ParsedResource(edsUpdate, resource));
+    });
+    for (ParseResult result : results) {
+      result.mergeInto(parsedResources, unpackedResources, errors);
     }
 
     if (!errors.isEmpty()) {
       handleResourcesRejected(ResourceType.EDS, unpackedResources, versionInfo, nonce, errors);
     } else {
-      handleResourcesAccepted(ResourceType.EDS, parsedResources, versionInfo, nonce);
+      handleResourcesAccepted(
+          ResourceType.EDS, parsedResources, removedResources, versionInfo, nonce);
+    }
+  }
+
+  /**
+   * Parses a single resource of an EDS response. May run on a parsing worker thread, see {@link
+   * #parseResources}.
+   */
+  private ParseResult parseEdsResource(Any resource, int index) {
+    // Skip parsing assignments resent unchanged by the management server.
+    ResourceSubscriber cached = edsParseCache.get(resource);
+    if (cached != null) {
+      return ParseResult.forResource(
+          cached.resource, new ParsedResource(cached.data, resource), null);
+    }
+
+    // Unpack the ClusterLoadAssignment.
+    ClusterLoadAssignment assignment;
+    try {
+      assignment =
+          unpackCompatibleType(resource, ClusterLoadAssignment.class, ResourceType.EDS.typeUrl(),
+              ResourceType.EDS.typeUrlV2());
+    } catch (InvalidProtocolBufferException e) {
+      return ParseResult.forError(null,
+          "EDS response Resource index " + index + " - can't decode ClusterLoadAssignment: " + e);
     }
+    String clusterName = assignment.getClusterName();
+
+    // Skip information for clusters not requested.
+    // Management server is required to always send newly requested resources, even if they
+    // may have been sent previously (proactively). Thus, client does not need to cache
+    // unrequested resources.
+    if (!edsResourceSubscribers.containsKey(clusterName)) {
+      return ParseResult.UNSUBSCRIBED;
+    }
+
+    // Process ClusterLoadAssignment into EdsUpdate.
+    EdsUpdate edsUpdate;
+    try {
+      edsUpdate = processClusterLoadAssignment(assignment);
+    } catch (ResourceInvalidException e) {
+      return ParseResult.forError(clusterName, "EDS response ClusterLoadAssignment '"
+          + clusterName + "' validation error: " + e.getMessage());
+    }
+    return ParseResult.forResource(clusterName, new ParsedResource(edsUpdate, resource), null);
   }
 
   private static EdsUpdate processClusterLoadAssignment(ClusterLoadAssignment assignment)
@@ -1767,6 +1976,29 @@ final class ClientXdsClient extends AbstractXdsClient {
     return numerator;
   }
 
+  @Override
+  protected void handleDeltaResponse(ResourceType type, String versionInfo, List<Any> resources,
+      List<String> removedResources, String nonce) {
+    Set<String> removed = new HashSet<>(removedResources);
+    switch (type) {
+      case LDS:
+        handleLdsResponse(versionInfo, resources, removed, nonce);
+        break;
+      case RDS:
+        handleRdsResponse(versionInfo, resources, removed, nonce);
+        break;
+      case CDS:
+        handleCdsResponse(versionInfo, resources, removed, nonce);
+        break;
+      case EDS:
+        handleEdsResponse(versionInfo, resources, removed, nonce);
+        break;
+      case UNKNOWN:
+      default:
+        throw new AssertionError("Unknown resource type: " + type);
+    }
+  }
+
   @Override
   protected void handleStreamClosed(Status error) {
     cleanUpResourceTimers();
@@ -1824,6 +2056,28 @@ final class ClientXdsClient extends AbstractXdsClient {
     }
   }
 
+  /** Returns the parse cache of the given type, or {@code null} if its resources aren't cached. */
+  @Nullable
+  private Map<Any, ResourceSubscriber> getParseCache(ResourceType type) {
+    switch (type) {
+      case CDS:
+        return cdsParseCache;
+      case EDS:
+        return edsParseCache;
+      default:
+        return null;
+    }
+  }
+
+  /** Returns the raw resources of the given type that are not parsed again if resent. */
+  @VisibleForTesting
+  Set<Any> getParseCachedResources(ResourceType type) {
+    Map<Any, ResourceSubscriber> parseCache = getParseCache(type);
+    return parseCache == null
+        ? Collections.<Any>emptySet()
+        : Collections.unmodifiableSet(new HashSet<>(parseCache.keySet()));
+  }
+
   @Nullable
   @Override
   Collection<String> getSubscribedResources(ResourceType type) {
@@ -1939,6 +2193,7 @@ final class ClientXdsClient extends AbstractXdsClient {
         subscriber.removeWatcher(watcher);
         if (!subscriber.isWatched()) {
           subscriber.stopTimer();
+          subscriber.updateParseCache(null);
           getLogger().log(XdsLogLevel.INFO, "Unsubscribe CDS resource {0}", resourceName);
           cdsResourceSubscribers.remove(resourceName);
           adjustResourceSubscription(ResourceType.CDS);
@@ -1973,6 +2228,7 @@ final class ClientXdsClient extends AbstractXdsClient {
         subscriber.removeWatcher(watcher);
         if (!subscriber.isWatched()) {
           subscriber.stopTimer();
+          subscriber.updateParseCache(null);
           getLogger().log(XdsLogLevel.INFO, "Unsubscribe EDS resource {0}", resourceName);
           edsResourceSubscribers.remove(resourceName);
           adjustResourceSubscription(ResourceType.EDS);
@@ -2030,12 +2286,32 @@ final class ClientXdsClient extends AbstractXdsClient {
   }
 
   private void handleResourcesAccepted(
-      ResourceType type, Map<String, ParsedResource> parsedResources, String version,
-      String nonce) {
+      ResourceType type, Map<String, ParsedResource> parsedResources,
+      @Nullable Set<String> removedResources, String version, String nonce) {
     ackResponse(type, version, nonce);
 
     long updateTime = timeProvider.currentTimeNanos();
-    for (Map.Entry<String, ResourceSubscriber> entry : getSubscribedResourcesMap(type).entrySet()) {
+    Map<String, ResourceSubscriber> subscribers = getSubscribedResourcesMap(type);
+    if (removedResources != null) {
+      // A delta response only carries the resources that changed and names the removed ones, so
+      // there is no need to go through all the subscribers.
+      for (Map.Entry<String, ParsedResource> entry : parsedResources.entrySet()) {
+        ResourceSubscriber subscriber = subscribers.get(entry.getKey());
+        if (subscriber != null) {
+          subscriber.onData(entry.getValue(), version, updateTime);
+        }
+      }
+      for (String resourceName : removedResources) {
+        ResourceSubscriber subscriber = subscribers.get(resourceName);
+        if (subscriber != null) {
+          // Removal is explicit, no need to wait for the initial fetch timeout.
+          subscriber.stopTimer();
+          subscriber.onAbsent();
+        }
+      }
+      return;
+    }
+    for (Map.Entry<String, ResourceSubscriber> entry : subscribers.entrySet()) {
       String resourceName = entry.getKey();
       ResourceSubscriber subscriber = entry.getValue();
       // Notify the watchers.
@@ -2088,6 +2364,112 @@ final class ClientXdsClient extends AbstractXdsClient {
     }
   }
 
+  /** Parses a single resource of a response. */
+  private interface ResourceParser {
+    ParseResult parse(Any resource, int index);
+  }
+
+  /**
+   * Parses the resources of a response with the given parser, in order. Large responses are split
+   * into chunks parsed on the {@link ParsingExecutorHolder#executor parsing workers} while this
+   * thread parses the first chunk, so the parser must not modify any state of the client. The
+   * subscribers it reads are not modified until all the chunks have been parsed.
+   */
+  private static ParseResult[] parseResources(
+      final List<Any> resources, final ResourceParser parser) {
+    final ParseResult[] results = new ParseResult[resources.size()];
+    int parallelism = Math.min(MAX_PARSING_PARALLELISM, parsingParallelism);
+    if (resources.size() < parallelParsingThreshold || parallelism < 2) {
+      parseChunk(resources, parser, results, 0, resources.size());
+      return results;
+    }
+    int chunkSize = (resources.size() + parallelism - 1) / parallelism;
+    List<Future<?>> futures = new ArrayList<>(parallelism - 1);
+    for (int start = chunkSize; start < resources.size(); start += chunkSize) {
+      final int chunkStart = start;
+      final int chunkEnd = Math.min(start + chunkSize, resources.size());
+      futures.add(ParsingExecutorHolder.executor.submit(new Runnable() {
+        @Override
+        public void run() {
+          parseChunk(resources, parser, results, chunkStart, chunkEnd);
+        }
+      }));
+    }
+    parseChunk(resources, parser, results, 0, chunkSize);
+    for (Future<?> future : futures) {
+      Futures.getUnchecked(future);
+    }
+    return results;
+  }
+
+  private static void parseChunk(
+      List<Any> resources, ResourceParser parser, ParseResult[] results, int start, int end) {
+    for (int i = start; i < end; i++) {
+      results[i] = parser.parse(resources.get(i), i);
+    }
+  }
+
+  /** Lazily creates the workers shared by all clients for parsing large responses. */
+  private static final class ParsingExecutorHolder {
+    static final ExecutorService executor = createExecutor();
+
+    private static ExecutorService createExecutor() {
+      // The calling thread parses one of the chunks.
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(
+          MAX_PARSING_PARALLELISM - 1, MAX_PARSING_PARALLELISM - 1, 60, TimeUnit.SECONDS,
+          new LinkedBlockingQueue<Runnable>(),
+          GrpcUtil.getThreadFactory("grpc-xds-parser-%d", true));
+      executor.allowCoreThreadTimeOut(true);
+      return executor;
+    }
+  }
+
+  /** Outcome of parsing a single resource of a response. */
+  private static final class ParseResult {
+    // The resource is either malformed without a name or not subscribed.
+    private static final ParseResult UNSUBSCRIBED = new ParseResult(null, null, null, null);
+
+    @Nullable
+    private final String name;
+    @Nullable
+    private final ParsedResource parsedResource;
+    @Nullable
+    private final String errorDetail;
+    // EDS resource referenced by a cluster.
+    @Nullable
+    private final String edsResource;
+
+    private ParseResult(@Nullable String name, @Nullable ParsedResource parsedResource,
+        @Nullable String errorDetail, @Nullable String edsResource) {
+      this.name = name;
+      this.parsedResource = parsedResource;
+      this.errorDetail = errorDetail;
+      this.edsResource = edsResource;
+    }
+
+    static ParseResult forResource(
+        String name, ParsedResource parsedResource, @Nullable String edsResource) {
+      return new ParseResult(name, parsedResource, null, edsResource);
+    }
+
+    static ParseResult forError(@Nullable String name, String errorDetail) {
+      return new ParseResult(name, null, errorDetail, null);
+    }
+
+    void mergeInto(Map<String, ParsedResource> parsedResources, Set<String> unpackedResources,
+        List<String> errors) {
+      if (errorDetail != null) {
+        errors.add(errorDetail);
+      }
+      if (name != null) {
+        unpackedResources.add(name);
+      }
+      if (parsedResource != null) {
+        parsedResources.put(name, parsedResource);
+      }
+    }
+  }
+
   /**
    * Tracks a single subscribed resource.
    */
@@ -2099,6 +2481,8 @@ final class ClientXdsClient extends AbstractXdsClient {
     private boolean absent;
     private ScheduledHandle respTimer;
     private ResourceMetadata metadata;
+    @Nullable
+    private Any cachedRawResource;
 
     ResourceSubscriber(ResourceType type, String resource) {
       this.type = type;
@@ -2174,6 +2558,7 @@ final class ClientXdsClient extends AbstractXdsClient {
       ResourceUpdate oldData = this.data;
       this.data = parsedResource.getResourceUpdate();
       absent = false;
+      updateParseCache(parsedResource.getRawResource());
       if (!Objects.equals(oldData, data)) {
         for (ResourceWatcher watcher : watchers) {
           notifyWatcher(watcher, data);
@@ -2189,6 +2574,7 @@ final class ClientXdsClient extends AbstractXdsClient {
       if (!absent) {
         data = null;
         absent = true;
+        updateParseCache(null);
         metadata = ResourceMetadata.newResourceMetadataDoesNotExist();
         for (ResourceWatcher watcher : watchers) {
           watcher.onResourceDoesNotExist(resource);
@@ -2196,6 +2582,24 @@ final class ClientXdsClient extends AbstractXdsClient {
       }
     }
 
+    /**
+     * Associates the last accepted raw resource with this subscriber, so that it is not parsed
+     * again if resent unchanged. Only CDS and EDS resources are cached.
+     */
+    void updateParseCache(@Nullable Any rawResource) {
+      Map<Any, ResourceSubscriber> parseCache = getParseCache(type);
+      if (parseCache == null) {
+        return;
+      }
+      if (cachedRawResource != null) {
+        parseCache.remove(cachedRawResource);
+      }
+      cachedRawResource = rawResource;
+      if (rawResource != null) {
+        parseCache.put(rawResource, this);
+      }
+    }
+
     void onError(Status error) {
       if (respTimer != null && respTimer.isPending()) {
         respTimer.cancel();
@@ -19,6 +19,7 @@ package io.grpc.xds;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static io.grpc.xds.XdsSubchannelPickers.BUFFER_PICKER;
 
+import com.github.udpa.udpa.data.orca.v1.OrcaLoadReport;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Strings;
@@ -40,6 +41,7 @@ import io.grpc.xds.Endpoints.DropOverload;
 import io.grpc.xds.EnvoyServerProtoData.UpstreamTlsContext;
 import io.grpc.xds.LoadStatsManager2.ClusterDropStats;
 import io.grpc.xds.LoadStatsManager2.ClusterLocalityStats;
+import io.grpc.xds.OrcaPerRequestUtil.OrcaPerRequestReportListener;
 import io.grpc.xds.ThreadSafeRandom.ThreadSafeRandomImpl;
 import io.grpc.xds.XdsLogger.XdsLogLevel;
 import io.grpc.xds.XdsNameResolverProvider.CallCounterProvider;
@@ -72,6 +74,8 @@ final class ClusterImplLoadBalancer extends LoadBalancer {
       Boolean.parseBoolean(System.getenv("GRPC_XDS_EXPERIMENTAL_SECURITY_SUPPORT"));
   private static final Attributes.Key<ClusterLocalityStats> ATTR_CLUSTER_LOCALITY_STATS =
       Attributes.Key.create("io.grpc.xds.ClusterImplLoadBalancer.clusterLocalityStats");
+  private static final Attributes.Key<ClientStreamTracer.Factory> ATTR_ORCA_TRACER_FACTORY =
+      Attributes.Key.create("io.grpc.xds.ClusterImplLoadBalancer.orcaTracerFactory");
 
   private final XdsLogger logger;
   private final Helper helper;
@@ -217,9 +221,16 @@ final class ClusterImplLoadBalancer extends LoadBalancer {
       }
       final ClusterLocalityStats localityStats = xdsClient.addClusterLocalityStats(
           cluster, edsServiceName, locality);
-      Attributes attrs = args.getAttributes().toBuilder().set(
-          ATTR_CLUSTER_LOCALITY_STATS, localityStats).build();
-      args = args.toBuilder().setAddresses(addresses).setAttributes(attrs).build();
+      Attributes.Builder attrsBuilder = args.getAttributes().toBuilder()
+          .set(ATTR_CLUSTER_LOCALITY_STATS, localityStats);
+      // Backend metrics are only used in load reports, don't parse them if there are none.
+      if (dropStats != null) {
+        attrsBuilder.set(
+            ATTR_ORCA_TRACER_FACTORY,
+            OrcaPerRequestUtil.getInstance().newOrcaClientStreamTracerFactory(
+                new OrcaPerRpcListener(localityStats)));
+      }
+      args = args.toBuilder().setAddresses(addresses).setAttributes(attrsBuilder.build()).build();
       final Subchannel subchannel = delegate().createSubchannel(args);
 
       return new ForwardingSubchannel() {
@@ -313,10 +324,11 @@ final class ClusterImplLoadBalancer extends LoadBalancer {
                   "Cluster max concurrent requests limit exceeded"));
             }
           }
-          final ClusterLocalityStats stats =
-              result.getSubchannel().getAttributes().get(ATTR_CLUSTER_LOCALITY_STATS);
+          Attributes subchannelAttrs = result.getSubchannel().getAttributes();
+          final ClusterLocalityStats stats = subchannelAttrs.get(ATTR_CLUSTER_LOCALITY_STATS);
           ClientStreamTracer.Factory tracerFactory = new CountingStreamTracerFactory(
-              stats, inFlights, result.getStreamTracerFactory());
+              stats, inFlights, result.getStreamTracerFactory(),
+              subchannelAttrs.get(ATTR_ORCA_TRACER_FACTORY));
           return PickResult.withSubchannel(result.getSubchannel(), tracerFactory);
         }
         return result;
@@ -329,27 +341,57 @@ final class ClusterImplLoadBalancer extends LoadBalancer {
     }
   }
 
+  /**
+   * Aggregates the request costs reported by backends into the locality's load report. Created
+   * along with each subchannel, together with the ORCA tracer factory shared by all its calls.
+   */
+  private static final class OrcaPerRpcListener implements OrcaPerRequestReportListener {
+    private final ClusterLocalityStats stats;
+
+    private OrcaPerRpcListener(ClusterLocalityStats stats) {
+      this.stats = checkNotNull(stats, "stats");
+    }
+
+    @Override
+    public void onLoadReport(OrcaLoadReport report) {
+      stats.recordBackendLoadMetricStats(report.getRequestCostMap());
+    }
+  }
+
   private static final class CountingStreamTracerFactory extends
       ClientStreamTracer.InternalLimitedInfoFactory {
     private ClusterLocalityStats stats;
     private final AtomicLong inFlights;
     @Nullable
     private final ClientStreamTracer.Factory delegate;
+    @Nullable
+    private final ClientStreamTracer.Factory orcaTracerFactory;
 
     private CountingStreamTracerFactory(
         ClusterLocalityStats stats, AtomicLong inFlights,
-        @Nullable ClientStreamTracer.Factory delegate) {
+        @Nullable ClientStreamTracer.Factory delegate,
+        @Nullable ClientStreamTracer.Factory orcaTracerFactory) {
       this.stats = checkNotNull(stats, "stats");
       this.inFlights = checkNotNull(inFlights, "inFlights");
       this.delegate = delegate;
+      this.orcaTracerFactory = orcaTracerFactory;
     }
 
     @Override
     public ClientStreamTracer newClientStreamTracer(StreamInfo info, Metadata headers) {
       stats.recordCallStarted();
       inFlights.incrementAndGet();
+      final ClientStreamTracer orcaTracer =
+          orcaTracerFactory == null ? null : orcaTracerFactory.newClientStreamTracer(info, headers);
       if (delegate == null) {
         return new ClientStreamTracer() {
+          @Override
+          public void inboundTrailers(Metadata trailers) {
+            if (orcaTracer != null) {
+              orcaTracer.inboundTrailers(trailers);
+            }
+          }
+
           @Override
           public void streamClosed(Status status) {
             stats.recordCallFinished(status);
@@ -364,6 +406,14 @@ final class ClusterImplLoadBalancer extends LoadBalancer {
           return delegatedTracer;
         }
 
+        @Override
+        public void inboundTrailers(Metadata trailers) {
+          if (orcaTracer != null) {
+            orcaTracer.inboundTrailers(trailers);
+          }
+          delegate().inboundTrailers(trailers);
+        }
+
         @Override
         public void streamClosed(Status status) {
           stats.recordCallFinished(status);
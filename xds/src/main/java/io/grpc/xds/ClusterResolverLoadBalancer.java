@@ -46,6 +46,8 @@ import io.grpc.xds.Endpoints.DropOverload;
 import io.grpc.xds.Endpoints.LbEndpoint;
 import io.grpc.xds.Endpoints.LocalityLbEndpoints;
 import io.grpc.xds.EnvoyServerProtoData.UpstreamTlsContext;
+import io.grpc.xds.OutlierDetectionLoadBalancer.OutlierDetection;
+import io.grpc.xds.OutlierDetectionLoadBalancer.OutlierDetectionConfig;
 import io.grpc.xds.PriorityLoadBalancerProvider.PriorityLbConfig;
 import io.grpc.xds.PriorityLoadBalancerProvider.PriorityLbConfig.PriorityChildConfig;
 import io.grpc.xds.WeightedTargetLoadBalancerProvider.WeightedPolicySelection;
@@ -60,9 +62,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
@@ -78,6 +82,10 @@ final class ClusterResolverLoadBalancer extends LoadBalancer {
   // DNS-resolved endpoints do not have the definition of the locality it belongs to, just hardcode
   // to an empty locality.
   private static final Locality LOGICAL_DNS_CLUSTER_LOCALITY = Locality.create("", "", "");
+  // Keeps traffic within the zone of this client while the zone has enough capacity.
+  @VisibleForTesting
+  static boolean enableZoneAwareRouting =
+      Boolean.parseBoolean(System.getenv("GRPC_XDS_EXPERIMENTAL_ZONE_AWARE_ROUTING"));
   private final XdsLogger logger;
   private final SynchronizationContext syncContext;
   private final ScheduledExecutorService timeService;
@@ -174,10 +182,12 @@ final class ClusterResolverLoadBalancer extends LoadBalancer {
         ClusterState state;
         if (instance.type == DiscoveryMechanism.Type.EDS) {
           state = new EdsClusterState(instance.cluster, instance.edsServiceName,
-              instance.lrsServerName, instance.maxConcurrentRequests, instance.tlsContext);
+              instance.lrsServerName, instance.maxConcurrentRequests, instance.tlsContext,
+              instance.outlierDetection);
         } else {  // logical DNS
           state = new LogicalDnsClusterState(instance.cluster, instance.dnsHostName,
-              instance.lrsServerName, instance.maxConcurrentRequests, instance.tlsContext);
+              instance.lrsServerName, instance.maxConcurrentRequests, instance.tlsContext,
+              instance.outlierDetection);
         }
         clusterStates.put(instance.cluster, state);
         state.start();
@@ -310,6 +320,8 @@ final class ClusterResolverLoadBalancer extends LoadBalancer {
       protected final Long maxConcurrentRequests;
       @Nullable
       protected final UpstreamTlsContext tlsContext;
+      @Nullable
+      protected final OutlierDetection outlierDetection;
       // Resolution status, may contain most recent error encountered.
       protected Status status = Status.OK;
       // True if has received resolution result.
@@ -320,11 +332,13 @@ final class ClusterResolverLoadBalancer extends LoadBalancer {
       protected boolean shutdown;
 
       private ClusterState(String name, @Nullable String lrsServerName,
-          @Nullable Long maxConcurrentRequests, @Nullable UpstreamTlsContext tlsContext) {
+          @Nullable Long maxConcurrentRequests, @Nullable UpstreamTlsContext tlsContext,
+          @Nullable OutlierDetection outlierDetection) {
         this.name = name;
         this.lrsServerName = lrsServerName;
         this.maxConcurrentRequests = maxConcurrentRequests;
         this.tlsContext = tlsContext;
+        this.outlierDetection = outlierDetection;
       }
 
       abstract void start();
@@ -340,8 +354,8 @@ final class ClusterResolverLoadBalancer extends LoadBalancer {
 
       private EdsClusterState(String name, @Nullable String edsServiceName,
           @Nullable String lrsServerName, @Nullable Long maxConcurrentRequests,
-          @Nullable UpstreamTlsContext tlsContext) {
-        super(name, lrsServerName, maxConcurrentRequests, tlsContext);
+          @Nullable UpstreamTlsContext tlsContext, @Nullable OutlierDetection outlierDetection) {
+        super(name, lrsServerName, maxConcurrentRequests, tlsContext, outlierDetection);
         this.edsServiceName = edsServiceName;
       }
 
@@ -424,7 +438,8 @@ final class ClusterResolverLoadBalancer extends LoadBalancer {
             Map<String, PriorityChildConfig> priorityChildConfigs =
                 generateEdsBasedPriorityChildConfigs(
                     name, edsServiceName, lrsServerName, maxConcurrentRequests, tlsContext,
-                    endpointLbPolicy, lbRegistry, prioritizedLocalityWeights, dropOverloads);
+                    outlierDetection, endpointLbPolicy, lbRegistry, prioritizedLocalityWeights,
+                    dropOverloads, enableZoneAwareRouting ? nodeLocality() : null);
             status = Status.OK;
             resolved = true;
             result = new ClusterResolutionResult(addresses, priorityChildConfigs, priorities);
@@ -480,8 +495,8 @@ final class ClusterResolverLoadBalancer extends LoadBalancer {
 
       private LogicalDnsClusterState(String name, String dnsHostName,
           @Nullable String lrsServerName, @Nullable Long maxConcurrentRequests,
-          @Nullable UpstreamTlsContext tlsContext) {
-        super(name, lrsServerName, maxConcurrentRequests, tlsContext);
+          @Nullable UpstreamTlsContext tlsContext, @Nullable OutlierDetection outlierDetection) {
+        super(name, lrsServerName, maxConcurrentRequests, tlsContext, outlierDetection);
         this.dnsHostName = checkNotNull(dnsHostName, "dnsHostName");
         nameResolverFactory =
             checkNotNull(helper.getNameResolverRegistry().asFactory(), "nameResolverFactory");
@@ -567,8 +582,8 @@ final class ClusterResolverLoadBalancer extends LoadBalancer {
                 addresses.add(eag);
               }
               PriorityChildConfig priorityChildConfig = generateDnsBasedPriorityChildConfig(
-                  name, lrsServerName, maxConcurrentRequests, tlsContext, lbRegistry,
-                  Collections.<DropOverload>emptyList());
+                  name, lrsServerName, maxConcurrentRequests, tlsContext, outlierDetection,
+                  lbRegistry, Collections.<DropOverload>emptyList());
               status = Status.OK;
               resolved = true;
               result = new ClusterResolutionResult(addresses, priorityName, priorityChildConfig);
@@ -645,18 +660,20 @@ final class ClusterResolverLoadBalancer extends LoadBalancer {
    * Generates the config to be used in the priority LB policy for the single priority of
    * logical DNS cluster.
    *
-   * <p>priority LB -> cluster_impl LB (single hardcoded priority) -> pick_first
+   * <p>priority LB -> cluster_impl LB (single hardcoded priority) -> [outlier_detection LB ->]
+   * pick_first
    */
   private static PriorityChildConfig generateDnsBasedPriorityChildConfig(
       String cluster, @Nullable String lrsServerName, @Nullable Long maxConcurrentRequests,
-      @Nullable UpstreamTlsContext tlsContext, LoadBalancerRegistry lbRegistry,
-      List<DropOverload> dropOverloads) {
+      @Nullable UpstreamTlsContext tlsContext, @Nullable OutlierDetection outlierDetection,
+      LoadBalancerRegistry lbRegistry, List<DropOverload> dropOverloads) {
     // Override endpoint-level LB policy with pick_first for logical DNS cluster.
     PolicySelection endpointLbPolicy =
         new PolicySelection(lbRegistry.getProvider("pick_first"), null);
     ClusterImplConfig clusterImplConfig =
         new ClusterImplConfig(cluster, null, lrsServerName, maxConcurrentRequests,
-            dropOverloads, endpointLbPolicy, tlsContext);
+            dropOverloads, wrapWithOutlierDetection(endpointLbPolicy, outlierDetection,
+            lbRegistry), tlsContext);
     LoadBalancerProvider clusterImplLbProvider =
         lbRegistry.getProvider(XdsLbPolicies.CLUSTER_IMPL_POLICY_NAME);
     PolicySelection clusterImplPolicy =
@@ -667,15 +684,17 @@ final class ClusterResolverLoadBalancer extends LoadBalancer {
   /**
    * Generates configs to be used in the priority LB policy for priorities in an EDS cluster.
    *
-   * <p>priority LB -> cluster_impl LB (one per priority) -> (weighted_target LB
-   * -> round_robin (one per locality)) / ring_hash
+   * <p>priority LB -> cluster_impl LB (one per priority) -> [outlier_detection LB ->]
+   * (weighted_target LB -> round_robin / least_request / weighted_round_robin (one per
+   * locality)) / ring_hash
    */
   private static Map<String, PriorityChildConfig> generateEdsBasedPriorityChildConfigs(
       String cluster, @Nullable String edsServiceName, @Nullable String lrsServerName,
       @Nullable Long maxConcurrentRequests, @Nullable UpstreamTlsContext tlsContext,
-      PolicySelection endpointLbPolicy, LoadBalancerRegistry lbRegistry,
+      @Nullable OutlierDetection outlierDetection, PolicySelection endpointLbPolicy,
+      LoadBalancerRegistry lbRegistry,
       Map<String, Map<Locality, Integer>> prioritizedLocalityWeights,
-      List<DropOverload> dropOverloads) {
+      List<DropOverload> dropOverloads, @Nullable Locality localLocality) {
     Map<String, PriorityChildConfig> configs = new HashMap<>();
     for (String priority : prioritizedLocalityWeights.keySet()) {
       PolicySelection leafPolicy =  endpointLbPolicy;
@@ -683,23 +702,38 @@ final class ClusterResolverLoadBalancer extends LoadBalancer {
       // created. If the endpoint-level LB policy is round_robin, it creates a two-level LB
       // hierarchy: a locality-level LB policy that balances load according to locality weights
       // followed by an endpoint-level LB policy that simply rounds robin the endpoints within
-      // the locality. If the endpoint-level LB policy is ring_hash, it creates a unified LB
-      // policy that balances load by weighing the product of each endpoint's weight and the
-      // weight of the locality it belongs to.
-      if (endpointLbPolicy.getProvider().getPolicyName().equals("round_robin")) {
+      // the locality. The same hierarchy is used for least_request and weighted_round_robin,
+      // which only balance the endpoints within each locality, by their outstanding requests or
+      // by their reported load respectively. If the endpoint-level LB policy is ring_hash, it
+      // creates a unified LB policy that balances load by weighing the product of each
+      // endpoint's weight and the weight of the locality it belongs to.
+      String endpointPolicyName = endpointLbPolicy.getProvider().getPolicyName();
+      if (endpointPolicyName.equals("round_robin")
+          || endpointPolicyName.equals("least_request")
+          || endpointPolicyName.equals("weighted_round_robin")) {
         Map<Locality, Integer> localityWeights = prioritizedLocalityWeights.get(priority);
         Map<String, WeightedPolicySelection> targets = new HashMap<>();
+        Set<String> localTargets = new HashSet<>();
         for (Locality locality : localityWeights.keySet()) {
           int weight = localityWeights.get(locality);
           WeightedPolicySelection target = new WeightedPolicySelection(weight, endpointLbPolicy);
           targets.put(localityName(locality), target);
+          if (localLocality != null && locality.region().equals(localLocality.region())
+              && locality.zone().equals(localLocality.zone())) {
+            localTargets.add(localityName(locality));
+          }
         }
         LoadBalancerProvider weightedTargetLbProvider =
             lbRegistry.getProvider(WEIGHTED_TARGET_POLICY_NAME);
         WeightedTargetConfig weightedTargetConfig =
-            new WeightedTargetConfig(Collections.unmodifiableMap(targets));
+            new WeightedTargetConfig(Collections.unmodifiableMap(targets),
+                Collections.unmodifiableSet(localTargets),
+                Collections.<String, Integer>emptyMap());
         leafPolicy = new PolicySelection(weightedTargetLbProvider, weightedTargetConfig);
       }
+      // Outlier detection sits above the locality-level policy, so that addresses are compared
+      // with all the others in the same priority.
+      leafPolicy = wrapWithOutlierDetection(leafPolicy, outlierDetection, lbRegistry);
       ClusterImplConfig clusterImplConfig =
           new ClusterImplConfig(cluster, edsServiceName, lrsServerName, maxConcurrentRequests,
               dropOverloads, leafPolicy, tlsContext);
@@ -714,6 +748,25 @@ final class ClusterResolverLoadBalancer extends LoadBalancer {
     return configs;
   }
 
+  /**
+   * Returns the locality of this client as configured in the bootstrap file, if any.
+   */
+  @Nullable
+  private Locality nodeLocality() {
+    return xdsClient.getBootstrapInfo().getNode().getLocality();
+  }
+
+  private static PolicySelection wrapWithOutlierDetection(PolicySelection childPolicy,
+      @Nullable OutlierDetection outlierDetection, LoadBalancerRegistry lbRegistry) {
+    if (outlierDetection == null) {
+      return childPolicy;
+    }
+    LoadBalancerProvider outlierDetectionLbProvider =
+        lbRegistry.getProvider(XdsLbPolicies.OUTLIER_DETECTION_POLICY_NAME);
+    return new PolicySelection(outlierDetectionLbProvider,
+        new OutlierDetectionConfig(outlierDetection, childPolicy));
+  }
+
   /**
    * Generates a string that represents the priority in the LB policy config. The string is unique
    * across priorities in all clusters and priorityName(c, p1) < priorityName(c, p2) iff p1 < p2.
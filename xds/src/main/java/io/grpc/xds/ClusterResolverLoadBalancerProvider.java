@@ -26,6 +26,7 @@ import io.grpc.LoadBalancerProvider;
 import io.grpc.NameResolver.ConfigOrError;
 import io.grpc.internal.ServiceConfigUtil.PolicySelection;
 import io.grpc.xds.EnvoyServerProtoData.UpstreamTlsContext;
+import io.grpc.xds.OutlierDetectionLoadBalancer.OutlierDetection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -122,6 +123,9 @@ public final class ClusterResolverLoadBalancerProvider extends LoadBalancerProvi
       // Hostname for resolving endpoints via DNS. Only valid for LOGICAL_DNS clusters.
       @Nullable
       final String dnsHostName;
+      // Outlier detection parameters for endpoints in the cluster. Null if not enabled.
+      @Nullable
+      final OutlierDetection outlierDetection;
 
       enum Type {
         EDS,
@@ -130,7 +134,8 @@ public final class ClusterResolverLoadBalancerProvider extends LoadBalancerProvi
 
       private DiscoveryMechanism(String cluster, Type type, @Nullable String edsServiceName,
           @Nullable String dnsHostName, @Nullable String lrsServerName,
-          @Nullable Long maxConcurrentRequests, @Nullable UpstreamTlsContext tlsContext) {
+          @Nullable Long maxConcurrentRequests, @Nullable UpstreamTlsContext tlsContext,
+          @Nullable OutlierDetection outlierDetection) {
         this.cluster = checkNotNull(cluster, "cluster");
         this.type = checkNotNull(type, "type");
         this.edsServiceName = edsServiceName;
@@ -138,26 +143,27 @@ public final class ClusterResolverLoadBalancerProvider extends LoadBalancerProvi
         this.lrsServerName = lrsServerName;
         this.maxConcurrentRequests = maxConcurrentRequests;
         this.tlsContext = tlsContext;
+        this.outlierDetection = outlierDetection;
       }
 
       static DiscoveryMechanism forEds(String cluster, @Nullable String edsServiceName,
           @Nullable String lrsServerName, @Nullable Long maxConcurrentRequests,
-          @Nullable UpstreamTlsContext tlsContext) {
+          @Nullable UpstreamTlsContext tlsContext, @Nullable OutlierDetection outlierDetection) {
         return new DiscoveryMechanism(cluster, Type.EDS, edsServiceName, null, lrsServerName,
-            maxConcurrentRequests, tlsContext);
+            maxConcurrentRequests, tlsContext, outlierDetection);
       }
 
       static DiscoveryMechanism forLogicalDns(String cluster, String dnsHostName,
           @Nullable String lrsServerName, @Nullable Long maxConcurrentRequests,
-          @Nullable UpstreamTlsContext tlsContext) {
+          @Nullable UpstreamTlsContext tlsContext, @Nullable OutlierDetection outlierDetection) {
         return new DiscoveryMechanism(cluster, Type.LOGICAL_DNS, null, dnsHostName,
-            lrsServerName, maxConcurrentRequests, tlsContext);
+            lrsServerName, maxConcurrentRequests, tlsContext, outlierDetection);
       }
 
       @Override
       public int hashCode() {
         return Objects.hash(cluster, type, lrsServerName, maxConcurrentRequests, tlsContext,
-            edsServiceName, dnsHostName);
+            edsServiceName, dnsHostName, outlierDetection);
       }
 
       @Override
@@ -175,7 +181,8 @@ public final class ClusterResolverLoadBalancerProvider extends LoadBalancerProvi
             && Objects.equals(dnsHostName, that.dnsHostName)
             && Objects.equals(lrsServerName, that.lrsServerName)
             && Objects.equals(maxConcurrentRequests, that.maxConcurrentRequests)
-            && Objects.equals(tlsContext, that.tlsContext);
+            && Objects.equals(tlsContext, that.tlsContext)
+            && Objects.equals(outlierDetection, that.outlierDetection);
       }
 
       @Override
@@ -188,7 +195,8 @@ public final class ClusterResolverLoadBalancerProvider extends LoadBalancerProvi
                 .add("dnsHostName", dnsHostName)
                 .add("lrsServerName", lrsServerName)
                 // Exclude tlsContext as its string representation is cumbersome.
-                .add("maxConcurrentRequests", maxConcurrentRequests);
+                .add("maxConcurrentRequests", maxConcurrentRequests)
+                .add("outlierDetection", outlierDetection);
         return toStringHelper.toString();
       }
     }
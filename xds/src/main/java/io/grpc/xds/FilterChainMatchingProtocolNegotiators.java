@@ -22,7 +22,6 @@ import static io.grpc.xds.internal.sds.SdsProtocolNegotiators.ATTR_SERVER_SSL_CO
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
-import com.google.common.collect.Iterables;
 import com.google.protobuf.UInt32Value;
 import io.grpc.Attributes;
 import io.grpc.internal.ObjectPool;
@@ -36,7 +35,6 @@ import io.grpc.xds.EnvoyServerProtoData.ConnectionSourceType;
 import io.grpc.xds.EnvoyServerProtoData.FilterChain;
 import io.grpc.xds.EnvoyServerProtoData.FilterChainMatch;
 import io.grpc.xds.FilterChainMatchingProtocolNegotiators.FilterChainMatchingHandler.FilterChainSelector;
-import io.grpc.xds.internal.Matchers.CidrMatcher;
 import io.grpc.xds.internal.sds.SslContextProviderSupplier;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandler;
@@ -47,9 +45,10 @@ import java.net.Inet6Address;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
@@ -109,6 +108,14 @@ final class FilterChainMatchingProtocolNegotiators {
       ctx.fireUserEventTriggered(pne);
     }
 
+    /**
+     * Selects the filter chain of a connection. The filter chains are compiled into a match tree
+     * when the selector is created for an LDS update: a radix trie of the destination prefix
+     * ranges, whose nodes hold, for each type of connection source, a radix trie of the source
+     * prefix ranges, whose nodes hold the filter chains by source port. Selecting the filter
+     * chain of a connection then takes two longest-prefix lookups and a hash lookup, instead of
+     * evaluating the matchers of every filter chain.
+     */
     static final class FilterChainSelector {
       public static final FilterChainSelector NO_FILTER_CHAIN = new FilterChainSelector(
               Collections.<FilterChain>emptyList(), null);
@@ -116,12 +123,14 @@ final class FilterChainMatchingProtocolNegotiators {
       private final List<FilterChain> filterChainList;
       @Nullable
       private final SslContextProviderSupplier defaultSslContextProviderSupplier;
+      private final CidrTrie<SourceTypeMatch> destinationTrie;
 
       FilterChainSelector(List<FilterChain> filterChainList,
                           @Nullable SslContextProviderSupplier defaultSslContextProviderSupplier) {
         checkNotNull(filterChainList, "filterChainList");
         this.filterChainList = filterChainList;
         this.defaultSslContextProviderSupplier = defaultSslContextProviderSupplier;
+        this.destinationTrie = compileDestinations(filterChainList);
       }
 
       @VisibleForTesting
@@ -138,23 +147,24 @@ final class FilterChainMatchingProtocolNegotiators {
        * Throws IllegalStateException when no exact one match, and we should close the connection.
        */
       SelectedConfig select(InetSocketAddress localAddr, InetSocketAddress remoteAddr) {
-        Collection<FilterChain> filterChains = new ArrayList<>(filterChainList);
-        filterChains = filterOnDestinationPort(filterChains);
-        filterChains = filterOnIpAddress(filterChains, localAddr.getAddress(), true);
-        filterChains = filterOnServerNames(filterChains);
-        filterChains = filterOnTransportProtocol(filterChains);
-        filterChains = filterOnApplicationProtocols(filterChains);
-        filterChains =
-                filterOnSourceType(filterChains, remoteAddr.getAddress(), localAddr.getAddress());
-        filterChains = filterOnIpAddress(filterChains, remoteAddr.getAddress(), false);
-        filterChains = filterOnSourcePort(filterChains, remoteAddr.getPort());
+        InetAddress destAddress = localAddr.getAddress();
+        InetAddress sourceAddress = remoteAddr.getAddress();
+        List<FilterChain> filterChains = Collections.emptyList();
+        SourceTypeMatch sourceTypeMatch = destinationTrie.findLongestPrefix(destAddress);
+        if (sourceTypeMatch != null) {
+          SourcePortMatch sourcePortMatch = sourceTypeMatch.select(sourceAddress, destAddress)
+              .findLongestPrefix(sourceAddress);
+          if (sourcePortMatch != null) {
+            filterChains = sourcePortMatch.select(remoteAddr.getPort());
+          }
+        }
 
         if (filterChains.size() > 1) {
           throw new IllegalStateException("Found more than one matching filter chains. This should "
               + "not be possible as ClientXdsClient validated the chains for uniqueness.");
         }
         if (filterChains.size() == 1) {
-          FilterChain selected = Iterables.getOnlyElement(filterChains);
+          FilterChain selected = filterChains.get(0);
           return new SelectedConfig(selected.getSslContextProviderSupplier());
         }
         if (defaultSslContextProviderSupplier != null) {
@@ -163,158 +173,231 @@ final class FilterChainMatchingProtocolNegotiators {
         return null;
       }
 
-      // reject if filer-chain-match has non-empty application_protocols
-      private static Collection<FilterChain> filterOnApplicationProtocols(
-              Collection<FilterChain> filterChains) {
-        ArrayList<FilterChain> filtered = new ArrayList<>(filterChains.size());
+      private static CidrTrie<SourceTypeMatch> compileDestinations(
+              List<FilterChain> filterChains) {
+        CidrTrie<SourceTypeMatch> trie = new CidrTrie<SourceTypeMatch>() {
+          @Override
+          SourceTypeMatch compile(List<FilterChain> filterChains) {
+            return new SourceTypeMatch(filterChains);
+          }
+        };
         for (FilterChain filterChain : filterChains) {
           FilterChainMatch filterChainMatch = filterChain.getFilterChainMatch();
-
-          if (filterChainMatch.getApplicationProtocols().isEmpty()) {
-            filtered.add(filterChain);
+          // destination_port present => Always fail match
+          if (filterChainMatch.getDestinationPort()
+                  == UInt32Value.getDefaultInstance().getValue()) {
+            trie.add(filterChainMatch.getPrefixRanges(), filterChain);
           }
         }
-        return filtered;
+        trie.compileNodes();
+        return trie;
       }
 
-      // reject if filer-chain-match has non-empty transport protocol other than "raw_buffer"
-      private static Collection<FilterChain> filterOnTransportProtocol(
-              Collection<FilterChain> filterChains) {
-        ArrayList<FilterChain> filtered = new ArrayList<>(filterChains.size());
+      private static CidrTrie<SourcePortMatch> compileSources(
+              List<FilterChain> filterChains, boolean sameIpOrLoopback, boolean external) {
+        CidrTrie<SourcePortMatch> trie = new CidrTrie<SourcePortMatch>() {
+          @Override
+          SourcePortMatch compile(List<FilterChain> filterChains) {
+            return new SourcePortMatch(filterChains);
+          }
+        };
         for (FilterChain filterChain : filterChains) {
           FilterChainMatch filterChainMatch = filterChain.getFilterChainMatch();
-
-          String transportProtocol = filterChainMatch.getTransportProtocol();
-          if (Strings.isNullOrEmpty(transportProtocol) || "raw_buffer".equals(transportProtocol)) {
-            filtered.add(filterChain);
+          ConnectionSourceType sourceType = filterChainMatch.getConnectionSourceType();
+          boolean matching;
+          if (sourceType == ConnectionSourceType.SAME_IP_OR_LOOPBACK) {
+            matching = sameIpOrLoopback;
+          } else if (sourceType == ConnectionSourceType.EXTERNAL) {
+            matching = external;
+          } else { // ANY or null
+            matching = true;
+          }
+          if (matching) {
+            trie.add(filterChainMatch.getSourcePrefixRanges(), filterChain);
           }
         }
-        return filtered;
+        trie.compileNodes();
+        return trie;
       }
 
-      // reject if filer-chain-match has server_name(s)
-      private static Collection<FilterChain> filterOnServerNames(
-              Collection<FilterChain> filterChains) {
-        ArrayList<FilterChain> filtered = new ArrayList<>(filterChains.size());
-        for (FilterChain filterChain : filterChains) {
-          FilterChainMatch filterChainMatch = filterChain.getFilterChainMatch();
+      // reject if filer-chain-match has server_name(s), non-empty transport protocol other than
+      // "raw_buffer" or non-empty application_protocols
+      private static boolean isSupported(FilterChainMatch filterChainMatch) {
+        String transportProtocol = filterChainMatch.getTransportProtocol();
+        return filterChainMatch.getServerNames().isEmpty()
+            && (Strings.isNullOrEmpty(transportProtocol)
+                || "raw_buffer".equals(transportProtocol))
+            && filterChainMatch.getApplicationProtocols().isEmpty();
+      }
 
-          if (filterChainMatch.getServerNames().isEmpty()) {
-            filtered.add(filterChain);
+      /**
+       * The supported filter chains with the most specific destination prefix range matching a
+       * connection, compiled for each type of connection source.
+       */
+      private static final class SourceTypeMatch {
+        // Source is loopback or any local: matches SAME_IP_OR_LOOPBACK and ANY.
+        private final CidrTrie<SourcePortMatch> fromLoopback;
+        // Source is the destination: matches SAME_IP_OR_LOOPBACK, EXTERNAL and ANY.
+        private final CidrTrie<SourcePortMatch> fromSameIp;
+        // Other sources: match EXTERNAL and ANY.
+        private final CidrTrie<SourcePortMatch> fromExternal;
+
+        SourceTypeMatch(List<FilterChain> filterChains) {
+          List<FilterChain> supported = new ArrayList<>(filterChains.size());
+          for (FilterChain filterChain : filterChains) {
+            if (isSupported(filterChain.getFilterChainMatch())) {
+              supported.add(filterChain);
+            }
           }
+          fromLoopback = compileSources(supported, true, false);
+          fromSameIp = compileSources(supported, true, true);
+          fromExternal = compileSources(supported, false, true);
         }
-        return filtered;
-      }
 
-      // destination_port present => Always fail match
-      private static Collection<FilterChain> filterOnDestinationPort(
-              Collection<FilterChain> filterChains) {
-        ArrayList<FilterChain> filtered = new ArrayList<>(filterChains.size());
-        for (FilterChain filterChain : filterChains) {
-          FilterChainMatch filterChainMatch = filterChain.getFilterChainMatch();
+        CidrTrie<SourcePortMatch> select(InetAddress sourceAddress, InetAddress destAddress) {
+          if (sourceAddress.isLoopbackAddress() || sourceAddress.isAnyLocalAddress()) {
+            return fromLoopback;
+          }
+          return sourceAddress.equals(destAddress) ? fromSameIp : fromExternal;
+        }
+      }
 
-          if (filterChainMatch.getDestinationPort()
-                  == UInt32Value.getDefaultInstance().getValue()) {
-            filtered.add(filterChain);
+      /**
+       * The filter chains with the most specific source prefix range matching a connection, by
+       * source port.
+       */
+      private static final class SourcePortMatch {
+        private final Map<Integer, List<FilterChain>> filterChainsByPort = new HashMap<>();
+        private final List<FilterChain> anyPortFilterChains = new ArrayList<>();
+
+        SourcePortMatch(List<FilterChain> filterChains) {
+          for (FilterChain filterChain : filterChains) {
+            List<Integer> sourcePorts = filterChain.getFilterChainMatch().getSourcePorts();
+            if (sourcePorts.isEmpty()) {
+              anyPortFilterChains.add(filterChain);
+            }
+            for (int sourcePort : sourcePorts) {
+              List<FilterChain> portFilterChains = filterChainsByPort.get(sourcePort);
+              if (portFilterChains == null) {
+                portFilterChains = new ArrayList<>(1);
+                filterChainsByPort.put(sourcePort, portFilterChains);
+              }
+              if (portFilterChains.isEmpty()
+                  || portFilterChains.get(portFilterChains.size() - 1) != filterChain) {
+                portFilterChains.add(filterChain);
+              }
+            }
           }
         }
-        return filtered;
+
+        List<FilterChain> select(int sourcePort) {
+          List<FilterChain> filterChains = filterChainsByPort.get(sourcePort);
+          // match against source port is more specific than match against empty list
+          return filterChains != null ? filterChains : anyPortFilterChains;
+        }
       }
+    }
 
-      private static Collection<FilterChain> filterOnSourcePort(
-              Collection<FilterChain> filterChains, int sourcePort) {
-        ArrayList<FilterChain> filteredOnMatch = new ArrayList<>(filterChains.size());
-        ArrayList<FilterChain> filteredOnEmpty = new ArrayList<>(filterChains.size());
-        for (FilterChain filterChain : filterChains) {
-          FilterChainMatch filterChainMatch = filterChain.getFilterChainMatch();
+    /**
+     * A binary radix trie of filter chains by their CIDR ranges, for finding the filter chains
+     * with the longest prefix matching an address. Filter chains without CIDR ranges match any
+     * address with a prefix length of 0. The filter chains of each node are compiled to a {@code
+     * T} once all filter chains are added.
+     */
+    private abstract static class CidrTrie<T> {
+      private final Node<T> ipv4Root = new Node<>();
+      private final Node<T> ipv6Root = new Node<>();
 
-          List<Integer> sourcePortsToMatch = filterChainMatch.getSourcePorts();
-          if (sourcePortsToMatch.isEmpty()) {
-            filteredOnEmpty.add(filterChain);
-          } else if (sourcePortsToMatch.contains(sourcePort)) {
-            filteredOnMatch.add(filterChain);
+      abstract T compile(List<FilterChain> filterChains);
+
+      final void add(List<CidrRange> cidrRanges, FilterChain filterChain) {
+        if (cidrRanges.isEmpty()) { // if there is no CidrRange assume 0-length match
+          ipv4Root.add(filterChain);
+          ipv6Root.add(filterChain);
+          return;
+        }
+        for (CidrRange cidrRange : cidrRanges) {
+          InetAddress cidrAddr = cidrRange.getAddressPrefix();
+          byte[] prefix = cidrAddr.getAddress();
+          int prefixLen = Math.max(0, Math.min(cidrRange.getPrefixLen(), prefix.length * 8));
+          Node<T> node = cidrAddr instanceof Inet6Address ? ipv6Root : ipv4Root;
+          for (int i = 0; i < prefixLen; i++) {
+            node = node.addChild(bitAt(prefix, i));
           }
+          node.add(filterChain);
         }
-        // match against source port is more specific than match against empty list
-        return filteredOnMatch.isEmpty() ? filteredOnEmpty : filteredOnMatch;
       }
 
-      private static Collection<FilterChain> filterOnSourceType(
-              Collection<FilterChain> filterChains, InetAddress sourceAddress,
-              InetAddress destAddress) {
-        ArrayList<FilterChain> filtered = new ArrayList<>(filterChains.size());
-        for (FilterChain filterChain : filterChains) {
-          FilterChainMatch filterChainMatch = filterChain.getFilterChainMatch();
-          ConnectionSourceType sourceType =
-                  filterChainMatch.getConnectionSourceType();
+      final void compileNodes() {
+        compileNodes(ipv4Root);
+        compileNodes(ipv6Root);
+      }
 
-          boolean matching = false;
-          if (sourceType == ConnectionSourceType.SAME_IP_OR_LOOPBACK) {
-            matching =
-                    sourceAddress.isLoopbackAddress()
-                            || sourceAddress.isAnyLocalAddress()
-                            || sourceAddress.equals(destAddress);
-          } else if (sourceType == ConnectionSourceType.EXTERNAL) {
-            matching = !sourceAddress.isLoopbackAddress() && !sourceAddress.isAnyLocalAddress();
-          } else { // ANY or null
-            matching = true;
-          }
-          if (matching) {
-            filtered.add(filterChain);
-          }
+      private void compileNodes(@Nullable Node<T> node) {
+        if (node == null) {
+          return;
+        }
+        if (!node.filterChains.isEmpty()) {
+          node.match = compile(node.filterChains);
         }
-        return filtered;
+        node.filterChains = null;
+        compileNodes(node.zero);
+        compileNodes(node.one);
       }
 
-      private static int getMatchingPrefixLength(
-              FilterChainMatch filterChainMatch, InetAddress address, boolean forDestination) {
-        boolean isIPv6 = address instanceof Inet6Address;
-        List<CidrRange> cidrRanges =
-                forDestination
-                        ? filterChainMatch.getPrefixRanges()
-                        : filterChainMatch.getSourcePrefixRanges();
-        int matchingPrefixLength;
-        if (cidrRanges.isEmpty()) { // if there is no CidrRange assume 0-length match
-          matchingPrefixLength = 0;
-        } else {
-          matchingPrefixLength = -1;
-          for (CidrRange cidrRange : cidrRanges) {
-            InetAddress cidrAddr = cidrRange.getAddressPrefix();
-            boolean cidrIsIpv6 = cidrAddr instanceof Inet6Address;
-            if (isIPv6 == cidrIsIpv6) {
-              int prefixLen = cidrRange.getPrefixLen();
-              CidrMatcher matcher = CidrMatcher.create(cidrAddr, prefixLen);
-              if (matcher.matches(address) && prefixLen > matchingPrefixLength) {
-                matchingPrefixLength = prefixLen;
-              }
-            }
+      /**
+       * Returns the compiled filter chains of the deepest node on the path of the address that
+       * has filter chains, or {@code null} if there is none.
+       */
+      @Nullable
+      final T findLongestPrefix(InetAddress address) {
+        byte[] addr = address.getAddress();
+        Node<T> node = address instanceof Inet6Address ? ipv6Root : ipv4Root;
+        T match = null;
+        for (int i = 0; node != null; i++) {
+          if (node.match != null) {
+            match = node.match;
           }
+          if (i == addr.length * 8) {
+            break;
+          }
+          node = bitAt(addr, i) == 0 ? node.zero : node.one;
         }
-        return matchingPrefixLength;
+        return match;
       }
 
-      // use prefix_ranges (CIDR) and get the most specific matches
-      private static Collection<FilterChain> filterOnIpAddress(
-              Collection<FilterChain> filterChains, InetAddress address, boolean forDestination) {
-        // curent list of top ones
-        ArrayList<FilterChain> topOnes = new ArrayList<>(filterChains.size());
-        int topMatchingPrefixLen = -1;
-        for (FilterChain filterChain : filterChains) {
-          int currentMatchingPrefixLen = getMatchingPrefixLength(
-                  filterChain.getFilterChainMatch(), address, forDestination);
+      private static int bitAt(byte[] address, int index) {
+        return (address[index >> 3] >> (7 - (index & 7))) & 1;
+      }
 
-          if (currentMatchingPrefixLen >= 0) {
-            if (currentMatchingPrefixLen < topMatchingPrefixLen) {
-              continue;
-            }
-            if (currentMatchingPrefixLen > topMatchingPrefixLen) {
-              topMatchingPrefixLen = currentMatchingPrefixLen;
-              topOnes.clear();
+      private static final class Node<T> {
+        @Nullable
+        private Node<T> zero;
+        @Nullable
+        private Node<T> one;
+        private List<FilterChain> filterChains = new ArrayList<>(0);
+        @Nullable
+        private T match;
+
+        void add(FilterChain filterChain) {
+          // A filter chain may have identical or overlapping ranges, which are added in a row.
+          if (filterChains.isEmpty() || filterChains.get(filterChains.size() - 1) != filterChain) {
+            filterChains.add(filterChain);
+          }
+        }
+
+        Node<T> addChild(int bit) {
+          if (bit == 0) {
+            if (zero == null) {
+              zero = new Node<>();
             }
-            topOnes.add(filterChain);
+            return zero;
+          }
+          if (one == null) {
+            one = new Node<>();
           }
+          return one;
         }
-        return topOnes;
       }
     }
   }
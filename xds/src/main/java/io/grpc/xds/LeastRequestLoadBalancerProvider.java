@@ -0,0 +1,72 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.xds;
+
+import com.google.common.base.Strings;
+import io.grpc.Internal;
+import io.grpc.LoadBalancer;
+import io.grpc.LoadBalancer.Helper;
+import io.grpc.LoadBalancerProvider;
+import io.grpc.NameResolver.ConfigOrError;
+import io.grpc.Status;
+import io.grpc.internal.JsonUtil;
+import io.grpc.xds.LeastRequestLoadBalancer.LeastRequestConfig;
+import java.util.Map;
+
+/**
+ * The provider for the "least_request" balancing policy.
+ */
+@Internal
+public final class LeastRequestLoadBalancerProvider extends LoadBalancerProvider {
+
+  private static final boolean enableLeastRequest =
+      Strings.isNullOrEmpty(System.getenv("GRPC_XDS_EXPERIMENTAL_ENABLE_LEAST_REQUEST"))
+          || Boolean.parseBoolean(System.getenv("GRPC_XDS_EXPERIMENTAL_ENABLE_LEAST_REQUEST"));
+
+  @Override
+  public LoadBalancer newLoadBalancer(Helper helper) {
+    return new LeastRequestLoadBalancer(helper);
+  }
+
+  @Override
+  public boolean isAvailable() {
+    return enableLeastRequest;
+  }
+
+  @Override
+  public int getPriority() {
+    return 5;
+  }
+
+  @Override
+  public String getPolicyName() {
+    return "least_request";
+  }
+
+  @Override
+  public ConfigOrError parseLoadBalancingPolicyConfig(Map<String, ?> rawLoadBalancingPolicyConfig) {
+    Integer choiceCount = JsonUtil.getNumberAsInteger(rawLoadBalancingPolicyConfig, "choiceCount");
+    if (choiceCount == null) {
+      choiceCount = LeastRequestConfig.DEFAULT_CHOICE_COUNT;
+    }
+    if (choiceCount < 2) {
+      return ConfigOrError.fromError(Status.INVALID_ARGUMENT.withDescription(
+          "Invalid 'choiceCount': " + choiceCount));
+    }
+    return ConfigOrError.fromConfig(new LeastRequestConfig(choiceCount));
+  }
+}
@@ -37,6 +37,7 @@ import io.grpc.SynchronizationContext.ScheduledHandle;
 import io.grpc.internal.BackoffPolicy;
 import io.grpc.stub.StreamObserver;
 import io.grpc.xds.EnvoyProtoData.Node;
+import io.grpc.xds.Stats.BackendLoadMetricStats;
 import io.grpc.xds.Stats.ClusterStats;
 import io.grpc.xds.Stats.DroppedRequests;
 import io.grpc.xds.Stats.UpstreamLocalityStats;
@@ -44,6 +45,7 @@ import io.grpc.xds.XdsLogger.XdsLogLevel;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
@@ -378,7 +380,7 @@ final class LoadReportClient {
         builder.setClusterServiceName(stats.clusterServiceName());
       }
       for (UpstreamLocalityStats upstreamLocalityStats : stats.upstreamLocalityStatsList()) {
-        builder.addUpstreamLocalityStats(
+        io.envoyproxy.envoy.api.v2.endpoint.UpstreamLocalityStats.Builder localityStatsBuilder =
             io.envoyproxy.envoy.api.v2.endpoint.UpstreamLocalityStats.newBuilder()
             .setLocality(
                 io.envoyproxy.envoy.api.v2.core.Locality.newBuilder()
@@ -388,7 +390,17 @@ final class LoadReportClient {
             .setTotalSuccessfulRequests(upstreamLocalityStats.totalSuccessfulRequests())
             .setTotalErrorRequests(upstreamLocalityStats.totalErrorRequests())
             .setTotalRequestsInProgress(upstreamLocalityStats.totalRequestsInProgress())
-            .setTotalIssuedRequests(upstreamLocalityStats.totalIssuedRequests()));
+            .setTotalIssuedRequests(upstreamLocalityStats.totalIssuedRequests());
+        for (Map.Entry<String, BackendLoadMetricStats> entry
+            : upstreamLocalityStats.loadMetricStatsMap().entrySet()) {
+          localityStatsBuilder.addLoadMetricStats(
+              io.envoyproxy.envoy.api.v2.endpoint.EndpointLoadMetricStats.newBuilder()
+                  .setMetricName(entry.getKey())
+                  .setNumRequestsFinishedWithMetric(
+                      entry.getValue().numRequestsFinishedWithMetric())
+                  .setTotalMetricValue(entry.getValue().totalMetricValue()));
+        }
+        builder.addUpstreamLocalityStats(localityStatsBuilder);
       }
       for (DroppedRequests droppedRequests : stats.droppedRequestsList()) {
         builder.addDroppedRequests(
@@ -473,7 +485,7 @@ final class LoadReportClient {
         builder.setClusterServiceName(stats.clusterServiceName());
       }
       for (UpstreamLocalityStats upstreamLocalityStats : stats.upstreamLocalityStatsList()) {
-        builder.addUpstreamLocalityStats(
+        io.envoyproxy.envoy.config.endpoint.v3.UpstreamLocalityStats.Builder localityStatsBuilder =
             io.envoyproxy.envoy.config.endpoint.v3.UpstreamLocalityStats.newBuilder()
                 .setLocality(
                     io.envoyproxy.envoy.config.core.v3.Locality.newBuilder()
@@ -483,7 +495,17 @@ final class LoadReportClient {
             .setTotalSuccessfulRequests(upstreamLocalityStats.totalSuccessfulRequests())
             .setTotalErrorRequests(upstreamLocalityStats.totalErrorRequests())
             .setTotalRequestsInProgress(upstreamLocalityStats.totalRequestsInProgress())
-            .setTotalIssuedRequests(upstreamLocalityStats.totalIssuedRequests()));
+            .setTotalIssuedRequests(upstreamLocalityStats.totalIssuedRequests());
+        for (Map.Entry<String, BackendLoadMetricStats> entry
+            : upstreamLocalityStats.loadMetricStatsMap().entrySet()) {
+          localityStatsBuilder.addLoadMetricStats(
+              io.envoyproxy.envoy.config.endpoint.v3.EndpointLoadMetricStats.newBuilder()
+                  .setMetricName(entry.getKey())
+                  .setNumRequestsFinishedWithMetric(
+                      entry.getValue().numRequestsFinishedWithMetric())
+                  .setTotalMetricValue(entry.getValue().totalMetricValue()));
+        }
+        builder.addUpstreamLocalityStats(localityStatsBuilder);
       }
       for (DroppedRequests droppedRequests : stats.droppedRequestsList()) {
         builder.addDroppedRequests(
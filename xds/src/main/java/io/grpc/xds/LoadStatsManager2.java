@@ -21,8 +21,13 @@ import static com.google.common.base.Preconditions.checkState;
 
 import com.google.common.base.Stopwatch;
 import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.AtomicDoubleArray;
 import io.grpc.Status;
+import io.grpc.internal.LongCounter;
+import io.grpc.internal.LongCounterFactory;
+import io.grpc.xds.Stats.BackendLoadMetricStats;
 import io.grpc.xds.Stats.ClusterStats;
 import io.grpc.xds.Stats.DroppedRequests;
 import io.grpc.xds.Stats.UpstreamLocalityStats;
@@ -36,7 +41,6 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 
@@ -197,7 +201,7 @@ final class LoadStatsManager2 {
           }
           UpstreamLocalityStats upstreamLocalityStats = UpstreamLocalityStats.create(
               locality, snapshot.callsIssued, snapshot.callsSucceeded, snapshot.callsFailed,
-              snapshot.callsInProgress);
+              snapshot.callsInProgress, snapshot.loadMetricStats);
           builder.addUpstreamLocalityStats(upstreamLocalityStats);
           // Use the max (drops/loads) recording interval as the overall interval for the
           // cluster's stats. In general, they should be mostly identical.
@@ -241,8 +245,12 @@ final class LoadStatsManager2 {
     private final String clusterName;
     @Nullable
     private final String edsServiceName;
-    private final AtomicLong uncategorizedDrops = new AtomicLong();
-    private final ConcurrentMap<String, AtomicLong> categorizedDrops = new ConcurrentHashMap<>();
+    private final ReportingCounter uncategorizedDrops = new ReportingCounter();
+    private final ConcurrentMap<String, ReportingCounter> categorizedDrops =
+        new ConcurrentHashMap<>();
+    // Counters removed by the previous snapshot, which may still get a racing increment.
+    // Accessed under the LoadStatsManager2 lock.
+    private Map<String, ReportingCounter> removedCategorizedDrops = Collections.emptyMap();
     private final Stopwatch stopwatch;
 
     private ClusterDropStats(
@@ -257,19 +265,22 @@ final class LoadStatsManager2 {
      * Records a dropped request with the specified category.
      */
     void recordDroppedRequest(String category) {
-      // There is a race between this method and snapshot(), causing one drop recorded but may not
-      // be included in any snapshot. This is acceptable and the race window is extremely small.
-      AtomicLong counter = categorizedDrops.putIfAbsent(category, new AtomicLong(1L));
-      if (counter != null) {
-        counter.getAndIncrement();
+      ReportingCounter counter = categorizedDrops.get(category);
+      if (counter == null) {
+        counter = new ReportingCounter();
+        ReportingCounter existing = categorizedDrops.putIfAbsent(category, counter);
+        if (existing != null) {
+          counter = existing;
+        }
       }
+      counter.increment();
     }
 
     /**
      * Records a dropped request without category.
      */
     void recordDroppedRequest() {
-      uncategorizedDrops.getAndIncrement();
+      uncategorizedDrops.increment();
     }
 
     /**
@@ -282,15 +293,32 @@ final class LoadStatsManager2 {
       LoadStatsManager2.this.releaseClusterDropCounter(clusterName, edsServiceName);
     }
 
+    /**
+     * Takes the drops since the previous snapshot. Categories without drops since then are
+     * removed, so that categories no longer configured do not accumulate.
+     */
     private ClusterDropStatsSnapshot snapshot() {
       Map<String, Long> drops = new HashMap<>();
-      for (Map.Entry<String, AtomicLong> entry : categorizedDrops.entrySet()) {
-        drops.put(entry.getKey(), entry.getValue().get());
+      for (Map.Entry<String, ReportingCounter> entry : removedCategorizedDrops.entrySet()) {
+        long count = entry.getValue().snapshot();
+        if (count != 0) {
+          drops.put(entry.getKey(), count);
+        }
       }
-      categorizedDrops.clear();
+      Map<String, ReportingCounter> removed = new HashMap<>();
+      for (Map.Entry<String, ReportingCounter> entry : categorizedDrops.entrySet()) {
+        long count = entry.getValue().snapshot();
+        if (count != 0) {
+          Long previousCount = drops.get(entry.getKey());
+          drops.put(entry.getKey(), previousCount == null ? count : previousCount + count);
+        } else if (categorizedDrops.remove(entry.getKey(), entry.getValue())) {
+          removed.put(entry.getKey(), entry.getValue());
+        }
+      }
+      removedCategorizedDrops = removed;
       long duration = stopwatch.elapsed(TimeUnit.NANOSECONDS);
       stopwatch.reset().start();
-      return new ClusterDropStatsSnapshot(drops, uncategorizedDrops.getAndSet(0), duration);
+      return new ClusterDropStatsSnapshot(drops, uncategorizedDrops.snapshot(), duration);
     }
   }
 
@@ -318,10 +346,18 @@ final class LoadStatsManager2 {
     private final String edsServiceName;
     private final Locality locality;
     private final Stopwatch stopwatch;
-    private final AtomicLong callsInProgress = new AtomicLong();
-    private final AtomicLong callsSucceeded = new AtomicLong();
-    private final AtomicLong callsFailed = new AtomicLong();
-    private final AtomicLong callsIssued = new AtomicLong();
+    // Calls in progress are reported as a gauge, hence never reset.
+    private final LongCounter callsStarted = LongCounterFactory.create();
+    private final LongCounter callsFinished = LongCounterFactory.create();
+    private final ReportingCounter callsSucceeded = new ReportingCounter();
+    private final ReportingCounter callsFailed = new ReportingCounter();
+    private final ReportingCounter callsIssued = new ReportingCounter();
+    private final ConcurrentMap<String, BackendLoadMetricRecorder> loadMetricStats =
+        new ConcurrentHashMap<>();
+    // Recorders removed by the previous snapshot, which may still get a racing record.
+    // Accessed under the LoadStatsManager2 lock.
+    private Map<String, BackendLoadMetricRecorder> removedLoadMetricStats =
+        Collections.emptyMap();
 
     private ClusterLocalityStats(
         String clusterName, @Nullable String edsServiceName, Locality locality,
@@ -337,19 +373,38 @@ final class LoadStatsManager2 {
      * Records a request being issued.
      */
     void recordCallStarted() {
-      callsIssued.getAndIncrement();
-      callsInProgress.getAndIncrement();
+      callsIssued.increment();
+      callsStarted.add(1);
     }
 
     /**
      * Records a request finished with the given status.
      */
     void recordCallFinished(Status status) {
-      callsInProgress.getAndDecrement();
+      callsFinished.add(1);
       if (status.isOk()) {
-        callsSucceeded.getAndIncrement();
+        callsSucceeded.increment();
       } else {
-        callsFailed.getAndIncrement();
+        callsFailed.increment();
+      }
+    }
+
+    /**
+     * Records the named metrics a backend reported for a finished request. Nothing is allocated
+     * once each metric name has been seen.
+     */
+    void recordBackendLoadMetricStats(Map<String, Double> namedMetrics) {
+      for (Map.Entry<String, Double> entry : namedMetrics.entrySet()) {
+        BackendLoadMetricRecorder recorder = loadMetricStats.get(entry.getKey());
+        if (recorder == null) {
+          recorder = new BackendLoadMetricRecorder();
+          BackendLoadMetricRecorder existing =
+              loadMetricStats.putIfAbsent(entry.getKey(), recorder);
+          if (existing != null) {
+            recorder = existing;
+          }
+        }
+        recorder.record(entry.getValue());
       }
     }
 
@@ -367,8 +422,40 @@ final class LoadStatsManager2 {
     private ClusterLocalityStatsSnapshot snapshot() {
       long duration = stopwatch.elapsed(TimeUnit.NANOSECONDS);
       stopwatch.reset().start();
-      return new ClusterLocalityStatsSnapshot(callsSucceeded.getAndSet(0), callsInProgress.get(),
-          callsFailed.getAndSet(0), callsIssued.getAndSet(0), duration);
+      // Read finished calls first so that a call finishing concurrently is never counted as
+      // finished but not started.
+      long finished = callsFinished.value();
+      long callsInProgress = callsStarted.value() - finished;
+      Map<String, BackendLoadMetricStats> loadMetrics = new HashMap<>();
+      for (Map.Entry<String, BackendLoadMetricRecorder> entry
+          : removedLoadMetricStats.entrySet()) {
+        BackendLoadMetricStats metricStats = entry.getValue().snapshot();
+        if (metricStats.numRequestsFinishedWithMetric() != 0) {
+          loadMetrics.put(entry.getKey(), metricStats);
+        }
+      }
+      // Metrics not reported since the previous snapshot are removed, so that metric names no
+      // longer sent by backends do not accumulate.
+      Map<String, BackendLoadMetricRecorder> removed = new HashMap<>();
+      for (Map.Entry<String, BackendLoadMetricRecorder> entry : loadMetricStats.entrySet()) {
+        BackendLoadMetricStats metricStats = entry.getValue().snapshot();
+        if (metricStats.numRequestsFinishedWithMetric() != 0) {
+          BackendLoadMetricStats previous = loadMetrics.get(entry.getKey());
+          if (previous != null) {
+            metricStats = BackendLoadMetricStats.create(
+                previous.numRequestsFinishedWithMetric()
+                    + metricStats.numRequestsFinishedWithMetric(),
+                previous.totalMetricValue() + metricStats.totalMetricValue());
+          }
+          loadMetrics.put(entry.getKey(), metricStats);
+        } else if (loadMetricStats.remove(entry.getKey(), entry.getValue())) {
+          removed.put(entry.getKey(), entry.getValue());
+        }
+      }
+      removedLoadMetricStats = removed;
+      return new ClusterLocalityStatsSnapshot(callsSucceeded.snapshot(), callsInProgress,
+          callsFailed.snapshot(), callsIssued.snapshot(), ImmutableMap.copyOf(loadMetrics),
+          duration);
     }
   }
 
@@ -377,16 +464,79 @@ final class LoadStatsManager2 {
     private final long callsInProgress;
     private final long callsFailed;
     private final long callsIssued;
+    private final ImmutableMap<String, BackendLoadMetricStats> loadMetricStats;
     private final long durationNano;
 
     private ClusterLocalityStatsSnapshot(
         long callsSucceeded, long callsInProgress, long callsFailed, long callsIssued,
-        long durationNano) {
+        ImmutableMap<String, BackendLoadMetricStats> loadMetricStats, long durationNano) {
       this.callsSucceeded = callsSucceeded;
       this.callsInProgress = callsInProgress;
       this.callsFailed = callsFailed;
       this.callsIssued = callsIssued;
+      this.loadMetricStats = checkNotNull(loadMetricStats, "loadMetricStats");
       this.durationNano = durationNano;
     }
   }
+
+  /**
+   * A striped counter whose snapshot returns the increments since the previous snapshot.
+   *
+   * <p>The underlying counter is never reset: a snapshot takes the difference between the current
+   * sum and the sum at the previous snapshot, so increments racing with a snapshot are reported by
+   * the next one instead of being lost. Snapshots are taken under the {@link LoadStatsManager2}
+   * lock.
+   */
+  private static final class ReportingCounter {
+    private final LongCounter counter = LongCounterFactory.create();
+    private long reported;
+
+    void increment() {
+      counter.add(1);
+    }
+
+    long snapshot() {
+      long total = counter.value();
+      long delta = total - reported;
+      reported = total;
+      return delta;
+    }
+  }
+
+  /**
+   * Aggregates the values of a named backend metric across finished requests, without locking.
+   * The count is a striped counter reported like a {@link ReportingCounter}, and the total is
+   * spread over cells picked by the recording thread, which a snapshot atomically resets. The
+   * total is added before the count, so a record racing with a snapshot may have its value and
+   * count reported in two consecutive snapshots, but neither is lost. Snapshots are taken under
+   * the {@link LoadStatsManager2} lock.
+   */
+  private static final class BackendLoadMetricRecorder {
+    private static final int STRIPES =
+        Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+    // Cells are spaced a cache line apart so that threads on different stripes don't contend.
+    private static final int CELL_STRIDE = 8;
+
+    private final LongCounter numRequestsFinishedWithMetric = LongCounterFactory.create();
+    private final AtomicDoubleArray totalMetricValue =
+        new AtomicDoubleArray(STRIPES * CELL_STRIDE);
+    private long reportedNumRequestsFinishedWithMetric;
+
+    void record(double value) {
+      int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+      totalMetricValue.addAndGet(stripe * CELL_STRIDE, value);
+      numRequestsFinishedWithMetric.add(1);
+    }
+
+    BackendLoadMetricStats snapshot() {
+      long total = numRequestsFinishedWithMetric.value();
+      long numRequests = total - reportedNumRequestsFinishedWithMetric;
+      reportedNumRequestsFinishedWithMetric = total;
+      double metricValue = 0;
+      for (int i = 0; i < STRIPES; i++) {
+        metricValue += totalMetricValue.getAndSet(i * CELL_STRIDE, 0);
+      }
+      return BackendLoadMetricStats.create(numRequests, metricValue);
+    }
+  }
 }
@@ -170,6 +170,11 @@ abstract class OrcaOobUtil {
         orcaHelper.setReportingConfig(config);
       }
 
+      @Override
+      public void clearReportingConfig() {
+        orcaHelper.clearReportingConfig();
+      }
+
       @Override
       public Helper asHelper() {
         return orcaHelper;
@@ -219,6 +224,16 @@ abstract class OrcaOobUtil {
      */
     public abstract void setReportingConfig(OrcaReportingConfig config);
 
+    /**
+     * Stops receiving ORCA reports configured by {@link #setReportingConfig}. Reporting RPCs are
+     * cancelled unless other load balancing policies still configure reporting on the same
+     * subchannels.
+     *
+     * <p>This method needs to be called from the SynchronizationContext returned by the wrapped
+     * helper's {@link Helper#getSynchronizationContext()}.
+     */
+    public abstract void clearReportingConfig();
+
     /**
      * Returns a wrapped {@link LoadBalancer.Helper}. Subchannels created through it will retrieve
      * ORCA load reports if the server supports it.
@@ -294,6 +309,14 @@ abstract class OrcaOobUtil {
       }
     }
 
+    void clearReportingConfig() {
+      syncContext.throwIfNotInThisSynchronizationContext();
+      orcaConfig = null;
+      for (OrcaReportingState state : orcaStates) {
+        state.clearReportingConfig(OrcaReportingHelper.this);
+      }
+    }
+
     @Override
     public void onLoadReport(OrcaLoadReport report) {
       syncContext.throwIfNotInThisSynchronizationContext();
@@ -350,22 +373,32 @@ abstract class OrcaOobUtil {
       }
 
       void setReportingConfig(OrcaReportingHelper helper, OrcaReportingConfig config) {
-        boolean reconfigured = false;
         configs.put(helper, config);
-        // Real reporting interval is the minimum of intervals requested by all participating
-        // helpers.
-        if (overallConfig == null) {
-          overallConfig = config.toBuilder().build();
-          reconfigured = true;
+        updateOverallConfig();
+      }
+
+      void clearReportingConfig(OrcaReportingHelper helper) {
+        if (configs.remove(helper) != null) {
+          updateOverallConfig();
+        }
+      }
+
+      private void updateOverallConfig() {
+        boolean reconfigured = false;
+        if (configs.isEmpty()) {
+          reconfigured = overallConfig != null;
+          overallConfig = null;
         } else {
+          // Real reporting interval is the minimum of intervals requested by all participating
+          // helpers.
           long minInterval = Long.MAX_VALUE;
           for (OrcaReportingConfig c : configs.values()) {
             if (c.getReportIntervalNanos() < minInterval) {
               minInterval = c.getReportIntervalNanos();
             }
           }
-          if (overallConfig.getReportIntervalNanos() != minInterval) {
-            overallConfig = overallConfig.toBuilder()
+          if (overallConfig == null || overallConfig.getReportIntervalNanos() != minInterval) {
+            overallConfig = OrcaReportingConfig.newBuilder()
                 .setReportInterval(minInterval, TimeUnit.NANOSECONDS).build();
             reconfigured = true;
           }
@@ -0,0 +1,837 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.xds;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Ticker;
+import io.grpc.ClientStreamTracer;
+import io.grpc.ClientStreamTracer.StreamInfo;
+import io.grpc.ConnectivityState;
+import io.grpc.ConnectivityStateInfo;
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.InternalLogId;
+import io.grpc.LoadBalancer;
+import io.grpc.Metadata;
+import io.grpc.Status;
+import io.grpc.SynchronizationContext;
+import io.grpc.SynchronizationContext.ScheduledHandle;
+import io.grpc.internal.LongCounter;
+import io.grpc.internal.LongCounterFactory;
+import io.grpc.internal.ServiceConfigUtil.PolicySelection;
+import io.grpc.util.ForwardingClientStreamTracer;
+import io.grpc.util.ForwardingLoadBalancerHelper;
+import io.grpc.util.ForwardingSubchannel;
+import io.grpc.util.GracefulSwitchLoadBalancer;
+import io.grpc.xds.ThreadSafeRandom.ThreadSafeRandomImpl;
+import io.grpc.xds.XdsLogger.XdsLogLevel;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Load balancer for outlier_detection_experimental LB policy. It sits above the endpoint-level
+ * policy, counts the outcome of every call made to each address and periodically ejects the
+ * addresses whose success rate or failure percentage stands out from the others. Subchannels to
+ * an ejected address report TRANSIENT_FAILURE to the child policy until the ejection expires.
+ */
+final class OutlierDetectionLoadBalancer extends LoadBalancer {
+  private final XdsLogger logger;
+  private final Helper helper;
+  private final SynchronizationContext syncContext;
+  private final Ticker ticker;
+  private final ThreadSafeRandom random;
+  private final GracefulSwitchLoadBalancer switchLb;
+  // Accessed only from the synchronization context.
+  private final Map<SocketAddress, AddressTracker> trackers = new HashMap<>();
+  private final Runnable detectionTask = new DetectionTask();
+
+  @Nullable
+  private OutlierDetection config;
+  @Nullable
+  private LoadBalancer.Factory childFactory;
+  @Nullable
+  private ScheduledHandle detectionTimer;
+  // Time at which the current detection interval started.
+  private long detectionTimerStartNanos;
+
+  OutlierDetectionLoadBalancer(Helper helper) {
+    this(helper, Ticker.systemTicker(), ThreadSafeRandomImpl.instance);
+  }
+
+  @VisibleForTesting
+  OutlierDetectionLoadBalancer(Helper helper, Ticker ticker, ThreadSafeRandom random) {
+    this.helper = checkNotNull(helper, "helper");
+    this.syncContext = checkNotNull(helper.getSynchronizationContext(), "syncContext");
+    this.ticker = checkNotNull(ticker, "ticker");
+    this.random = checkNotNull(random, "random");
+    switchLb = new GracefulSwitchLoadBalancer(new ChildHelper());
+    InternalLogId logId = InternalLogId.allocate("outlier-detection-lb", helper.getAuthority());
+    logger = XdsLogger.withLogId(logId);
+    logger.log(XdsLogLevel.INFO, "Created");
+  }
+
+  @Override
+  public void handleResolvedAddresses(ResolvedAddresses resolvedAddresses) {
+    logger.log(XdsLogLevel.DEBUG, "Received resolution result: {0}", resolvedAddresses);
+    OutlierDetectionConfig lbConfig =
+        (OutlierDetectionConfig) resolvedAddresses.getLoadBalancingPolicyConfig();
+    OutlierDetection previous = config;
+    config = lbConfig.outlierDetection;
+
+    // Only addresses behind a single-address subchannel are tracked.
+    Set<SocketAddress> addresses = new HashSet<>();
+    for (EquivalentAddressGroup eag : resolvedAddresses.getAddresses()) {
+      addresses.addAll(eag.getAddresses());
+    }
+    for (Iterator<AddressTracker> it = trackers.values().iterator(); it.hasNext(); ) {
+      AddressTracker tracker = it.next();
+      if (!addresses.contains(tracker.address)) {
+        tracker.uneject();
+        it.remove();
+      }
+    }
+    for (SocketAddress address : addresses) {
+      if (!trackers.containsKey(address)) {
+        trackers.put(address, new AddressTracker(address));
+      }
+    }
+
+    if (!config.isEnabled()) {
+      cancelDetectionTimer();
+      for (AddressTracker tracker : trackers.values()) {
+        tracker.uneject();
+        tracker.ejectionTimeMultiplier = 0;
+      }
+    } else if (detectionTimer == null || previous == null
+        || previous.intervalNanos != config.intervalNanos) {
+      // Keep the phase of the running interval, so that frequent updates do not postpone
+      // detection forever.
+      long delayNanos = config.intervalNanos;
+      if (detectionTimer != null) {
+        delayNanos = Math.max(0L,
+            config.intervalNanos - (ticker.read() - detectionTimerStartNanos));
+      } else {
+        detectionTimerStartNanos = ticker.read();
+        for (AddressTracker tracker : trackers.values()) {
+          tracker.resetCallCounters();
+        }
+      }
+      cancelDetectionTimer();
+      detectionTimer = syncContext.schedule(
+          detectionTask, delayNanos, TimeUnit.NANOSECONDS, helper.getScheduledExecutorService());
+    }
+
+    LoadBalancer.Factory newChildFactory = lbConfig.childPolicy.getProvider();
+    if (!newChildFactory.equals(childFactory)) {
+      switchLb.switchTo(newChildFactory);
+      childFactory = newChildFactory;
+    }
+    switchLb.handleResolvedAddresses(
+        resolvedAddresses.toBuilder()
+            .setLoadBalancingPolicyConfig(lbConfig.childPolicy.getConfig())
+            .build());
+  }
+
+  @Override
+  public void handleNameResolutionError(Status error) {
+    logger.log(XdsLogLevel.WARNING, "Received name resolution error: {0}", error);
+    switchLb.handleNameResolutionError(error);
+  }
+
+  @Override
+  public boolean canHandleEmptyAddressListFromNameResolution() {
+    return true;
+  }
+
+  @Override
+  public void shutdown() {
+    logger.log(XdsLogLevel.INFO, "Shutdown");
+    cancelDetectionTimer();
+    switchLb.shutdown();
+  }
+
+  private void cancelDetectionTimer() {
+    if (detectionTimer != null) {
+      detectionTimer.cancel();
+      detectionTimer = null;
+    }
+  }
+
+  @VisibleForTesting
+  @Nullable
+  AddressTracker getTracker(SocketAddress address) {
+    return trackers.get(address);
+  }
+
+  private final class DetectionTask implements Runnable {
+    @Override
+    public void run() {
+      long now = ticker.read();
+      detectionTimerStartNanos = now;
+      for (AddressTracker tracker : trackers.values()) {
+        tracker.swapCallCounters();
+      }
+      if (config.successRateEjection != null) {
+        runSuccessRateEjection(now);
+      }
+      if (config.failurePercentageEjection != null) {
+        runFailurePercentageEjection(now);
+      }
+      for (AddressTracker tracker : trackers.values()) {
+        if (tracker.isEjected()) {
+          if (tracker.ejectionExpired(now, config)) {
+            tracker.uneject();
+          }
+        } else if (tracker.ejectionTimeMultiplier > 0) {
+          tracker.ejectionTimeMultiplier--;
+        }
+      }
+      detectionTimer = syncContext.schedule(
+          this, config.intervalNanos, TimeUnit.NANOSECONDS, helper.getScheduledExecutorService());
+    }
+  }
+
+  private void runSuccessRateEjection(long now) {
+    SuccessRateEjection ejection = config.successRateEjection;
+    List<AddressTracker> candidates = candidates(ejection.requestVolume);
+    if (candidates.size() < ejection.minimumHosts || candidates.isEmpty()) {
+      return;
+    }
+    double[] successRates = new double[candidates.size()];
+    double sum = 0;
+    for (int i = 0; i < successRates.length; i++) {
+      successRates[i] = candidates.get(i).successRate();
+      sum += successRates[i];
+    }
+    double mean = sum / successRates.length;
+    double squaredDiffSum = 0;
+    for (double successRate : successRates) {
+      squaredDiffSum += (successRate - mean) * (successRate - mean);
+    }
+    double stdev = Math.sqrt(squaredDiffSum / successRates.length);
+    double requiredSuccessRate = mean - stdev * (ejection.stdevFactor / 1000.0);
+    for (int i = 0; i < successRates.length; i++) {
+      if (ejectedPercentage() >= config.maxEjectionPercent) {
+        return;
+      }
+      if (successRates[i] < requiredSuccessRate
+          && random.nextInt(100) < ejection.enforcementPercentage) {
+        candidates.get(i).eject(now);
+      }
+    }
+  }
+
+  private void runFailurePercentageEjection(long now) {
+    FailurePercentageEjection ejection = config.failurePercentageEjection;
+    List<AddressTracker> candidates = candidates(ejection.requestVolume);
+    if (candidates.size() < ejection.minimumHosts || candidates.isEmpty()) {
+      return;
+    }
+    for (AddressTracker tracker : candidates) {
+      if (ejectedPercentage() >= config.maxEjectionPercent) {
+        return;
+      }
+      if ((1 - tracker.successRate()) * 100 > ejection.threshold
+          && random.nextInt(100) < ejection.enforcementPercentage) {
+        tracker.eject(now);
+      }
+    }
+  }
+
+  /** Returns non-ejected addresses that received at least the given number of calls. */
+  private List<AddressTracker> candidates(int requestVolume) {
+    List<AddressTracker> candidates = new ArrayList<>();
+    for (AddressTracker tracker : trackers.values()) {
+      if (!tracker.isEjected() && tracker.inactiveVolume() >= requestVolume) {
+        candidates.add(tracker);
+      }
+    }
+    return candidates;
+  }
+
+  private double ejectedPercentage() {
+    if (trackers.isEmpty()) {
+      return 0;
+    }
+    int ejected = 0;
+    for (AddressTracker tracker : trackers.values()) {
+      if (tracker.isEjected()) {
+        ejected++;
+      }
+    }
+    return ejected * 100.0 / trackers.size();
+  }
+
+  /**
+   * Tracks the calls made to a single address and the subchannels connected to it. Call
+   * outcomes are recorded into {@link LongCounter}s, which are striped where LongAdder is
+   * available, so concurrent calls do not contend on a single cache line and recording allocates
+   * nothing. Each detection interval swaps the active and inactive counters and evaluates the
+   * ones filled during the interval that just ended.
+   */
+  @VisibleForTesting
+  static final class AddressTracker {
+    private final SocketAddress address;
+    private final ClientStreamTracer.Factory tracerFactory;
+    // Accessed only from the synchronization context.
+    private final Set<OutlierDetectionSubchannel> subchannels = new HashSet<>();
+    private volatile CallCounter activeCallCounter = new CallCounter();
+    private CallCounter inactiveCallCounter = new CallCounter();
+    // Null if not ejected.
+    @Nullable
+    private Long ejectionTimeNanos;
+    private int ejectionTimeMultiplier;
+
+    private AddressTracker(SocketAddress address) {
+      this.address = address;
+      this.tracerFactory = new ResultCountingStreamTracerFactory(this, null);
+    }
+
+    void recordCallResult(boolean success) {
+      CallCounter counter = activeCallCounter;
+      if (success) {
+        counter.successCount.add(1);
+      } else {
+        counter.failureCount.add(1);
+      }
+    }
+
+    private void swapCallCounters() {
+      CallCounter newActive = inactiveCallCounter;
+      newActive.reset();
+      inactiveCallCounter = activeCallCounter;
+      activeCallCounter = newActive;
+    }
+
+    private void resetCallCounters() {
+      activeCallCounter.reset();
+      inactiveCallCounter.reset();
+    }
+
+    @VisibleForTesting
+    long inactiveVolume() {
+      return inactiveCallCounter.successes() + inactiveCallCounter.failures();
+    }
+
+    private double successRate() {
+      long volume = inactiveVolume();
+      return volume == 0 ? 0 : (double) inactiveCallCounter.successes() / volume;
+    }
+
+    @VisibleForTesting
+    boolean isEjected() {
+      return ejectionTimeNanos != null;
+    }
+
+    private void eject(long now) {
+      ejectionTimeNanos = now;
+      ejectionTimeMultiplier++;
+      for (OutlierDetectionSubchannel subchannel : subchannels) {
+        subchannel.eject();
+      }
+    }
+
+    private void uneject() {
+      if (ejectionTimeNanos == null) {
+        return;
+      }
+      ejectionTimeNanos = null;
+      for (OutlierDetectionSubchannel subchannel : subchannels) {
+        subchannel.uneject();
+      }
+    }
+
+    private boolean ejectionExpired(long now, OutlierDetection config) {
+      long maxEjectionTimeNanos =
+          Math.max(config.baseEjectionTimeNanos, config.maxEjectionTimeNanos);
+      long ejectionDurationNanos =
+          Math.min(config.baseEjectionTimeNanos * ejectionTimeMultiplier, maxEjectionTimeNanos);
+      return now - ejectionTimeNanos >= ejectionDurationNanos;
+    }
+
+    private void addSubchannel(OutlierDetectionSubchannel subchannel) {
+      subchannels.add(subchannel);
+      if (isEjected()) {
+        subchannel.eject();
+      }
+    }
+
+    private void removeSubchannel(OutlierDetectionSubchannel subchannel) {
+      subchannels.remove(subchannel);
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("address", address)
+          .add("ejected", isEjected())
+          .add("ejectionTimeMultiplier", ejectionTimeMultiplier)
+          .toString();
+    }
+  }
+
+  private static final class CallCounter {
+    private final LongCounter successCount = LongCounterFactory.create();
+    private final LongCounter failureCount = LongCounterFactory.create();
+    // LongCounter cannot be reset, so a reset records the counts to subtract instead. Accessed
+    // only from the synchronization context.
+    private long successBase;
+    private long failureBase;
+
+    private long successes() {
+      return successCount.value() - successBase;
+    }
+
+    private long failures() {
+      return failureCount.value() - failureBase;
+    }
+
+    private void reset() {
+      successBase = successCount.value();
+      failureBase = failureCount.value();
+    }
+  }
+
+  private final class ChildHelper extends ForwardingLoadBalancerHelper {
+    @Override
+    protected Helper delegate() {
+      return helper;
+    }
+
+    @Override
+    public Subchannel createSubchannel(CreateSubchannelArgs args) {
+      OutlierDetectionSubchannel subchannel =
+          new OutlierDetectionSubchannel(helper.createSubchannel(args));
+      subchannel.setTracker(trackerFor(args.getAddresses()));
+      return subchannel;
+    }
+
+    @Override
+    public void updateBalancingState(ConnectivityState newState, SubchannelPicker newPicker) {
+      helper.updateBalancingState(newState, new OutlierDetectionPicker(newPicker));
+    }
+  }
+
+  @Nullable
+  private AddressTracker trackerFor(List<EquivalentAddressGroup> addressGroups) {
+    if (addressGroups.size() != 1 || addressGroups.get(0).getAddresses().size() != 1) {
+      return null;
+    }
+    return trackers.get(addressGroups.get(0).getAddresses().get(0));
+  }
+
+  /**
+   * Wraps the subchannels created by the child policy. While the address is ejected, the child
+   * policy sees the subchannel in TRANSIENT_FAILURE and the real state is replayed once the
+   * ejection ends.
+   */
+  private final class OutlierDetectionSubchannel extends ForwardingSubchannel {
+    private final Subchannel delegate;
+    @Nullable
+    private AddressTracker tracker;
+    @Nullable
+    private SubchannelStateListener listener;
+    @Nullable
+    private ConnectivityStateInfo lastState;
+    private boolean ejected;
+
+    OutlierDetectionSubchannel(Subchannel delegate) {
+      this.delegate = checkNotNull(delegate, "delegate");
+    }
+
+    @Override
+    protected Subchannel delegate() {
+      return delegate;
+    }
+
+    @Override
+    public void start(final SubchannelStateListener listener) {
+      this.listener = listener;
+      delegate.start(new SubchannelStateListener() {
+        @Override
+        public void onSubchannelState(ConnectivityStateInfo newState) {
+          lastState = newState;
+          if (!ejected) {
+            listener.onSubchannelState(newState);
+          }
+        }
+      });
+    }
+
+    @Override
+    public void shutdown() {
+      setTracker(null);
+      delegate.shutdown();
+    }
+
+    @Override
+    public void updateAddresses(List<EquivalentAddressGroup> addresses) {
+      AddressTracker newTracker = trackerFor(addresses);
+      if (newTracker != tracker) {
+        setTracker(newTracker);
+        if (ejected && (newTracker == null || !newTracker.isEjected())) {
+          uneject();
+        }
+      }
+      delegate.updateAddresses(addresses);
+    }
+
+    private void setTracker(@Nullable AddressTracker newTracker) {
+      if (tracker != null) {
+        tracker.removeSubchannel(this);
+      }
+      tracker = newTracker;
+      if (newTracker != null) {
+        newTracker.addSubchannel(this);
+      }
+    }
+
+    private void eject() {
+      if (ejected) {
+        return;
+      }
+      ejected = true;
+      if (listener != null) {
+        listener.onSubchannelState(ConnectivityStateInfo.forTransientFailure(
+            Status.UNAVAILABLE.withDescription(
+                "Address " + tracker.address + " ejected by outlier detection")));
+      }
+    }
+
+    private void uneject() {
+      if (!ejected) {
+        return;
+      }
+      ejected = false;
+      if (listener != null && lastState != null) {
+        listener.onSubchannelState(lastState);
+      }
+    }
+  }
+
+  /**
+   * Attaches a tracer that records the outcome of the call into the tracker of the picked
+   * address. Picks with no other tracer reuse the tracker's own factory.
+   */
+  private static final class OutlierDetectionPicker extends SubchannelPicker {
+    private final SubchannelPicker delegate;
+
+    OutlierDetectionPicker(SubchannelPicker delegate) {
+      this.delegate = checkNotNull(delegate, "delegate");
+    }
+
+    @Override
+    public PickResult pickSubchannel(PickSubchannelArgs args) {
+      PickResult result = delegate.pickSubchannel(args);
+      Subchannel subchannel = result.getSubchannel();
+      if (!(subchannel instanceof OutlierDetectionSubchannel)) {
+        return result;
+      }
+      AddressTracker tracker = ((OutlierDetectionSubchannel) subchannel).tracker;
+      if (tracker == null) {
+        return result;
+      }
+      ClientStreamTracer.Factory tracerFactory = result.getStreamTracerFactory();
+      if (tracerFactory == null) {
+        return PickResult.withSubchannel(subchannel, tracker.tracerFactory);
+      }
+      return PickResult.withSubchannel(
+          subchannel, new ResultCountingStreamTracerFactory(tracker, tracerFactory));
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this).add("delegate", delegate).toString();
+    }
+  }
+
+  private static final class ResultCountingStreamTracerFactory
+      extends ClientStreamTracer.InternalLimitedInfoFactory {
+    private final AddressTracker tracker;
+    @Nullable
+    private final ClientStreamTracer.Factory delegate;
+
+    ResultCountingStreamTracerFactory(
+        AddressTracker tracker, @Nullable ClientStreamTracer.Factory delegate) {
+      this.tracker = tracker;
+      this.delegate = delegate;
+    }
+
+    @Override
+    public ClientStreamTracer newClientStreamTracer(StreamInfo info, Metadata headers) {
+      if (delegate == null) {
+        return new ClientStreamTracer() {
+          @Override
+          public void streamClosed(Status status) {
+            tracker.recordCallResult(status.isOk());
+          }
+        };
+      }
+      final ClientStreamTracer delegatedTracer = delegate.newClientStreamTracer(info, headers);
+      return new ForwardingClientStreamTracer() {
+        @Override
+        protected ClientStreamTracer delegate() {
+          return delegatedTracer;
+        }
+
+        @Override
+        public void streamClosed(Status status) {
+          tracker.recordCallResult(status.isOk());
+          delegate().streamClosed(status);
+        }
+      };
+    }
+  }
+
+  /**
+   * Outlier detection parameters of a cluster. At least one of the ejection algorithms must be
+   * configured for any address to be ejected.
+   */
+  static final class OutlierDetection {
+    static final long DEFAULT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    static final long DEFAULT_BASE_EJECTION_TIME_NANOS = TimeUnit.SECONDS.toNanos(30);
+    static final long DEFAULT_MAX_EJECTION_TIME_NANOS = TimeUnit.SECONDS.toNanos(300);
+    static final int DEFAULT_MAX_EJECTION_PERCENT = 10;
+
+    final long intervalNanos;
+    final long baseEjectionTimeNanos;
+    final long maxEjectionTimeNanos;
+    final int maxEjectionPercent;
+    @Nullable
+    final SuccessRateEjection successRateEjection;
+    @Nullable
+    final FailurePercentageEjection failurePercentageEjection;
+
+    OutlierDetection(long intervalNanos, long baseEjectionTimeNanos, long maxEjectionTimeNanos,
+        int maxEjectionPercent, @Nullable SuccessRateEjection successRateEjection,
+        @Nullable FailurePercentageEjection failurePercentageEjection) {
+      checkArgument(intervalNanos > 0, "intervalNanos must be positive");
+      checkArgument(baseEjectionTimeNanos >= 0, "baseEjectionTimeNanos must not be negative");
+      checkArgument(maxEjectionTimeNanos >= 0, "maxEjectionTimeNanos must not be negative");
+      checkArgument(maxEjectionPercent >= 0 && maxEjectionPercent <= 100,
+          "maxEjectionPercent must be in [0, 100]");
+      this.intervalNanos = intervalNanos;
+      this.baseEjectionTimeNanos = baseEjectionTimeNanos;
+      this.maxEjectionTimeNanos = maxEjectionTimeNanos;
+      this.maxEjectionPercent = maxEjectionPercent;
+      this.successRateEjection = successRateEjection;
+      this.failurePercentageEjection = failurePercentageEjection;
+    }
+
+    boolean isEnabled() {
+      return successRateEjection != null || failurePercentageEjection != null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      OutlierDetection that = (OutlierDetection) o;
+      return intervalNanos == that.intervalNanos
+          && baseEjectionTimeNanos == that.baseEjectionTimeNanos
+          && maxEjectionTimeNanos == that.maxEjectionTimeNanos
+          && maxEjectionPercent == that.maxEjectionPercent
+          && Objects.equals(successRateEjection, that.successRateEjection)
+          && Objects.equals(failurePercentageEjection, that.failurePercentageEjection);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(intervalNanos, baseEjectionTimeNanos, maxEjectionTimeNanos,
+          maxEjectionPercent, successRateEjection, failurePercentageEjection);
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("intervalNanos", intervalNanos)
+          .add("baseEjectionTimeNanos", baseEjectionTimeNanos)
+          .add("maxEjectionTimeNanos", maxEjectionTimeNanos)
+          .add("maxEjectionPercent", maxEjectionPercent)
+          .add("successRateEjection", successRateEjection)
+          .add("failurePercentageEjection", failurePercentageEjection)
+          .toString();
+    }
+  }
+
+  /**
+   * Ejects addresses whose success rate is more than {@code stdevFactor / 1000} standard
+   * deviations below the mean success rate of all addresses.
+   */
+  static final class SuccessRateEjection {
+    static final int DEFAULT_STDEV_FACTOR = 1900;
+    static final int DEFAULT_ENFORCEMENT_PERCENTAGE = 100;
+    static final int DEFAULT_MINIMUM_HOSTS = 5;
+    static final int DEFAULT_REQUEST_VOLUME = 100;
+
+    final int stdevFactor;
+    final int enforcementPercentage;
+    final int minimumHosts;
+    final int requestVolume;
+
+    SuccessRateEjection(int stdevFactor, int enforcementPercentage, int minimumHosts,
+        int requestVolume) {
+      checkArgument(enforcementPercentage >= 0 && enforcementPercentage <= 100,
+          "enforcementPercentage must be in [0, 100]");
+      this.stdevFactor = stdevFactor;
+      this.enforcementPercentage = enforcementPercentage;
+      this.minimumHosts = minimumHosts;
+      this.requestVolume = requestVolume;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      SuccessRateEjection that = (SuccessRateEjection) o;
+      return stdevFactor == that.stdevFactor
+          && enforcementPercentage == that.enforcementPercentage
+          && minimumHosts == that.minimumHosts
+          && requestVolume == that.requestVolume;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(stdevFactor, enforcementPercentage, minimumHosts, requestVolume);
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("stdevFactor", stdevFactor)
+          .add("enforcementPercentage", enforcementPercentage)
+          .add("minimumHosts", minimumHosts)
+          .add("requestVolume", requestVolume)
+          .toString();
+    }
+  }
+
+  /**
+   * Ejects addresses whose percentage of failed calls is above {@code threshold}.
+   */
+  static final class FailurePercentageEjection {
+    static final int DEFAULT_THRESHOLD = 85;
+    static final int DEFAULT_ENFORCEMENT_PERCENTAGE = 0;
+    static final int DEFAULT_MINIMUM_HOSTS = 5;
+    static final int DEFAULT_REQUEST_VOLUME = 50;
+
+    final int threshold;
+    final int enforcementPercentage;
+    final int minimumHosts;
+    final int requestVolume;
+
+    FailurePercentageEjection(int threshold, int enforcementPercentage, int minimumHosts,
+        int requestVolume) {
+      checkArgument(threshold >= 0 && threshold <= 100, "threshold must be in [0, 100]");
+      checkArgument(enforcementPercentage >= 0 && enforcementPercentage <= 100,
+          "enforcementPercentage must be in [0, 100]");
+      this.threshold = threshold;
+      this.enforcementPercentage = enforcementPercentage;
+      this.minimumHosts = minimumHosts;
+      this.requestVolume = requestVolume;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      FailurePercentageEjection that = (FailurePercentageEjection) o;
+      return threshold == that.threshold
+          && enforcementPercentage == that.enforcementPercentage
+          && minimumHosts == that.minimumHosts
+          && requestVolume == that.requestVolume;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(threshold, enforcementPercentage, minimumHosts, requestVolume);
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("threshold", threshold)
+          .add("enforcementPercentage", enforcementPercentage)
+          .add("minimumHosts", minimumHosts)
+          .add("requestVolume", requestVolume)
+          .toString();
+    }
+  }
+
+  /**
+   * The LB config for {@link OutlierDetectionLoadBalancer}.
+   */
+  static final class OutlierDetectionConfig {
+    final OutlierDetection outlierDetection;
+    final PolicySelection childPolicy;
+
+    OutlierDetectionConfig(OutlierDetection outlierDetection, PolicySelection childPolicy) {
+      this.outlierDetection = checkNotNull(outlierDetection, "outlierDetection");
+      this.childPolicy = checkNotNull(childPolicy, "childPolicy");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      OutlierDetectionConfig that = (OutlierDetectionConfig) o;
+      return outlierDetection.equals(that.outlierDetection)
+          && childPolicy.equals(that.childPolicy);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(outlierDetection, childPolicy);
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("outlierDetection", outlierDetection)
+          .add("childPolicy", childPolicy)
+          .toString();
+    }
+  }
+}
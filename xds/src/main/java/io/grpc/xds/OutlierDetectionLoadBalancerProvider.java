@@ -0,0 +1,134 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.xds;
+
+import io.grpc.Internal;
+import io.grpc.LoadBalancer;
+import io.grpc.LoadBalancer.Helper;
+import io.grpc.LoadBalancerProvider;
+import io.grpc.LoadBalancerRegistry;
+import io.grpc.NameResolver.ConfigOrError;
+import io.grpc.Status;
+import io.grpc.internal.JsonUtil;
+import io.grpc.internal.ServiceConfigUtil;
+import io.grpc.internal.ServiceConfigUtil.LbConfig;
+import io.grpc.internal.ServiceConfigUtil.PolicySelection;
+import io.grpc.xds.OutlierDetectionLoadBalancer.FailurePercentageEjection;
+import io.grpc.xds.OutlierDetectionLoadBalancer.OutlierDetection;
+import io.grpc.xds.OutlierDetectionLoadBalancer.OutlierDetectionConfig;
+import io.grpc.xds.OutlierDetectionLoadBalancer.SuccessRateEjection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The provider for the "outlier_detection_experimental" balancing policy.  This class should not
+ * be directly referenced in code.  The policy should be accessed through
+ * {@link io.grpc.LoadBalancerRegistry#getProvider} with the name "outlier_detection_experimental".
+ */
+@Internal
+public final class OutlierDetectionLoadBalancerProvider extends LoadBalancerProvider {
+
+  @Override
+  public LoadBalancer newLoadBalancer(Helper helper) {
+    return new OutlierDetectionLoadBalancer(helper);
+  }
+
+  @Override
+  public boolean isAvailable() {
+    return true;
+  }
+
+  @Override
+  public int getPriority() {
+    return 5;
+  }
+
+  @Override
+  public String getPolicyName() {
+    return XdsLbPolicies.OUTLIER_DETECTION_POLICY_NAME;
+  }
+
+  @Override
+  public ConfigOrError parseLoadBalancingPolicyConfig(Map<String, ?> rawConfig) {
+    OutlierDetection outlierDetection;
+    try {
+      outlierDetection = parseOutlierDetection(rawConfig);
+    } catch (RuntimeException e) {
+      return ConfigOrError.fromError(
+          Status.INTERNAL.withCause(e).withDescription(
+              "Failed to parse outlier_detection LB config: " + rawConfig));
+    }
+    List<LbConfig> childConfigCandidates = ServiceConfigUtil.unwrapLoadBalancingConfigList(
+        JsonUtil.getListOfObjects(rawConfig, "childPolicy"));
+    if (childConfigCandidates == null || childConfigCandidates.isEmpty()) {
+      return ConfigOrError.fromError(Status.INTERNAL.withDescription(
+          "No child policy in outlier_detection LB policy: " + rawConfig));
+    }
+    ConfigOrError selectedConfig = ServiceConfigUtil.selectLbPolicyFromList(
+        childConfigCandidates, LoadBalancerRegistry.getDefaultRegistry());
+    if (selectedConfig.getError() != null) {
+      return selectedConfig;
+    }
+    return ConfigOrError.fromConfig(new OutlierDetectionConfig(
+        outlierDetection, (PolicySelection) selectedConfig.getConfig()));
+  }
+
+  private static OutlierDetection parseOutlierDetection(Map<String, ?> rawConfig) {
+    Long intervalNanos = JsonUtil.getStringAsDuration(rawConfig, "interval");
+    Long baseEjectionTimeNanos = JsonUtil.getStringAsDuration(rawConfig, "baseEjectionTime");
+    Long maxEjectionTimeNanos = JsonUtil.getStringAsDuration(rawConfig, "maxEjectionTime");
+    Integer maxEjectionPercent = JsonUtil.getNumberAsInteger(rawConfig, "maxEjectionPercent");
+
+    SuccessRateEjection successRateEjection = null;
+    Map<String, ?> rawSuccessRate = JsonUtil.getObject(rawConfig, "successRateEjection");
+    if (rawSuccessRate != null) {
+      successRateEjection = new SuccessRateEjection(
+          getInt(rawSuccessRate, "stdevFactor", SuccessRateEjection.DEFAULT_STDEV_FACTOR),
+          getInt(rawSuccessRate, "enforcementPercentage",
+              SuccessRateEjection.DEFAULT_ENFORCEMENT_PERCENTAGE),
+          getInt(rawSuccessRate, "minimumHosts", SuccessRateEjection.DEFAULT_MINIMUM_HOSTS),
+          getInt(rawSuccessRate, "requestVolume", SuccessRateEjection.DEFAULT_REQUEST_VOLUME));
+    }
+    FailurePercentageEjection failurePercentageEjection = null;
+    Map<String, ?> rawFailurePercentage =
+        JsonUtil.getObject(rawConfig, "failurePercentageEjection");
+    if (rawFailurePercentage != null) {
+      failurePercentageEjection = new FailurePercentageEjection(
+          getInt(rawFailurePercentage, "threshold", FailurePercentageEjection.DEFAULT_THRESHOLD),
+          getInt(rawFailurePercentage, "enforcementPercentage",
+              FailurePercentageEjection.DEFAULT_ENFORCEMENT_PERCENTAGE),
+          getInt(rawFailurePercentage, "minimumHosts",
+              FailurePercentageEjection.DEFAULT_MINIMUM_HOSTS),
+          getInt(rawFailurePercentage, "requestVolume",
+              FailurePercentageEjection.DEFAULT_REQUEST_VOLUME));
+    }
+    return new OutlierDetection(
+        intervalNanos != null ? intervalNanos : OutlierDetection.DEFAULT_INTERVAL_NANOS,
+        baseEjectionTimeNanos != null
+            ? baseEjectionTimeNanos : OutlierDetection.DEFAULT_BASE_EJECTION_TIME_NANOS,
+        maxEjectionTimeNanos != null
+            ? maxEjectionTimeNanos : OutlierDetection.DEFAULT_MAX_EJECTION_TIME_NANOS,
+        maxEjectionPercent != null
+            ? maxEjectionPercent : OutlierDetection.DEFAULT_MAX_EJECTION_PERCENT,
+        successRateEjection, failurePercentageEjection);
+  }
+
+  private static int getInt(Map<String, ?> rawConfig, String key, int defaultValue) {
+    Integer value = JsonUtil.getNumberAsInteger(rawConfig, key);
+    return value != null ? value : defaultValue;
+  }
+}
@@ -25,6 +25,7 @@ import static io.grpc.ConnectivityState.READY;
 import static io.grpc.ConnectivityState.SHUTDOWN;
 import static io.grpc.ConnectivityState.TRANSIENT_FAILURE;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.Sets;
 import io.grpc.Attributes;
@@ -38,11 +39,13 @@ import io.grpc.SynchronizationContext;
 import io.grpc.xds.XdsLogger.XdsLogLevel;
 import io.grpc.xds.XdsSubchannelPickers.ErrorPicker;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import javax.annotation.Nullable;
 
 /**
  * A {@link LoadBalancer} that provides consistent hashing based load balancing to upstream hosts.
@@ -64,7 +67,8 @@ final class RingHashLoadBalancer extends LoadBalancer {
   private final Map<EquivalentAddressGroup, Subchannel> subchannels = new HashMap<>();
   private final Helper helper;
 
-  private List<RingEntry> ring;
+  @Nullable
+  private Ring ring;
   private ConnectivityState currentState;
 
   RingHashLoadBalancer(Helper helper) {
@@ -123,17 +127,9 @@ final class RingHashLoadBalancer extends LoadBalancer {
       subchannels.put(addrKey, subchannel);
     }
     long minWeight = Collections.min(serverWeights.values());
-    double normalizedMinWeight = (double) minWeight / totalWeight;
-    // Scale up the number of hashes per host such that the least-weighted host gets a whole
-    // number of hashes on the the ring. Other hosts might not end up with whole numbers, and
-    // that's fine (the ring-building algorithm can handle this). This preserves the original
-    // implementation's behavior: when weights aren't provided, all hosts should get an equal
-    // number of hashes. In the case where this number exceeds the max_ring_size, it's scaled
-    // back down to fit.
-    double scale = Math.min(
-        Math.ceil(normalizedMinWeight * config.minRingSize) / normalizedMinWeight,
-        (double) config.maxRingSize);
-    ring = buildRing(serverWeights, totalWeight, scale);
+    double hashesPerWeight =
+        Ring.hashesPerWeight(minWeight, totalWeight, config.minRingSize, config.maxRingSize);
+    ring = Ring.build(serverWeights, hashesPerWeight, ring);
 
     // Shut down subchannels for delisted addresses.
     List<Subchannel> removedSubchannels = new ArrayList<>();
@@ -149,32 +145,6 @@ final class RingHashLoadBalancer extends LoadBalancer {
     }
   }
 
-  private static List<RingEntry> buildRing(
-      Map<EquivalentAddressGroup, Long> serverWeights, long totalWeight, double scale) {
-    List<RingEntry> ring = new ArrayList<>();
-    double currentHashes = 0.0;
-    double targetHashes = 0.0;
-    for (Map.Entry<EquivalentAddressGroup, Long> entry : serverWeights.entrySet()) {
-      EquivalentAddressGroup addrKey = entry.getKey();
-      double normalizedWeight = (double) entry.getValue() / totalWeight;
-      // TODO(chengyuanzhang): is using the list of socket address correct?
-      StringBuilder sb = new StringBuilder(addrKey.getAddresses().toString());
-      sb.append('_');
-      targetHashes += scale * normalizedWeight;
-      long i = 0L;
-      while (currentHashes < targetHashes) {
-        sb.append(i);
-        long hash = hashFunc.hashAsciiString(sb.toString());
-        ring.add(new RingEntry(hash, addrKey));
-        i++;
-        currentHashes++;
-        sb.setLength(sb.length() - 1);
-      }
-    }
-    Collections.sort(ring);
-    return Collections.unmodifiableList(ring);
-  }
-
   @Override
   public void handleNameResolutionError(Status error) {
     if (currentState != READY) {
@@ -189,6 +159,7 @@ final class RingHashLoadBalancer extends LoadBalancer {
       shutdownSubchannel(subchannel);
     }
     subchannels.clear();
+    ring = null;
   }
 
   /**
@@ -301,23 +272,21 @@ final class RingHashLoadBalancer extends LoadBalancer {
 
   private static final class RingHashPicker extends SubchannelPicker {
     private final SynchronizationContext syncContext;
-    private final List<RingEntry> ring;
+    private final Ring ring;
     // Avoid synchronization between pickSubchannel and subchannel's connectivity state change,
-    // freeze picker's view of subchannel's connectivity state.
-    // TODO(chengyuanzhang): can be more performance-friendly with
-    //  IdentityHashMap<Subchannel, ConnectivityStateInfo> and RingEntry contains Subchannel.
-    private final Map<EquivalentAddressGroup, SubchannelView> pickableSubchannels;  // read-only
+    // freeze picker's view of subchannel's connectivity state. Indexed by the ring's host index.
+    private final SubchannelView[] pickableSubchannels;  // read-only
 
     private RingHashPicker(
-        SynchronizationContext syncContext, List<RingEntry> ring,
+        SynchronizationContext syncContext, Ring ring,
         Map<EquivalentAddressGroup, Subchannel> subchannels) {
       this.syncContext = syncContext;
       this.ring = ring;
-      pickableSubchannels = new HashMap<>(subchannels.size());
-      for (Map.Entry<EquivalentAddressGroup, Subchannel> entry : subchannels.entrySet()) {
-        Subchannel subchannel = entry.getValue();
+      pickableSubchannels = new SubchannelView[ring.hostCount()];
+      for (int i = 0; i < pickableSubchannels.length; i++) {
+        Subchannel subchannel = subchannels.get(ring.host(i));
         ConnectivityStateInfo stateInfo = subchannel.getAttributes().get(STATE_INFO).value;
-        pickableSubchannels.put(entry.getKey(), new SubchannelView(subchannel, stateInfo));
+        pickableSubchannels[i] = new SubchannelView(subchannel, stateInfo);
       }
     }
 
@@ -329,30 +298,7 @@ final class RingHashLoadBalancer extends LoadBalancer {
       }
 
       // Find the ring entry with hash next to (clockwise) the RPC's hash.
-      int low = 0;
-      int high = ring.size();
-      int mid;
-      while (true) {
-        mid = (low + high) / 2;
-        if (mid == ring.size()) {
-          mid = 0;
-          break;
-        }
-        long midVal = ring.get(mid).hash;
-        long midValL = mid == 0 ? 0 : ring.get(mid - 1).hash;
-        if (requestHash <= midVal && requestHash > midValL) {
-          break;
-        }
-        if (midVal < requestHash) {
-          low = mid + 1;
-        } else {
-          high =  mid - 1;
-        }
-        if (low > high) {
-          mid = 0;
-          break;
-        }
-      }
+      int mid = ring.find(requestHash);
 
       // Try finding a READY subchannel. Starting from the ring entry next to the RPC's hash.
       // If the one of the first two subchannels is not in TRANSIENT_FAILURE, return result
@@ -363,10 +309,10 @@ final class RingHashLoadBalancer extends LoadBalancer {
       boolean canBuffer = true;  // true if RPCs can be buffered with a pending subchannel
       Subchannel firstSubchannel = null;
       Subchannel secondSubchannel = null;
-      for (int i = 0; i < ring.size(); i++) {
-        int index = (mid + i) % ring.size();
-        EquivalentAddressGroup addrKey = ring.get(index).addrKey;
-        SubchannelView subchannel = pickableSubchannels.get(addrKey);
+      int ringSize = ring.size();
+      for (int i = 0; i < ringSize; i++) {
+        int index = mid + i < ringSize ? mid + i : mid + i - ringSize;
+        SubchannelView subchannel = pickableSubchannels[ring.hostIndex(index)];
         if (subchannel.stateInfo.getState() == READY) {
           return PickResult.withSubchannel(subchannel.subchannel);
         }
@@ -402,7 +348,7 @@ final class RingHashLoadBalancer extends LoadBalancer {
         }
       }
       // Fail the pick with error status of the original subchannel hit by hash.
-      SubchannelView originalSubchannel = pickableSubchannels.get(ring.get(mid).addrKey);
+      SubchannelView originalSubchannel = pickableSubchannels[ring.hostIndex(mid)];
       return PickResult.withError(originalSubchannel.stateInfo.getStatus());
     }
   }
@@ -421,18 +367,283 @@ final class RingHashLoadBalancer extends LoadBalancer {
     }
   }
 
-  private static final class RingEntry implements Comparable<RingEntry> {
-    private final long hash;
-    private final EquivalentAddressGroup addrKey;
+  /**
+   * The ring, kept as parallel primitive arrays sorted by hash instead of one object per entry:
+   * {@code hashes[i]} is the position of the i-th entry and {@code hostIndices[i]} the index of
+   * its host in {@code hosts}. Even rings of millions of entries only take a few tens of
+   * megabytes, and picks binary search the hashes without allocating.
+   */
+  @VisibleForTesting
+  static final class Ring {
+    private static final int MAX_INT_DIGITS = 10;
+
+    private final EquivalentAddressGroup[] hosts;
+    // Number of entries of each host on the ring.
+    private final int[] hostEntryCounts;
+    private final long[] hashes;
+    private final int[] hostIndices;
+
+    private Ring(EquivalentAddressGroup[] hosts, int[] hostEntryCounts, long[] hashes,
+        int[] hostIndices) {
+      this.hosts = hosts;
+      this.hostEntryCounts = hostEntryCounts;
+      this.hashes = hashes;
+      this.hostIndices = hostIndices;
+    }
 
-    private RingEntry(long hash, EquivalentAddressGroup addrKey) {
-      this.hash = hash;
-      this.addrKey = addrKey;
+    int size() {
+      return hashes.length;
     }
 
-    @Override
-    public int compareTo(RingEntry entry) {
-      return Long.compare(hash, entry.hash);
+    int hostCount() {
+      return hosts.length;
+    }
+
+    EquivalentAddressGroup host(int hostIndex) {
+      return hosts[hostIndex];
+    }
+
+    long hash(int index) {
+      return hashes[index];
+    }
+
+    int hostIndex(int index) {
+      return hostIndices[index];
+    }
+
+    /**
+     * Returns the index of the first entry whose hash is not smaller than the given hash, or
+     * the first entry if there is none (the ring wraps around).
+     */
+    int find(long hash) {
+      int low = 0;
+      int high = hashes.length;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (hashes[mid] < hash) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low == hashes.length ? 0 : low;
+    }
+
+    /**
+     * Returns the number of ring entries per unit of weight.
+     *
+     * <p>Scale up the number of hashes per host such that the least-weighted host gets a whole
+     * number of hashes on the the ring. Other hosts might not end up with whole numbers, and
+     * that's fine (the ring-building algorithm can handle this). This preserves the original
+     * implementation's behavior: when weights aren't provided, all hosts should get an equal
+     * number of hashes. In the case where this number exceeds the max_ring_size, it's scaled
+     * back down to fit.
+     *
+     * <p>Hosts whose weight is a multiple of the least weight thus get a whole number of entries
+     * per unit of weight, which only changes when the total weight moves it to the next integer.
+     * For example, with a min_ring_size of 1024, each of 100 equally weighted hosts gets 11
+     * entries and keeps them as long as there are 94 to 102 hosts, so that {@link #build} can
+     * reuse their entries. Once the ring is capped at max_ring_size, every change of the total
+     * weight changes the entries of all hosts.
+     */
+    static double hashesPerWeight(
+        long minWeight, long totalWeight, long minRingSize, long maxRingSize) {
+      double hashesPerMinWeight = Math.ceil((double) minWeight * minRingSize / totalWeight);
+      return Math.min(hashesPerMinWeight / minWeight, (double) maxRingSize / totalWeight);
+    }
+
+    /**
+     * Builds the ring for the given hosts. Each host gets {@code hashesPerWeight} entries per
+     * unit of its weight, at the hashes of {@code "<addresses>_<n>"}.
+     *
+     * <p>Entries of hosts whose number of entries did not change are taken from the previous
+     * ring, where they are already sorted, so that only the entries of added or reweighted
+     * hosts are hashed and sorted before being merged in.
+     */
+    static Ring build(Map<EquivalentAddressGroup, Long> serverWeights, double hashesPerWeight,
+        @Nullable Ring previous) {
+      int hostCount = serverWeights.size();
+      EquivalentAddressGroup[] hosts = new EquivalentAddressGroup[hostCount];
+      int[] hostEntryCounts = new int[hostCount];
+      int size = 0;
+      double currentHashes = 0.0;
+      long cumulativeWeight = 0;
+      int hostIndex = 0;
+      for (Map.Entry<EquivalentAddressGroup, Long> entry : serverWeights.entrySet()) {
+        hosts[hostIndex] = entry.getKey();
+        cumulativeWeight += entry.getValue();
+        // Derived from the cumulative weight rather than summed up per host, so that rounding
+        // errors do not add up and a whole number of entries per weight stays exact.
+        double targetHashes = hashesPerWeight * cumulativeWeight;
+        int count = 0;
+        while (currentHashes < targetHashes) {
+          count++;
+          currentHashes++;
+        }
+        hostEntryCounts[hostIndex] = count;
+        size += count;
+        hostIndex++;
+      }
+
+      // Maps the host indices of the previous ring to the ones of the new ring, -1 for hosts
+      // whose entries are not reused.
+      int[] reusedHosts = null;
+      boolean[] reused = new boolean[hostCount];
+      int reusedSize = 0;
+      if (previous != null) {
+        reusedHosts = new int[previous.hosts.length];
+        Arrays.fill(reusedHosts, -1);
+        Map<EquivalentAddressGroup, Integer> previousHostIndices =
+            new HashMap<>(previous.hosts.length * 2);
+        for (int i = 0; i < previous.hosts.length; i++) {
+          previousHostIndices.put(previous.hosts[i], i);
+        }
+        boolean unchanged = previous.hosts.length == hostCount;
+        for (int i = 0; i < hostCount; i++) {
+          Integer previousIndex = previousHostIndices.get(hosts[i]);
+          if (previousIndex != null
+              && previous.hostEntryCounts[previousIndex] == hostEntryCounts[i]) {
+            reusedHosts[previousIndex] = i;
+            reused[i] = true;
+            reusedSize += hostEntryCounts[i];
+            unchanged &= previousIndex == i;
+          } else {
+            unchanged = false;
+          }
+        }
+        if (unchanged) {
+          return previous;
+        }
+      }
+
+      long[] newHashes = new long[size - reusedSize];
+      int[] newHostIndices = new int[size - reusedSize];
+      hashEntries(hosts, hostEntryCounts, reused, newHashes, newHostIndices);
+      sort(newHashes, newHostIndices);
+      if (reusedSize == 0) {
+        return new Ring(hosts, hostEntryCounts, newHashes, newHostIndices);
+      }
+
+      // Merge the entries reused from the previous ring with the new ones.
+      long[] hashes = new long[size];
+      int[] hostIndices = new int[size];
+      int previousPos = 0;
+      int newPos = 0;
+      for (int i = 0; i < size; i++) {
+        while (previousPos < previous.hashes.length
+            && reusedHosts[previous.hostIndices[previousPos]] == -1) {
+          previousPos++;
+        }
+        if (newPos == newHashes.length || (previousPos < previous.hashes.length
+            && previous.hashes[previousPos] <= newHashes[newPos])) {
+          hashes[i] = previous.hashes[previousPos];
+          hostIndices[i] = reusedHosts[previous.hostIndices[previousPos]];
+          previousPos++;
+        } else {
+          hashes[i] = newHashes[newPos];
+          hostIndices[i] = newHostIndices[newPos];
+          newPos++;
+        }
+      }
+      return new Ring(hosts, hostEntryCounts, hashes, hostIndices);
+    }
+
+    /**
+     * Hashes the entries of the hosts not reused into the given arrays. The string to hash is
+     * written as ASCII bytes into a single buffer, only rewriting the counter for each entry.
+     */
+    private static void hashEntries(EquivalentAddressGroup[] hosts, int[] hostEntryCounts,
+        boolean[] reused, long[] hashes, int[] hostIndices) {
+      byte[] buffer = new byte[64];
+      int pos = 0;
+      for (int i = 0; i < hosts.length; i++) {
+        if (reused[i]) {
+          continue;
+        }
+        // TODO(chengyuanzhang): is using the list of socket address correct?
+        String prefix = hosts[i].getAddresses().toString();
+        int prefixLength = prefix.length() + 1;
+        if (buffer.length < prefixLength + MAX_INT_DIGITS) {
+          buffer = new byte[prefixLength + MAX_INT_DIGITS];
+        }
+        for (int j = 0; j < prefix.length(); j++) {
+          buffer[j] = (byte) prefix.charAt(j);
+        }
+        buffer[prefix.length()] = '_';
+        for (int n = 0; n < hostEntryCounts[i]; n++) {
+          int length = prefixLength + writeDecimal(buffer, prefixLength, n);
+          hashes[pos] = hashFunc.hashBytes(buffer, 0, length);
+          hostIndices[pos] = i;
+          pos++;
+        }
+      }
+    }
+
+    /** Writes the decimal digits of a non-negative value and returns their number. */
+    private static int writeDecimal(byte[] buffer, int offset, int value) {
+      int digits = 1;
+      for (int v = value / 10; v != 0; v /= 10) {
+        digits++;
+      }
+      for (int i = offset + digits - 1; i >= offset; i--) {
+        buffer[i] = (byte) ('0' + value % 10);
+        value /= 10;
+      }
+      return digits;
+    }
+
+    /**
+     * Sorts the hashes in signed order, moving the host indices along. This is an LSD radix sort
+     * over the 8 bytes of the hashes, which is linear in the number of entries; passes over a
+     * byte that is the same for all hashes are skipped.
+     */
+    @VisibleForTesting
+    static void sort(long[] hashes, int[] hostIndices) {
+      int size = hashes.length;
+      if (size < 2) {
+        return;
+      }
+      long[] srcHashes = hashes;
+      int[] srcHostIndices = hostIndices;
+      long[] dstHashes = new long[size];
+      int[] dstHostIndices = new int[size];
+      int[] offsets = new int[256];
+      for (int shift = 0; shift < Long.SIZE; shift += 8) {
+        Arrays.fill(offsets, 0);
+        for (int i = 0; i < size; i++) {
+          offsets[digit(srcHashes[i], shift)]++;
+        }
+        if (offsets[digit(srcHashes[0], shift)] == size) {
+          continue;
+        }
+        int offset = 0;
+        for (int d = 0; d < offsets.length; d++) {
+          int count = offsets[d];
+          offsets[d] = offset;
+          offset += count;
+        }
+        for (int i = 0; i < size; i++) {
+          int pos = offsets[digit(srcHashes[i], shift)]++;
+          dstHashes[pos] = srcHashes[i];
+          dstHostIndices[pos] = srcHostIndices[i];
+        }
+        long[] tmpHashes = srcHashes;
+        srcHashes = dstHashes;
+        dstHashes = tmpHashes;
+        int[] tmpHostIndices = srcHostIndices;
+        srcHostIndices = dstHostIndices;
+        dstHostIndices = tmpHostIndices;
+      }
+      if (srcHashes != hashes) {
+        System.arraycopy(srcHashes, 0, hashes, 0, size);
+        System.arraycopy(srcHostIndices, 0, hostIndices, 0, size);
+      }
+    }
+
+    private static int digit(long hash, int shift) {
+      int digit = (int) (hash >>> shift) & 0xFF;
+      // Flip the sign bit so that negative hashes sort first.
+      return shift == Long.SIZE - 8 ? digit ^ 0x80 : digit;
     }
   }
 
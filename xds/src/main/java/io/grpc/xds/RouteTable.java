@@ -0,0 +1,205 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.xds;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.grpc.Metadata;
+import io.grpc.xds.VirtualHost.Route;
+import io.grpc.xds.VirtualHost.Route.RouteAction;
+import io.grpc.xds.VirtualHost.Route.RouteAction.ClusterWeight;
+import io.grpc.xds.VirtualHost.Route.RouteMatch;
+import io.grpc.xds.VirtualHost.Route.RouteMatch.PathMatcher;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+
+/**
+ * The routes of a virtual host, compiled for finding the route of an RPC without evaluating the
+ * matchers of every route.
+ *
+ * <p>Routes with case-sensitive path or prefix matchers are looked up by path and in a prefix
+ * trie, other routes have their path matchers evaluated. The routes whose path matchers match a
+ * method are memoized per method, up to the first one without header or fraction matchers, as
+ * routes after that one are never selected. Only the header and fraction matchers of the
+ * memoized routes are evaluated for each RPC.
+ */
+final class RouteTable {
+  // Bounds the memory used for memoizing, in case the channel is used with unbounded methods.
+  @VisibleForTesting
+  static final int MAX_MEMOIZED_METHODS = 1000;
+
+  private final List<CompiledRoute> routes;
+  private final Map<String, List<Integer>> pathRoutes = new HashMap<>();
+  private final PrefixTrie prefixRoutes = new PrefixTrie();
+  private final List<Integer> otherRoutes = new ArrayList<>();
+  private final ConcurrentMap<String, CompiledRoute[]> routesByMethod =
+      new ConcurrentHashMap<>();
+
+  RouteTable(List<Route> routes) {
+    List<CompiledRoute> compiledRoutes = new ArrayList<>(routes.size());
+    for (int i = 0; i < routes.size(); i++) {
+      Route route = routes.get(i);
+      compiledRoutes.add(new CompiledRoute(route));
+      PathMatcher pathMatcher = route.routeMatch().pathMatcher();
+      if (pathMatcher.caseSensitive() && pathMatcher.path() != null) {
+        List<Integer> indices = pathRoutes.get(pathMatcher.path());
+        if (indices == null) {
+          indices = new ArrayList<>(1);
+          pathRoutes.put(pathMatcher.path(), indices);
+        }
+        indices.add(i);
+      } else if (pathMatcher.caseSensitive() && pathMatcher.prefix() != null) {
+        prefixRoutes.add(pathMatcher.prefix(), i);
+      } else {
+        otherRoutes.add(i);
+      }
+    }
+    this.routes = Collections.unmodifiableList(compiledRoutes);
+  }
+
+  /**
+   * Returns the first route matching an RPC to the given method, or {@code null} if no route
+   * matches.
+   */
+  @Nullable
+  CompiledRoute findRoute(String fullMethodName, Metadata headers, ThreadSafeRandom random) {
+    CompiledRoute[] candidates = routesByMethod.get(fullMethodName);
+    if (candidates == null) {
+      candidates = findPathMatchingRoutes("/" + fullMethodName);
+      if (routesByMethod.size() < MAX_MEMOIZED_METHODS) {
+        routesByMethod.put(fullMethodName, candidates);
+      }
+    }
+    for (CompiledRoute candidate : candidates) {
+      if (XdsNameResolver.matchHeadersAndFraction(candidate.route.routeMatch(), headers, random)) {
+        return candidate;
+      }
+    }
+    return null;
+  }
+
+  private CompiledRoute[] findPathMatchingRoutes(String path) {
+    List<Integer> indices = new ArrayList<>();
+    List<Integer> matchingPathRoutes = pathRoutes.get(path);
+    if (matchingPathRoutes != null) {
+      indices.addAll(matchingPathRoutes);
+    }
+    prefixRoutes.findPrefixesOf(path, indices);
+    for (int index : otherRoutes) {
+      if (XdsNameResolver.matchPath(routes.get(index).route.routeMatch().pathMatcher(), path)) {
+        indices.add(index);
+      }
+    }
+    Collections.sort(indices);
+    List<CompiledRoute> candidates = new ArrayList<>(indices.size());
+    for (int index : indices) {
+      CompiledRoute candidate = routes.get(index);
+      candidates.add(candidate);
+      if (candidate.matchesAnyHeaders) {
+        break;
+      }
+    }
+    return candidates.toArray(new CompiledRoute[0]);
+  }
+
+  /**
+   * A route with its weighted cluster selection precomputed.
+   */
+  static final class CompiledRoute {
+    final Route route;
+    // True if the route matches any RPC matching its path matcher.
+    private final boolean matchesAnyHeaders;
+    // Running totals of the weights of the weighted clusters, null without weighted clusters.
+    @Nullable
+    private final int[] cumulativeWeights;
+
+    private CompiledRoute(Route route) {
+      this.route = route;
+      RouteMatch routeMatch = route.routeMatch();
+      matchesAnyHeaders =
+          routeMatch.headerMatchers().isEmpty() && routeMatch.fractionMatcher() == null;
+      RouteAction action = route.routeAction();
+      if (action != null && action.cluster() == null && action.weightedClusters() != null) {
+        cumulativeWeights = new int[action.weightedClusters().size()];
+        int totalWeight = 0;
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+          totalWeight += action.weightedClusters().get(i).weight();
+          cumulativeWeights[i] = totalWeight;
+        }
+      } else {
+        cumulativeWeights = null;
+      }
+    }
+
+    /**
+     * Picks one of the weighted clusters of the route with a probability proportional to its
+     * weight.
+     */
+    ClusterWeight selectWeightedCluster(ThreadSafeRandom random) {
+      int select = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+      // Find the first cluster whose running total of weights exceeds the selected value.
+      int low = 0;
+      int high = cumulativeWeights.length - 1;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (cumulativeWeights[mid] > select) {
+          high = mid;
+        } else {
+          low = mid + 1;
+        }
+      }
+      return route.routeAction().weightedClusters().get(low);
+    }
+  }
+
+  /**
+   * Indices of routes by the case-sensitive path prefix they match.
+   */
+  private static final class PrefixTrie {
+    private final Map<Character, PrefixTrie> children = new HashMap<>();
+    private final List<Integer> routes = new ArrayList<>(0);
+
+    void add(String prefix, int index) {
+      PrefixTrie node = this;
+      for (int i = 0; i < prefix.length(); i++) {
+        PrefixTrie child = node.children.get(prefix.charAt(i));
+        if (child == null) {
+          child = new PrefixTrie();
+          node.children.put(prefix.charAt(i), child);
+        }
+        node = child;
+      }
+      node.routes.add(index);
+    }
+
+    /**
+     * Adds the indices of the routes matching a prefix of the given path to {@code indices}.
+     */
+    void findPrefixesOf(String path, List<Integer> indices) {
+      PrefixTrie node = this;
+      for (int i = 0; node != null; i++) {
+        indices.addAll(node.routes);
+        node = i < path.length() ? node.children.get(path.charAt(i)) : null;
+      }
+    }
+  }
+}
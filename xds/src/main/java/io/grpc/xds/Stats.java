@@ -18,6 +18,7 @@ package io.grpc.xds;
 
 import com.google.auto.value.AutoValue;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import javax.annotation.Nullable;
 
 /** Represents client load stats. */
@@ -101,10 +102,34 @@ final class Stats {
 
     abstract long totalRequestsInProgress();
 
+    abstract ImmutableMap<String, BackendLoadMetricStats> loadMetricStatsMap();
+
     static UpstreamLocalityStats create(Locality locality, long totalIssuedRequests,
         long totalSuccessfulRequests, long totalErrorRequests, long totalRequestsInProgress) {
+      return create(locality, totalIssuedRequests, totalSuccessfulRequests, totalErrorRequests,
+          totalRequestsInProgress, ImmutableMap.<String, BackendLoadMetricStats>of());
+    }
+
+    static UpstreamLocalityStats create(Locality locality, long totalIssuedRequests,
+        long totalSuccessfulRequests, long totalErrorRequests, long totalRequestsInProgress,
+        ImmutableMap<String, BackendLoadMetricStats> loadMetricStatsMap) {
       return new AutoValue_Stats_UpstreamLocalityStats(locality, totalIssuedRequests,
-          totalSuccessfulRequests, totalErrorRequests, totalRequestsInProgress);
+          totalSuccessfulRequests, totalErrorRequests, totalRequestsInProgress,
+          loadMetricStatsMap);
+    }
+  }
+
+  /** Load metric stats reported by backends for calls finished in a locality. */
+  @AutoValue
+  abstract static class BackendLoadMetricStats {
+    abstract long numRequestsFinishedWithMetric();
+
+    abstract double totalMetricValue();
+
+    static BackendLoadMetricStats create(long numRequestsFinishedWithMetric,
+        double totalMetricValue) {
+      return new AutoValue_Stats_BackendLoadMetricStats(numRequestsFinishedWithMetric,
+          totalMetricValue);
     }
   }
 }
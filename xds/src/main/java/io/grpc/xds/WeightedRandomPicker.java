@@ -35,6 +35,9 @@ final class WeightedRandomPicker extends SubchannelPicker {
 
   private final ThreadSafeRandom random;
   private final int totalWeight;
+  // cumulativeWeights[i] is the sum of the weights of children 0 to i, so that a pick is a binary
+  // search rather than a scan over all children.
+  private final int[] cumulativeWeights;
 
   static final class WeightedChildPicker {
     private final int weight;
@@ -94,9 +97,10 @@ final class WeightedRandomPicker extends SubchannelPicker {
     this.weightedChildPickers = Collections.unmodifiableList(weightedChildPickers);
 
     int totalWeight = 0;
-    for (WeightedChildPicker weightedChildPicker : weightedChildPickers) {
-      int weight = weightedChildPicker.getWeight();
-      totalWeight += weight;
+    cumulativeWeights = new int[weightedChildPickers.size()];
+    for (int i = 0; i < weightedChildPickers.size(); i++) {
+      totalWeight += weightedChildPickers.get(i).getWeight();
+      cumulativeWeights[i] = totalWeight;
     }
     this.totalWeight = totalWeight;
 
@@ -105,30 +109,37 @@ final class WeightedRandomPicker extends SubchannelPicker {
 
   @Override
   public final PickResult pickSubchannel(PickSubchannelArgs args) {
-    SubchannelPicker childPicker = null;
+    SubchannelPicker childPicker;
 
     if (totalWeight == 0) {
       childPicker =
           weightedChildPickers.get(random.nextInt(weightedChildPickers.size())).getPicker();
     } else {
       int rand = random.nextInt(totalWeight);
-
-      // Find the first idx such that rand < accumulatedWeights[idx]
-      // Not using Arrays.binarySearch for better readability.
-      int accumulatedWeight = 0;
-      for (int idx = 0; idx < weightedChildPickers.size(); idx++) {
-        accumulatedWeight += weightedChildPickers.get(idx).getWeight();
-        if (rand < accumulatedWeight) {
-          childPicker = weightedChildPickers.get(idx).getPicker();
-          break;
-        }
-      }
-      checkNotNull(childPicker, "childPicker not found");
+      childPicker = weightedChildPickers.get(findChild(rand)).getPicker();
     }
 
     return childPicker.pickSubchannel(args);
   }
 
+  /**
+   * Finds the first index such that {@code rand < cumulativeWeights[index]}. Children with zero
+   * weight share the cumulative weight of the previous child and are never selected.
+   */
+  private int findChild(int rand) {
+    int low = 0;
+    int high = cumulativeWeights.length - 1;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (rand < cumulativeWeights[mid]) {
+        high = mid;
+      } else {
+        low = mid + 1;
+      }
+    }
+    return low;
+  }
+
   @Override
   public String toString() {
     return MoreObjects.toStringHelper(this)
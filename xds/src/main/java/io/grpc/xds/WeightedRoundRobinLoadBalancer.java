@@ -0,0 +1,681 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.xds;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.grpc.ConnectivityState.CONNECTING;
+import static io.grpc.ConnectivityState.IDLE;
+import static io.grpc.ConnectivityState.READY;
+import static io.grpc.ConnectivityState.SHUTDOWN;
+import static io.grpc.ConnectivityState.TRANSIENT_FAILURE;
+
+import com.github.udpa.udpa.data.orca.v1.OrcaLoadReport;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Ticker;
+import io.grpc.Attributes;
+import io.grpc.ClientStreamTracer;
+import io.grpc.ConnectivityState;
+import io.grpc.ConnectivityStateInfo;
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.LoadBalancer;
+import io.grpc.Status;
+import io.grpc.SynchronizationContext;
+import io.grpc.SynchronizationContext.ScheduledHandle;
+import io.grpc.xds.OrcaOobUtil.OrcaOobReportListener;
+import io.grpc.xds.OrcaOobUtil.OrcaReportingConfig;
+import io.grpc.xds.OrcaOobUtil.OrcaReportingHelperWrapper;
+import io.grpc.xds.OrcaPerRequestUtil.OrcaPerRequestReportListener;
+import io.grpc.xds.ThreadSafeRandom.ThreadSafeRandomImpl;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A {@link LoadBalancer} that provides weighted round robin load balancing over the READY
+ * subchannels. Subchannel weights are derived from the backend metrics reported by the backends
+ * with ORCA, either out-of-band or in the trailers of each call, as {@code rps / cpu_utilization}.
+ *
+ * <p>A weight is only used once the backend has been reporting it for the blackout period, and
+ * is dropped when the backend stops reporting for the expiration period. Subchannels without a
+ * usable weight get the mean weight of the others. Weights are recomputed periodically into a
+ * {@link StaticStrideScheduler}, so picks neither lock nor allocate.
+ */
+final class WeightedRoundRobinLoadBalancer extends LoadBalancer {
+  @VisibleForTesting
+  static final Attributes.Key<Ref<ConnectivityStateInfo>> STATE_INFO =
+      Attributes.Key.create("state-info");
+  @VisibleForTesting
+  static final Attributes.Key<EndpointWeight> ENDPOINT_WEIGHT =
+      Attributes.Key.create("endpoint-weight");
+
+  private final Helper helper;
+  private final SynchronizationContext syncContext;
+  private final Ticker ticker;
+  private final ThreadSafeRandom random;
+  private final Map<EquivalentAddressGroup, Subchannel> subchannels =
+      new HashMap<>();
+  private final Runnable updateWeightTask = new UpdateWeightTask();
+
+  private WeightedRoundRobinConfig config = WeightedRoundRobinConfig.DEFAULT;
+  private ConnectivityState currentState;
+  private WeightedRoundRobinPicker currentPicker = new EmptyPicker(EMPTY_OK);
+  @Nullable
+  private ScheduledHandle weightUpdateTimer;
+
+  WeightedRoundRobinLoadBalancer(Helper helper) {
+    this(helper, Ticker.systemTicker(), ThreadSafeRandomImpl.instance);
+  }
+
+  @VisibleForTesting
+  WeightedRoundRobinLoadBalancer(Helper helper, Ticker ticker, ThreadSafeRandom random) {
+    this.helper = checkNotNull(helper, "helper");
+    this.syncContext = checkNotNull(helper.getSynchronizationContext(), "syncContext");
+    this.ticker = checkNotNull(ticker, "ticker");
+    this.random = checkNotNull(random, "random");
+  }
+
+  @Override
+  public void handleResolvedAddresses(ResolvedAddresses resolvedAddresses) {
+    WeightedRoundRobinConfig newConfig =
+        (WeightedRoundRobinConfig) resolvedAddresses.getLoadBalancingPolicyConfig();
+    // Config may be null if weighted_round_robin is specified as the default policy of the
+    // channel.
+    if (newConfig == null) {
+      newConfig = WeightedRoundRobinConfig.DEFAULT;
+    }
+    boolean configChanged = !newConfig.equals(config);
+    config = newConfig;
+
+    List<EquivalentAddressGroup> servers = resolvedAddresses.getAddresses();
+    Set<EquivalentAddressGroup> currentAddrs = subchannels.keySet();
+    Map<EquivalentAddressGroup, EquivalentAddressGroup> latestAddrs = stripAttrs(servers);
+    Set<EquivalentAddressGroup> removedAddrs = setsDifference(currentAddrs, latestAddrs.keySet());
+
+    for (Map.Entry<EquivalentAddressGroup, EquivalentAddressGroup> latestEntry :
+        latestAddrs.entrySet()) {
+      EquivalentAddressGroup strippedAddressGroup = latestEntry.getKey();
+      EquivalentAddressGroup originalAddressGroup = latestEntry.getValue();
+      Subchannel existingSubchannel = subchannels.get(strippedAddressGroup);
+      if (existingSubchannel != null) {
+        // EAG's Attributes may have changed.
+        existingSubchannel.updateAddresses(Collections.singletonList(originalAddressGroup));
+        if (configChanged) {
+          getEndpointWeight(existingSubchannel).updateReportingConfig(config);
+        }
+        continue;
+      }
+      // Create new subchannels for new addresses.
+      EndpointWeight endpointWeight = new EndpointWeight(ticker);
+      // The ORCA helper reports the load of all its subchannels to the same listener, so each
+      // subchannel gets its own. It is created even without out-of-band reporting, so that a
+      // later config can turn it on for the existing subchannels.
+      OrcaReportingHelperWrapper orcaWrapper =
+          OrcaOobUtil.getInstance().newOrcaReportingHelperWrapper(helper, endpointWeight);
+      endpointWeight.orcaWrapper = orcaWrapper;
+      endpointWeight.updateReportingConfig(config);
+      Attributes subchannelAttrs = Attributes.newBuilder()
+          .set(STATE_INFO, new Ref<>(ConnectivityStateInfo.forNonError(IDLE)))
+          .set(ENDPOINT_WEIGHT, endpointWeight)
+          .build();
+
+      final Subchannel subchannel = checkNotNull(
+          orcaWrapper.asHelper().createSubchannel(CreateSubchannelArgs.newBuilder()
+              .setAddresses(originalAddressGroup)
+              .setAttributes(subchannelAttrs)
+              .build()),
+          "subchannel");
+      subchannel.start(new SubchannelStateListener() {
+        @Override
+        public void onSubchannelState(ConnectivityStateInfo state) {
+          processSubchannelState(subchannel, state);
+        }
+      });
+      subchannels.put(strippedAddressGroup, subchannel);
+      subchannel.requestConnection();
+    }
+
+    ArrayList<Subchannel> removedSubchannels = new ArrayList<>();
+    for (EquivalentAddressGroup addressGroup : removedAddrs) {
+      removedSubchannels.add(subchannels.remove(addressGroup));
+    }
+
+    // Update the picker before shutting down the subchannels, to reduce the chance of the race
+    // between picking a subchannel and shutting it down.
+    updateBalancingState(configChanged);
+
+    // Shutdown removed subchannels
+    for (Subchannel removedSubchannel : removedSubchannels) {
+      shutdownSubchannel(removedSubchannel);
+    }
+  }
+
+  @Override
+  public void handleNameResolutionError(Status error) {
+    if (currentState != READY)  {
+      updateBalancingState(TRANSIENT_FAILURE, new EmptyPicker(error));
+    }
+  }
+
+  private void processSubchannelState(Subchannel subchannel, ConnectivityStateInfo stateInfo) {
+    if (subchannels.get(stripAttrs(subchannel.getAddresses())) != subchannel) {
+      return;
+    }
+    if (stateInfo.getState() == TRANSIENT_FAILURE || stateInfo.getState() == IDLE) {
+      helper.refreshNameResolution();
+    }
+    if (stateInfo.getState() == IDLE) {
+      subchannel.requestConnection();
+    }
+    Ref<ConnectivityStateInfo> subchannelStateRef = getSubchannelStateInfoRef(subchannel);
+    if (subchannelStateRef.value.getState().equals(TRANSIENT_FAILURE)) {
+      if (stateInfo.getState().equals(CONNECTING) || stateInfo.getState().equals(IDLE)) {
+        return;
+      }
+    }
+    if (stateInfo.getState() != READY) {
+      // The weight starts over once the subchannel is READY again, after a blackout period.
+      getEndpointWeight(subchannel).reset();
+    }
+    subchannelStateRef.value = stateInfo;
+    updateBalancingState(false);
+  }
+
+  private void shutdownSubchannel(Subchannel subchannel) {
+    subchannel.shutdown();
+    getSubchannelStateInfoRef(subchannel).value =
+        ConnectivityStateInfo.forNonError(SHUTDOWN);
+  }
+
+  @Override
+  public void shutdown() {
+    cancelWeightUpdateTimer();
+    for (Subchannel subchannel : getSubchannels()) {
+      shutdownSubchannel(subchannel);
+    }
+    subchannels.clear();
+  }
+
+  private static final Status EMPTY_OK = Status.OK.withDescription("no subchannels ready");
+
+  /**
+   * Updates picker with the list of active subchannels (state == READY).
+   */
+  @SuppressWarnings("ReferenceEquality")
+  private void updateBalancingState(boolean configChanged) {
+    List<Subchannel> activeList = filterNonFailingSubchannels(getSubchannels());
+    if (activeList.isEmpty()) {
+      cancelWeightUpdateTimer();
+      // No READY subchannels, determine aggregate state and error status
+      boolean isConnecting = false;
+      Status aggStatus = EMPTY_OK;
+      for (Subchannel subchannel : getSubchannels()) {
+        ConnectivityStateInfo stateInfo = getSubchannelStateInfoRef(subchannel).value;
+        // This subchannel IDLE is not because of channel IDLE_TIMEOUT,
+        // in which case LB is already shutdown.
+        // WRRLB will request connection immediately on subchannel IDLE.
+        if (stateInfo.getState() == CONNECTING || stateInfo.getState() == IDLE) {
+          isConnecting = true;
+        }
+        if (aggStatus == EMPTY_OK || !aggStatus.isOk()) {
+          aggStatus = stateInfo.getStatus();
+        }
+      }
+      updateBalancingState(isConnecting ? CONNECTING : TRANSIENT_FAILURE,
+          // If all subchannels are TRANSIENT_FAILURE, return the Status associated with
+          // an arbitrary subchannel, otherwise return OK.
+          new EmptyPicker(aggStatus));
+    } else {
+      ReadyPicker picker = new ReadyPicker(activeList, config, random.nextInt(Integer.MAX_VALUE));
+      if (configChanged || !picker.isEquivalentTo(currentPicker)) {
+        picker.updateWeights(ticker.read());
+        updateBalancingState(READY, picker);
+      }
+      if (weightUpdateTimer == null || configChanged) {
+        cancelWeightUpdateTimer();
+        scheduleWeightUpdate();
+      }
+    }
+  }
+
+  private void updateBalancingState(ConnectivityState state, WeightedRoundRobinPicker picker) {
+    if (state != currentState || !picker.isEquivalentTo(currentPicker)) {
+      helper.updateBalancingState(state, picker);
+      currentState = state;
+      currentPicker = picker;
+    }
+  }
+
+  private void scheduleWeightUpdate() {
+    weightUpdateTimer = syncContext.schedule(
+        updateWeightTask, config.weightUpdatePeriodNanos, TimeUnit.NANOSECONDS,
+        helper.getScheduledExecutorService());
+  }
+
+  private void cancelWeightUpdateTimer() {
+    if (weightUpdateTimer != null) {
+      weightUpdateTimer.cancel();
+      weightUpdateTimer = null;
+    }
+  }
+
+  private final class UpdateWeightTask implements Runnable {
+    @Override
+    public void run() {
+      if (currentPicker instanceof ReadyPicker) {
+        ((ReadyPicker) currentPicker).updateWeights(ticker.read());
+      }
+      scheduleWeightUpdate();
+    }
+  }
+
+  /**
+   * Filters out non-ready subchannels.
+   */
+  private static List<Subchannel> filterNonFailingSubchannels(
+      Collection<Subchannel> subchannels) {
+    List<Subchannel> readySubchannels = new ArrayList<>(subchannels.size());
+    for (Subchannel subchannel : subchannels) {
+      if (isReady(subchannel)) {
+        readySubchannels.add(subchannel);
+      }
+    }
+    return readySubchannels;
+  }
+
+  /**
+   * Converts list of {@link EquivalentAddressGroup} to {@link EquivalentAddressGroup} set and
+   * remove all attributes. The values are the original EAGs.
+   */
+  private static Map<EquivalentAddressGroup, EquivalentAddressGroup> stripAttrs(
+      List<EquivalentAddressGroup> groupList) {
+    Map<EquivalentAddressGroup, EquivalentAddressGroup> addrs = new HashMap<>(groupList.size() * 2);
+    for (EquivalentAddressGroup group : groupList) {
+      addrs.put(stripAttrs(group), group);
+    }
+    return addrs;
+  }
+
+  private static EquivalentAddressGroup stripAttrs(EquivalentAddressGroup eag) {
+    return new EquivalentAddressGroup(eag.getAddresses());
+  }
+
+  @VisibleForTesting
+  Collection<Subchannel> getSubchannels() {
+    return subchannels.values();
+  }
+
+  private static Ref<ConnectivityStateInfo> getSubchannelStateInfoRef(
+      Subchannel subchannel) {
+    return checkNotNull(subchannel.getAttributes().get(STATE_INFO), "STATE_INFO");
+  }
+
+  private static EndpointWeight getEndpointWeight(Subchannel subchannel) {
+    return checkNotNull(subchannel.getAttributes().get(ENDPOINT_WEIGHT), "ENDPOINT_WEIGHT");
+  }
+
+  // package-private to avoid synthetic access
+  static boolean isReady(Subchannel subchannel) {
+    return getSubchannelStateInfoRef(subchannel).value.getState() == READY;
+  }
+
+  private static <T> Set<T> setsDifference(Set<T> a, Set<T> b) {
+    Set<T> aCopy = new HashSet<>(a);
+    aCopy.removeAll(b);
+    return aCopy;
+  }
+
+  /**
+   * The weight of a subchannel, computed from the ORCA reports of its backend.
+   *
+   * <p>Reports may arrive from the network threads of the calls to the backend, so the fields are
+   * volatile. A lost update only delays a weight change until the next report.
+   */
+  @VisibleForTesting
+  static final class EndpointWeight
+      implements OrcaOobReportListener, OrcaPerRequestReportListener {
+    private final Ticker ticker;
+    // Set right after construction. Only accessed from the SynchronizationContext.
+    private OrcaReportingHelperWrapper orcaWrapper;
+    private volatile double weight;
+    private volatile long lastUpdatedNanos;
+    private volatile long nonEmptySinceNanos;
+    private volatile boolean hasWeight;
+
+    EndpointWeight(Ticker ticker) {
+      this.ticker = ticker;
+    }
+
+    @Override
+    public void onLoadReport(OrcaLoadReport report) {
+      double newWeight = report.getCpuUtilization() > 0
+          ? report.getRps() / report.getCpuUtilization() : 0;
+      if (newWeight <= 0) {
+        return;
+      }
+      long now = ticker.read();
+      if (!hasWeight) {
+        nonEmptySinceNanos = now;
+        hasWeight = true;
+      }
+      lastUpdatedNanos = now;
+      weight = newWeight;
+    }
+
+    /**
+     * Returns the weight to use at {@code nowNanos}, or 0 if there is none, either because it is
+     * still in its blackout period or because it has expired.
+     */
+    double getWeight(long nowNanos, WeightedRoundRobinConfig config) {
+      if (!hasWeight) {
+        return 0;
+      }
+      if (nowNanos - lastUpdatedNanos >= config.weightExpirationPeriodNanos) {
+        // The next report will start a new blackout period.
+        hasWeight = false;
+        return 0;
+      }
+      if (nowNanos - nonEmptySinceNanos < config.blackoutPeriodNanos) {
+        return 0;
+      }
+      return weight;
+    }
+
+    void reset() {
+      hasWeight = false;
+    }
+
+    /**
+     * Starts, reconfigures or stops the out-of-band reports. Per-call reports are attached by the
+     * picker, which is rebuilt on any config change.
+     */
+    void updateReportingConfig(WeightedRoundRobinConfig config) {
+      if (config.enableOobLoadReport) {
+        orcaWrapper.setReportingConfig(
+            OrcaReportingConfig.newBuilder()
+                .setReportInterval(config.oobReportingPeriodNanos, TimeUnit.NANOSECONDS)
+                .build());
+      } else {
+        orcaWrapper.clearReportingConfig();
+      }
+    }
+  }
+
+  // Only subclasses are ReadyPicker or EmptyPicker
+  private abstract static class WeightedRoundRobinPicker extends SubchannelPicker {
+    abstract boolean isEquivalentTo(WeightedRoundRobinPicker picker);
+  }
+
+  @VisibleForTesting
+  static final class ReadyPicker extends WeightedRoundRobinPicker {
+    private final List<Subchannel> list; // non-empty
+    private final EndpointWeight[] endpointWeights;
+    // Null if the weights come from out-of-band reports.
+    @Nullable
+    private final ClientStreamTracer.Factory[] reportingTracerFactories;
+    private final WeightedRoundRobinConfig config;
+    private final double[] weights;
+    private volatile StaticStrideScheduler scheduler;
+    private int sequence;
+
+    ReadyPicker(List<Subchannel> list, WeightedRoundRobinConfig config, int startSequence) {
+      checkArgument(!list.isEmpty(), "empty list");
+      this.list = list;
+      this.config = config;
+      this.sequence = startSequence;
+      this.weights = new double[list.size()];
+      this.endpointWeights = new EndpointWeight[list.size()];
+      for (int i = 0; i < endpointWeights.length; i++) {
+        endpointWeights[i] = getEndpointWeight(list.get(i));
+      }
+      if (config.enableOobLoadReport) {
+        reportingTracerFactories = null;
+      } else {
+        reportingTracerFactories = new ClientStreamTracer.Factory[list.size()];
+        for (int i = 0; i < reportingTracerFactories.length; i++) {
+          reportingTracerFactories[i] = OrcaPerRequestUtil.getInstance()
+              .newOrcaClientStreamTracerFactory(endpointWeights[i]);
+        }
+      }
+      this.scheduler = new StaticStrideScheduler(weights, startSequence);
+    }
+
+    /**
+     * Recomputes the scheduler from the current weights. Only called from the
+     * SynchronizationContext.
+     */
+    void updateWeights(long nowNanos) {
+      for (int i = 0; i < weights.length; i++) {
+        weights[i] = endpointWeights[i].getWeight(nowNanos, config);
+      }
+      // Continue the sequence where the previous scheduler is, rather than restarting it.
+      sequence += scheduler.getSequence();
+      scheduler = new StaticStrideScheduler(weights, sequence);
+    }
+
+    @Override
+    public PickResult pickSubchannel(PickSubchannelArgs args) {
+      int index = scheduler.pick();
+      if (reportingTracerFactories == null) {
+        return PickResult.withSubchannel(list.get(index));
+      }
+      return PickResult.withSubchannel(list.get(index), reportingTracerFactories[index]);
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(ReadyPicker.class)
+          .add("list", list)
+          .add("config", config)
+          .toString();
+    }
+
+    @VisibleForTesting
+    List<Subchannel> getList() {
+      return list;
+    }
+
+    @Override
+    boolean isEquivalentTo(WeightedRoundRobinPicker picker) {
+      if (!(picker instanceof ReadyPicker)) {
+        return false;
+      }
+      ReadyPicker other = (ReadyPicker) picker;
+      // the lists cannot contain duplicate subchannels
+      return other == this
+          || (list.size() == other.list.size() && config.equals(other.config)
+              && new HashSet<>(list).containsAll(other.list));
+    }
+  }
+
+  @VisibleForTesting
+  static final class EmptyPicker extends WeightedRoundRobinPicker {
+
+    private final Status status;
+
+    EmptyPicker(@Nonnull Status status) {
+      this.status = checkNotNull(status, "status");
+    }
+
+    @Override
+    public PickResult pickSubchannel(PickSubchannelArgs args) {
+      return status.isOk() ? PickResult.withNoResult() : PickResult.withError(status);
+    }
+
+    @Override
+    boolean isEquivalentTo(WeightedRoundRobinPicker picker) {
+      return picker instanceof EmptyPicker && (Objects.equal(status, ((EmptyPicker) picker).status)
+          || (status.isOk() && ((EmptyPicker) picker).status.isOk()));
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(EmptyPicker.class).add("status", status).toString();
+    }
+  }
+
+  /**
+   * A deterministic weighted round robin scheduler, whose picks are lock-free and allocation-free.
+   *
+   * <p>The weights are scaled so that the largest is {@link #K_MAX_WEIGHT}. A shared sequence
+   * number walks over the subchannels in order; on its {@code n}-th visit a subchannel of scaled
+   * weight {@code w} is picked if {@code (w * n + offset) mod K_MAX_WEIGHT >= K_MAX_WEIGHT - w},
+   * which happens for a fraction {@code w / K_MAX_WEIGHT} of the visits. The per-subchannel offset
+   * staggers subchannels of the same weight. Weights are capped at {@link #MAX_RATIO} times the
+   * mean, which bounds the number of visits per pick.
+   */
+  @VisibleForTesting
+  static final class StaticStrideScheduler {
+    private static final int K_MAX_WEIGHT = 0xFFFF;
+    private static final double MAX_RATIO = 10;
+
+    private final int[] scaledWeights;
+    private final AtomicInteger sequence;
+    private final int startSequence;
+
+    StaticStrideScheduler(double[] weights, int startSequence) {
+      checkArgument(weights.length > 0, "no weights");
+      int numWeighted = 0;
+      double sumWeight = 0;
+      for (double weight : weights) {
+        if (weight > 0) {
+          sumWeight += weight;
+          numWeighted++;
+        }
+      }
+      // Subchannels without a weight get the mean weight. With no weights at all, this is plain
+      // round robin.
+      double meanWeight = numWeighted == 0 ? 1 : sumWeight / numWeighted;
+      double maxWeight = 0;
+      double[] clamped = new double[weights.length];
+      for (int i = 0; i < weights.length; i++) {
+        clamped[i] = weights[i] > 0 ? Math.min(weights[i], meanWeight * MAX_RATIO) : meanWeight;
+        maxWeight = Math.max(maxWeight, clamped[i]);
+      }
+      double scalingFactor = K_MAX_WEIGHT / maxWeight;
+      scaledWeights = new int[weights.length];
+      for (int i = 0; i < weights.length; i++) {
+        scaledWeights[i] =
+            Math.max(1, Math.min(K_MAX_WEIGHT, (int) Math.ceil(clamped[i] * scalingFactor)));
+      }
+      this.startSequence = startSequence;
+      this.sequence = new AtomicInteger(startSequence);
+    }
+
+    /** Returns the index of the next subchannel to pick. */
+    int pick() {
+      int size = scaledWeights.length;
+      while (true) {
+        long seq = sequence.getAndIncrement() & 0xFFFFFFFFL;
+        int index = (int) (seq % size);
+        long generation = seq / size;
+        int weight = scaledWeights[index];
+        long offset = (long) K_MAX_WEIGHT / 2 * index;
+        if ((weight * generation + offset) % K_MAX_WEIGHT >= K_MAX_WEIGHT - weight) {
+          return index;
+        }
+      }
+    }
+
+    /** Returns how far the sequence has advanced since this scheduler was created. */
+    int getSequence() {
+      return sequence.get() - startSequence;
+    }
+  }
+
+  /**
+   * A lighter weight Reference than AtomicReference.
+   */
+  @VisibleForTesting
+  static final class Ref<T> {
+    T value;
+
+    Ref(T value) {
+      this.value = value;
+    }
+  }
+
+  static final class WeightedRoundRobinConfig {
+    static final WeightedRoundRobinConfig DEFAULT = new WeightedRoundRobinConfig(
+        TimeUnit.SECONDS.toNanos(10), TimeUnit.MINUTES.toNanos(3), false,
+        TimeUnit.SECONDS.toNanos(10), TimeUnit.SECONDS.toNanos(1));
+    static final long MIN_WEIGHT_UPDATE_PERIOD_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    final long blackoutPeriodNanos;
+    final long weightExpirationPeriodNanos;
+    final boolean enableOobLoadReport;
+    final long oobReportingPeriodNanos;
+    final long weightUpdatePeriodNanos;
+
+    WeightedRoundRobinConfig(long blackoutPeriodNanos, long weightExpirationPeriodNanos,
+        boolean enableOobLoadReport, long oobReportingPeriodNanos, long weightUpdatePeriodNanos) {
+      checkArgument(blackoutPeriodNanos >= 0, "blackoutPeriod must not be negative");
+      checkArgument(weightExpirationPeriodNanos > 0, "weightExpirationPeriod must be positive");
+      checkArgument(oobReportingPeriodNanos > 0, "oobReportingPeriod must be positive");
+      this.blackoutPeriodNanos = blackoutPeriodNanos;
+      this.weightExpirationPeriodNanos = weightExpirationPeriodNanos;
+      this.enableOobLoadReport = enableOobLoadReport;
+      this.oobReportingPeriodNanos = oobReportingPeriodNanos;
+      this.weightUpdatePeriodNanos =
+          Math.max(weightUpdatePeriodNanos, MIN_WEIGHT_UPDATE_PERIOD_NANOS);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      WeightedRoundRobinConfig that = (WeightedRoundRobinConfig) o;
+      return blackoutPeriodNanos == that.blackoutPeriodNanos
+          && weightExpirationPeriodNanos == that.weightExpirationPeriodNanos
+          && enableOobLoadReport == that.enableOobLoadReport
+          && oobReportingPeriodNanos == that.oobReportingPeriodNanos
+          && weightUpdatePeriodNanos == that.weightUpdatePeriodNanos;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(blackoutPeriodNanos, weightExpirationPeriodNanos,
+          enableOobLoadReport, oobReportingPeriodNanos, weightUpdatePeriodNanos);
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("blackoutPeriodNanos", blackoutPeriodNanos)
+          .add("weightExpirationPeriodNanos", weightExpirationPeriodNanos)
+          .add("enableOobLoadReport", enableOobLoadReport)
+          .add("oobReportingPeriodNanos", oobReportingPeriodNanos)
+          .add("weightUpdatePeriodNanos", weightUpdatePeriodNanos)
+          .toString();
+    }
+  }
+}
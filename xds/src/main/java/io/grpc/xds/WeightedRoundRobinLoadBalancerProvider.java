@@ -0,0 +1,92 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.xds;
+
+import com.google.common.base.Strings;
+import io.grpc.Internal;
+import io.grpc.LoadBalancer;
+import io.grpc.LoadBalancer.Helper;
+import io.grpc.LoadBalancerProvider;
+import io.grpc.NameResolver.ConfigOrError;
+import io.grpc.Status;
+import io.grpc.internal.JsonUtil;
+import io.grpc.xds.WeightedRoundRobinLoadBalancer.WeightedRoundRobinConfig;
+import java.util.Map;
+
+/**
+ * The provider for the "weighted_round_robin" balancing policy.
+ */
+@Internal
+public final class WeightedRoundRobinLoadBalancerProvider extends LoadBalancerProvider {
+
+  private static final boolean enableWeightedRoundRobin =
+      Strings.isNullOrEmpty(System.getenv("GRPC_XDS_EXPERIMENTAL_ENABLE_WRR"))
+          || Boolean.parseBoolean(System.getenv("GRPC_XDS_EXPERIMENTAL_ENABLE_WRR"));
+
+  @Override
+  public LoadBalancer newLoadBalancer(Helper helper) {
+    return new WeightedRoundRobinLoadBalancer(helper);
+  }
+
+  @Override
+  public boolean isAvailable() {
+    return enableWeightedRoundRobin;
+  }
+
+  @Override
+  public int getPriority() {
+    return 5;
+  }
+
+  @Override
+  public String getPolicyName() {
+    return "weighted_round_robin";
+  }
+
+  @Override
+  public ConfigOrError parseLoadBalancingPolicyConfig(Map<String, ?> rawLoadBalancingPolicyConfig) {
+    WeightedRoundRobinConfig defaults = WeightedRoundRobinConfig.DEFAULT;
+    try {
+      Long blackoutPeriod =
+          JsonUtil.getStringAsDuration(rawLoadBalancingPolicyConfig, "blackoutPeriod");
+      Long weightExpirationPeriod =
+          JsonUtil.getStringAsDuration(rawLoadBalancingPolicyConfig, "weightExpirationPeriod");
+      Boolean enableOobLoadReport =
+          JsonUtil.getBoolean(rawLoadBalancingPolicyConfig, "enableOobLoadReport");
+      Long oobReportingPeriod =
+          JsonUtil.getStringAsDuration(rawLoadBalancingPolicyConfig, "oobReportingPeriod");
+      Long weightUpdatePeriod =
+          JsonUtil.getStringAsDuration(rawLoadBalancingPolicyConfig, "weightUpdatePeriod");
+      if ((blackoutPeriod != null && blackoutPeriod < 0)
+          || (weightExpirationPeriod != null && weightExpirationPeriod <= 0)
+          || (oobReportingPeriod != null && oobReportingPeriod <= 0)) {
+        return ConfigOrError.fromError(Status.INVALID_ARGUMENT.withDescription(
+            "Invalid weighted_round_robin config: " + rawLoadBalancingPolicyConfig));
+      }
+      return ConfigOrError.fromConfig(new WeightedRoundRobinConfig(
+          blackoutPeriod != null ? blackoutPeriod : defaults.blackoutPeriodNanos,
+          weightExpirationPeriod != null
+              ? weightExpirationPeriod : defaults.weightExpirationPeriodNanos,
+          enableOobLoadReport != null ? enableOobLoadReport : defaults.enableOobLoadReport,
+          oobReportingPeriod != null ? oobReportingPeriod : defaults.oobReportingPeriodNanos,
+          weightUpdatePeriod != null ? weightUpdatePeriod : defaults.weightUpdatePeriodNanos));
+    } catch (RuntimeException e) {
+      return ConfigOrError.fromError(Status.INVALID_ARGUMENT.withCause(e).withDescription(
+          "Failed to parse weighted_round_robin config: " + rawLoadBalancingPolicyConfig));
+    }
+  }
+}
@@ -24,6 +24,7 @@ import static io.grpc.ConnectivityState.TRANSIENT_FAILURE;
 import static io.grpc.xds.XdsSubchannelPickers.BUFFER_PICKER;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import io.grpc.ConnectivityState;
 import io.grpc.InternalLogId;
 import io.grpc.LoadBalancer;
@@ -38,13 +39,18 @@ import io.grpc.xds.XdsLogger.XdsLogLevel;
 import io.grpc.xds.XdsSubchannelPickers.ErrorPicker;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javax.annotation.Nullable;
 
 /** Load balancer for weighted_target policy. */
 final class WeightedTargetLoadBalancer extends LoadBalancer {
 
+  // Total weight of the pickers built for zone aware routing, in basis points of the traffic.
+  private static final int ZONE_AWARE_TOTAL_WEIGHT = 10000;
+
   private final XdsLogger logger;
   private final Map<String, GracefulSwitchLoadBalancer> childBalancers = new HashMap<>();
   private final Map<String, ChildHelper> childHelpers = new HashMap<>();
@@ -52,6 +58,8 @@ final class WeightedTargetLoadBalancer extends LoadBalancer {
   private final SynchronizationContext syncContext;
 
   private Map<String, WeightedPolicySelection> targets = ImmutableMap.of();
+  private Set<String> localTargets = ImmutableSet.of();
+  private Map<String, Integer> downstreamWeights = ImmutableMap.of();
 
   WeightedTargetLoadBalancer(Helper helper) {
     this.helper = checkNotNull(helper, "helper");
@@ -83,6 +91,8 @@ final class WeightedTargetLoadBalancer extends LoadBalancer {
       }
     }
     targets = newTargets;
+    localTargets = weightedTargetConfig.localTargets;
+    downstreamWeights = weightedTargetConfig.downstreamWeights;
     for (String targetName : targets.keySet()) {
       childBalancers.get(targetName).handleResolvedAddresses(
           resolvedAddresses.toBuilder()
@@ -133,13 +143,17 @@ final class WeightedTargetLoadBalancer extends LoadBalancer {
 
     ConnectivityState overallState = null;
     List<WeightedChildPicker> errorPickers = new ArrayList<>();
+    Map<String, WeightedChildPicker> readyChildPickers = new LinkedHashMap<>();
     for (String name : targets.keySet()) {
       ChildHelper childHelper = childHelpers.get(name);
       ConnectivityState childState = childHelper.currentState;
       overallState = aggregateState(overallState, childState);
       int weight = targets.get(name).weight;
       if (READY == childState) {
-        childPickers.add(new WeightedChildPicker(weight, childHelper.currentPicker));
+        WeightedChildPicker childPicker =
+            new WeightedChildPicker(weight, childHelper.currentPicker);
+        childPickers.add(childPicker);
+        readyChildPickers.put(name, childPicker);
       } else if (TRANSIENT_FAILURE == childState) {
         errorPickers.add(new WeightedChildPicker(weight, childHelper.currentPicker));
       }
@@ -152,6 +166,8 @@ final class WeightedTargetLoadBalancer extends LoadBalancer {
       } else {
         picker = XdsSubchannelPickers.BUFFER_PICKER;
       }
+    } else if (!localTargets.isEmpty()) {
+      picker = new WeightedRandomPicker(zoneAwareChildPickers(readyChildPickers));
     } else {
       picker = new WeightedRandomPicker(childPickers);
     }
@@ -161,6 +177,89 @@ final class WeightedTargetLoadBalancer extends LoadBalancer {
     }
   }
 
+  /**
+   * Splits the traffic between the READY targets like Envoy's zone aware routing. Each target's
+   * upstream share is its share of the READY weight, and its downstream share is its share of the
+   * downstream weight. While the local targets' upstream share is at least their downstream share,
+   * all traffic stays local. Otherwise the local targets get upstream/downstream of the traffic,
+   * and the rest goes to the other targets in proportion to their residual capacity, the amount
+   * by which their upstream share exceeds their downstream share.
+   */
+  private List<WeightedChildPicker> zoneAwareChildPickers(
+      Map<String, WeightedChildPicker> readyChildPickers) {
+    long totalReadyWeight = 0;
+    long localReadyWeight = 0;
+    for (Map.Entry<String, WeightedChildPicker> entry : readyChildPickers.entrySet()) {
+      totalReadyWeight += entry.getValue().getWeight();
+      if (localTargets.contains(entry.getKey())) {
+        localReadyWeight += entry.getValue().getWeight();
+      }
+    }
+    long totalDownstreamWeight = 0;
+    long localDownstreamWeight = 0;
+    for (String name : targets.keySet()) {
+      int weight = downstreamWeight(name);
+      totalDownstreamWeight += weight;
+      if (localTargets.contains(name)) {
+        localDownstreamWeight += weight;
+      }
+    }
+    if (localReadyWeight == 0 || totalDownstreamWeight == 0) {
+      return new ArrayList<>(readyChildPickers.values());
+    }
+
+    double localUpstreamShare = (double) localReadyWeight / totalReadyWeight;
+    double localDownstreamShare = (double) localDownstreamWeight / totalDownstreamWeight;
+    List<WeightedChildPicker> childPickers = new ArrayList<>();
+    if (localUpstreamShare >= localDownstreamShare) {
+      for (Map.Entry<String, WeightedChildPicker> entry : readyChildPickers.entrySet()) {
+        if (localTargets.contains(entry.getKey())) {
+          childPickers.add(entry.getValue());
+        }
+      }
+      return childPickers;
+    }
+
+    double localTrafficShare = localUpstreamShare / localDownstreamShare;
+    Map<String, Double> residualCapacities = new HashMap<>();
+    double totalResidualCapacity = 0;
+    for (Map.Entry<String, WeightedChildPicker> entry : readyChildPickers.entrySet()) {
+      if (localTargets.contains(entry.getKey())) {
+        continue;
+      }
+      double residualCapacity = (double) entry.getValue().getWeight() / totalReadyWeight
+          - (double) downstreamWeight(entry.getKey()) / totalDownstreamWeight;
+      if (residualCapacity > 0) {
+        residualCapacities.put(entry.getKey(), residualCapacity);
+        totalResidualCapacity += residualCapacity;
+      }
+    }
+    for (Map.Entry<String, WeightedChildPicker> entry : readyChildPickers.entrySet()) {
+      double trafficShare;
+      if (localTargets.contains(entry.getKey())) {
+        trafficShare = localTrafficShare * entry.getValue().getWeight() / localReadyWeight;
+      } else if (residualCapacities.containsKey(entry.getKey())) {
+        trafficShare = (1 - localTrafficShare) * residualCapacities.get(entry.getKey())
+            / totalResidualCapacity;
+      } else {
+        continue;
+      }
+      int weight = (int) Math.round(trafficShare * ZONE_AWARE_TOTAL_WEIGHT);
+      if (weight > 0) {
+        childPickers.add(new WeightedChildPicker(weight, entry.getValue().getPicker()));
+      }
+    }
+    return childPickers;
+  }
+
+  private int downstreamWeight(String name) {
+    if (downstreamWeights.isEmpty()) {
+      return targets.get(name).weight;
+    }
+    Integer weight = downstreamWeights.get(name);
+    return weight == null ? 0 : weight;
+  }
+
   @Nullable
   private static ConnectivityState aggregateState(
       @Nullable ConnectivityState overallState, ConnectivityState childState) {
@@ -16,6 +16,8 @@
 
 package io.grpc.xds;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import io.grpc.Internal;
@@ -29,10 +31,13 @@ import io.grpc.internal.JsonUtil;
 import io.grpc.internal.ServiceConfigUtil;
 import io.grpc.internal.ServiceConfigUtil.LbConfig;
 import io.grpc.internal.ServiceConfigUtil.PolicySelection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import javax.annotation.Nullable;
 
 /**
@@ -114,7 +119,31 @@ public final class WeightedTargetLoadBalancerProvider extends LoadBalancerProvid
         PolicySelection policySelection = (PolicySelection) selectedConfig.getConfig();
         parsedChildConfigs.put(name, new WeightedPolicySelection(weight, policySelection));
       }
-      return ConfigOrError.fromConfig(new WeightedTargetConfig(parsedChildConfigs));
+      Set<String> localTargets = Collections.emptySet();
+      List<String> rawLocalTargets = JsonUtil.getListOfStrings(rawConfig, "localTargets");
+      if (rawLocalTargets != null) {
+        localTargets = new LinkedHashSet<>(rawLocalTargets);
+        if (!parsedChildConfigs.keySet().containsAll(localTargets)) {
+          return ConfigOrError.fromError(Status.INTERNAL.withDescription(
+              "Unknown local target in weighted_target LB policy:\n " + rawConfig));
+        }
+      }
+      Map<String, Integer> downstreamWeights = new LinkedHashMap<>();
+      Map<String, ?> rawDownstreamWeights = JsonUtil.getObject(rawConfig, "downstreamWeights");
+      if (rawDownstreamWeights != null) {
+        for (String name : rawDownstreamWeights.keySet()) {
+          Integer weight = JsonUtil.getNumberAsInteger(rawDownstreamWeights, name);
+          if (!parsedChildConfigs.containsKey(name) || weight == null || weight < 0) {
+            return ConfigOrError.fromError(Status.INTERNAL.withDescription(
+                "Wrong downstream weight for target " + name + " in weighted_target LB policy:\n "
+                    + rawConfig));
+          }
+          downstreamWeights.put(name, weight);
+        }
+      }
+      return ConfigOrError.fromConfig(new WeightedTargetConfig(
+          parsedChildConfigs, Collections.unmodifiableSet(localTargets),
+          Collections.unmodifiableMap(downstreamWeights)));
     } catch (RuntimeException e) {
       return ConfigOrError.fromError(
           Status.fromThrowable(e).withDescription(
@@ -160,11 +189,24 @@ public final class WeightedTargetLoadBalancerProvider extends LoadBalancerProvid
 
   /** The lb config for WeightedTargetLoadBalancer. */
   static final class WeightedTargetConfig {
-
     final Map<String, WeightedPolicySelection> targets;
+    // Targets in the same zone as this client. When non-empty, traffic is routed like Envoy's zone
+    // aware routing: it all stays local while the local targets' share of the READY weight is at
+    // least their share of the downstream weight, and the rest spills over otherwise.
+    final Set<String> localTargets;
+    // Relative number of downstream clients in the zone of each target. When empty, clients are
+    // assumed to be spread like the target weights.
+    final Map<String, Integer> downstreamWeights;
 
     WeightedTargetConfig(Map<String, WeightedPolicySelection> targets) {
+      this(targets, Collections.<String>emptySet(), Collections.<String, Integer>emptyMap());
+    }
+
+    WeightedTargetConfig(Map<String, WeightedPolicySelection> targets, Set<String> localTargets,
+        Map<String, Integer> downstreamWeights) {
       this.targets = targets;
+      this.localTargets = checkNotNull(localTargets, "localTargets");
+      this.downstreamWeights = checkNotNull(downstreamWeights, "downstreamWeights");
     }
 
     @Override
@@ -176,18 +218,22 @@ public final class WeightedTargetLoadBalancerProvider extends LoadBalancerProvid
         return false;
       }
       WeightedTargetConfig that = (WeightedTargetConfig) o;
-      return Objects.equals(targets, that.targets);
+      return Objects.equals(targets, that.targets)
+          && Objects.equals(localTargets, that.localTargets)
+          && Objects.equals(downstreamWeights, that.downstreamWeights);
     }
 
     @Override
     public int hashCode() {
-      return Objects.hashCode(targets);
+      return Objects.hash(targets, localTargets, downstreamWeights);
     }
 
     @Override
     public String toString() {
       return MoreObjects.toStringHelper(this)
           .add("targets", targets)
+          .add("localTargets", localTargets)
+          .add("downstreamWeights", downstreamWeights)
           .toString();
     }
   }
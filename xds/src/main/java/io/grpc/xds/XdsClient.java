@@ -30,6 +30,7 @@ import io.grpc.xds.EnvoyServerProtoData.Listener;
 import io.grpc.xds.EnvoyServerProtoData.UpstreamTlsContext;
 import io.grpc.xds.LoadStatsManager2.ClusterDropStats;
 import io.grpc.xds.LoadStatsManager2.ClusterLocalityStats;
+import io.grpc.xds.OutlierDetectionLoadBalancer.OutlierDetection;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
@@ -117,6 +118,9 @@ abstract class XdsClient {
     // Only valid if lbPolicy is "ring_hash".
     abstract long maxRingSize();
 
+    // Only valid if lbPolicy is "least_request".
+    abstract int choiceCount();
+
     // Alternative resource name to be used in EDS requests.
     /// Only valid for EDS cluster.
     @Nullable
@@ -143,6 +147,11 @@ abstract class XdsClient {
     @Nullable
     abstract UpstreamTlsContext upstreamTlsContext();
 
+    // Parameters for ejecting outlier endpoints. Null if outlier detection is disabled.
+    // Only valid for EDS or LOGICAL_DNS cluster.
+    @Nullable
+    abstract OutlierDetection outlierDetection();
+
     // List of underlying clusters making of this aggregate cluster.
     // Only valid for AGGREGATE cluster.
     @Nullable
@@ -155,6 +164,7 @@ abstract class XdsClient {
           .clusterType(ClusterType.AGGREGATE)
           .minRingSize(0)
           .maxRingSize(0)
+          .choiceCount(0)
           .prioritizedClusterNames(ImmutableList.copyOf(prioritizedClusterNames));
     }
 
@@ -166,6 +176,7 @@ abstract class XdsClient {
           .clusterType(ClusterType.EDS)
           .minRingSize(0)
           .maxRingSize(0)
+          .choiceCount(0)
           .edsServiceName(edsServiceName)
           .lrsServerName(lrsServerName)
           .maxConcurrentRequests(maxConcurrentRequests)
@@ -180,6 +191,7 @@ abstract class XdsClient {
           .clusterType(ClusterType.LOGICAL_DNS)
           .minRingSize(0)
           .maxRingSize(0)
+          .choiceCount(0)
           .dnsHostName(dnsHostName)
           .lrsServerName(lrsServerName)
           .maxConcurrentRequests(maxConcurrentRequests)
@@ -191,7 +203,7 @@ abstract class XdsClient {
     }
 
     enum LbPolicy {
-      ROUND_ROBIN, RING_HASH
+      ROUND_ROBIN, RING_HASH, LEAST_REQUEST
     }
 
     // FIXME(chengyuanzhang): delete this after UpstreamTlsContext's toString() is fixed.
@@ -203,10 +215,12 @@ abstract class XdsClient {
           .add("lbPolicy", lbPolicy())
           .add("minRingSize", minRingSize())
           .add("maxRingSize", maxRingSize())
+          .add("choiceCount", choiceCount())
           .add("edsServiceName", edsServiceName())
           .add("dnsHostName", dnsHostName())
           .add("lrsServerName", lrsServerName())
           .add("maxConcurrentRequests", maxConcurrentRequests())
+          .add("outlierDetection", outlierDetection())
           // Exclude upstreamTlsContext as its string representation is cumbersome.
           .add("prioritizedClusterNames", prioritizedClusterNames())
           .toString();
@@ -220,7 +234,8 @@ abstract class XdsClient {
       // Private, use one of the static factory methods instead.
       protected abstract Builder clusterType(ClusterType clusterType);
 
-      // Private, use roundRobinLbPolicy() or ringHashLbPolicy(long, long).
+      // Private, use roundRobinLbPolicy(), ringHashLbPolicy(long, long) or
+      // leastRequestLbPolicy(int).
       protected abstract Builder lbPolicy(LbPolicy lbPolicy);
 
       Builder roundRobinLbPolicy() {
@@ -237,6 +252,13 @@ abstract class XdsClient {
       // Private, use ringHashLbPolicy(long, long).
       protected abstract Builder maxRingSize(long maxRingSize);
 
+      Builder leastRequestLbPolicy(int choiceCount) {
+        return this.lbPolicy(LbPolicy.LEAST_REQUEST).choiceCount(choiceCount);
+      }
+
+      // Private, use leastRequestLbPolicy(int).
+      protected abstract Builder choiceCount(int choiceCount);
+
       // Private, use CdsUpdate.forEds() instead.
       protected abstract Builder edsServiceName(String edsServiceName);
 
@@ -252,6 +274,8 @@ abstract class XdsClient {
       // Private, use one of the static factory methods instead.
       protected abstract Builder upstreamTlsContext(UpstreamTlsContext upstreamTlsContext);
 
+      abstract Builder outlierDetection(OutlierDetection outlierDetection);
+
       // Private, use CdsUpdate.forAggregate() instead.
       protected abstract Builder prioritizedClusterNames(List<String> prioritizedClusterNames);
 
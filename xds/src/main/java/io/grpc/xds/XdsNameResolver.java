@@ -49,6 +49,7 @@ import io.grpc.internal.ObjectPool;
 import io.grpc.xds.Filter.ClientInterceptorBuilder;
 import io.grpc.xds.Filter.FilterConfig;
 import io.grpc.xds.Filter.NamedFilterConfig;
+import io.grpc.xds.RouteTable.CompiledRoute;
 import io.grpc.xds.ThreadSafeRandom.ThreadSafeRandomImpl;
 import io.grpc.xds.VirtualHost.Route;
 import io.grpc.xds.VirtualHost.Route.RouteAction;
@@ -378,18 +379,14 @@ final class XdsNameResolver extends NameResolver {
             && Iterables.getLast(routingCfg.filterChain).equals(LAME_FILTER)) {
           break;
         }
-        for (Route route : routingCfg.routes) {
-          if (matchRoute(route.routeMatch(), "/" + args.getMethodDescriptor().getFullMethodName(),
-              headers, random)) {
-            selectedRoute = route;
-            selectedOverrideConfigs.putAll(route.filterConfigOverrides());
-            break;
-          }
-        }
-        if (selectedRoute == null) {
+        CompiledRoute compiledRoute = routingCfg.routeTable.findRoute(
+            args.getMethodDescriptor().getFullMethodName(), headers, random);
+        if (compiledRoute == null) {
           return Result.forError(
               Status.UNAVAILABLE.withDescription("Could not find xDS route matching RPC"));
         }
+        selectedRoute = compiledRoute.route;
+        selectedOverrideConfigs.putAll(selectedRoute.filterConfigOverrides());
         if (selectedRoute.routeAction() == null) {
           return Result.forError(Status.UNAVAILABLE.withDescription(
               "Could not route RPC to Route with non-forwarding action"));
@@ -398,20 +395,9 @@ final class XdsNameResolver extends NameResolver {
         if (action.cluster() != null) {
           cluster = action.cluster();
         } else if (action.weightedClusters() != null) {
-          int totalWeight = 0;
-          for (ClusterWeight weightedCluster : action.weightedClusters()) {
-            totalWeight += weightedCluster.weight();
-          }
-          int select = random.nextInt(totalWeight);
-          int accumulator = 0;
-          for (ClusterWeight weightedCluster : action.weightedClusters()) {
-            accumulator += weightedCluster.weight();
-            if (select < accumulator) {
-              cluster = weightedCluster.name();
-              selectedOverrideConfigs.putAll(weightedCluster.filterConfigOverrides());
-              break;
-            }
-          }
+          ClusterWeight weightedCluster = compiledRoute.selectWeightedCluster(random);
+          cluster = weightedCluster.name();
+          selectedOverrideConfigs.putAll(weightedCluster.filterConfigOverrides());
         }
       } while (!retainCluster(cluster));
       Long timeoutNanos = null;
@@ -590,9 +576,12 @@ final class XdsNameResolver extends NameResolver {
   @VisibleForTesting
   static boolean matchRoute(RouteMatch routeMatch, String fullMethodName,
       Metadata headers, ThreadSafeRandom random) {
-    if (!matchPath(routeMatch.pathMatcher(), fullMethodName)) {
-      return false;
-    }
+    return matchPath(routeMatch.pathMatcher(), fullMethodName)
+        && matchHeadersAndFraction(routeMatch, headers, random);
+  }
+
+  static boolean matchHeadersAndFraction(
+      RouteMatch routeMatch, Metadata headers, ThreadSafeRandom random) {
     for (HeaderMatcher headerMatcher : routeMatch.headerMatchers()) {
       if (!matchHeader(headerMatcher, getHeaderValue(headers, headerMatcher.name()))) {
         return false;
@@ -602,7 +591,7 @@ final class XdsNameResolver extends NameResolver {
     return fraction == null || random.nextInt(fraction.denominator()) < fraction.numerator();
   }
 
-  private static boolean matchPath(PathMatcher pathMatcher, String fullMethodName) {
+  static boolean matchPath(PathMatcher pathMatcher, String fullMethodName) {
     if (pathMatcher.path() != null) {
       return pathMatcher.caseSensitive()
           ? pathMatcher.path().equals(fullMethodName)
@@ -918,7 +907,7 @@ final class XdsNameResolver extends NameResolver {
    */
   private static class RoutingConfig {
     private final long fallbackTimeoutNano;
-    final List<Route> routes;
+    final RouteTable routeTable;
     // Null if HttpFilter is not supported.
     @Nullable final List<NamedFilterConfig> filterChain;
     final Map<String, FilterConfig> virtualHostOverrideConfig;
@@ -930,7 +919,7 @@ final class XdsNameResolver extends NameResolver {
         long fallbackTimeoutNano, List<Route> routes, @Nullable List<NamedFilterConfig> filterChain,
         Map<String, FilterConfig> virtualHostOverrideConfig) {
       this.fallbackTimeoutNano = fallbackTimeoutNano;
-      this.routes = routes;
+      this.routeTable = new RouteTable(routes);
       checkArgument(filterChain == null || !filterChain.isEmpty(), "filterChain is empty");
       this.filterChain = filterChain == null ? null : Collections.unmodifiableList(filterChain);
       this.virtualHostOverrideConfig = Collections.unmodifiableMap(virtualHostOverrideConfig);
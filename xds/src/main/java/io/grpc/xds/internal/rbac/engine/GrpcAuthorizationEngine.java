@@ -19,7 +19,10 @@ package io.grpc.xds.internal.rbac.engine;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.auto.value.AutoValue;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.grpc.Grpc;
 import io.grpc.Metadata;
 import io.grpc.ServerCall;
@@ -34,7 +37,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.Nullable;
@@ -48,26 +54,61 @@ import javax.net.ssl.SSLSession;
  * <p>One GrpcAuthorizationEngine is initialized with one action type and a list of policies.
  * Policies are examined sequentially in order in an any match fashion, and the first matched policy
  * will be returned. If not matched at all, the opposite action type is returned as a result.
+ *
+ * <p>The matchers of each policy are flattened and ordered by their evaluation cost when the engine
+ * is created. If the policies only match the path and the principal names, which are the same for
+ * all the calls to a method on a connection, the decisions are memoized.
  */
 public final class GrpcAuthorizationEngine {
   private static final Logger log = Logger.getLogger(GrpcAuthorizationEngine.class.getName());
+  // Bounds the memory used for memoizing decisions.
+  @VisibleForTesting
+  static final int MAX_MEMOIZED_DECISIONS = 1000;
+  // Principal names of the peer of each connection, derived from its certificate.
+  private static final Cache<SSLSession, List<String>> principalNamesCache =
+      CacheBuilder.newBuilder().weakKeys().build();
 
   private final AuthConfig authConfig;
+  private final List<CompiledPolicy> policies;
+  private final boolean memoizeDecisions;
+  // Inputs the policies depend on, see inputsOf().
+  private final int inputs;
+  private final ConcurrentMap<DecisionKey, AuthDecision> decisions = new ConcurrentHashMap<>();
 
   /** Instantiated with envoy policyMatcher configuration. */
   public GrpcAuthorizationEngine(AuthConfig authConfig) {
     this.authConfig = authConfig;
+    List<CompiledPolicy> policies = new ArrayList<>(authConfig.policies.size());
+    int inputs = 0;
+    for (PolicyMatcher policyMatcher : authConfig.policies) {
+      CompiledPolicy policy = new CompiledPolicy(policyMatcher);
+      policies.add(policy);
+      inputs |= inputsOf(policy.matcher);
+    }
+    this.policies = Collections.unmodifiableList(policies);
+    this.memoizeDecisions = (inputs & INPUT_OTHER) == 0;
+    this.inputs = inputs;
   }
 
   /** Return the auth decision for the request argument against the policies. */
   public AuthDecision evaluate(Metadata metadata, ServerCall<?,?> serverCall) {
     checkNotNull(metadata, "metadata");
     checkNotNull(serverCall, "serverCall");
-    String firstMatch = null;
     EvaluateArgs args = new EvaluateArgs(metadata, serverCall);
-    for (PolicyMatcher policyMatcher : authConfig.policies) {
-      if (policyMatcher.matches(args)) {
-        firstMatch = policyMatcher.name;
+    DecisionKey key = null;
+    if (memoizeDecisions) {
+      key = DecisionKey.create(
+          (inputs & INPUT_PATH) != 0 ? args.getPath() : null,
+          (inputs & INPUT_PRINCIPAL) != 0 ? args.getPrincipalNames() : null);
+      AuthDecision decision = decisions.get(key);
+      if (decision != null) {
+        return decision;
+      }
+    }
+    String firstMatch = null;
+    for (CompiledPolicy policy : policies) {
+      if (policy.matcher.matches(args)) {
+        firstMatch = policy.name;
         break;
       }
     }
@@ -77,7 +118,151 @@ public final class GrpcAuthorizationEngine {
     }
     log.log(Level.FINER, "RBAC decision: {0}, policy match: {1}.",
             new Object[]{decisionType, firstMatch});
-    return AuthDecision.create(decisionType, firstMatch);
+    AuthDecision decision = AuthDecision.create(decisionType, firstMatch);
+    if (key != null && decisions.size() < MAX_MEMOIZED_DECISIONS) {
+      decisions.put(key, decision);
+    }
+    return decision;
+  }
+
+  /**
+   * Flattens nested {@link OrMatcher}s and {@link AndMatcher}s, and orders the operands of each by
+   * their evaluation cost so that cheap matchers short-circuit expensive ones. Matchers have no
+   * side effects, so the order does not change the result.
+   */
+  @VisibleForTesting
+  static Matcher compile(Matcher matcher) {
+    if (matcher instanceof OrMatcher) {
+      List<Matcher> operands = new ArrayList<>();
+      for (Matcher operand : ((OrMatcher) matcher).anyMatch) {
+        Matcher compiled = compile(operand);
+        if (compiled instanceof AlwaysTrueMatcher) {
+          return compiled;
+        } else if (compiled instanceof OrMatcher) {
+          operands.addAll(((OrMatcher) compiled).anyMatch);
+        } else {
+          operands.add(compiled);
+        }
+      }
+      if (operands.size() == 1) {
+        return operands.get(0);
+      }
+      Collections.sort(operands, COST_ORDER);
+      return new OrMatcher(operands);
+    } else if (matcher instanceof AndMatcher) {
+      List<Matcher> operands = new ArrayList<>();
+      for (Matcher operand : ((AndMatcher) matcher).allMatch) {
+        Matcher compiled = compile(operand);
+        if (compiled instanceof AndMatcher) {
+          operands.addAll(((AndMatcher) compiled).allMatch);
+        } else if (!(compiled instanceof AlwaysTrueMatcher)) {
+          operands.add(compiled);
+        }
+      }
+      if (operands.isEmpty()) {
+        return AlwaysTrueMatcher.INSTANCE;
+      }
+      if (operands.size() == 1) {
+        return operands.get(0);
+      }
+      Collections.sort(operands, COST_ORDER);
+      return new AndMatcher(operands);
+    } else if (matcher instanceof InvertMatcher) {
+      return new InvertMatcher(compile(((InvertMatcher) matcher).toInvertMatcher));
+    }
+    return matcher;
+  }
+
+  private static final Comparator<Matcher> COST_ORDER = new Comparator<Matcher>() {
+    @Override
+    public int compare(Matcher m1, Matcher m2) {
+      return Integer.compare(cost(m1), cost(m2));
+    }
+  };
+
+  /**
+   * Relative cost of evaluating a matcher. Header and principal matchers build strings and may
+   * evaluate regular expressions, address and port matchers only compare numbers.
+   */
+  private static int cost(Matcher matcher) {
+    int cost = 0;
+    if (matcher instanceof OrMatcher) {
+      for (Matcher operand : ((OrMatcher) matcher).anyMatch) {
+        cost += cost(operand);
+      }
+    } else if (matcher instanceof AndMatcher) {
+      for (Matcher operand : ((AndMatcher) matcher).allMatch) {
+        cost += cost(operand);
+      }
+    } else if (matcher instanceof InvertMatcher) {
+      cost = cost(((InvertMatcher) matcher).toInvertMatcher);
+    } else if (matcher instanceof PathMatcher) {
+      cost = 1;
+    } else if (!(matcher instanceof AlwaysTrueMatcher
+        || matcher instanceof DestinationPortMatcher
+        || matcher instanceof DestinationIpMatcher
+        || matcher instanceof SourceIpMatcher
+        || matcher instanceof RequestedServerNameMatcher)) {
+      cost = 2;
+    }
+    return cost;
+  }
+
+  // Inputs of matchers, see inputsOf().
+  private static final int INPUT_PATH = 1;
+  private static final int INPUT_PRINCIPAL = 2;
+  private static final int INPUT_OTHER = 4;
+
+  /**
+   * Returns the inputs the matcher depends on. Only the path of the call and the principal names of
+   * the connection are distinguished from other inputs.
+   */
+  private static int inputsOf(Matcher matcher) {
+    int inputs = 0;
+    if (matcher instanceof OrMatcher) {
+      for (Matcher operand : ((OrMatcher) matcher).anyMatch) {
+        inputs |= inputsOf(operand);
+      }
+    } else if (matcher instanceof AndMatcher) {
+      for (Matcher operand : ((AndMatcher) matcher).allMatch) {
+        inputs |= inputsOf(operand);
+      }
+    } else if (matcher instanceof InvertMatcher) {
+      inputs = inputsOf(((InvertMatcher) matcher).toInvertMatcher);
+    } else if (matcher instanceof PathMatcher) {
+      inputs = INPUT_PATH;
+    } else if (matcher instanceof AuthenticatedMatcher) {
+      inputs = INPUT_PRINCIPAL;
+    } else if (!(matcher instanceof AlwaysTrueMatcher
+        || matcher instanceof RequestedServerNameMatcher)) {
+      inputs = INPUT_OTHER;
+    }
+    return inputs;
+  }
+
+  /** A policy with its permissions and principals compiled into a single matcher. */
+  private static final class CompiledPolicy {
+    private final String name;
+    private final Matcher matcher;
+
+    CompiledPolicy(PolicyMatcher policyMatcher) {
+      this.name = policyMatcher.name;
+      this.matcher =
+          compile(AndMatcher.create(policyMatcher.permissions, policyMatcher.principals));
+    }
+  }
+
+  @AutoValue
+  abstract static class DecisionKey {
+    @Nullable
+    abstract String path();
+
+    @Nullable
+    abstract List<String> principalNames();
+
+    static DecisionKey create(@Nullable String path, @Nullable List<String> principalNames) {
+      return new AutoValue_GrpcAuthorizationEngine_DecisionKey(path, principalNames);
+    }
   }
 
   public enum Action {
@@ -150,7 +335,7 @@ public final class GrpcAuthorizationEngine {
 
     @Override
     public boolean matches(EvaluateArgs args) {
-      Collection<String> principalNames = args.getPrincipalNames();
+      List<String> principalNames = args.getPrincipalNames();
       log.log(Level.FINER, "Matching principal names: {0}", new Object[]{principalNames});
       // Null means unauthenticated connection.
       if (principalNames == null) {
@@ -250,6 +435,11 @@ public final class GrpcAuthorizationEngine {
   private static final class EvaluateArgs {
     private final Metadata metadata;
     private final ServerCall<?,?> serverCall;
+    @Nullable
+    private String path;
+    private boolean principalNamesDerived;
+    @Nullable
+    private List<String> principalNames;
     // https://github.com/envoyproxy/envoy/blob/63619d578e1abe0c1725ea28ba02f361466662e1/api/envoy/config/rbac/v3/rbac.proto#L238-L240
     private static final int URI_SAN = 6;
     private static final int DNS_SAN = 2;
@@ -260,7 +450,10 @@ public final class GrpcAuthorizationEngine {
     }
 
     private String getPath() {
-      return "/" + serverCall.getMethodDescriptor().getFullMethodName();
+      if (path == null) {
+        path = "/" + serverCall.getMethodDescriptor().getFullMethodName();
+      }
+      return path;
     }
 
     /**
@@ -270,19 +463,30 @@ public final class GrpcAuthorizationEngine {
      * https://github.com/envoyproxy/envoy/blob/0fae6970ddaf93f024908ba304bbd2b34e997a51/envoy/ssl/connection.h#L70
      */
     @Nullable
-    private Collection<String> getPrincipalNames() {
-      SSLSession sslSession = serverCall.getAttributes().get(Grpc.TRANSPORT_ATTR_SSL_SESSION);
-      if (sslSession == null) {
-        return null;
+    private List<String> getPrincipalNames() {
+      if (!principalNamesDerived) {
+        SSLSession sslSession = serverCall.getAttributes().get(Grpc.TRANSPORT_ATTR_SSL_SESSION);
+        if (sslSession != null) {
+          principalNames = principalNamesCache.getIfPresent(sslSession);
+          if (principalNames == null) {
+            principalNames = derivePrincipalNames(sslSession);
+            principalNamesCache.put(sslSession, principalNames);
+          }
+        }
+        principalNamesDerived = true;
       }
+      return principalNames;
+    }
+
+    private static List<String> derivePrincipalNames(SSLSession sslSession) {
       try {
         Certificate[] certs = sslSession.getPeerCertificates();
         if (certs == null || certs.length < 1) {
-          return Collections.singleton("");
+          return Collections.singletonList("");
         }
         X509Certificate cert = (X509Certificate)certs[0];
         if (cert == null) {
-          return Collections.singleton("");
+          return Collections.singletonList("");
         }
         Collection<List<?>> names = cert.getSubjectAlternativeNames();
         List<String> principalNames = new ArrayList<>();
@@ -293,7 +497,7 @@ public final class GrpcAuthorizationEngine {
             }
           }
           if (!principalNames.isEmpty()) {
-            return Collections.unmodifiableCollection(principalNames);
+            return Collections.unmodifiableList(principalNames);
           }
           for (List<?> name : names) {
             if (DNS_SAN == (Integer) name.get(0)) {
@@ -301,16 +505,16 @@ public final class GrpcAuthorizationEngine {
             }
           }
           if (!principalNames.isEmpty()) {
-            return Collections.unmodifiableCollection(principalNames);
+            return Collections.unmodifiableList(principalNames);
           }
         }
         if (cert.getSubjectDN() == null || cert.getSubjectDN().getName() == null) {
-          return Collections.singleton("");
+          return Collections.singletonList("");
         }
-        return Collections.singleton(cert.getSubjectDN().getName());
+        return Collections.singletonList(cert.getSubjectDN().getName());
       } catch (SSLPeerUnverifiedException | CertificateParsingException ex) {
         log.log(Level.FINE, "Unexpected getPrincipalNames error.", ex);
-        return Collections.singleton("");
+        return Collections.singletonList("");
       }
     }
 
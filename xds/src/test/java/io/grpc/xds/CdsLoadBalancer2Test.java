@@ -46,6 +46,7 @@ import io.grpc.xds.CdsLoadBalancerProvider.CdsConfig;
 import io.grpc.xds.ClusterResolverLoadBalancerProvider.ClusterResolverConfig;
 import io.grpc.xds.ClusterResolverLoadBalancerProvider.ClusterResolverConfig.DiscoveryMechanism;
 import io.grpc.xds.EnvoyServerProtoData.UpstreamTlsContext;
+import io.grpc.xds.LeastRequestLoadBalancer.LeastRequestConfig;
 import io.grpc.xds.RingHashLoadBalancer.RingHashConfig;
 import io.grpc.xds.XdsClient.CdsUpdate;
 import io.grpc.xds.internal.sds.CommonTlsContextTestsUtil;
@@ -118,6 +119,7 @@ public class CdsLoadBalancer2Test {
     lbRegistry.register(new FakeLoadBalancerProvider(CLUSTER_RESOLVER_POLICY_NAME));
     lbRegistry.register(new FakeLoadBalancerProvider("round_robin"));
     lbRegistry.register(new FakeLoadBalancerProvider("ring_hash"));
+    lbRegistry.register(new FakeLoadBalancerProvider("least_request"));
     loadBalancer = new CdsLoadBalancer2(helper, lbRegistry);
     loadBalancer.handleResolvedAddresses(
         ResolvedAddresses.newBuilder()
@@ -157,6 +159,21 @@ public class CdsLoadBalancer2Test {
     assertThat(childLbConfig.lbPolicy.getProvider().getPolicyName()).isEqualTo("round_robin");
   }
 
+  @Test
+  public void discoverTopLevelEdsCluster_leastRequestLbPolicy() {
+    CdsUpdate update =
+        CdsUpdate.forEds(CLUSTER, EDS_SERVICE_NAME, LRS_SERVER_NAME, 100L, upstreamTlsContext)
+            .leastRequestLbPolicy(3).build();
+    xdsClient.deliverCdsUpdate(CLUSTER, update);
+    assertThat(childBalancers).hasSize(1);
+    FakeLoadBalancer childBalancer = Iterables.getOnlyElement(childBalancers);
+    assertThat(childBalancer.name).isEqualTo(CLUSTER_RESOLVER_POLICY_NAME);
+    ClusterResolverConfig childLbConfig = (ClusterResolverConfig) childBalancer.config;
+    assertThat(childLbConfig.lbPolicy.getProvider().getPolicyName()).isEqualTo("least_request");
+    assertThat(((LeastRequestConfig) childLbConfig.lbPolicy.getConfig()).choiceCount)
+        .isEqualTo(3);
+  }
+
   @Test
   public void discoverTopLevelLogicalDnsCluster() {
     CdsUpdate update =
@@ -32,6 +32,7 @@ import io.envoyproxy.envoy.config.cluster.v3.Cluster;
 import io.envoyproxy.envoy.config.cluster.v3.Cluster.DiscoveryType;
 import io.envoyproxy.envoy.config.cluster.v3.Cluster.EdsClusterConfig;
 import io.envoyproxy.envoy.config.cluster.v3.Cluster.LbPolicy;
+import io.envoyproxy.envoy.config.cluster.v3.Cluster.LeastRequestLbConfig;
 import io.envoyproxy.envoy.config.cluster.v3.Cluster.RingHashLbConfig;
 import io.envoyproxy.envoy.config.cluster.v3.Cluster.RingHashLbConfig.HashFunction;
 import io.envoyproxy.envoy.config.core.v3.Address;
@@ -101,6 +102,9 @@ import io.grpc.xds.ClientXdsClient.StructOrError;
 import io.grpc.xds.Endpoints.LbEndpoint;
 import io.grpc.xds.Endpoints.LocalityLbEndpoints;
 import io.grpc.xds.Filter.FilterConfig;
+import io.grpc.xds.OutlierDetectionLoadBalancer.FailurePercentageEjection;
+import io.grpc.xds.OutlierDetectionLoadBalancer.OutlierDetection;
+import io.grpc.xds.OutlierDetectionLoadBalancer.SuccessRateEjection;
 import io.grpc.xds.VirtualHost.Route;
 import io.grpc.xds.VirtualHost.Route.RouteAction;
 import io.grpc.xds.VirtualHost.Route.RouteAction.ClusterWeight;
@@ -1138,6 +1142,149 @@ public class ClientXdsClientDataTest {
         .isEqualTo(ClientXdsClient.DEFAULT_RING_HASH_LB_POLICY_MAX_RING_SIZE);
   }
 
+  @Test
+  public void parseCluster_leastRequestLbPolicy_defaultLbConfig() throws ResourceInvalidException {
+    Cluster cluster = Cluster.newBuilder()
+        .setName("cluster-foo.googleapis.com")
+        .setType(DiscoveryType.EDS)
+        .setEdsClusterConfig(
+            EdsClusterConfig.newBuilder()
+                .setEdsConfig(
+                    ConfigSource.newBuilder()
+                        .setAds(AggregatedConfigSource.getDefaultInstance()))
+                .setServiceName("service-foo.googleapis.com"))
+        .setLbPolicy(LbPolicy.LEAST_REQUEST)
+        .build();
+
+    CdsUpdate update = ClientXdsClient.parseCluster(cluster, new HashSet<String>());
+    assertThat(update.lbPolicy()).isEqualTo(CdsUpdate.LbPolicy.LEAST_REQUEST);
+    assertThat(update.choiceCount())
+        .isEqualTo(ClientXdsClient.DEFAULT_LEAST_REQUEST_CHOICE_COUNT);
+  }
+
+  @Test
+  public void parseCluster_leastRequestLbPolicy_choiceCount() throws ResourceInvalidException {
+    Cluster cluster = Cluster.newBuilder()
+        .setName("cluster-foo.googleapis.com")
+        .setType(DiscoveryType.EDS)
+        .setEdsClusterConfig(
+            EdsClusterConfig.newBuilder()
+                .setEdsConfig(
+                    ConfigSource.newBuilder()
+                        .setAds(AggregatedConfigSource.getDefaultInstance()))
+                .setServiceName("service-foo.googleapis.com"))
+        .setLbPolicy(LbPolicy.LEAST_REQUEST)
+        .setLeastRequestLbConfig(
+            LeastRequestLbConfig.newBuilder().setChoiceCount(UInt32Value.of(4)))
+        .build();
+
+    CdsUpdate update = ClientXdsClient.parseCluster(cluster, new HashSet<String>());
+    assertThat(update.lbPolicy()).isEqualTo(CdsUpdate.LbPolicy.LEAST_REQUEST);
+    assertThat(update.choiceCount()).isEqualTo(4);
+  }
+
+  @Test
+  public void parseCluster_leastRequestLbPolicy_invalidChoiceCount()
+      throws ResourceInvalidException {
+    Cluster cluster = Cluster.newBuilder()
+        .setName("cluster-foo.googleapis.com")
+        .setType(DiscoveryType.EDS)
+        .setEdsClusterConfig(
+            EdsClusterConfig.newBuilder()
+                .setEdsConfig(
+                    ConfigSource.newBuilder()
+                        .setAds(AggregatedConfigSource.getDefaultInstance()))
+                .setServiceName("service-foo.googleapis.com"))
+        .setLbPolicy(LbPolicy.LEAST_REQUEST)
+        .setLeastRequestLbConfig(
+            LeastRequestLbConfig.newBuilder().setChoiceCount(UInt32Value.of(1)))
+        .build();
+
+    thrown.expect(ResourceInvalidException.class);
+    thrown.expectMessage("Cluster cluster-foo.googleapis.com: invalid least_request_lb_config");
+    ClientXdsClient.parseCluster(cluster, new HashSet<String>());
+  }
+
+  @Test
+  public void parseCluster_outlierDetection() throws ResourceInvalidException {
+    Cluster cluster = Cluster.newBuilder()
+        .setName("cluster-foo.googleapis.com")
+        .setType(DiscoveryType.EDS)
+        .setEdsClusterConfig(
+            EdsClusterConfig.newBuilder()
+                .setEdsConfig(
+                    ConfigSource.newBuilder()
+                        .setAds(AggregatedConfigSource.getDefaultInstance()))
+                .setServiceName("service-foo.googleapis.com"))
+        .setLbPolicy(LbPolicy.ROUND_ROBIN)
+        .setOutlierDetection(
+            io.envoyproxy.envoy.config.cluster.v3.OutlierDetection.newBuilder()
+                .setInterval(Durations.fromSeconds(5))
+                .setMaxEjectionPercent(UInt32Value.of(20))
+                .setSuccessRateStdevFactor(UInt32Value.of(1000))
+                .setEnforcingFailurePercentage(UInt32Value.of(50))
+                .setFailurePercentageThreshold(UInt32Value.of(70)))
+        .build();
+
+    CdsUpdate update = ClientXdsClient.parseCluster(cluster, new HashSet<String>());
+    OutlierDetection outlierDetection = update.outlierDetection();
+    assertThat(outlierDetection.intervalNanos).isEqualTo(TimeUnit.SECONDS.toNanos(5));
+    assertThat(outlierDetection.baseEjectionTimeNanos)
+        .isEqualTo(OutlierDetection.DEFAULT_BASE_EJECTION_TIME_NANOS);
+    assertThat(outlierDetection.maxEjectionPercent).isEqualTo(20);
+    assertThat(outlierDetection.successRateEjection).isEqualTo(new SuccessRateEjection(1000,
+        SuccessRateEjection.DEFAULT_ENFORCEMENT_PERCENTAGE,
+        SuccessRateEjection.DEFAULT_MINIMUM_HOSTS, SuccessRateEjection.DEFAULT_REQUEST_VOLUME));
+    assertThat(outlierDetection.failurePercentageEjection).isEqualTo(
+        new FailurePercentageEjection(70, 50, FailurePercentageEjection.DEFAULT_MINIMUM_HOSTS,
+            FailurePercentageEjection.DEFAULT_REQUEST_VOLUME));
+  }
+
+  @Test
+  public void parseCluster_outlierDetection_ejectionDisabled() throws ResourceInvalidException {
+    Cluster cluster = Cluster.newBuilder()
+        .setName("cluster-foo.googleapis.com")
+        .setType(DiscoveryType.EDS)
+        .setEdsClusterConfig(
+            EdsClusterConfig.newBuilder()
+                .setEdsConfig(
+                    ConfigSource.newBuilder()
+                        .setAds(AggregatedConfigSource.getDefaultInstance()))
+                .setServiceName("service-foo.googleapis.com"))
+        .setLbPolicy(LbPolicy.ROUND_ROBIN)
+        .setOutlierDetection(
+            io.envoyproxy.envoy.config.cluster.v3.OutlierDetection.newBuilder()
+                .setEnforcingSuccessRate(UInt32Value.of(0)))
+        .build();
+
+    CdsUpdate update = ClientXdsClient.parseCluster(cluster, new HashSet<String>());
+    assertThat(update.outlierDetection().successRateEjection).isNull();
+    assertThat(update.outlierDetection().failurePercentageEjection).isNull();
+  }
+
+  @Test
+  public void parseCluster_outlierDetection_invalidMaxEjectionPercent()
+      throws ResourceInvalidException {
+    Cluster cluster = Cluster.newBuilder()
+        .setName("cluster-foo.googleapis.com")
+        .setType(DiscoveryType.EDS)
+        .setEdsClusterConfig(
+            EdsClusterConfig.newBuilder()
+                .setEdsConfig(
+                    ConfigSource.newBuilder()
+                        .setAds(AggregatedConfigSource.getDefaultInstance()))
+                .setServiceName("service-foo.googleapis.com"))
+        .setLbPolicy(LbPolicy.ROUND_ROBIN)
+        .setOutlierDetection(
+            io.envoyproxy.envoy.config.cluster.v3.OutlierDetection.newBuilder()
+                .setMaxEjectionPercent(UInt32Value.of(101)))
+        .build();
+
+    thrown.expect(ResourceInvalidException.class);
+    thrown.expectMessage("Cluster cluster-foo.googleapis.com: invalid outlier_detection");
+    ClientXdsClient.parseCluster(cluster, new HashSet<String>());
+  }
+
   @Test
   public void parseCluster_ringHashLbPolicy_invalidRingSizeConfig_minGreaterThanMax()
       throws ResourceInvalidException {
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.xds;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.Iterables;
+import com.google.protobuf.Any;
+import io.envoyproxy.envoy.config.cluster.v3.Cluster;
+import io.envoyproxy.envoy.config.cluster.v3.Cluster.DiscoveryType;
+import io.envoyproxy.envoy.config.cluster.v3.Cluster.EdsClusterConfig;
+import io.envoyproxy.envoy.config.cluster.v3.Cluster.LbPolicy;
+import io.envoyproxy.envoy.config.core.v3.AggregatedConfigSource;
+import io.envoyproxy.envoy.config.core.v3.ConfigSource;
+import io.envoyproxy.envoy.service.discovery.v3.AggregatedDiscoveryServiceGrpc.AggregatedDiscoveryServiceImplBase;
+import io.envoyproxy.envoy.service.discovery.v3.DeltaDiscoveryRequest;
+import io.envoyproxy.envoy.service.discovery.v3.DeltaDiscoveryResponse;
+import io.envoyproxy.envoy.service.discovery.v3.DiscoveryRequest;
+import io.envoyproxy.envoy.service.discovery.v3.DiscoveryResponse;
+import io.envoyproxy.envoy.service.discovery.v3.Resource;
+import io.grpc.Context;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.internal.BackoffPolicy;
+import io.grpc.internal.FakeClock;
+import io.grpc.stub.StreamObserver;
+import io.grpc.testing.GrpcCleanupRule;
+import io.grpc.xds.AbstractXdsClient.ResourceType;
+import io.grpc.xds.XdsClient.CdsResourceWatcher;
+import io.grpc.xds.XdsClient.CdsUpdate;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+/**
+ * Tests for {@link ClientXdsClient} with the incremental (delta) xDS protocol.
+ */
+@RunWith(JUnit4.class)
+public class ClientXdsClientDeltaTest {
+  private static final String SERVER_URI = "trafficdirector.googleapis.com";
+
+  @Rule
+  public final GrpcCleanupRule cleanupRule = new GrpcCleanupRule();
+  @Rule
+  public final MockitoRule mocks = MockitoJUnit.rule();
+
+  private final FakeClock fakeClock = new FakeClock();
+  private final List<DeltaDiscoveryRequest> deltaRequests = new ArrayList<>();
+  private final List<DiscoveryRequest> requests = new ArrayList<>();
+  private StreamObserver<DeltaDiscoveryResponse> deltaResponseObserver;
+  private boolean deltaSupported = true;
+
+  @Mock
+  private BackoffPolicy.Provider backoffPolicyProvider;
+  @Mock
+  private BackoffPolicy backoffPolicy;
+  @Mock
+  private CdsResourceWatcher cdsResourceWatcher;
+  @Mock
+  private TlsContextManager tlsContextManager;
+
+  private ManagedChannel channel;
+  private ClientXdsClient xdsClient;
+
+  @Before
+  public void setUp() throws IOException {
+    when(backoffPolicyProvider.get()).thenReturn(backoffPolicy);
+    when(backoffPolicy.nextBackoffNanos()).thenReturn(10L);
+    String serverName = InProcessServerBuilder.generateName();
+    cleanupRule.register(
+        InProcessServerBuilder
+            .forName(serverName)
+            .addService(new AggregatedDiscoveryServiceImplBase() {
+              @Override
+              public StreamObserver<DeltaDiscoveryRequest> deltaAggregatedResources(
+                  StreamObserver<DeltaDiscoveryResponse> responseObserver) {
+                if (!deltaSupported) {
+                  return super.deltaAggregatedResources(responseObserver);
+                }
+                deltaResponseObserver = responseObserver;
+                return new RecordingObserver<>(deltaRequests);
+              }
+
+              @Override
+              public StreamObserver<DiscoveryRequest> streamAggregatedResources(
+                  StreamObserver<DiscoveryResponse> responseObserver) {
+                return new RecordingObserver<>(requests);
+              }
+            })
+            .directExecutor()
+            .build()
+            .start());
+    channel =
+        cleanupRule.register(InProcessChannelBuilder.forName(serverName).directExecutor().build());
+    Bootstrapper.BootstrapInfo bootstrapInfo =
+        new Bootstrapper.BootstrapInfo(
+            Collections.singletonList(
+                new Bootstrapper.ServerInfo(
+                    SERVER_URI, InsecureChannelCredentials.create(), true, true)),
+            EnvoyProtoData.Node.newBuilder().build(),
+            null,
+            null);
+    xdsClient =
+        new ClientXdsClient(
+            channel,
+            bootstrapInfo,
+            Context.ROOT,
+            fakeClock.getScheduledExecutorService(),
+            backoffPolicyProvider,
+            fakeClock.getStopwatchSupplier(),
+            fakeClock.getTimeProvider(),
+            tlsContextManager);
+  }
+
+  @After
+  public void tearDown() {
+    xdsClient.shutdown();
+    channel.shutdown();
+  }
+
+  @Test
+  public void subscriptionChangesSentIncrementally() {
+    xdsClient.watchCdsResource("A", cdsResourceWatcher);
+    DeltaDiscoveryRequest request = Iterables.getLast(deltaRequests);
+    assertThat(request.hasNode()).isTrue();
+    assertThat(request.getTypeUrl()).isEqualTo(ResourceType.CDS.typeUrl());
+    assertThat(request.getResourceNamesSubscribeList()).containsExactly("A");
+    assertThat(request.getResourceNamesUnsubscribeList()).isEmpty();
+
+    xdsClient.watchCdsResource("B", cdsResourceWatcher);
+    request = Iterables.getLast(deltaRequests);
+    assertThat(request.hasNode()).isFalse();
+    assertThat(request.getResourceNamesSubscribeList()).containsExactly("B");
+    assertThat(request.getResourceNamesUnsubscribeList()).isEmpty();
+
+    xdsClient.cancelCdsResourceWatch("A", cdsResourceWatcher);
+    request = Iterables.getLast(deltaRequests);
+    assertThat(request.getResourceNamesSubscribeList()).isEmpty();
+    assertThat(request.getResourceNamesUnsubscribeList()).containsExactly("A");
+
+    xdsClient.cancelCdsResourceWatch("B", cdsResourceWatcher);
+    request = Iterables.getLast(deltaRequests);
+    assertThat(request.getResourceNamesUnsubscribeList()).containsExactly("B");
+    assertThat(deltaRequests).hasSize(4);
+    assertThat(requests).isEmpty();
+  }
+
+  @Test
+  public void resourceUpdatedAndRemovedIndividually() {
+    xdsClient.watchCdsResource("A", cdsResourceWatcher);
+    xdsClient.watchCdsResource("B", cdsResourceWatcher);
+
+    sendDeltaResponse("0000", Collections.singletonList(buildResource("A", "1")),
+        Collections.<String>emptyList());
+    ArgumentCaptor<CdsUpdate> cdsUpdateCaptor = ArgumentCaptor.forClass(null);
+    verify(cdsResourceWatcher).onChanged(cdsUpdateCaptor.capture());
+    assertThat(cdsUpdateCaptor.getValue().clusterName()).isEqualTo("A");
+    DeltaDiscoveryRequest ack = Iterables.getLast(deltaRequests);
+    assertThat(ack.getResponseNonce()).isEqualTo("0000");
+    assertThat(ack.hasErrorDetail()).isFalse();
+    assertThat(ack.getResourceNamesSubscribeList()).isEmpty();
+
+    // B is not in the response, but that does not mean it has been removed.
+    sendDeltaResponse("0001", Collections.<Resource>emptyList(), Collections.singletonList("A"));
+    verify(cdsResourceWatcher).onResourceDoesNotExist("A");
+    verify(cdsResourceWatcher, never()).onResourceDoesNotExist("B");
+    assertThat(Iterables.getLast(deltaRequests).getResponseNonce()).isEqualTo("0001");
+  }
+
+  @Test
+  public void resourceVersionsSentOnNewStream() {
+    xdsClient.watchCdsResource("A", cdsResourceWatcher);
+    sendDeltaResponse("0000", Collections.singletonList(buildResource("A", "1")),
+        Collections.<String>emptyList());
+    deltaRequests.clear();
+
+    deltaResponseObserver.onError(Status.UNAVAILABLE.asException());
+    verify(cdsResourceWatcher).onError(any(Status.class));
+    fakeClock.runDueTasks();
+    DeltaDiscoveryRequest request = Iterables.getOnlyElement(deltaRequests);
+    assertThat(request.hasNode()).isTrue();
+    assertThat(request.getResourceNamesSubscribeList()).containsExactly("A");
+    assertThat(request.getInitialResourceVersionsMap()).containsExactly("A", "1");
+  }
+
+  @Test
+  public void fallBackToStateOfTheWorld() {
+    deltaSupported = false;
+    xdsClient.watchCdsResource("A", cdsResourceWatcher);
+    DiscoveryRequest request = Iterables.getOnlyElement(requests);
+    assertThat(request.getTypeUrl()).isEqualTo(ResourceType.CDS.typeUrl());
+    assertThat(request.getResourceNamesList()).containsExactly("A");
+    verify(cdsResourceWatcher, never()).onError(any(Status.class));
+  }
+
+  private void sendDeltaResponse(
+      String nonce, List<Resource> resources, List<String> removedResources) {
+    deltaResponseObserver.onNext(
+        DeltaDiscoveryResponse.newBuilder()
+            .setTypeUrl(ResourceType.CDS.typeUrl())
+            .addAllResources(resources)
+            .addAllRemovedResources(removedResources)
+            .setNonce(nonce)
+            .build());
+  }
+
+  private static Resource buildResource(String clusterName, String version) {
+    Cluster cluster = Cluster.newBuilder()
+        .setName(clusterName)
+        .setType(DiscoveryType.EDS)
+        .setEdsClusterConfig(
+            EdsClusterConfig.newBuilder().setEdsConfig(
+                ConfigSource.newBuilder().setAds(AggregatedConfigSource.getDefaultInstance())))
+        .setLbPolicy(LbPolicy.ROUND_ROBIN)
+        .build();
+    return Resource.newBuilder()
+        .setName(clusterName)
+        .setVersion(version)
+        .setResource(Any.pack(cluster))
+        .build();
+  }
+
+  private static final class RecordingObserver<T> implements StreamObserver<T> {
+    private final List<T> messages;
+
+    RecordingObserver(List<T> messages) {
+      this.messages = messages;
+    }
+
+    @Override
+    public void onNext(T value) {
+      messages.add(value);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+    }
+
+    @Override
+    public void onCompleted() {
+    }
+  }
+}
@@ -80,6 +80,7 @@ import io.grpc.xds.XdsClient.ResourceWatcher;
 import io.grpc.xds.internal.sds.CommonTlsContextTestsUtil;
 import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -243,6 +244,9 @@ public abstract class ClientXdsClientTestBase {
   private ManagedChannel channel;
   private ClientXdsClient xdsClient;
   private boolean originalEnableFaultInjection;
+  private int originalParallelParsingThreshold;
+  private int originalParsingParallelism;
+  private boolean originalEnableOutlierDetection;
 
   @Before
   public void setUp() throws IOException {
@@ -255,6 +259,9 @@ public abstract class ClientXdsClientTestBase {
     // Start the server and the client.
     originalEnableFaultInjection = ClientXdsClient.enableFaultInjection;
     ClientXdsClient.enableFaultInjection = true;
+    originalParallelParsingThreshold = ClientXdsClient.parallelParsingThreshold;
+    originalParsingParallelism = ClientXdsClient.parsingParallelism;
+    originalEnableOutlierDetection = ClientXdsClient.enableOutlierDetection;
     final String serverName = InProcessServerBuilder.generateName();
     cleanupRule.register(
         InProcessServerBuilder
@@ -293,6 +300,9 @@ public abstract class ClientXdsClientTestBase {
   @After
   public void tearDown() {
     ClientXdsClient.enableFaultInjection = originalEnableFaultInjection;
+    ClientXdsClient.parallelParsingThreshold = originalParallelParsingThreshold;
+    ClientXdsClient.parsingParallelism = originalParsingParallelism;
+    ClientXdsClient.enableOutlierDetection = originalEnableOutlierDetection;
     xdsClient.shutdown();
     channel.shutdown();  // channel not owned by XdsClient
     assertThat(adsEnded.get()).isTrue();
@@ -1220,6 +1230,136 @@ public abstract class ClientXdsClientTestBase {
     call.verifyRequest(CDS, subscribedResourceNames, VERSION_3, "0002", NODE);
   }
 
+  @Test
+  public void cdsResponseParsedInParallel() {
+    // Split even the smallest response into as many chunks as parsing workers allow.
+    ClientXdsClient.parallelParsingThreshold = 1;
+    ClientXdsClient.parsingParallelism = 4;
+    List<String> subscribedResourceNames = ImmutableList.of("A", "B", "C");
+    xdsClient.watchCdsResource("A", cdsResourceWatcher);
+    xdsClient.watchCdsResource("B", cdsResourceWatcher);
+    xdsClient.watchCdsResource("C", cdsResourceWatcher);
+    DiscoveryRpcCall call = resourceDiscoveryCalls.poll();
+    List<Any> clusters = new ArrayList<>();
+    for (String name : ImmutableList.of("A", "B", "C", "D")) {
+      clusters.add(Any.pack(mf.buildEdsCluster(name, null, "round_robin", null, false, null,
+          "envoy.transport_sockets.tls", null)));
+    }
+    call.sendResponse(CDS, clusters, VERSION_1, "0000");
+    call.verifyRequest(CDS, subscribedResourceNames, VERSION_1, "0000", NODE);
+    verify(cdsResourceWatcher, times(3)).onChanged(cdsUpdateCaptor.capture());
+    List<String> clusterNames = new ArrayList<>();
+    for (CdsUpdate cdsUpdate : cdsUpdateCaptor.getAllValues()) {
+      clusterNames.add(cdsUpdate.clusterName());
+    }
+    assertThat(clusterNames).containsExactly("A", "B", "C");
+    verifyResourceMetadataAcked(CDS, "A", clusters.get(0), VERSION_1, TIME_INCREMENT);
+    verifyResourceMetadataAcked(CDS, "C", clusters.get(2), VERSION_1, TIME_INCREMENT);
+    verifySubscribedResourcesMetadataSizes(0, 3, 0, 0);
+  }
+
+  @Test
+  public void cdsResponseParsedInParallel_nackedWithAllErrors() {
+    ClientXdsClient.parallelParsingThreshold = 1;
+    ClientXdsClient.parsingParallelism = 4;
+    List<String> subscribedResourceNames = ImmutableList.of("A", "B", "C", "D");
+    for (String name : subscribedResourceNames) {
+      xdsClient.watchCdsResource(name, cdsResourceWatcher);
+    }
+    DiscoveryRpcCall call = resourceDiscoveryCalls.poll();
+    List<Any> clusters = ImmutableList.of(
+        Any.pack(mf.buildClusterInvalid("A")),
+        Any.pack(mf.buildEdsCluster("B", null, "round_robin", null, false, null,
+            "envoy.transport_sockets.tls", null)),
+        Any.pack(mf.buildEdsCluster("C", null, "round_robin", null, false, null,
+            "envoy.transport_sockets.tls", null)),
+        Any.pack(mf.buildClusterInvalid("D")));
+    call.sendResponse(CDS, clusters, VERSION_1, "0000");
+    // Errors of all the chunks are reported, in the order of the resources.
+    List<String> errors = ImmutableList.of(
+        "CDS response Cluster 'A' validation error: ",
+        "CDS response Cluster 'D' validation error: ");
+    call.verifyRequestNack(CDS, subscribedResourceNames, "", "0000", NODE, errors);
+    verifyNoInteractions(cdsResourceWatcher);
+  }
+
+  /**
+   * Tests that a cluster resent unchanged is not parsed again, using a cluster that is only
+   * invalid with outlier detection enabled.
+   */
+  @Test
+  public void cdsResourceUnchanged_notParsedAgain() {
+    ClientXdsClient.enableOutlierDetection = false;
+    DiscoveryRpcCall call = startResourceWatcher(CDS, CDS_RESOURCE, cdsResourceWatcher);
+    Any cluster = Any.pack(mf.buildEdsClusterWithInvalidOutlierDetection(CDS_RESOURCE));
+    call.sendResponse(CDS, cluster, VERSION_1, "0000");
+    call.verifyRequest(CDS, CDS_RESOURCE, VERSION_1, "0000", NODE);
+    verify(cdsResourceWatcher).onChanged(cdsUpdateCaptor.capture());
+    assertThat(cdsUpdateCaptor.getValue().outlierDetection()).isNull();
+    assertThat(xdsClient.getParseCachedResources(CDS)).containsExactly(cluster);
+
+    // Parsing the cluster again would reject it.
+    ClientXdsClient.enableOutlierDetection = true;
+    call.sendResponse(CDS, cluster, VERSION_2, "0001");
+    call.verifyRequest(CDS, CDS_RESOURCE, VERSION_2, "0001", NODE);
+    verifyNoMoreInteractions(cdsResourceWatcher);
+    verifyResourceMetadataAcked(CDS, CDS_RESOURCE, cluster, VERSION_2, TIME_INCREMENT * 2);
+    assertThat(xdsClient.getParseCachedResources(CDS)).containsExactly(cluster);
+
+    // An updated cluster replaces the cached one.
+    call.sendResponse(CDS, testClusterRoundRobin, VERSION_3, "0002");
+    call.verifyRequest(CDS, CDS_RESOURCE, VERSION_3, "0002", NODE);
+    verify(cdsResourceWatcher, times(2)).onChanged(cdsUpdateCaptor.capture());
+    assertThat(xdsClient.getParseCachedResources(CDS)).containsExactly(testClusterRoundRobin);
+  }
+
+  @Test
+  public void cdsResourceUnsubscribed_parseCacheCleared() {
+    ClientXdsClient.enableOutlierDetection = false;
+    DiscoveryRpcCall call = startResourceWatcher(CDS, CDS_RESOURCE, cdsResourceWatcher);
+    Any cluster = Any.pack(mf.buildEdsClusterWithInvalidOutlierDetection(CDS_RESOURCE));
+    call.sendResponse(CDS, cluster, VERSION_1, "0000");
+    call.verifyRequest(CDS, CDS_RESOURCE, VERSION_1, "0000", NODE);
+    assertThat(xdsClient.getParseCachedResources(CDS)).containsExactly(cluster);
+
+    xdsClient.cancelCdsResourceWatch(CDS_RESOURCE, cdsResourceWatcher);
+    assertThat(xdsClient.getParseCachedResources(CDS)).isEmpty();
+
+    // Subscribed again, the resent cluster is parsed and rejected.
+    ClientXdsClient.enableOutlierDetection = true;
+    xdsClient.watchCdsResource(CDS_RESOURCE, cdsResourceWatcher);
+    call.sendResponse(CDS, cluster, VERSION_2, "0001");
+    List<String> errors = ImmutableList.of(
+        "CDS response Cluster '" + CDS_RESOURCE + "' validation error: ");
+    call.verifyRequestNack(CDS, CDS_RESOURCE, VERSION_1, "0001", NODE, errors);
+    assertThat(xdsClient.getParseCachedResources(CDS)).isEmpty();
+  }
+
+  @Test
+  public void cdsResourceAbsent_parseCacheCleared() {
+    ClientXdsClient.enableOutlierDetection = false;
+    DiscoveryRpcCall call = startResourceWatcher(CDS, CDS_RESOURCE, cdsResourceWatcher);
+    Any cluster = Any.pack(mf.buildEdsClusterWithInvalidOutlierDetection(CDS_RESOURCE));
+    call.sendResponse(CDS, cluster, VERSION_1, "0000");
+    call.verifyRequest(CDS, CDS_RESOURCE, VERSION_1, "0000", NODE);
+    verify(cdsResourceWatcher).onChanged(cdsUpdateCaptor.capture());
+    assertThat(xdsClient.getParseCachedResources(CDS)).containsExactly(cluster);
+
+    // Empty CDS response deletes the cluster.
+    call.sendResponse(CDS, Collections.<Any>emptyList(), VERSION_2, "0001");
+    call.verifyRequest(CDS, CDS_RESOURCE, VERSION_2, "0001", NODE);
+    verify(cdsResourceWatcher).onResourceDoesNotExist(CDS_RESOURCE);
+    assertThat(xdsClient.getParseCachedResources(CDS)).isEmpty();
+
+    // Sent again, the cluster is parsed and rejected.
+    ClientXdsClient.enableOutlierDetection = true;
+    call.sendResponse(CDS, cluster, VERSION_3, "0002");
+    List<String> errors = ImmutableList.of(
+        "CDS response Cluster '" + CDS_RESOURCE + "' validation error: ");
+    call.verifyRequestNack(CDS, CDS_RESOURCE, VERSION_2, "0002", NODE, errors);
+    verifyNoMoreInteractions(cdsResourceWatcher);
+  }
+
   @Test
   public void cdsResourceFound() {
     DiscoveryRpcCall call = startResourceWatcher(CDS, CDS_RESOURCE, cdsResourceWatcher);
@@ -1779,6 +1919,73 @@ public abstract class ClientXdsClientTestBase {
     verifySubscribedResourcesMetadataSizes(0, 0, 0, 1);
   }
 
+  @Test
+  public void edsResourceUnchanged_notParsedAgain() {
+    DiscoveryRpcCall call = startResourceWatcher(EDS, EDS_RESOURCE, edsResourceWatcher);
+    call.sendResponse(EDS, testClusterLoadAssignment, VERSION_1, "0000");
+    call.verifyRequest(EDS, EDS_RESOURCE, VERSION_1, "0000", NODE);
+    verify(edsResourceWatcher).onChanged(edsUpdateCaptor.capture());
+    EdsUpdate edsUpdate = edsUpdateCaptor.getValue();
+    assertThat(xdsClient.getParseCachedResources(EDS)).containsExactly(testClusterLoadAssignment);
+
+    // Resent unchanged, the assignment is acked without being notified again.
+    call.sendResponse(EDS, testClusterLoadAssignment, VERSION_2, "0001");
+    call.verifyRequest(EDS, EDS_RESOURCE, VERSION_2, "0001", NODE);
+    verifyNoMoreInteractions(edsResourceWatcher);
+    verifyResourceMetadataAcked(EDS, EDS_RESOURCE, testClusterLoadAssignment, VERSION_2,
+        TIME_INCREMENT * 2);
+    assertThat(xdsClient.getParseCachedResources(EDS)).containsExactly(testClusterLoadAssignment);
+
+    // An updated assignment replaces the cached one.
+    Any updatedClusterLoadAssignment = Any.pack(mf.buildClusterLoadAssignment(EDS_RESOURCE,
+        ImmutableList.of(mf.buildLocalityLbEndpoints("region2", "zone2", "subzone2",
+            mf.buildLbEndpoint("172.44.2.2", 8000, "unknown", 3), 2, 0)),
+        ImmutableList.<Message>of()));
+    call.sendResponse(EDS, updatedClusterLoadAssignment, VERSION_3, "0002");
+    call.verifyRequest(EDS, EDS_RESOURCE, VERSION_3, "0002", NODE);
+    verify(edsResourceWatcher, times(2)).onChanged(edsUpdateCaptor.capture());
+    assertThat(edsUpdateCaptor.getValue()).isNotEqualTo(edsUpdate);
+    assertThat(xdsClient.getParseCachedResources(EDS))
+        .containsExactly(updatedClusterLoadAssignment);
+  }
+
+  @Test
+  public void edsResourceUnsubscribed_parseCacheCleared() {
+    DiscoveryRpcCall call = startResourceWatcher(EDS, EDS_RESOURCE, edsResourceWatcher);
+    call.sendResponse(EDS, testClusterLoadAssignment, VERSION_1, "0000");
+    call.verifyRequest(EDS, EDS_RESOURCE, VERSION_1, "0000", NODE);
+    assertThat(xdsClient.getParseCachedResources(EDS)).containsExactly(testClusterLoadAssignment);
+
+    xdsClient.cancelEdsResourceWatch(EDS_RESOURCE, edsResourceWatcher);
+    assertThat(xdsClient.getParseCachedResources(EDS)).isEmpty();
+
+    // Subscribed again, the resent assignment is parsed and notified.
+    xdsClient.watchEdsResource(EDS_RESOURCE, edsResourceWatcher);
+    call.sendResponse(EDS, testClusterLoadAssignment, VERSION_2, "0001");
+    call.verifyRequest(EDS, EDS_RESOURCE, VERSION_2, "0001", NODE);
+    verify(edsResourceWatcher, times(2)).onChanged(edsUpdateCaptor.capture());
+    validateTestClusterLoadAssigment(edsUpdateCaptor.getValue());
+    assertThat(xdsClient.getParseCachedResources(EDS)).containsExactly(testClusterLoadAssignment);
+  }
+
+  @Test
+  public void edsResourceDeletedByCds_parseCacheCleared() {
+    xdsClient.watchCdsResource(CDS_RESOURCE, cdsResourceWatcher);
+    xdsClient.watchEdsResource(EDS_RESOURCE, edsResourceWatcher);
+    DiscoveryRpcCall call = resourceDiscoveryCalls.poll();
+    call.sendResponse(EDS, testClusterLoadAssignment, VERSION_1, "0000");
+    call.verifyRequest(EDS, EDS_RESOURCE, VERSION_1, "0000", NODE);
+    assertThat(xdsClient.getParseCachedResources(EDS)).containsExactly(testClusterLoadAssignment);
+
+    // The only cluster refers to an EDS resource of its own name, so EDS_RESOURCE is deleted.
+    call.sendResponse(CDS, testClusterRoundRobin, VERSION_1, "0000");
+    call.verifyRequest(CDS, CDS_RESOURCE, VERSION_1, "0000", NODE);
+    verify(edsResourceWatcher).onResourceDoesNotExist(EDS_RESOURCE);
+    verifyResourceMetadataDoesNotExist(EDS, EDS_RESOURCE);
+    assertThat(xdsClient.getParseCachedResources(EDS)).isEmpty();
+    assertThat(xdsClient.getParseCachedResources(CDS)).containsExactly(testClusterRoundRobin);
+  }
+
   @Test
   public void edsResourceDeletedByCds() {
     String resource = "backend-service.googleapis.com";
@@ -2379,6 +2586,8 @@ public abstract class ClientXdsClientTestBase {
 
     protected abstract Message buildClusterInvalid(String name);
 
+    protected abstract Message buildEdsClusterWithInvalidOutlierDetection(String clusterName);
+
     protected abstract Message buildEdsCluster(String clusterName, @Nullable String edsServiceName,
         String lbPolicy, @Nullable Message ringHashLbConfig, boolean enableLrs,
         @Nullable Message upstreamTlsContext, String transportSocketName,
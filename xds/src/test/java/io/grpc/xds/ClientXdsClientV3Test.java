@@ -26,6 +26,7 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.protobuf.Any;
+import com.google.protobuf.Duration;
 import com.google.protobuf.Message;
 import com.google.protobuf.UInt32Value;
 import com.google.protobuf.UInt64Value;
@@ -40,6 +41,7 @@ import io.envoyproxy.envoy.config.cluster.v3.Cluster.EdsClusterConfig;
 import io.envoyproxy.envoy.config.cluster.v3.Cluster.LbPolicy;
 import io.envoyproxy.envoy.config.cluster.v3.Cluster.RingHashLbConfig;
 import io.envoyproxy.envoy.config.cluster.v3.Cluster.RingHashLbConfig.HashFunction;
+import io.envoyproxy.envoy.config.cluster.v3.OutlierDetection;
 import io.envoyproxy.envoy.config.core.v3.Address;
 import io.envoyproxy.envoy.config.core.v3.AggregatedConfigSource;
 import io.envoyproxy.envoy.config.core.v3.ConfigSource;
@@ -430,6 +432,17 @@ public class ClientXdsClientV3Test extends ClientXdsClientTestBase {
       return Cluster.newBuilder().setName(name).build();
     }
 
+    @Override
+    protected Message buildEdsClusterWithInvalidOutlierDetection(String clusterName) {
+      Cluster cluster = (Cluster) buildEdsCluster(clusterName, null, "round_robin", null, false,
+          null, "envoy.transport_sockets.tls", null);
+      // Seconds and nanos of a duration must have the same sign.
+      return cluster.toBuilder()
+          .setOutlierDetection(OutlierDetection.newBuilder()
+              .setInterval(Duration.newBuilder().setSeconds(-1).setNanos(1)))
+          .build();
+    }
+
     @Override
     protected Message buildEdsCluster(String clusterName, @Nullable String edsServiceName,
         String lbPolicy, @Nullable Message ringHashLbConfig, boolean enableLrs,
@@ -18,6 +18,7 @@ package io.grpc.xds;
 
 import static com.google.common.truth.Truth.assertThat;
 import static io.grpc.xds.XdsLbPolicies.CLUSTER_IMPL_POLICY_NAME;
+import static io.grpc.xds.XdsLbPolicies.OUTLIER_DETECTION_POLICY_NAME;
 import static io.grpc.xds.XdsLbPolicies.PRIORITY_POLICY_NAME;
 import static io.grpc.xds.XdsLbPolicies.WEIGHTED_TARGET_POLICY_NAME;
 import static org.mockito.ArgumentMatchers.any;
@@ -63,6 +64,10 @@ import io.grpc.xds.Endpoints.DropOverload;
 import io.grpc.xds.Endpoints.LbEndpoint;
 import io.grpc.xds.Endpoints.LocalityLbEndpoints;
 import io.grpc.xds.EnvoyServerProtoData.UpstreamTlsContext;
+import io.grpc.xds.LeastRequestLoadBalancer.LeastRequestConfig;
+import io.grpc.xds.OutlierDetectionLoadBalancer.OutlierDetection;
+import io.grpc.xds.OutlierDetectionLoadBalancer.OutlierDetectionConfig;
+import io.grpc.xds.OutlierDetectionLoadBalancer.SuccessRateEjection;
 import io.grpc.xds.PriorityLoadBalancerProvider.PriorityLbConfig;
 import io.grpc.xds.PriorityLoadBalancerProvider.PriorityLbConfig.PriorityChildConfig;
 import io.grpc.xds.RingHashLoadBalancer.RingHashConfig;
@@ -113,11 +118,14 @@ public class ClusterResolverLoadBalancerTest {
   private final UpstreamTlsContext tlsContext =
       CommonTlsContextTestsUtil.buildUpstreamTlsContext("google_cloud_private_spiffe", true);
   private final DiscoveryMechanism edsDiscoveryMechanism1 =
-      DiscoveryMechanism.forEds(CLUSTER1, EDS_SERVICE_NAME1, LRS_SERVER_NAME, 100L, tlsContext);
+      DiscoveryMechanism.forEds(CLUSTER1, EDS_SERVICE_NAME1, LRS_SERVER_NAME, 100L, tlsContext,
+          null);
   private final DiscoveryMechanism edsDiscoveryMechanism2 =
-      DiscoveryMechanism.forEds(CLUSTER2, EDS_SERVICE_NAME2, LRS_SERVER_NAME, 200L, tlsContext);
+      DiscoveryMechanism.forEds(CLUSTER2, EDS_SERVICE_NAME2, LRS_SERVER_NAME, 200L, tlsContext,
+          null);
   private final DiscoveryMechanism logicalDnsDiscoveryMechanism =
-      DiscoveryMechanism.forLogicalDns(CLUSTER_DNS, DNS_HOST_NAME, LRS_SERVER_NAME, 300L, null);
+      DiscoveryMechanism.forLogicalDns(CLUSTER_DNS, DNS_HOST_NAME, LRS_SERVER_NAME, 300L, null,
+          null);
 
   private final SynchronizationContext syncContext = new SynchronizationContext(
       new Thread.UncaughtExceptionHandler() {
@@ -133,6 +141,8 @@ public class ClusterResolverLoadBalancerTest {
       new PolicySelection(new FakeLoadBalancerProvider("round_robin"), null);
   private final PolicySelection ringHash = new PolicySelection(
       new FakeLoadBalancerProvider("ring_hash"), new RingHashConfig(10L, 100L));
+  private final PolicySelection leastRequest = new PolicySelection(
+      new FakeLoadBalancerProvider("least_request"), new LeastRequestConfig(3));
   private final List<FakeLoadBalancer> childBalancers = new ArrayList<>();
   private final List<FakeNameResolver> resolvers = new ArrayList<>();
   private final FakeXdsClient xdsClient = new FakeXdsClient();
@@ -171,6 +181,7 @@ public class ClusterResolverLoadBalancerTest {
     lbRegistry.register(new FakeLoadBalancerProvider(PRIORITY_POLICY_NAME));
     lbRegistry.register(new FakeLoadBalancerProvider(CLUSTER_IMPL_POLICY_NAME));
     lbRegistry.register(new FakeLoadBalancerProvider(WEIGHTED_TARGET_POLICY_NAME));
+    lbRegistry.register(new FakeLoadBalancerProvider(OUTLIER_DETECTION_POLICY_NAME));
     lbRegistry.register(
         new FakeLoadBalancerProvider("pick_first")); // needed by logical_dns
     NameResolver.Args args = NameResolver.Args.newBuilder()
@@ -264,6 +275,87 @@ public class ClusterResolverLoadBalancerTest {
     assertThat(ringHashConfig.maxRingSize).isEqualTo(100L);
   }
 
+  @Test
+  public void edsClustersWithLeastRequestEndpointLbPolicy() {
+    ClusterResolverConfig config = new ClusterResolverConfig(
+        Collections.singletonList(edsDiscoveryMechanism1), leastRequest);
+    deliverLbConfig(config);
+    assertThat(xdsClient.watchers.keySet()).containsExactly(EDS_SERVICE_NAME1);
+    assertThat(childBalancers).isEmpty();
+
+    EquivalentAddressGroup endpoint1 = makeAddress("endpoint-addr-1");
+    EquivalentAddressGroup endpoint2 = makeAddress("endpoint-addr-2");
+    LocalityLbEndpoints localityLbEndpoints1 =
+        LocalityLbEndpoints.create(
+            Collections.singletonList(
+                LbEndpoint.create(endpoint1, 0 /* loadBalancingWeight */, true)),
+            10 /* localityWeight */, 1 /* priority */);
+    LocalityLbEndpoints localityLbEndpoints2 =
+        LocalityLbEndpoints.create(
+            Collections.singletonList(
+                LbEndpoint.create(endpoint2, 0 /* loadBalancingWeight */, true)),
+            50 /* localityWeight */, 1 /* priority */);
+    xdsClient.deliverClusterLoadAssignment(
+        EDS_SERVICE_NAME1,
+        ImmutableMap.of(locality1, localityLbEndpoints1, locality2, localityLbEndpoints2));
+    assertThat(childBalancers).hasSize(1);
+    FakeLoadBalancer childBalancer = Iterables.getOnlyElement(childBalancers);
+    assertThat(childBalancer.name).isEqualTo(PRIORITY_POLICY_NAME);
+    PriorityLbConfig priorityLbConfig = (PriorityLbConfig) childBalancer.config;
+    PriorityChildConfig priorityChildConfig =
+        Iterables.getOnlyElement(priorityLbConfig.childConfigs.values());
+    ClusterImplConfig clusterImplConfig =
+        (ClusterImplConfig) priorityChildConfig.policySelection.getConfig();
+    // Like round_robin, least_request balances the endpoints within each locality.
+    assertClusterImplConfig(clusterImplConfig, CLUSTER1, EDS_SERVICE_NAME1, LRS_SERVER_NAME, 100L,
+        tlsContext, Collections.<DropOverload>emptyList(), WEIGHTED_TARGET_POLICY_NAME);
+    WeightedTargetConfig weightedTargetConfig =
+        (WeightedTargetConfig) clusterImplConfig.childPolicy.getConfig();
+    assertThat(weightedTargetConfig.targets.keySet())
+        .containsExactly(locality1.toString(), locality2.toString());
+    WeightedPolicySelection target1 = weightedTargetConfig.targets.get(locality1.toString());
+    assertThat(target1.weight).isEqualTo(10);
+    assertThat(target1.policySelection).isEqualTo(leastRequest);
+    WeightedPolicySelection target2 = weightedTargetConfig.targets.get(locality2.toString());
+    assertThat(target2.weight).isEqualTo(50);
+    assertThat(target2.policySelection).isEqualTo(leastRequest);
+  }
+
+  @Test
+  public void edsClustersWithOutlierDetection() {
+    OutlierDetection outlierDetection = new OutlierDetection(
+        TimeUnit.SECONDS.toNanos(10), TimeUnit.SECONDS.toNanos(30),
+        TimeUnit.SECONDS.toNanos(300), 10, new SuccessRateEjection(1900, 100, 5, 100), null);
+    DiscoveryMechanism edsDiscoveryMechanism = DiscoveryMechanism.forEds(
+        CLUSTER1, EDS_SERVICE_NAME1, LRS_SERVER_NAME, 100L, tlsContext, outlierDetection);
+    ClusterResolverConfig config = new ClusterResolverConfig(
+        Collections.singletonList(edsDiscoveryMechanism), roundRobin);
+    deliverLbConfig(config);
+
+    EquivalentAddressGroup endpoint = makeAddress("endpoint-addr-1");
+    LocalityLbEndpoints localityLbEndpoints =
+        LocalityLbEndpoints.create(
+            Collections.singletonList(
+                LbEndpoint.create(endpoint, 0 /* loadBalancingWeight */, true)),
+            10 /* localityWeight */, 1 /* priority */);
+    xdsClient.deliverClusterLoadAssignment(
+        EDS_SERVICE_NAME1, Collections.singletonMap(locality1, localityLbEndpoints));
+    FakeLoadBalancer childBalancer = Iterables.getOnlyElement(childBalancers);
+    PriorityLbConfig priorityLbConfig = (PriorityLbConfig) childBalancer.config;
+    PriorityChildConfig priorityChildConfig =
+        Iterables.getOnlyElement(priorityLbConfig.childConfigs.values());
+    ClusterImplConfig clusterImplConfig =
+        (ClusterImplConfig) priorityChildConfig.policySelection.getConfig();
+    // Outlier detection sits between cluster_impl and the locality-level policy.
+    assertClusterImplConfig(clusterImplConfig, CLUSTER1, EDS_SERVICE_NAME1, LRS_SERVER_NAME, 100L,
+        tlsContext, Collections.<DropOverload>emptyList(), OUTLIER_DETECTION_POLICY_NAME);
+    OutlierDetectionConfig outlierDetectionConfig =
+        (OutlierDetectionConfig) clusterImplConfig.childPolicy.getConfig();
+    assertThat(outlierDetectionConfig.outlierDetection).isEqualTo(outlierDetection);
+    assertThat(outlierDetectionConfig.childPolicy.getProvider().getPolicyName())
+        .isEqualTo(WEIGHTED_TARGET_POLICY_NAME);
+  }
+
   @Test
   public void onlyEdsClusters_receivedEndpoints() {
     ClusterResolverConfig config = new ClusterResolverConfig(
@@ -1237,6 +1237,77 @@ public class FilterChainMatchingProtocolNegotiatorsTest {
             .getCertificateName()).isEqualTo("CERT3");
   }
 
+  @Test
+  public void filterChainMatch_manyFilterChains() throws Exception {
+    ArrayList<FilterChain> filterChains = new ArrayList<>();
+    // one chain per /24 of 10.1.0.0/16, each matching a single source port
+    for (int i = 0; i < 256; i++) {
+      FilterChainMatch filterChainMatch =
+              new FilterChainMatch(
+                      0,
+                      Arrays.asList(new CidrRange("10.1." + i + ".0", 24)),
+                      Arrays.<String>asList(),
+                      Arrays.<CidrRange>asList(),
+                      EnvoyServerProtoData.ConnectionSourceType.ANY,
+                      Arrays.asList(15000 + i),
+                      Arrays.<String>asList(),
+                      null);
+      filterChains.add(new FilterChain(
+              "filter-chain-" + i, filterChainMatch, HTTP_CONNECTION_MANAGER,
+              CommonTlsContextTestsUtil.buildTestInternalDownstreamTlsContext("CERT" + i, "VA"),
+              tlsContextManager));
+    }
+    // less specific than the chains above
+    FilterChainMatch filterChainMatchLessSpecific =
+            new FilterChainMatch(
+                    0,
+                    Arrays.asList(new CidrRange("10.0.0.0", 8)),
+                    Arrays.<String>asList(),
+                    Arrays.<CidrRange>asList(),
+                    EnvoyServerProtoData.ConnectionSourceType.ANY,
+                    Arrays.<Integer>asList(),
+                    Arrays.<String>asList(),
+                    null);
+    filterChains.add(new FilterChain(
+            "filter-chain-less-specific", filterChainMatchLessSpecific, HTTP_CONNECTION_MANAGER,
+            CommonTlsContextTestsUtil.buildTestInternalDownstreamTlsContext("CERT-8", "VA"),
+            tlsContextManager));
+    SslContextProviderSupplier defaultSsl = new SslContextProviderSupplier(createTls(),
+            mock(TlsContextManager.class));
+    FilterChainSelector selector = new FilterChainSelector(filterChains, defaultSsl);
+
+    final ArrayList<SslContextProviderSupplier> selected = new ArrayList<>();
+    ChannelHandler next = new ChannelInboundHandlerAdapter() {
+      @Override
+      public void userEventTriggered(ChannelHandlerContext ctx, Object evt) {
+        ProtocolNegotiationEvent e = (ProtocolNegotiationEvent)evt;
+        selected.add(InternalProtocolNegotiationEvent.getAttributes(e)
+                .get(ATTR_SERVER_SSL_CONTEXT_PROVIDER_SUPPLIER));
+      }
+    };
+    when(mockDelegate.newHandler(grpcHandler)).thenReturn(next);
+
+    setupChannel(LOCAL_IP, REMOTE_IP, 15002,
+            new FilterChainMatchingHandler(grpcHandler, selector, mockDelegate));
+    pipeline.fireUserEventTriggered(event);
+    channel.runPendingTasks();
+    // the chain of the most specific prefix range does not match the source port: no fallback to
+    // the less specific chain
+    setupChannel(LOCAL_IP, REMOTE_IP, 15003,
+            new FilterChainMatchingHandler(grpcHandler, selector, mockDelegate));
+    pipeline.fireUserEventTriggered(event);
+    channel.runPendingTasks();
+    setupChannel("10.2.0.1", REMOTE_IP, 15003,
+            new FilterChainMatchingHandler(grpcHandler, selector, mockDelegate));
+    pipeline.fireUserEventTriggered(event);
+    channel.runPendingTasks();
+
+    assertThat(selected).containsExactly(
+            filterChains.get(2).getSslContextProviderSupplier(),
+            defaultSsl,
+            filterChains.get(256).getSslContextProviderSupplier()).inOrder();
+  }
+
   private static HttpConnectionManager createRds(String name) {
     return HttpConnectionManager.forRdsName(0L, name,
             new ArrayList<NamedFilterConfig>());
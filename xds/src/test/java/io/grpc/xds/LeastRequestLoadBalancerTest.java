@@ -0,0 +1,260 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.xds;
+
+import static com.google.common.truth.Truth.assertThat;
+import static io.grpc.ConnectivityState.CONNECTING;
+import static io.grpc.ConnectivityState.READY;
+import static io.grpc.ConnectivityState.TRANSIENT_FAILURE;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.grpc.Attributes;
+import io.grpc.ClientStreamTracer;
+import io.grpc.ConnectivityStateInfo;
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.LoadBalancer.CreateSubchannelArgs;
+import io.grpc.LoadBalancer.Helper;
+import io.grpc.LoadBalancer.PickResult;
+import io.grpc.LoadBalancer.PickSubchannelArgs;
+import io.grpc.LoadBalancer.ResolvedAddresses;
+import io.grpc.LoadBalancer.Subchannel;
+import io.grpc.LoadBalancer.SubchannelPicker;
+import io.grpc.LoadBalancer.SubchannelStateListener;
+import io.grpc.Metadata;
+import io.grpc.Status;
+import io.grpc.xds.LeastRequestLoadBalancer.EmptyPicker;
+import io.grpc.xds.LeastRequestLoadBalancer.LeastRequestConfig;
+import io.grpc.xds.LeastRequestLoadBalancer.ReadyPicker;
+import java.net.SocketAddress;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/** Unit tests for {@link LeastRequestLoadBalancer}. */
+@RunWith(JUnit4.class)
+public class LeastRequestLoadBalancerTest {
+  private final List<EquivalentAddressGroup> servers = new ArrayList<>();
+  private final Map<List<EquivalentAddressGroup>, Subchannel> subchannels = new HashMap<>();
+  private final Map<Subchannel, SubchannelStateListener> subchannelStateListeners =
+      new HashMap<>();
+  private final FakeRandom random = new FakeRandom();
+
+  @Captor
+  private ArgumentCaptor<SubchannelPicker> pickerCaptor;
+  @Mock
+  private Helper helper;
+  @Mock
+  private PickSubchannelArgs pickArgs;
+
+  private LeastRequestLoadBalancer loadBalancer;
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+
+    for (int i = 0; i < 3; i++) {
+      EquivalentAddressGroup eag = new EquivalentAddressGroup(new FakeSocketAddress("server" + i));
+      servers.add(eag);
+      subchannels.put(Arrays.asList(eag), mock(Subchannel.class));
+    }
+
+    when(helper.createSubchannel(any(CreateSubchannelArgs.class)))
+        .then(new Answer<Subchannel>() {
+          @Override
+          public Subchannel answer(InvocationOnMock invocation) throws Throwable {
+            CreateSubchannelArgs args = (CreateSubchannelArgs) invocation.getArguments()[0];
+            final Subchannel subchannel = subchannels.get(args.getAddresses());
+            when(subchannel.getAllAddresses()).thenReturn(args.getAddresses());
+            when(subchannel.getAttributes()).thenReturn(args.getAttributes());
+            doAnswer(
+                new Answer<Void>() {
+                  @Override
+                  public Void answer(InvocationOnMock invocation) throws Throwable {
+                    subchannelStateListeners.put(
+                        subchannel, (SubchannelStateListener) invocation.getArguments()[0]);
+                    return null;
+                  }
+                }).when(subchannel).start(any(SubchannelStateListener.class));
+            return subchannel;
+          }
+        });
+
+    loadBalancer = new LeastRequestLoadBalancer(helper, random);
+  }
+
+  @Test
+  public void pickAfterResolved() {
+    resolve(null);
+    verify(helper).updateBalancingState(eq(CONNECTING), isA(EmptyPicker.class));
+
+    ReadyPicker picker = allReady();
+    assertThat(picker.getList()).containsExactlyElementsIn(subchannels.values());
+  }
+
+  @Test
+  public void picksSubchannelWithFewestOutstandingRequests() {
+    resolve(null);
+    ReadyPicker picker = allReady();
+    List<Subchannel> list = picker.getList();
+
+    // Both candidates are idle, so the first one wins.
+    random.enqueue(0, 1);
+    PickResult first = picker.pickSubchannel(pickArgs);
+    assertThat(first.getSubchannel()).isSameInstanceAs(list.get(0));
+    ClientStreamTracer tracer = newTracer(first);
+
+    // The first subchannel now has an outstanding request.
+    random.enqueue(0, 1);
+    assertThat(picker.pickSubchannel(pickArgs).getSubchannel()).isSameInstanceAs(list.get(1));
+
+    // The request completes.
+    tracer.streamClosed(Status.OK);
+    random.enqueue(0, 1);
+    assertThat(picker.pickSubchannel(pickArgs).getSubchannel()).isSameInstanceAs(list.get(0));
+  }
+
+  @Test
+  public void choiceCountFromConfig() {
+    resolve(new LeastRequestConfig(3));
+    ReadyPicker picker = allReady();
+    List<Subchannel> list = picker.getList();
+
+    for (int i = 0; i < 2; i++) {
+      random.enqueue(0, 1, 2);
+      PickResult result = picker.pickSubchannel(pickArgs);
+      newTracer(result);
+      newTracer(result);
+    }
+    // Sampling all three subchannels finds the one without outstanding requests, which
+    // power-of-two-choices would not have sampled.
+    random.enqueue(0, 1, 2);
+    assertThat(picker.pickSubchannel(pickArgs).getSubchannel()).isSameInstanceAs(list.get(2));
+  }
+
+  @Test
+  public void noReadySubchannels_reportsAggregateState() {
+    resolve(null);
+    Status error = Status.UNAVAILABLE.withDescription("connection refused");
+    for (Subchannel subchannel : subchannels.values()) {
+      subchannelStateListeners.get(subchannel)
+          .onSubchannelState(ConnectivityStateInfo.forTransientFailure(error));
+    }
+
+    verify(helper).updateBalancingState(eq(TRANSIENT_FAILURE), pickerCaptor.capture());
+    PickResult result = pickerCaptor.getValue().pickSubchannel(pickArgs);
+    assertThat(result.getStatus()).isEqualTo(error);
+    verify(helper, atLeastOnce()).refreshNameResolution();
+  }
+
+  @Test
+  public void nameResolutionError_whenNotReady() {
+    Status error = Status.NOT_FOUND.withDescription("nameResolutionError");
+    loadBalancer.handleNameResolutionError(error);
+
+    verify(helper).updateBalancingState(eq(TRANSIENT_FAILURE), pickerCaptor.capture());
+    assertThat(pickerCaptor.getValue().pickSubchannel(pickArgs).getStatus()).isEqualTo(error);
+  }
+
+  private void resolve(LeastRequestConfig config) {
+    loadBalancer.handleResolvedAddresses(
+        ResolvedAddresses.newBuilder()
+            .setAddresses(servers)
+            .setAttributes(Attributes.EMPTY)
+            .setLoadBalancingPolicyConfig(config)
+            .build());
+  }
+
+  private ReadyPicker allReady() {
+    for (Subchannel subchannel : subchannels.values()) {
+      subchannelStateListeners.get(subchannel)
+          .onSubchannelState(ConnectivityStateInfo.forNonError(READY));
+    }
+    verify(helper, atLeastOnce()).updateBalancingState(eq(READY), pickerCaptor.capture());
+    return (ReadyPicker) pickerCaptor.getValue();
+  }
+
+  private static ClientStreamTracer newTracer(PickResult result) {
+    return result.getStreamTracerFactory().newClientStreamTracer(
+        ClientStreamTracer.StreamInfo.newBuilder().build(), new Metadata());
+  }
+
+  private static final class FakeRandom implements ThreadSafeRandom {
+    private final Queue<Integer> values = new ArrayDeque<>();
+
+    void enqueue(Integer... ints) {
+      values.addAll(Arrays.asList(ints));
+    }
+
+    @Override
+    public int nextInt(int bound) {
+      Integer value = values.poll();
+      return value == null ? 0 : value;
+    }
+
+    @Override
+    public long nextLong() {
+      throw new UnsupportedOperationException("Should not be called");
+    }
+  }
+
+  private static final class FakeSocketAddress extends SocketAddress {
+    private final String name;
+
+    FakeSocketAddress(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public int hashCode() {
+      return name.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof FakeSocketAddress)) {
+        return false;
+      }
+      return name.equals(((FakeSocketAddress) other).name);
+    }
+
+    @Override
+    public String toString() {
+      return "FakeSocketAddress-" + name;
+    }
+  }
+}
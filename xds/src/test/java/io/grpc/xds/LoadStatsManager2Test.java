@@ -18,11 +18,13 @@ package io.grpc.xds;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import io.grpc.Status;
 import io.grpc.internal.FakeClock;
 import io.grpc.xds.LoadStatsManager2.ClusterDropStats;
 import io.grpc.xds.LoadStatsManager2.ClusterLocalityStats;
+import io.grpc.xds.Stats.BackendLoadMetricStats;
 import io.grpc.xds.Stats.ClusterStats;
 import io.grpc.xds.Stats.DroppedRequests;
 import io.grpc.xds.Stats.UpstreamLocalityStats;
@@ -187,6 +189,31 @@ public class LoadStatsManager2Test {
     assertThat(loadStatsManager.getClusterStatsReports(CLUSTER_NAME1)).isEmpty();
   }
 
+  @Test
+  public void dropCategoryWithoutDropsRemovedAndRecreated() {
+    ClusterDropStats counter = loadStatsManager.getClusterDropStats(
+        CLUSTER_NAME1, EDS_SERVICE_NAME1);
+    counter.recordDroppedRequest("lb");
+    counter.recordDroppedRequest("throttle");
+    ClusterStats stats = Iterables.getOnlyElement(
+        loadStatsManager.getClusterStatsReports(CLUSTER_NAME1));
+    assertThat(stats.droppedRequestsList()).hasSize(2);
+
+    // "lb" has no drops in this interval, so its counter is removed.
+    counter.recordDroppedRequest("throttle");
+    stats = Iterables.getOnlyElement(loadStatsManager.getClusterStatsReports(CLUSTER_NAME1));
+    assertThat(stats.droppedRequestsList()).hasSize(1);
+    assertThat(findDroppedRequestCount(stats.droppedRequestsList(), "throttle")).isEqualTo(1L);
+
+    // A new drop with the removed category is counted from scratch.
+    counter.recordDroppedRequest("lb");
+    counter.recordDroppedRequest("lb");
+    stats = Iterables.getOnlyElement(loadStatsManager.getClusterStatsReports(CLUSTER_NAME1));
+    assertThat(stats.droppedRequestsList()).hasSize(1);
+    assertThat(findDroppedRequestCount(stats.droppedRequestsList(), "lb")).isEqualTo(2L);
+    assertThat(stats.totalDroppedRequests()).isEqualTo(2L);
+  }
+
   @Test
   public void sharedLoadCounterStatsAggregation() {
     ClusterLocalityStats ref1 = loadStatsManager.getClusterLocalityStats(
@@ -247,6 +274,39 @@ public class LoadStatsManager2Test {
     assertThat(loadStatsManager.getClusterStatsReports(CLUSTER_NAME1)).isEmpty();
   }
 
+  @Test
+  public void backendLoadMetricStatsAggregation() {
+    ClusterLocalityStats counter = loadStatsManager.getClusterLocalityStats(
+        CLUSTER_NAME1, EDS_SERVICE_NAME1, LOCALITY1);
+    counter.recordBackendLoadMetricStats(ImmutableMap.of("named1", 3.0, "named2", 1.5));
+    counter.recordBackendLoadMetricStats(ImmutableMap.of("named1", 2.0));
+
+    ClusterStats stats = Iterables.getOnlyElement(
+        loadStatsManager.getClusterStatsReports(CLUSTER_NAME1));
+    UpstreamLocalityStats localityStats =
+        Iterables.getOnlyElement(stats.upstreamLocalityStatsList());
+    assertThat(localityStats.loadMetricStatsMap()).containsExactly(
+        "named1", BackendLoadMetricStats.create(2L, 5.0),
+        "named2", BackendLoadMetricStats.create(1L, 1.5));
+
+    counter.recordBackendLoadMetricStats(ImmutableMap.of("named2", 0.5));
+    stats = Iterables.getOnlyElement(loadStatsManager.getClusterStatsReports(CLUSTER_NAME1));
+    localityStats = Iterables.getOnlyElement(stats.upstreamLocalityStatsList());
+    // Only metrics reported since the previous load report are included.
+    assertThat(localityStats.loadMetricStatsMap()).containsExactly(
+        "named2", BackendLoadMetricStats.create(1L, 0.5));
+
+    // Metrics without requests are removed, and start over when reported again.
+    stats = Iterables.getOnlyElement(loadStatsManager.getClusterStatsReports(CLUSTER_NAME1));
+    localityStats = Iterables.getOnlyElement(stats.upstreamLocalityStatsList());
+    assertThat(localityStats.loadMetricStatsMap()).isEmpty();
+    counter.recordBackendLoadMetricStats(ImmutableMap.of("named1", 4.0));
+    stats = Iterables.getOnlyElement(loadStatsManager.getClusterStatsReports(CLUSTER_NAME1));
+    localityStats = Iterables.getOnlyElement(stats.upstreamLocalityStatsList());
+    assertThat(localityStats.loadMetricStatsMap()).containsExactly(
+        "named1", BackendLoadMetricStats.create(1L, 4.0));
+  }
+
   @Nullable
   private static ClusterStats findClusterStats(
       List<ClusterStats> statsList, String cluster, @Nullable String edsServiceName) {
@@ -680,6 +680,39 @@ public class OrcaOobUtilTest {
         .isEqualTo(MEDIUM_INTERVAL_CONFIG.getReportIntervalNanos());
   }
 
+  @Test
+  public void clearReportingConfig() {
+    setOrcaReportConfig(parentHelperWrapper, SHORT_INTERVAL_CONFIG);
+    setOrcaReportConfig(childHelperWrapper, LONG_INTERVAL_CONFIG);
+    createSubchannel(childHelperWrapper.asHelper(), 0, Attributes.EMPTY);
+    deliverSubchannelState(0, ConnectivityStateInfo.forNonError(READY));
+    assertThat(orcaServiceImps[0].calls).hasSize(1);
+    assertLog(subchannels[0].logs,
+        "DEBUG: Starting ORCA reporting for " + subchannels[0].getAllAddresses());
+
+    // The RPC restarts with the interval of the remaining helper.
+    clearOrcaReportConfig(parentHelperWrapper);
+    assertThat(orcaServiceImps[0].calls.poll().cancelled).isTrue();
+    assertThat(orcaServiceImps[0].calls).hasSize(1);
+    assertLog(subchannels[0].logs,
+        "DEBUG: Starting ORCA reporting for " + subchannels[0].getAllAddresses());
+    assertThat(orcaServiceImps[0].calls.peek().request)
+        .isEqualTo(buildOrcaRequestFromConfig(LONG_INTERVAL_CONFIG));
+
+    // Reports no longer reach the helper whose config was cleared.
+    OrcaLoadReport report = OrcaLoadReport.getDefaultInstance();
+    orcaServiceImps[0].calls.peek().responseObserver.onNext(report);
+    assertLog(subchannels[0].logs, "DEBUG: Received an ORCA report: " + report);
+    verify(mockOrcaListener2).onLoadReport(eq(report));
+    verifyNoInteractions(mockOrcaListener1);
+
+    // Reporting stops once no helper is configured.
+    clearOrcaReportConfig(childHelperWrapper);
+    assertThat(orcaServiceImps[0].calls.poll().cancelled).isTrue();
+    assertThat(orcaServiceImps[0].calls).isEmpty();
+    assertThat(subchannels[0].logs).isEmpty();
+  }
+
   private void verifyRetryAfterNanos(InOrder inOrder, OpenRcaServiceImp orcaServiceImp,
       long nanos) {
     assertThat(fakeClock.getPendingTasks()).hasSize(1);
@@ -732,6 +765,15 @@ public class OrcaOobUtilTest {
     });
   }
 
+  private void clearOrcaReportConfig(final OrcaReportingHelperWrapper helperWrapper) {
+    syncContext.execute(new Runnable() {
+      @Override
+      public void run() {
+        helperWrapper.clearReportingConfig();
+      }
+    });
+  }
+
   private static final class OpenRcaServiceImp extends OpenRcaServiceGrpc.OpenRcaServiceImplBase {
     final Queue<ServerSideCall> calls = new ArrayDeque<>();
 
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.xds;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.grpc.InternalServiceProviders;
+import io.grpc.LoadBalancer.Helper;
+import io.grpc.LoadBalancerProvider;
+import io.grpc.NameResolver.ConfigOrError;
+import io.grpc.Status.Code;
+import io.grpc.SynchronizationContext;
+import io.grpc.internal.JsonParser;
+import io.grpc.xds.OutlierDetectionLoadBalancer.FailurePercentageEjection;
+import io.grpc.xds.OutlierDetectionLoadBalancer.OutlierDetection;
+import io.grpc.xds.OutlierDetectionLoadBalancer.OutlierDetectionConfig;
+import io.grpc.xds.OutlierDetectionLoadBalancer.SuccessRateEjection;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link OutlierDetectionLoadBalancerProvider}. */
+@RunWith(JUnit4.class)
+public class OutlierDetectionLoadBalancerProviderTest {
+  private final OutlierDetectionLoadBalancerProvider provider =
+      new OutlierDetectionLoadBalancerProvider();
+
+  @Test
+  public void provided() {
+    for (LoadBalancerProvider current : InternalServiceProviders.getCandidatesViaServiceLoader(
+        LoadBalancerProvider.class, getClass().getClassLoader())) {
+      if (current instanceof OutlierDetectionLoadBalancerProvider) {
+        return;
+      }
+    }
+    fail("OutlierDetectionLoadBalancerProvider not registered");
+  }
+
+  @Test
+  public void providesLoadBalancer() {
+    Helper helper = mock(Helper.class);
+    when(helper.getSynchronizationContext()).thenReturn(new SynchronizationContext(
+        new Thread.UncaughtExceptionHandler() {
+          @Override
+          public void uncaughtException(Thread t, Throwable e) {
+            throw new AssertionError(e);
+          }
+        }));
+    when(helper.getAuthority()).thenReturn("api.google.com");
+    assertThat(provider.newLoadBalancer(helper))
+        .isInstanceOf(OutlierDetectionLoadBalancer.class);
+  }
+
+  @Test
+  public void parseLoadBalancingConfig_valid() throws IOException {
+    String lbConfig = "{"
+        + "\"interval\" : \"20s\","
+        + "\"baseEjectionTime\" : \"60s\","
+        + "\"maxEjectionTime\" : \"600s\","
+        + "\"maxEjectionPercent\" : 20,"
+        + "\"successRateEjection\" : {\"stdevFactor\" : 1000, \"requestVolume\" : 10},"
+        + "\"failurePercentageEjection\" : {\"threshold\" : 50, \"enforcementPercentage\" : 80},"
+        + "\"childPolicy\" : [{\"round_robin\" : {}}]"
+        + "}";
+    ConfigOrError configOrError =
+        provider.parseLoadBalancingPolicyConfig(parseJsonObject(lbConfig));
+    assertThat(configOrError.getConfig()).isNotNull();
+    OutlierDetectionConfig config = (OutlierDetectionConfig) configOrError.getConfig();
+    assertThat(config.outlierDetection).isEqualTo(new OutlierDetection(
+        TimeUnit.SECONDS.toNanos(20), TimeUnit.SECONDS.toNanos(60),
+        TimeUnit.SECONDS.toNanos(600), 20,
+        new SuccessRateEjection(1000, SuccessRateEjection.DEFAULT_ENFORCEMENT_PERCENTAGE,
+            SuccessRateEjection.DEFAULT_MINIMUM_HOSTS, 10),
+        new FailurePercentageEjection(50, 80, FailurePercentageEjection.DEFAULT_MINIMUM_HOSTS,
+            FailurePercentageEjection.DEFAULT_REQUEST_VOLUME)));
+    assertThat(config.childPolicy.getProvider().getPolicyName()).isEqualTo("round_robin");
+  }
+
+  @Test
+  public void parseLoadBalancingConfig_defaults() throws IOException {
+    String lbConfig = "{\"childPolicy\" : [{\"round_robin\" : {}}]}";
+    ConfigOrError configOrError =
+        provider.parseLoadBalancingPolicyConfig(parseJsonObject(lbConfig));
+    OutlierDetectionConfig config = (OutlierDetectionConfig) configOrError.getConfig();
+    assertThat(config.outlierDetection.intervalNanos)
+        .isEqualTo(OutlierDetection.DEFAULT_INTERVAL_NANOS);
+    assertThat(config.outlierDetection.maxEjectionPercent)
+        .isEqualTo(OutlierDetection.DEFAULT_MAX_EJECTION_PERCENT);
+    assertThat(config.outlierDetection.isEnabled()).isFalse();
+  }
+
+  @Test
+  public void parseLoadBalancingConfig_missingChildPolicy() throws IOException {
+    String lbConfig = "{\"interval\" : \"20s\"}";
+    ConfigOrError configOrError =
+        provider.parseLoadBalancingPolicyConfig(parseJsonObject(lbConfig));
+    assertThat(configOrError.getError()).isNotNull();
+    assertThat(configOrError.getError().getCode()).isEqualTo(Code.INTERNAL);
+  }
+
+  @Test
+  public void parseLoadBalancingConfig_invalidMaxEjectionPercent() throws IOException {
+    String lbConfig = "{\"maxEjectionPercent\" : 101, \"childPolicy\" : [{\"round_robin\" : {}}]}";
+    ConfigOrError configOrError =
+        provider.parseLoadBalancingPolicyConfig(parseJsonObject(lbConfig));
+    assertThat(configOrError.getError()).isNotNull();
+    assertThat(configOrError.getError().getCode()).isEqualTo(Code.INTERNAL);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, ?> parseJsonObject(String json) throws IOException {
+    return (Map<String, ?>) JsonParser.parse(json);
+  }
+}
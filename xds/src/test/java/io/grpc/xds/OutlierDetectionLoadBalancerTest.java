@@ -0,0 +1,308 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.xds;
+
+import static com.google.common.truth.Truth.assertThat;
+import static io.grpc.ConnectivityState.READY;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.grpc.Attributes;
+import io.grpc.ClientStreamTracer;
+import io.grpc.ConnectivityStateInfo;
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.LoadBalancer.CreateSubchannelArgs;
+import io.grpc.LoadBalancer.Helper;
+import io.grpc.LoadBalancer.PickResult;
+import io.grpc.LoadBalancer.PickSubchannelArgs;
+import io.grpc.LoadBalancer.ResolvedAddresses;
+import io.grpc.LoadBalancer.Subchannel;
+import io.grpc.LoadBalancer.SubchannelPicker;
+import io.grpc.LoadBalancer.SubchannelStateListener;
+import io.grpc.LoadBalancerRegistry;
+import io.grpc.Metadata;
+import io.grpc.Status;
+import io.grpc.SynchronizationContext;
+import io.grpc.internal.FakeClock;
+import io.grpc.internal.ServiceConfigUtil.PolicySelection;
+import io.grpc.xds.OutlierDetectionLoadBalancer.FailurePercentageEjection;
+import io.grpc.xds.OutlierDetectionLoadBalancer.OutlierDetection;
+import io.grpc.xds.OutlierDetectionLoadBalancer.OutlierDetectionConfig;
+import io.grpc.xds.OutlierDetectionLoadBalancer.SuccessRateEjection;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/** Unit tests for {@link OutlierDetectionLoadBalancer}. */
+@RunWith(JUnit4.class)
+public class OutlierDetectionLoadBalancerTest {
+  private static final long INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+  private static final long BASE_EJECTION_TIME_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+  private final SynchronizationContext syncContext = new SynchronizationContext(
+      new Thread.UncaughtExceptionHandler() {
+        @Override
+        public void uncaughtException(Thread t, Throwable e) {
+          throw new AssertionError(e);
+        }
+      });
+  private final FakeClock fakeClock = new FakeClock();
+  private final List<EquivalentAddressGroup> servers = new ArrayList<>();
+  private final Map<List<EquivalentAddressGroup>, Subchannel> subchannels = new HashMap<>();
+  private final Map<Subchannel, SubchannelStateListener> subchannelStateListeners =
+      new HashMap<>();
+  private final PolicySelection roundRobin = new PolicySelection(
+      LoadBalancerRegistry.getDefaultRegistry().getProvider("round_robin"), null);
+
+  @Captor
+  private ArgumentCaptor<SubchannelPicker> pickerCaptor;
+  @Mock
+  private Helper helper;
+  @Mock
+  private PickSubchannelArgs pickArgs;
+
+  private OutlierDetectionLoadBalancer loadBalancer;
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+
+    for (int i = 0; i < 3; i++) {
+      EquivalentAddressGroup eag = new EquivalentAddressGroup(new FakeSocketAddress("server" + i));
+      servers.add(eag);
+      subchannels.put(Arrays.asList(eag), mock(Subchannel.class));
+    }
+
+    when(helper.getSynchronizationContext()).thenReturn(syncContext);
+    when(helper.getScheduledExecutorService()).thenReturn(fakeClock.getScheduledExecutorService());
+    when(helper.getAuthority()).thenReturn("api.google.com");
+    when(helper.createSubchannel(any(CreateSubchannelArgs.class)))
+        .then(new Answer<Subchannel>() {
+          @Override
+          public Subchannel answer(InvocationOnMock invocation) throws Throwable {
+            CreateSubchannelArgs args = (CreateSubchannelArgs) invocation.getArguments()[0];
+            final Subchannel subchannel = subchannels.get(args.getAddresses());
+            when(subchannel.getAllAddresses()).thenReturn(args.getAddresses());
+            when(subchannel.getAttributes()).thenReturn(args.getAttributes());
+            doAnswer(
+                new Answer<Void>() {
+                  @Override
+                  public Void answer(InvocationOnMock invocation) throws Throwable {
+                    subchannelStateListeners.put(
+                        subchannel, (SubchannelStateListener) invocation.getArguments()[0]);
+                    return null;
+                  }
+                }).when(subchannel).start(any(SubchannelStateListener.class));
+            return subchannel;
+          }
+        });
+
+    loadBalancer = new OutlierDetectionLoadBalancer(
+        helper, fakeClock.getTicker(), new FakeRandom());
+  }
+
+  @Test
+  public void successRateEjection_ejectsAndUnejectsOutlier() {
+    resolve(new OutlierDetection(INTERVAL_NANOS, BASE_EJECTION_TIME_NANOS,
+        TimeUnit.SECONDS.toNanos(300), 50, new SuccessRateEjection(1000, 100, 3, 10), null));
+    SubchannelPicker picker = allReady();
+
+    makeCalls(picker, 30, addressOf(2));
+    fakeClock.forwardNanos(INTERVAL_NANOS);
+
+    assertThat(loadBalancer.getTracker(addressOf(2)).isEjected()).isTrue();
+    assertThat(loadBalancer.getTracker(addressOf(0)).isEjected()).isFalse();
+    assertThat(loadBalancer.getTracker(addressOf(1)).isEjected()).isFalse();
+    assertThat(pickedAddresses(latestReadyPicker(), 10))
+        .containsExactly(addressOf(0), addressOf(1));
+
+    // Unejected at the first detection run after the base ejection time.
+    fakeClock.forwardNanos(BASE_EJECTION_TIME_NANOS);
+    assertThat(loadBalancer.getTracker(addressOf(2)).isEjected()).isFalse();
+    assertThat(pickedAddresses(latestReadyPicker(), 10))
+        .containsExactly(addressOf(0), addressOf(1), addressOf(2));
+  }
+
+  @Test
+  public void successRateEjection_notEnoughHosts() {
+    resolve(new OutlierDetection(INTERVAL_NANOS, BASE_EJECTION_TIME_NANOS,
+        TimeUnit.SECONDS.toNanos(300), 50, new SuccessRateEjection(1000, 100, 4, 10), null));
+    SubchannelPicker picker = allReady();
+
+    makeCalls(picker, 30, addressOf(2));
+    fakeClock.forwardNanos(INTERVAL_NANOS);
+
+    assertThat(loadBalancer.getTracker(addressOf(2)).isEjected()).isFalse();
+  }
+
+  @Test
+  public void failurePercentageEjection_honorsMaxEjectionPercent() {
+    resolve(new OutlierDetection(INTERVAL_NANOS, BASE_EJECTION_TIME_NANOS,
+        TimeUnit.SECONDS.toNanos(300), 30, null, new FailurePercentageEjection(50, 100, 3, 10)));
+    SubchannelPicker picker = allReady();
+
+    makeCalls(picker, 30, addressOf(1), addressOf(2));
+    fakeClock.forwardNanos(INTERVAL_NANOS);
+
+    // Ejecting both failing addresses would exceed 30% of all addresses.
+    int ejected = 0;
+    for (EquivalentAddressGroup server : servers) {
+      if (loadBalancer.getTracker(server.getAddresses().get(0)).isEjected()) {
+        ejected++;
+      }
+    }
+    assertThat(ejected).isEqualTo(1);
+    assertThat(loadBalancer.getTracker(addressOf(0)).isEjected()).isFalse();
+  }
+
+  @Test
+  public void callsAreCountedPerInterval() {
+    resolve(new OutlierDetection(INTERVAL_NANOS, BASE_EJECTION_TIME_NANOS,
+        TimeUnit.SECONDS.toNanos(300), 50, null, new FailurePercentageEjection(50, 100, 3, 10)));
+    SubchannelPicker picker = allReady();
+
+    makeCalls(picker, 30);
+    fakeClock.forwardNanos(INTERVAL_NANOS);
+    assertThat(loadBalancer.getTracker(addressOf(0)).inactiveVolume()).isEqualTo(10);
+
+    fakeClock.forwardNanos(INTERVAL_NANOS);
+    assertThat(loadBalancer.getTracker(addressOf(0)).inactiveVolume()).isEqualTo(0);
+  }
+
+  @Test
+  public void noEjectionAlgorithm_noDetectionTimer() {
+    resolve(new OutlierDetection(INTERVAL_NANOS, BASE_EJECTION_TIME_NANOS,
+        TimeUnit.SECONDS.toNanos(300), 50, null, null));
+    assertThat(fakeClock.getPendingTasks()).isEmpty();
+  }
+
+  @Test
+  public void shutdown_cancelsDetectionTimer() {
+    resolve(new OutlierDetection(INTERVAL_NANOS, BASE_EJECTION_TIME_NANOS,
+        TimeUnit.SECONDS.toNanos(300), 50, new SuccessRateEjection(1000, 100, 3, 10), null));
+    assertThat(fakeClock.getPendingTasks()).hasSize(1);
+
+    loadBalancer.shutdown();
+    assertThat(fakeClock.getPendingTasks()).isEmpty();
+  }
+
+  private void resolve(OutlierDetection outlierDetection) {
+    loadBalancer.handleResolvedAddresses(
+        ResolvedAddresses.newBuilder()
+            .setAddresses(servers)
+            .setAttributes(Attributes.EMPTY)
+            .setLoadBalancingPolicyConfig(new OutlierDetectionConfig(outlierDetection, roundRobin))
+            .build());
+  }
+
+  private SubchannelPicker allReady() {
+    for (Subchannel subchannel : subchannels.values()) {
+      subchannelStateListeners.get(subchannel)
+          .onSubchannelState(ConnectivityStateInfo.forNonError(READY));
+    }
+    return latestReadyPicker();
+  }
+
+  private SubchannelPicker latestReadyPicker() {
+    verify(helper, atLeastOnce()).updateBalancingState(eq(READY), pickerCaptor.capture());
+    return pickerCaptor.getValue();
+  }
+
+  /** Makes calls that fail on the given addresses and succeed on all others. */
+  private void makeCalls(SubchannelPicker picker, int count, SocketAddress... failingAddresses) {
+    Set<SocketAddress> failing = new HashSet<>(Arrays.asList(failingAddresses));
+    for (int i = 0; i < count; i++) {
+      PickResult result = picker.pickSubchannel(pickArgs);
+      ClientStreamTracer tracer = result.getStreamTracerFactory().newClientStreamTracer(
+          ClientStreamTracer.StreamInfo.newBuilder().build(), new Metadata());
+      SocketAddress address = result.getSubchannel().getAddresses().getAddresses().get(0);
+      tracer.streamClosed(failing.contains(address) ? Status.UNAVAILABLE : Status.OK);
+    }
+  }
+
+  private Set<SocketAddress> pickedAddresses(SubchannelPicker picker, int picks) {
+    Set<SocketAddress> addresses = new HashSet<>();
+    for (int i = 0; i < picks; i++) {
+      addresses.add(
+          picker.pickSubchannel(pickArgs).getSubchannel().getAddresses().getAddresses().get(0));
+    }
+    return addresses;
+  }
+
+  private SocketAddress addressOf(int index) {
+    return servers.get(index).getAddresses().get(0);
+  }
+
+  private static final class FakeRandom implements ThreadSafeRandom {
+    @Override
+    public int nextInt(int bound) {
+      return 0;
+    }
+
+    @Override
+    public long nextLong() {
+      throw new UnsupportedOperationException("Should not be called");
+    }
+  }
+
+  private static final class FakeSocketAddress extends SocketAddress {
+    private final String name;
+
+    FakeSocketAddress(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public int hashCode() {
+      return name.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof FakeSocketAddress)) {
+        return false;
+      }
+      return name.equals(((FakeSocketAddress) other).name);
+    }
+
+    @Override
+    public String toString() {
+      return "FakeSocketAddress-" + name;
+    }
+  }
+}
@@ -53,6 +53,7 @@ import io.grpc.Status.Code;
 import io.grpc.SynchronizationContext;
 import io.grpc.internal.PickSubchannelArgsImpl;
 import io.grpc.testing.TestMethodDescriptors;
+import io.grpc.xds.RingHashLoadBalancer.Ring;
 import io.grpc.xds.RingHashLoadBalancer.RingHashConfig;
 import java.lang.Thread.UncaughtExceptionHandler;
 import java.net.SocketAddress;
@@ -698,6 +699,106 @@ public class RingHashLoadBalancerTest {
     verifyNoMoreInteractions(helper);
   }
 
+  @Test
+  public void ring_entriesAtHashesOfAddressAndCounter() {
+    Map<EquivalentAddressGroup, Long> serverWeights = new HashMap<>();
+    serverWeights.put(new EquivalentAddressGroup(new FakeSocketAddress("server0")), 1L);
+    Ring ring = Ring.build(serverWeights, 20, null);
+
+    assertThat(ring.size()).isEqualTo(20);
+    List<Long> hashes = new ArrayList<>();
+    for (int i = 0; i < ring.size(); i++) {
+      hashes.add(ring.hash(i));
+    }
+    assertThat(hashes).isInOrder();
+    assertThat(hashes).contains(hashFunc.hashAsciiString("[FakeSocketAddress-server0]_0"));
+    assertThat(hashes).contains(hashFunc.hashAsciiString("[FakeSocketAddress-server0]_19"));
+  }
+
+  @Test
+  public void ring_find() {
+    Map<EquivalentAddressGroup, Long> serverWeights = new HashMap<>();
+    serverWeights.put(new EquivalentAddressGroup(new FakeSocketAddress("server0")), 1L);
+    serverWeights.put(new EquivalentAddressGroup(new FakeSocketAddress("server1")), 1L);
+    Ring ring = Ring.build(serverWeights, 50, null);
+
+    assertThat(ring.find(ring.hash(10))).isEqualTo(10);
+    assertThat(ring.find(ring.hash(10) + 1)).isEqualTo(11);
+    assertThat(ring.find(Long.MIN_VALUE)).isEqualTo(0);
+    // Wraps around past the last entry.
+    assertThat(ring.find(ring.hash(ring.size() - 1) + 1)).isEqualTo(0);
+  }
+
+  @Test
+  public void ring_incrementalRebuildMatchesFullBuild() {
+    Map<EquivalentAddressGroup, Long> serverWeights = new HashMap<>();
+    for (int i = 0; i < 10; i++) {
+      serverWeights.put(new EquivalentAddressGroup(new FakeSocketAddress("server" + i)), 1L);
+    }
+    Ring previous = Ring.build(serverWeights, 100, null);
+    assertThat(Ring.build(serverWeights, 100, previous)).isSameInstanceAs(previous);
+
+    // Replace one host, add another one and reweight a third one.
+    serverWeights.remove(new EquivalentAddressGroup(new FakeSocketAddress("server3")));
+    serverWeights.put(new EquivalentAddressGroup(new FakeSocketAddress("server10")), 1L);
+    serverWeights.put(new EquivalentAddressGroup(new FakeSocketAddress("server11")), 1L);
+    serverWeights.put(new EquivalentAddressGroup(new FakeSocketAddress("server5")), 2L);
+    Ring incremental = Ring.build(serverWeights, 100, previous);
+    Ring full = Ring.build(serverWeights, 100, null);
+
+    assertThat(incremental.size()).isEqualTo(full.size());
+    for (int i = 0; i < full.size(); i++) {
+      assertThat(incremental.hash(i)).isEqualTo(full.hash(i));
+      assertThat(incremental.host(incremental.hostIndex(i)))
+          .isEqualTo(full.host(full.hostIndex(i)));
+    }
+  }
+
+  @Test
+  public void ring_hashesPerWeightStableAcrossSmallHostCountChanges() {
+    assertThat(Ring.hashesPerWeight(1L, 93L, 1024L, 8192L)).isEqualTo(12.0);
+    for (long hostCount = 94; hostCount <= 102; hostCount++) {
+      assertThat(Ring.hashesPerWeight(1L, hostCount, 1024L, 8192L)).isEqualTo(11.0);
+    }
+    assertThat(Ring.hashesPerWeight(1L, 103L, 1024L, 8192L)).isEqualTo(10.0);
+    // The least weighted host gets a whole number of entries.
+    assertThat(Ring.hashesPerWeight(2L, 7L, 1024L, 8192L)).isEqualTo(293.0 / 2);
+    // Scaled back down to the max ring size.
+    assertThat(Ring.hashesPerWeight(1L, 100L, 1024L, 1000L)).isEqualTo(10.0);
+  }
+
+  @Test
+  public void ring_wholeEntriesPerWeightAreExact() {
+    Map<EquivalentAddressGroup, Long> serverWeights = new HashMap<>();
+    for (int i = 0; i < 101; i++) {
+      serverWeights.put(new EquivalentAddressGroup(new FakeSocketAddress("server" + i)), 1L);
+    }
+    serverWeights.put(new EquivalentAddressGroup(new FakeSocketAddress("server101")), 3L);
+    Ring ring = Ring.build(
+        serverWeights, Ring.hashesPerWeight(1L, 104L, 1024L, 8192L), null);
+
+    assertThat(ring.size()).isEqualTo(104 * 10);
+    int[] entryCounts = new int[ring.hostCount()];
+    for (int i = 0; i < ring.size(); i++) {
+      entryCounts[ring.hostIndex(i)]++;
+    }
+    for (int i = 0; i < ring.hostCount(); i++) {
+      assertThat((long) entryCounts[i]).isEqualTo(serverWeights.get(ring.host(i)) * 10);
+    }
+  }
+
+  @Test
+  public void ring_sortMovesHostIndicesAlong() {
+    long[] hashes = new long[] {5L, -1L, Long.MAX_VALUE, 0L, Long.MIN_VALUE, 1L << 40, -300L};
+    int[] hostIndices = new int[] {0, 1, 2, 3, 4, 5, 6};
+    Ring.sort(hashes, hostIndices);
+
+    assertThat(hashes).asList()
+        .containsExactly(Long.MIN_VALUE, -300L, -1L, 0L, 5L, 1L << 40, Long.MAX_VALUE)
+        .inOrder();
+    assertThat(hostIndices).asList().containsExactly(4, 6, 1, 3, 0, 5, 2).inOrder();
+  }
+
   private void deliverSubchannelState(Subchannel subchannel, ConnectivityStateInfo state) {
     subchannelStateListeners.get(subchannel).onSubchannelState(state);
   }
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.xds;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.re2j.Pattern;
+import io.grpc.Metadata;
+import io.grpc.xds.Filter.FilterConfig;
+import io.grpc.xds.VirtualHost.Route;
+import io.grpc.xds.VirtualHost.Route.RouteAction;
+import io.grpc.xds.VirtualHost.Route.RouteAction.ClusterWeight;
+import io.grpc.xds.VirtualHost.Route.RouteAction.HashPolicy;
+import io.grpc.xds.VirtualHost.Route.RouteMatch;
+import io.grpc.xds.VirtualHost.Route.RouteMatch.PathMatcher;
+import io.grpc.xds.internal.Matchers.HeaderMatcher;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for {@link RouteTable}.
+ */
+@RunWith(JUnit4.class)
+public class RouteTableTest {
+  private static final Metadata.Key<String> USER_KEY =
+      Metadata.Key.of("user", Metadata.ASCII_STRING_MARSHALLER);
+
+  private final FakeRandom random = new FakeRandom();
+
+  @Test
+  public void firstMatchingRouteInOrder() {
+    RouteTable routeTable = new RouteTable(ImmutableList.of(
+        route(PathMatcher.fromRegEx(Pattern.compile(".*/bazMethod")), "regex"),
+        route(PathMatcher.fromPrefix("/FooService/", true), "prefix"),
+        route(PathMatcher.fromPath("/FooService/barMethod", true), "path"),
+        route(PathMatcher.fromPath("/fooservice/quxmethod", false), "pathIgnoreCase"),
+        route(PathMatcher.fromPrefix("", true), "default")));
+
+    assertThat(findCluster(routeTable, "FooService/bazMethod", new Metadata()))
+        .isEqualTo("regex");
+    assertThat(findCluster(routeTable, "FooService/barMethod", new Metadata()))
+        .isEqualTo("prefix");
+    assertThat(findCluster(routeTable, "BarService/quxMethod", new Metadata()))
+        .isEqualTo("default");
+    // Memoized.
+    assertThat(findCluster(routeTable, "FooService/barMethod", new Metadata()))
+        .isEqualTo("prefix");
+  }
+
+  @Test
+  public void caseInsensitivePathMatchers() {
+    RouteTable routeTable = new RouteTable(ImmutableList.of(
+        route(PathMatcher.fromPath("/fooservice/barmethod", false), "path"),
+        route(PathMatcher.fromPrefix("/barservice/", false), "prefix")));
+
+    assertThat(findCluster(routeTable, "FooService/barMethod", new Metadata())).isEqualTo("path");
+    assertThat(findCluster(routeTable, "BarService/barMethod", new Metadata()))
+        .isEqualTo("prefix");
+    assertThat(routeTable.findRoute("BazService/barMethod", new Metadata(), random)).isNull();
+  }
+
+  @Test
+  public void headerMatchersEvaluatedForEachRpc() {
+    RouteMatch userMatch = RouteMatch.create(
+        PathMatcher.fromPrefix("/FooService/", true),
+        Collections.singletonList(HeaderMatcher.forExactValue("user", "alice", false)), null);
+    RouteTable routeTable = new RouteTable(ImmutableList.of(
+        Route.forAction(userMatch, forCluster("alice"),
+            Collections.<String, FilterConfig>emptyMap()),
+        route(PathMatcher.fromPrefix("/FooService/", true), "everyone")));
+
+    Metadata headers = new Metadata();
+    headers.put(USER_KEY, "alice");
+    assertThat(findCluster(routeTable, "FooService/barMethod", headers)).isEqualTo("alice");
+    assertThat(findCluster(routeTable, "FooService/barMethod", new Metadata()))
+        .isEqualTo("everyone");
+    assertThat(findCluster(routeTable, "FooService/barMethod", headers)).isEqualTo("alice");
+  }
+
+  @Test
+  public void selectWeightedCluster() {
+    List<ClusterWeight> weightedClusters = ImmutableList.of(
+        ClusterWeight.create("a", 10, Collections.<String, FilterConfig>emptyMap()),
+        ClusterWeight.create("b", 0, Collections.<String, FilterConfig>emptyMap()),
+        ClusterWeight.create("c", 20, Collections.<String, FilterConfig>emptyMap()));
+    RouteTable routeTable = new RouteTable(Collections.singletonList(
+        Route.forAction(
+            RouteMatch.create(PathMatcher.fromPrefix("", true),
+                Collections.<HeaderMatcher>emptyList(), null),
+            RouteAction.forWeightedClusters(
+                weightedClusters, Collections.<HashPolicy>emptyList(), null, null),
+            Collections.<String, FilterConfig>emptyMap())));
+    RouteTable.CompiledRoute route =
+        routeTable.findRoute("FooService/barMethod", new Metadata(), random);
+
+    random.nextInt = 0;
+    assertThat(route.selectWeightedCluster(random).name()).isEqualTo("a");
+    assertThat(random.bound).isEqualTo(30);
+    random.nextInt = 9;
+    assertThat(route.selectWeightedCluster(random).name()).isEqualTo("a");
+    random.nextInt = 10;
+    assertThat(route.selectWeightedCluster(random).name()).isEqualTo("c");
+    random.nextInt = 29;
+    assertThat(route.selectWeightedCluster(random).name()).isEqualTo("c");
+  }
+
+  private String findCluster(RouteTable routeTable, String fullMethodName, Metadata headers) {
+    return routeTable.findRoute(fullMethodName, headers, random).route.routeAction().cluster();
+  }
+
+  private static Route route(PathMatcher pathMatcher, String cluster) {
+    return Route.forAction(
+        RouteMatch.create(pathMatcher, Collections.<HeaderMatcher>emptyList(), null),
+        forCluster(cluster), Collections.<String, FilterConfig>emptyMap());
+  }
+
+  private static RouteAction forCluster(String cluster) {
+    return RouteAction.forCluster(cluster, Collections.<HashPolicy>emptyList(), null, null);
+  }
+
+  private static final class FakeRandom implements ThreadSafeRandom {
+    int nextInt;
+    int bound;
+
+    @Override
+    public int nextInt(int bound) {
+      this.bound = bound;
+      return nextInt;
+    }
+
+    @Override
+    public long nextLong() {
+      throw new UnsupportedOperationException("Should not be called");
+    }
+  }
+}
@@ -187,4 +187,30 @@ public class WeightedRandomPickerTest {
     assertThat(xdsPicker.pickSubchannel(pickSubchannelArgs)).isSameInstanceAs(pickResult3);
     assertThat(fakeRandom.bound).isEqualTo(4);
   }
+
+  @Test
+  public void zeroWeightChildrenNeverPicked() {
+    WeightedChildPicker weightedChildPicker0 = new WeightedChildPicker(0, childPicker0);
+    WeightedChildPicker weightedChildPicker1 = new WeightedChildPicker(3, childPicker1);
+    WeightedChildPicker weightedChildPicker2 = new WeightedChildPicker(0, childPicker2);
+    WeightedChildPicker weightedChildPicker3 = new WeightedChildPicker(1, childPicker3);
+
+    WeightedRandomPicker xdsPicker = new WeightedRandomPicker(
+        Arrays.asList(
+            weightedChildPicker0,
+            weightedChildPicker1,
+            weightedChildPicker2,
+            weightedChildPicker3),
+        fakeRandom);
+
+    for (int i = 0; i < 3; i++) {
+      fakeRandom.nextInt = i;
+      assertThat(xdsPicker.pickSubchannel(pickSubchannelArgs)).isSameInstanceAs(pickResult1);
+      assertThat(fakeRandom.bound).isEqualTo(4);
+    }
+
+    fakeRandom.nextInt = 3;
+    assertThat(xdsPicker.pickSubchannel(pickSubchannelArgs)).isSameInstanceAs(pickResult3);
+    assertThat(fakeRandom.bound).isEqualTo(4);
+  }
 }
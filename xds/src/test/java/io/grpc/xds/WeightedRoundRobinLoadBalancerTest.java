@@ -0,0 +1,406 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.xds;
+
+import static com.google.common.truth.Truth.assertThat;
+import static io.grpc.ConnectivityState.CONNECTING;
+import static io.grpc.ConnectivityState.READY;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.udpa.udpa.data.orca.v1.OrcaLoadReport;
+import com.github.udpa.udpa.service.orca.v1.OrcaLoadReportRequest;
+import io.grpc.Attributes;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ChannelLogger;
+import io.grpc.ClientCall;
+import io.grpc.ConnectivityStateInfo;
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.LoadBalancer.CreateSubchannelArgs;
+import io.grpc.LoadBalancer.Helper;
+import io.grpc.LoadBalancer.PickResult;
+import io.grpc.LoadBalancer.PickSubchannelArgs;
+import io.grpc.LoadBalancer.ResolvedAddresses;
+import io.grpc.LoadBalancer.Subchannel;
+import io.grpc.LoadBalancer.SubchannelPicker;
+import io.grpc.LoadBalancer.SubchannelStateListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.SynchronizationContext;
+import io.grpc.internal.FakeClock;
+import io.grpc.xds.WeightedRoundRobinLoadBalancer.EmptyPicker;
+import io.grpc.xds.WeightedRoundRobinLoadBalancer.EndpointWeight;
+import io.grpc.xds.WeightedRoundRobinLoadBalancer.ReadyPicker;
+import io.grpc.xds.WeightedRoundRobinLoadBalancer.StaticStrideScheduler;
+import io.grpc.xds.WeightedRoundRobinLoadBalancer.WeightedRoundRobinConfig;
+import java.lang.Thread.UncaughtExceptionHandler;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/** Unit tests for {@link WeightedRoundRobinLoadBalancer}. */
+@RunWith(JUnit4.class)
+public class WeightedRoundRobinLoadBalancerTest {
+  private static final WeightedRoundRobinConfig CONFIG = new WeightedRoundRobinConfig(
+      TimeUnit.SECONDS.toNanos(10), TimeUnit.MINUTES.toNanos(3), false,
+      TimeUnit.SECONDS.toNanos(10), TimeUnit.SECONDS.toNanos(1));
+  private static final WeightedRoundRobinConfig OOB_CONFIG = new WeightedRoundRobinConfig(
+      TimeUnit.SECONDS.toNanos(10), TimeUnit.MINUTES.toNanos(3), true,
+      TimeUnit.SECONDS.toNanos(10), TimeUnit.SECONDS.toNanos(1));
+
+  private final SynchronizationContext syncContext = new SynchronizationContext(
+      new UncaughtExceptionHandler() {
+        @Override
+        public void uncaughtException(Thread t, Throwable e) {
+          throw new AssertionError(e);
+        }
+      });
+  private final FakeClock fakeClock = new FakeClock();
+  private final List<EquivalentAddressGroup> servers = new ArrayList<>();
+  private final Map<List<EquivalentAddressGroup>, Subchannel> subchannels = new HashMap<>();
+  private final Map<Subchannel, SubchannelStateListener> subchannelStateListeners =
+      new HashMap<>();
+  private final Map<Subchannel, List<ClientCall<OrcaLoadReportRequest, OrcaLoadReport>>> oobCalls =
+      new HashMap<>();
+  private final ThreadSafeRandom random = new ThreadSafeRandom() {
+    @Override
+    public int nextInt(int bound) {
+      return 0;
+    }
+
+    @Override
+    public long nextLong() {
+      return 0;
+    }
+  };
+
+  @Captor
+  private ArgumentCaptor<SubchannelPicker> pickerCaptor;
+  @Captor
+  private ArgumentCaptor<ClientCall.Listener<OrcaLoadReport>> oobListenerCaptor;
+  @Mock
+  private Helper helper;
+  @Mock
+  private PickSubchannelArgs pickArgs;
+
+  private WeightedRoundRobinLoadBalancer loadBalancer;
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+
+    for (int i = 0; i < 2; i++) {
+      EquivalentAddressGroup eag = new EquivalentAddressGroup(new FakeSocketAddress("server" + i));
+      servers.add(eag);
+      Subchannel subchannel = mock(Subchannel.class);
+      subchannels.put(Arrays.asList(eag), subchannel);
+      when(subchannel.getChannelLogger()).thenReturn(mock(ChannelLogger.class));
+      Channel oobChannel = newOobChannel(subchannel);
+      when(subchannel.asChannel()).thenReturn(oobChannel);
+    }
+
+    when(helper.getSynchronizationContext()).thenReturn(syncContext);
+    when(helper.getScheduledExecutorService()).thenReturn(fakeClock.getScheduledExecutorService());
+    when(helper.createSubchannel(any(CreateSubchannelArgs.class)))
+        .then(new Answer<Subchannel>() {
+          @Override
+          public Subchannel answer(InvocationOnMock invocation) throws Throwable {
+            CreateSubchannelArgs args = (CreateSubchannelArgs) invocation.getArguments()[0];
+            final Subchannel subchannel = subchannels.get(args.getAddresses());
+            when(subchannel.getAllAddresses()).thenReturn(args.getAddresses());
+            when(subchannel.getAttributes()).thenReturn(args.getAttributes());
+            doAnswer(
+                new Answer<Void>() {
+                  @Override
+                  public Void answer(InvocationOnMock invocation) throws Throwable {
+                    subchannelStateListeners.put(
+                        subchannel, (SubchannelStateListener) invocation.getArguments()[0]);
+                    return null;
+                  }
+                }).when(subchannel).start(any(SubchannelStateListener.class));
+            return subchannel;
+          }
+        });
+
+    loadBalancer = new WeightedRoundRobinLoadBalancer(helper, fakeClock.getTicker(), random);
+  }
+
+  @Test
+  public void scheduler_withoutWeights_isRoundRobin() {
+    StaticStrideScheduler scheduler = new StaticStrideScheduler(new double[] {0, 0, 0}, 0);
+    int[] picks = new int[6];
+    for (int i = 0; i < picks.length; i++) {
+      picks[i] = scheduler.pick();
+    }
+    assertThat(picks).asList().containsExactly(0, 1, 2, 0, 1, 2).inOrder();
+  }
+
+  @Test
+  public void scheduler_picksProportionallyToWeights() {
+    StaticStrideScheduler scheduler = new StaticStrideScheduler(new double[] {1, 2, 3}, 0);
+    int[] counts = pick(scheduler, 6000, 3);
+    assertThat((double) counts[0]).isWithin(60).of(1000);
+    assertThat((double) counts[1]).isWithin(60).of(2000);
+    assertThat((double) counts[2]).isWithin(60).of(3000);
+  }
+
+  @Test
+  public void scheduler_subchannelsWithoutWeightGetMean() {
+    StaticStrideScheduler scheduler = new StaticStrideScheduler(new double[] {1, 3, 0}, 0);
+    int[] counts = pick(scheduler, 6000, 3);
+    assertThat((double) counts[0]).isWithin(60).of(1000);
+    assertThat((double) counts[1]).isWithin(60).of(3000);
+    assertThat((double) counts[2]).isWithin(60).of(2000);
+  }
+
+  @Test
+  public void weightsApplyAfterBlackoutPeriod() {
+    ReadyPicker picker = resolveAllReady(CONFIG);
+    List<Subchannel> list = picker.getList();
+    report(list.get(0), 300, 0.5);
+    report(list.get(1), 100, 0.5);
+
+    // Still in the blackout period.
+    fakeClock.forwardTime(1, TimeUnit.SECONDS);
+    assertThat(pickCounts(picker, 4000)).asList().containsExactly(2000, 2000).inOrder();
+
+    // The blackout period is over, and the backends keep reporting.
+    fakeClock.forwardTime(9, TimeUnit.SECONDS);
+    report(list.get(0), 300, 0.5);
+    report(list.get(1), 100, 0.5);
+    fakeClock.forwardTime(1, TimeUnit.SECONDS);
+    int[] counts = pickCounts(picker, 4000);
+    assertThat((double) counts[0]).isWithin(40).of(3000);
+    assertThat((double) counts[1]).isWithin(40).of(1000);
+  }
+
+  @Test
+  public void weightsExpire() {
+    ReadyPicker picker = resolveAllReady(CONFIG);
+    List<Subchannel> list = picker.getList();
+    report(list.get(0), 300, 0.5);
+    report(list.get(1), 100, 0.5);
+    fakeClock.forwardTime(11, TimeUnit.SECONDS);
+    assertThat(pickCounts(picker, 4000)[0]).isGreaterThan(2500);
+
+    fakeClock.forwardTime(3, TimeUnit.MINUTES);
+    assertThat(pickCounts(picker, 4000)).asList().containsExactly(2000, 2000).inOrder();
+  }
+
+  @Test
+  public void perCallReports_attachTracerFactory() {
+    ReadyPicker picker = resolveAllReady(CONFIG);
+    PickResult result = picker.pickSubchannel(pickArgs);
+    assertThat(result.getStreamTracerFactory()).isNotNull();
+  }
+
+  @Test
+  public void oobReports_enabledOnExistingSubchannels() {
+    resolveAllReady(CONFIG);
+    assertThat(oobCalls).isEmpty();
+
+    resolve(OOB_CONFIG);
+    verify(helper, atLeastOnce()).updateBalancingState(eq(READY), pickerCaptor.capture());
+    ReadyPicker picker = (ReadyPicker) pickerCaptor.getValue();
+    assertThat(picker.pickSubchannel(pickArgs).getStreamTracerFactory()).isNull();
+    for (Subchannel subchannel : subchannels.values()) {
+      assertThat(oobCalls.get(subchannel)).hasSize(1);
+    }
+
+    // The out-of-band reports reach the weight of the existing subchannel.
+    Subchannel subchannel = picker.getList().get(0);
+    oobReport(subchannel, 300, 0.5);
+    fakeClock.forwardTime(11, TimeUnit.SECONDS);
+    oobReport(subchannel, 300, 0.5);
+    EndpointWeight weight =
+        subchannel.getAttributes().get(WeightedRoundRobinLoadBalancer.ENDPOINT_WEIGHT);
+    assertThat(weight.getWeight(fakeClock.getTicker().read(), OOB_CONFIG)).isEqualTo(600.0);
+  }
+
+  @Test
+  public void oobReports_disabledOnExistingSubchannels() {
+    resolveAllReady(OOB_CONFIG);
+    List<ClientCall<OrcaLoadReportRequest, OrcaLoadReport>> calls = new ArrayList<>();
+    for (Subchannel subchannel : subchannels.values()) {
+      assertThat(oobCalls.get(subchannel)).hasSize(1);
+      calls.addAll(oobCalls.get(subchannel));
+    }
+
+    resolve(CONFIG);
+    for (ClientCall<OrcaLoadReportRequest, OrcaLoadReport> call : calls) {
+      verify(call).cancel(anyString(), isNull());
+    }
+    verify(helper, atLeastOnce()).updateBalancingState(eq(READY), pickerCaptor.capture());
+    ReadyPicker picker = (ReadyPicker) pickerCaptor.getValue();
+    assertThat(picker.pickSubchannel(pickArgs).getStreamTracerFactory()).isNotNull();
+    for (Subchannel subchannel : subchannels.values()) {
+      assertThat(oobCalls.get(subchannel)).hasSize(1);
+    }
+  }
+
+  @Test
+  public void subchannelNotReady_resetsWeight() {
+    ReadyPicker picker = resolveAllReady(CONFIG);
+    Subchannel subchannel = picker.getList().get(0);
+    report(subchannel, 300, 0.5);
+    EndpointWeight weight =
+        subchannel.getAttributes().get(WeightedRoundRobinLoadBalancer.ENDPOINT_WEIGHT);
+    fakeClock.forwardTime(11, TimeUnit.SECONDS);
+    assertThat(weight.getWeight(fakeClock.getTicker().read(), CONFIG)).isEqualTo(600.0);
+
+    subchannelStateListeners.get(subchannels.get(subchannel.getAllAddresses()))
+        .onSubchannelState(ConnectivityStateInfo.forNonError(CONNECTING));
+    assertThat(weight.getWeight(fakeClock.getTicker().read(), CONFIG)).isEqualTo(0.0);
+  }
+
+  @Test
+  public void shutdown_cancelsWeightUpdates() {
+    resolveAllReady(CONFIG);
+    assertThat(fakeClock.getPendingTasks()).hasSize(1);
+
+    loadBalancer.shutdown();
+    assertThat(fakeClock.getPendingTasks()).isEmpty();
+  }
+
+  private ReadyPicker resolveAllReady(WeightedRoundRobinConfig config) {
+    resolve(config);
+    verify(helper).updateBalancingState(eq(CONNECTING), isA(EmptyPicker.class));
+    for (Subchannel subchannel : subchannels.values()) {
+      subchannelStateListeners.get(subchannel)
+          .onSubchannelState(ConnectivityStateInfo.forNonError(READY));
+    }
+    verify(helper, atLeastOnce()).updateBalancingState(eq(READY), pickerCaptor.capture());
+    return (ReadyPicker) pickerCaptor.getValue();
+  }
+
+  private void resolve(final WeightedRoundRobinConfig config) {
+    syncContext.execute(new Runnable() {
+      @Override
+      public void run() {
+        loadBalancer.handleResolvedAddresses(
+            ResolvedAddresses.newBuilder()
+                .setAddresses(servers)
+                .setAttributes(Attributes.EMPTY)
+                .setLoadBalancingPolicyConfig(config)
+                .build());
+      }
+    });
+  }
+
+  private Channel newOobChannel(final Subchannel subchannel) {
+    Channel channel = mock(Channel.class);
+    when(channel.newCall(
+        ArgumentMatchers.<MethodDescriptor<OrcaLoadReportRequest, OrcaLoadReport>>any(),
+        any(CallOptions.class)))
+        .then(new Answer<ClientCall<OrcaLoadReportRequest, OrcaLoadReport>>() {
+          @Override
+          @SuppressWarnings("unchecked")
+          public ClientCall<OrcaLoadReportRequest, OrcaLoadReport> answer(
+              InvocationOnMock invocation) {
+            ClientCall<OrcaLoadReportRequest, OrcaLoadReport> call = mock(ClientCall.class);
+            List<ClientCall<OrcaLoadReportRequest, OrcaLoadReport>> calls =
+                oobCalls.get(subchannel);
+            if (calls == null) {
+              calls = new ArrayList<>();
+              oobCalls.put(subchannel, calls);
+            }
+            calls.add(call);
+            return call;
+          }
+        });
+    return channel;
+  }
+
+  private void oobReport(Subchannel subchannel, long rps, double cpuUtilization) {
+    List<ClientCall<OrcaLoadReportRequest, OrcaLoadReport>> calls =
+        oobCalls.get(subchannels.get(subchannel.getAllAddresses()));
+    verify(calls.get(calls.size() - 1)).start(oobListenerCaptor.capture(), any(Metadata.class));
+    oobListenerCaptor.getValue().onMessage(
+        OrcaLoadReport.newBuilder().setRps(rps).setCpuUtilization(cpuUtilization).build());
+  }
+
+  private static void report(Subchannel subchannel, long rps, double cpuUtilization) {
+    subchannel.getAttributes().get(WeightedRoundRobinLoadBalancer.ENDPOINT_WEIGHT).onLoadReport(
+        OrcaLoadReport.newBuilder().setRps(rps).setCpuUtilization(cpuUtilization).build());
+  }
+
+  private int[] pickCounts(ReadyPicker picker, int picks) {
+    int[] counts = new int[picker.getList().size()];
+    for (int i = 0; i < picks; i++) {
+      counts[picker.getList().indexOf(picker.pickSubchannel(pickArgs).getSubchannel())]++;
+    }
+    return counts;
+  }
+
+  private static int[] pick(StaticStrideScheduler scheduler, int picks, int size) {
+    int[] counts = new int[size];
+    for (int i = 0; i < picks; i++) {
+      counts[scheduler.pick()]++;
+    }
+    return counts;
+  }
+
+  private static final class FakeSocketAddress extends SocketAddress {
+    private final String name;
+
+    FakeSocketAddress(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public int hashCode() {
+      return name.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof FakeSocketAddress)) {
+        return false;
+      }
+      return name.equals(((FakeSocketAddress) other).name);
+    }
+
+    @Override
+    public String toString() {
+      return "FakeSocketAddress-" + name;
+    }
+  }
+}
@@ -35,6 +35,7 @@ import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import io.grpc.Attributes;
 import io.grpc.EquivalentAddressGroup;
@@ -58,6 +59,7 @@ import java.net.SocketAddress;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -383,6 +385,110 @@ public class WeightedTargetLoadBalancerTest {
             new WeightedChildPicker(weights[3], failurePickers[3]));
   }
 
+  @Test
+  public void zoneAware_keepsTrafficLocalWhileLocalZoneHasItsShare() {
+    // Downstream clients are spread like the target weights, so the local zone has half of them.
+    handleZoneAwareConfig(
+        ImmutableSet.of("target0", "target3"), ImmutableMap.<String, Integer>of());
+    SubchannelPicker[] subchannelPickers = new SubchannelPicker[]{
+        mock(SubchannelPicker.class),
+        mock(SubchannelPicker.class),
+        mock(SubchannelPicker.class),
+        mock(SubchannelPicker.class)};
+    ArgumentCaptor<SubchannelPicker> pickerCaptor = ArgumentCaptor.forClass(null);
+
+    childHelpers.get(1).updateBalancingState(READY, subchannelPickers[1]);
+    childHelpers.get(3).updateBalancingState(READY, subchannelPickers[3]);
+    verify(helper, times(2)).updateBalancingState(eq(READY), pickerCaptor.capture());
+    WeightedRandomPicker overallPicker = (WeightedRandomPicker) pickerCaptor.getValue();
+    assertThat(overallPicker.weightedChildPickers)
+        .containsExactly(new WeightedChildPicker(weights[3], subchannelPickers[3]));
+
+    // 50 of 100 READY weight is local, which matches the local share of the clients.
+    childHelpers.get(0).updateBalancingState(READY, subchannelPickers[0]);
+    childHelpers.get(2).updateBalancingState(READY, subchannelPickers[2]);
+    verify(helper, times(4)).updateBalancingState(eq(READY), pickerCaptor.capture());
+    overallPicker = (WeightedRandomPicker) pickerCaptor.getValue();
+    assertThat(overallPicker.weightedChildPickers)
+        .containsExactly(
+            new WeightedChildPicker(weights[0], subchannelPickers[0]),
+            new WeightedChildPicker(weights[3], subchannelPickers[3]));
+
+    // 10 of 60 READY weight is local: 1/3 of the traffic stays local, and the rest goes to
+    // target1 and target2 in proportion to their residual capacity, 20/60 - 20/100 and
+    // 30/60 - 30/100.
+    childHelpers.get(3).updateBalancingState(TRANSIENT_FAILURE, new ErrorPicker(Status.ABORTED));
+    verify(helper, times(5)).updateBalancingState(eq(READY), pickerCaptor.capture());
+    overallPicker = (WeightedRandomPicker) pickerCaptor.getValue();
+    assertThat(overallPicker.weightedChildPickers)
+        .containsExactly(
+            new WeightedChildPicker(3333, subchannelPickers[0]),
+            new WeightedChildPicker(2667, subchannelPickers[1]),
+            new WeightedChildPicker(4000, subchannelPickers[2]));
+
+    // Without any READY local target, the targets' own weights apply.
+    childHelpers.get(0).updateBalancingState(TRANSIENT_FAILURE, new ErrorPicker(Status.ABORTED));
+    verify(helper, times(6)).updateBalancingState(eq(READY), pickerCaptor.capture());
+    overallPicker = (WeightedRandomPicker) pickerCaptor.getValue();
+    assertThat(overallPicker.weightedChildPickers)
+        .containsExactly(
+            new WeightedChildPicker(weights[1], subchannelPickers[1]),
+            new WeightedChildPicker(weights[2], subchannelPickers[2]));
+  }
+
+  @Test
+  public void zoneAware_undersizedLocalZoneSpillsOverByResidualCapacity() {
+    // The local zone has 40% of the clients but only 10% of the READY weight.
+    handleZoneAwareConfig(
+        ImmutableSet.of("target0"),
+        ImmutableMap.of("target0", 40, "target1", 20, "target2", 20, "target3", 20));
+    SubchannelPicker[] subchannelPickers = new SubchannelPicker[]{
+        mock(SubchannelPicker.class),
+        mock(SubchannelPicker.class),
+        mock(SubchannelPicker.class),
+        mock(SubchannelPicker.class)};
+    ArgumentCaptor<SubchannelPicker> pickerCaptor = ArgumentCaptor.forClass(null);
+
+    for (int i = 0; i < 4; i++) {
+      childHelpers.get(i).updateBalancingState(READY, subchannelPickers[i]);
+    }
+    verify(helper, times(4)).updateBalancingState(eq(READY), pickerCaptor.capture());
+    WeightedRandomPicker overallPicker = (WeightedRandomPicker) pickerCaptor.getValue();
+    // 0.1 / 0.4 of the traffic stays local. target1 has no residual capacity (0.2 - 0.2), and the
+    // rest is split 1:2 between target2 (0.3 - 0.2) and target3 (0.4 - 0.2).
+    assertThat(overallPicker.weightedChildPickers)
+        .containsExactly(
+            new WeightedChildPicker(2500, subchannelPickers[0]),
+            new WeightedChildPicker(2500, subchannelPickers[2]),
+            new WeightedChildPicker(5000, subchannelPickers[3]));
+
+    // With target1 down, 0.125 / 0.4 stays local, and the rest is split between target2
+    // (0.375 - 0.2) and target3 (0.5 - 0.2).
+    childHelpers.get(1).updateBalancingState(TRANSIENT_FAILURE, new ErrorPicker(Status.ABORTED));
+    verify(helper, times(5)).updateBalancingState(eq(READY), pickerCaptor.capture());
+    overallPicker = (WeightedRandomPicker) pickerCaptor.getValue();
+    assertThat(overallPicker.weightedChildPickers)
+        .containsExactly(
+            new WeightedChildPicker(3125, subchannelPickers[0]),
+            new WeightedChildPicker(2533, subchannelPickers[2]),
+            new WeightedChildPicker(4342, subchannelPickers[3]));
+  }
+
+  private void handleZoneAwareConfig(
+      Set<String> localTargets, Map<String, Integer> downstreamWeights) {
+    Map<String, WeightedPolicySelection> targets = ImmutableMap.of(
+        "target0", weightedLbConfig0,
+        "target1", weightedLbConfig1,
+        "target2", weightedLbConfig2,
+        "target3", weightedLbConfig3);
+    weightedTargetLb.handleResolvedAddresses(
+        ResolvedAddresses.newBuilder()
+            .setAddresses(ImmutableList.<EquivalentAddressGroup>of())
+            .setLoadBalancingPolicyConfig(
+                new WeightedTargetConfig(targets, localTargets, downstreamWeights))
+            .build());
+  }
+
   @Test
   public void raceBetweenShutdownAndChildLbBalancingStateUpdate() {
     Map<String, WeightedPolicySelection> targets = ImmutableMap.of(
@@ -19,6 +19,7 @@ package io.grpc.xds.internal.rbac.engine;
 import static com.google.common.truth.Truth.assertThat;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableList;
@@ -204,38 +205,46 @@ public class GrpcAuthorizationEngineTest {
     assertThat(decision.decision()).isEqualTo(Action.ALLOW);
     assertThat(decision.matchingPolicyName()).isEqualTo(POLICY_NAME);
 
-    X509Certificate[] certs = {TestUtils.loadX509Cert("badserver.pem")};
-    when(sslSession.getPeerCertificates()).thenReturn(certs);
+    // Principal names are cached per SSL session, so use a new session for each certificate.
+    useSslSession(TestUtils.loadX509Cert("badserver.pem"));
     decision = engine.evaluate(HEADER, serverCall);
     assertThat(decision.decision()).isEqualTo(Action.DENY);
     assertThat(decision.matchingPolicyName()).isEqualTo(null);
 
     X509Certificate mockCert = mock(X509Certificate.class);
-    when(sslSession.getPeerCertificates()).thenReturn(new X509Certificate[]{mockCert});
+    useSslSession(mockCert);
     assertThat(engine.evaluate(HEADER, serverCall).decision()).isEqualTo(Action.DENY);
     when(mockCert.getSubjectDN()).thenReturn(mock(Principal.class));
+    useSslSession(mockCert);
     assertThat(engine.evaluate(HEADER, serverCall).decision()).isEqualTo(Action.DENY);
     when(mockCert.getSubjectAlternativeNames()).thenReturn(Arrays.<List<?>>asList(
         Arrays.asList(2, "*.test.google.fr")));
+    useSslSession(mockCert);
     assertThat(engine.evaluate(HEADER, serverCall).decision()).isEqualTo(Action.ALLOW);
     when(mockCert.getSubjectAlternativeNames()).thenReturn(Arrays.<List<?>>asList(
         Arrays.asList(6, "*.test.google.fr")));
+    useSslSession(mockCert);
     assertThat(engine.evaluate(HEADER, serverCall).decision()).isEqualTo(Action.ALLOW);
     when(mockCert.getSubjectAlternativeNames()).thenReturn(Arrays.<List<?>>asList(
         Arrays.asList(10, "*.test.google.fr")));
+    useSslSession(mockCert);
     assertThat(engine.evaluate(HEADER, serverCall).decision()).isEqualTo(Action.DENY);
     when(mockCert.getSubjectAlternativeNames()).thenReturn(Arrays.<List<?>>asList(
         Arrays.asList(2, "google.com"), Arrays.asList(6, "*.test.google.fr")));
+    useSslSession(mockCert);
     assertThat(engine.evaluate(HEADER, serverCall).decision()).isEqualTo(Action.ALLOW);
     when(mockCert.getSubjectAlternativeNames()).thenReturn(Arrays.<List<?>>asList(
         Arrays.asList(6, "*.test.google.fr"), Arrays.asList(2, "google.com")));
+    useSslSession(mockCert);
     assertThat(engine.evaluate(HEADER, serverCall).decision()).isEqualTo(Action.ALLOW);
     when(mockCert.getSubjectAlternativeNames()).thenReturn(Arrays.<List<?>>asList(
         Arrays.asList(2, "*.test.google.fr"), Arrays.asList(6, "google.com")));
+    useSslSession(mockCert);
     assertThat(engine.evaluate(HEADER, serverCall).decision()).isEqualTo(Action.DENY);
     when(mockCert.getSubjectAlternativeNames()).thenReturn(Arrays.<List<?>>asList(
         Arrays.asList(2, "*.test.google.fr"), Arrays.asList(6, "google.com"),
         Arrays.asList(6, "*.test.google.fr")));
+    useSslSession(mockCert);
     assertThat(engine.evaluate(HEADER, serverCall).decision()).isEqualTo(Action.ALLOW);
 
     // match any authenticated connection if StringMatcher not set in AuthenticatedMatcher
@@ -243,6 +252,7 @@ public class GrpcAuthorizationEngineTest {
     policyMatcher = new PolicyMatcher(POLICY_NAME, permission, principal);
     when(mockCert.getSubjectAlternativeNames()).thenReturn(
             Arrays.<List<?>>asList(Arrays.asList(6, "random")));
+    useSslSession(mockCert);
     engine = new GrpcAuthorizationEngine(new AuthConfig(Collections.singletonList(policyMatcher),
             Action.ALLOW));
     assertThat(engine.evaluate(HEADER, serverCall).decision()).isEqualTo(Action.ALLOW);
@@ -288,6 +298,69 @@ public class GrpcAuthorizationEngineTest {
     assertThat(decision.matchingPolicyName()).isEqualTo(POLICY_NAME);
   }
 
+  @Test
+  public void principalNamesCachedPerConnection() throws Exception {
+    AuthenticatedMatcher authMatcher = new AuthenticatedMatcher(
+        StringMatcher.forExact("*.test.google.fr", false));
+    AuthHeaderMatcher headerMatcher = new AuthHeaderMatcher(Matchers.HeaderMatcher
+        .forExactValue(HEADER_KEY, HEADER_VALUE, false));
+    PolicyMatcher policyMatcher = new PolicyMatcher(POLICY_NAME,
+        OrMatcher.create(headerMatcher), OrMatcher.create(authMatcher));
+    GrpcAuthorizationEngine engine = new GrpcAuthorizationEngine(
+        new AuthConfig(Collections.singletonList(policyMatcher), Action.ALLOW));
+    assertThat(engine.evaluate(HEADER, serverCall).decision()).isEqualTo(Action.ALLOW);
+    assertThat(engine.evaluate(HEADER, serverCall).decision()).isEqualTo(Action.ALLOW);
+    verify(sslSession).getPeerCertificates();
+  }
+
+  @Test
+  public void decisionsMemoizedIfOnlyPathAndPrincipalMatched() throws Exception {
+    AuthenticatedMatcher authMatcher = new AuthenticatedMatcher(
+        StringMatcher.forExact("*.test.google.fr", false));
+    PolicyMatcher policyMatcher = new PolicyMatcher(POLICY_NAME,
+        OrMatcher.create(new PathMatcher(STRING_MATCHER)),
+        OrMatcher.create(authMatcher));
+    GrpcAuthorizationEngine engine = new GrpcAuthorizationEngine(
+        new AuthConfig(Collections.singletonList(policyMatcher), Action.ALLOW));
+    AuthDecision decision = engine.evaluate(HEADER, serverCall);
+    assertThat(decision.decision()).isEqualTo(Action.ALLOW);
+    assertThat(engine.evaluate(new Metadata(), serverCall)).isSameInstanceAs(decision);
+
+    // Not memoized if a policy matches headers.
+    AuthHeaderMatcher headerMatcher = new AuthHeaderMatcher(Matchers.HeaderMatcher
+        .forExactValue(HEADER_KEY, HEADER_VALUE, false));
+    policyMatcher = new PolicyMatcher(POLICY_NAME,
+        OrMatcher.create(headerMatcher), OrMatcher.create(authMatcher));
+    engine = new GrpcAuthorizationEngine(
+        new AuthConfig(Collections.singletonList(policyMatcher), Action.ALLOW));
+    decision = engine.evaluate(HEADER, serverCall);
+    assertThat(decision.decision()).isEqualTo(Action.ALLOW);
+    assertThat(engine.evaluate(new Metadata(), serverCall).decision()).isEqualTo(Action.DENY);
+  }
+
+  @Test
+  public void compileFlattensMatchers() {
+    DestinationPortMatcher portMatcher = new DestinationPortMatcher(PORT);
+    assertThat(GrpcAuthorizationEngine.compile(
+        OrMatcher.create(OrMatcher.create(AndMatcher.create(AlwaysTrueMatcher.INSTANCE,
+            portMatcher)))))
+        .isSameInstanceAs(portMatcher);
+    assertThat(GrpcAuthorizationEngine.compile(
+        AndMatcher.create(OrMatcher.create(portMatcher, AlwaysTrueMatcher.INSTANCE))))
+        .isSameInstanceAs(AlwaysTrueMatcher.INSTANCE);
+  }
+
+  private void useSslSession(X509Certificate... certs) throws Exception {
+    sslSession = mock(SSLSession.class);
+    when(sslSession.getPeerCertificates()).thenReturn(certs);
+    Attributes attributes = Attributes.newBuilder()
+        .set(Grpc.TRANSPORT_ATTR_REMOTE_ADDR, new InetSocketAddress(IP_ADDR2, PORT))
+        .set(Grpc.TRANSPORT_ATTR_LOCAL_ADDR, new InetSocketAddress(IP_ADDR1, PORT))
+        .set(Grpc.TRANSPORT_ATTR_SSL_SESSION, sslSession)
+        .build();
+    when(serverCall.getAttributes()).thenReturn(attributes);
+  }
+
   private MethodDescriptor.Builder<Void, Void> method() {
     return MethodDescriptor.<Void,Void>newBuilder()
             .setType(MethodType.BIDI_STREAMING)
@@ -102,13 +102,113 @@ final class XxHash64 {
   }
 
   long hashBytes(byte[] bytes) {
-    ByteSupplier supplier = new PlainByteSupplier(bytes);
-    return hashBytes(supplier);
+    return hashBytes(bytes, 0, bytes.length);
   }
 
+  /**
+   * Hashes a range of the array. Reads the array directly instead of going through a
+   * {@link ByteSupplier}, so hashing does not allocate.
+   */
   long hashBytes(byte[] bytes, int offset, int len) {
-    ByteSupplier supplier = new PlainByteSupplier(bytes, offset, len);
-    return hashBytes(supplier);
+    checkNotNull(bytes, "bytes");
+    checkArgument(offset >= 0 && offset <= bytes.length, "offset out of range");
+    checkArgument(len >= 0 && offset + len <= bytes.length, "offset + len > src length");
+    int pos = offset;
+    int end = offset + len;
+    long hash;
+    if (len >= 32) {
+      long v1 = seed + P1 + P2;
+      long v2 = seed + P2;
+      long v3 = seed;
+      long v4 = seed - P1;
+
+      do {
+        v1 += getLong(bytes, pos) * P2;
+        v1 = Long.rotateLeft(v1, 31);
+        v1 *= P1;
+
+        v2 += getLong(bytes, pos + 8) * P2;
+        v2 = Long.rotateLeft(v2, 31);
+        v2 *= P1;
+
+        v3 += getLong(bytes, pos + 16) * P2;
+        v3 = Long.rotateLeft(v3, 31);
+        v3 *= P1;
+
+        v4 += getLong(bytes, pos + 24) * P2;
+        v4 = Long.rotateLeft(v4, 31);
+        v4 *= P1;
+        pos += 32;
+      } while (end - pos >= 32);
+
+      hash = Long.rotateLeft(v1, 1)
+          + Long.rotateLeft(v2, 7)
+          + Long.rotateLeft(v3, 12)
+          + Long.rotateLeft(v4, 18);
+
+      v1 *= P2;
+      v1 = Long.rotateLeft(v1, 31);
+      v1 *= P1;
+      hash ^= v1;
+      hash = (hash * P1) + P4;
+
+      v2 *= P2;
+      v2 = Long.rotateLeft(v2, 31);
+      v2 *= P1;
+      hash ^= v2;
+      hash = (hash * P1) + P4;
+
+      v3 *= P2;
+      v3 = Long.rotateLeft(v3, 31);
+      v3 *= P1;
+      hash ^= v3;
+      hash = (hash * P1) + P4;
+
+      v4 *= P2;
+      v4 = Long.rotateLeft(v4, 31);
+      v4 *= P1;
+      hash ^= v4;
+      hash = (hash * P1) + P4;
+    } else {
+      hash = seed + P5;
+    }
+
+    hash += len;
+
+    while (end - pos >= 8) {
+      long k1 = getLong(bytes, pos);
+      pos += 8;
+      k1 *= P2;
+      k1 = Long.rotateLeft(k1, 31);
+      k1 *= P1;
+      hash ^= k1;
+      hash = (Long.rotateLeft(hash, 27) * P1) + P4;
+    }
+
+    if (end - pos >= 4) { //treat as unsigned ints
+      hash ^= (getInt(bytes, pos) & 0xFFFFFFFFL) * P1;
+      pos += 4;
+      hash = (Long.rotateLeft(hash, 23) * P2) + P3;
+    }
+
+    while (pos < end) { //treat as unsigned bytes
+      hash ^= (bytes[pos++] & 0xFF) * P5;
+      hash = Long.rotateLeft(hash, 11) * P1;
+    }
+
+    return finalize(hash);
+  }
+
+  // Little-endian, like ByteSupplier.
+  private static long getLong(byte[] bytes, int pos) {
+    return (getInt(bytes, pos) & 0xFFFFFFFFL) | ((getInt(bytes, pos + 4) & 0xFFFFFFFFL) << 32);
+  }
+
+  private static int getInt(byte[] bytes, int pos) {
+    return (bytes[pos] & 0xFF)
+        | ((bytes[pos + 1] & 0xFF) << 8)
+        | ((bytes[pos + 2] & 0xFF) << 16)
+        | ((bytes[pos + 3] & 0xFF) << 24);
   }
 
   private long hashBytes(ByteSupplier supplier) {
@@ -202,42 +302,6 @@ final class XxHash64 {
     return hash;
   }
 
-  private static class PlainByteSupplier extends ByteSupplier {
-    private final byte[] src;
-    private final int len;
-    private int pos;
-    private int remain;
-
-    private PlainByteSupplier(byte[] src) {
-      this(src, 0, src.length);
-    }
-
-    private PlainByteSupplier(byte[] src, int offset, int len) {
-      this.src = checkNotNull(src, "src");
-      checkArgument(offset <= src.length, "offset > src length");
-      checkArgument(offset + len <= src.length, "offset + len > src length");
-      this.len = len;
-      pos = offset;
-      remain = len;
-    }
-
-    @Override
-    public long bytes() {
-      return len;
-    }
-
-    @Override
-    public long remaining() {
-      return remain;
-    }
-
-    @Override
-    public byte next8() {
-      remain--;
-      return src[pos++];
-    }
-  }
-
   private static class AsciiStringByteSupplier extends ByteSupplier {
     private final String str;
     private final int bytes;